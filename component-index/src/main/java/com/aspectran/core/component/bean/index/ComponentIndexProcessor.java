@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.bean.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor that writes the names of the classes annotated with
+ * {@code @Component} to {@value #COMPONENT_INDEX_LOCATION}, so that scanning
+ * for components at startup reads the index instead of the class files.
+ *
+ * <p>Add this module to the annotation processor path of a project to index
+ * its components. When the project is compiled incrementally, the entries of
+ * the existing index are kept as long as their classes are still components.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+@SupportedAnnotationTypes(ComponentIndexProcessor.COMPONENT_ANNOTATION_NAME)
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    /** The annotation that marks components; referenced by name so that this module has no dependencies */
+    static final String COMPONENT_ANNOTATION_NAME = "com.aspectran.core.component.bean.annotation.Component";
+
+    /** The location of the component index, as read by {@code ComponentClassScanner} */
+    static final String COMPONENT_INDEX_LOCATION = "META-INF/aspectran.components";
+
+    private final Set<String> componentClassNames = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element instanceof TypeElement) {
+                    TypeElement typeElement = (TypeElement)element;
+                    componentClassNames.add(processingEnv.getElementUtils().getBinaryName(typeElement).toString());
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !componentClassNames.isEmpty()) {
+            try {
+                writeIndex();
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Unable to write component index: " + e);
+            }
+        }
+        return false;
+    }
+
+    private void writeIndex() throws IOException {
+        Set<String> classNames = new TreeSet<>(componentClassNames);
+        for (String className : readExistingIndex()) {
+            if (!classNames.contains(className) && isComponent(className)) {
+                classNames.add(className);
+            }
+        }
+        FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT,
+                "", COMPONENT_INDEX_LOCATION);
+        try (OutputStream out = file.openOutputStream();
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            for (String className : classNames) {
+                writer.write(className);
+                writer.write('\n');
+            }
+        }
+    }
+
+    private Set<String> readExistingIndex() {
+        Set<String> classNames = new TreeSet<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT,
+                    "", COMPONENT_INDEX_LOCATION);
+            try (InputStream in = file.openInputStream();
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && line.charAt(0) != '#') {
+                        classNames.add(line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // no index from a previous compilation
+        }
+        return classNames;
+    }
+
+    private boolean isComponent(String className) {
+        TypeElement typeElement = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+        if (typeElement == null) {
+            return false;
+        }
+        for (AnnotationMirror mirror : typeElement.getAnnotationMirrors()) {
+            Element annotationElement = mirror.getAnnotationType().asElement();
+            if (annotationElement instanceof TypeElement &&
+                    ((TypeElement)annotationElement).getQualifiedName().contentEquals(COMPONENT_ANNOTATION_NAME)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
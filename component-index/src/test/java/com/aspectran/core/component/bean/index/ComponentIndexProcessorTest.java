@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.bean.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link ComponentIndexProcessor}.
+ */
+class ComponentIndexProcessorTest {
+
+    @Test
+    void testWriteIndex(@TempDir Path dir) throws IOException {
+        Path out = Files.createDirectories(dir.resolve("classes"));
+        Path first = writeSource(dir, "sample/FirstComponent.java",
+                "package sample;\n" +
+                "@com.aspectran.core.component.bean.annotation.Component\n" +
+                "public class FirstComponent {\n" +
+                "    @com.aspectran.core.component.bean.annotation.Component\n" +
+                "    public static class Nested {}\n" +
+                "}\n");
+        Path plain = writeSource(dir, "sample/Plain.java",
+                "package sample;\n" +
+                "public class Plain {}\n");
+        assertTrue(compile(out, first, plain));
+        assertEquals(Arrays.asList("sample.FirstComponent", "sample.FirstComponent$Nested"), readIndex(out));
+    }
+
+    @Test
+    void testMergeWithExistingIndex(@TempDir Path dir) throws IOException {
+        Path out = Files.createDirectories(dir.resolve("classes"));
+        Path first = writeSource(dir, "sample/FirstComponent.java",
+                "package sample;\n" +
+                "@com.aspectran.core.component.bean.annotation.Component\n" +
+                "public class FirstComponent {}\n");
+        Path second = writeSource(dir, "sample/SecondComponent.java",
+                "package sample;\n" +
+                "@com.aspectran.core.component.bean.annotation.Component\n" +
+                "public class SecondComponent {}\n");
+        assertTrue(compile(out, first, second));
+
+        // recompiling only one source keeps the components of the previous compilation
+        assertTrue(compile(out, second));
+        assertEquals(Arrays.asList("sample.FirstComponent", "sample.SecondComponent"), readIndex(out));
+    }
+
+    @Test
+    void testNoComponents(@TempDir Path dir) throws IOException {
+        Path out = Files.createDirectories(dir.resolve("classes"));
+        Path plain = writeSource(dir, "sample/Plain.java",
+                "package sample;\n" +
+                "public class Plain {}\n");
+        assertTrue(compile(out, plain));
+        assertFalse(Files.exists(out.resolve(ComponentIndexProcessor.COMPONENT_INDEX_LOCATION)));
+    }
+
+    private static Path writeSource(Path dir, String name, String source) throws IOException {
+        Path file = dir.resolve("src").resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static boolean compile(Path out, Path... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(sources);
+            List<String> options = Arrays.asList(
+                    "-d", out.toString(),
+                    "-classpath", out + File.pathSeparator + System.getProperty("java.class.path"));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(Collections.singletonList(new ComponentIndexProcessor()));
+            return task.call();
+        }
+    }
+
+    private static List<String> readIndex(Path out) throws IOException {
+        return Files.readAllLines(out.resolve(ComponentIndexProcessor.COMPONENT_INDEX_LOCATION),
+                StandardCharsets.UTF_8);
+    }
+
+}
@@ -23,9 +23,7 @@ import com.aspectran.core.activity.process.action.Executable;
 import com.aspectran.core.activity.process.result.ActionResult;
 import com.aspectran.core.activity.process.result.ContentResult;
 import com.aspectran.core.activity.process.result.ProcessResult;
-import com.aspectran.core.component.aspect.AspectAdviceRulePostRegister;
 import com.aspectran.core.component.aspect.AspectAdviceRuleRegistry;
-import com.aspectran.core.component.aspect.pointcut.Pointcut;
 import com.aspectran.core.context.ActivityContext;
 import com.aspectran.core.context.expr.TokenEvaluator;
 import com.aspectran.core.context.rule.AspectAdviceRule;
@@ -81,16 +79,7 @@ public abstract class AdviceActivity extends AbstractActivity {
     protected void prepareAspectAdviceRule(TransletRule transletRule, String requestName) {
         AspectAdviceRuleRegistry aarr;
         if (transletRule.hasPathVariables()) {
-            AspectAdviceRulePostRegister postRegister = new AspectAdviceRulePostRegister();
-            for (AspectRule aspectRule : getActivityContext().getAspectRuleRegistry().getAspectRules()) {
-                if (!aspectRule.isBeanRelevant()) {
-                    Pointcut pointcut = aspectRule.getPointcut();
-                    if (pointcut == null || pointcut.matches(requestName)) {
-                        postRegister.register(aspectRule);
-                    }
-                }
-            }
-            aarr = postRegister.getAspectAdviceRuleRegistry();
+            aarr = getActivityContext().getAspectRuleRegistry().getTransletAspectAdviceRuleRegistry(requestName);
         } else {
             aarr = transletRule.replicateAspectAdviceRuleRegistry();
         }
@@ -35,6 +35,8 @@ import com.aspectran.core.context.ActivityContext;
 import com.aspectran.core.context.expr.ItemEvaluation;
 import com.aspectran.core.context.expr.ItemEvaluator;
 import com.aspectran.core.context.expr.token.Token;
+import com.aspectran.core.context.metrics.ActivityMetrics;
+import com.aspectran.core.context.metrics.TransletMetrics;
 import com.aspectran.core.context.rule.ChooseWhenRule;
 import com.aspectran.core.context.rule.ExceptionRule;
 import com.aspectran.core.context.rule.ExceptionThrownRule;
@@ -75,6 +77,12 @@ public class CoreActivity extends AdviceActivity {
 
     private boolean committed;
 
+    /** The metrics to record to; null if metrics are disabled */
+    private TransletMetrics transletMetrics;
+
+    /** The time in nanoseconds at which the activity was prepared */
+    private long startTime;
+
     /**
      * Instantiates a new CoreActivity.
      * @param context the activity context
@@ -161,6 +169,7 @@ public class CoreActivity extends AdviceActivity {
     private void prepare(String requestName, MethodType requestMethod, TransletRule transletRule)
             throws ActivityPrepareException {
         Translet parentTranslet = translet;
+        long prepareTime = (parentTranslet == null ? startMetrics(transletRule) : nanoTimeIfMetered());
         try {
             if (logger.isDebugEnabled()) {
                 logger.debug("Translet " + transletRule);
@@ -179,6 +188,10 @@ public class CoreActivity extends AdviceActivity {
             }
 
             prepareAspectAdviceRule(transletRule, requestName);
+
+            if (transletMetrics != null) {
+                transletMetrics.recordPrepare(System.nanoTime() - prepareTime);
+            }
         } catch (Exception e) {
             throw new ActivityPrepareException("Failed to prepare activity for translet " + transletRule, e);
         }
@@ -227,15 +240,25 @@ public class CoreActivity extends AdviceActivity {
             }
 
             try {
+                long adviceTime = nanoTimeIfMetered();
                 setCurrentAspectAdviceType(AspectAdviceType.BEFORE);
                 executeAdvice(getBeforeAdviceRuleList(), true);
+                recordAdvice(adviceTime);
 
                 if (translet != null) {
                     if (!isResponseReserved()) {
+                        long actionTime = nanoTimeIfMetered();
                         produce();
+                        if (transletMetrics != null) {
+                            transletMetrics.recordAction(System.nanoTime() - actionTime);
+                        }
                     }
 
+                    long responseTime = nanoTimeIfMetered();
                     forwardRule = response();
+                    if (transletMetrics != null) {
+                        transletMetrics.recordResponse(System.nanoTime() - responseTime);
+                    }
                     if (forwardRule != null) {
                         return forward(forwardRule, instantAction);
                     }
@@ -245,18 +268,25 @@ public class CoreActivity extends AdviceActivity {
                     result = instantAction.execute();
                 }
 
+                adviceTime = nanoTimeIfMetered();
                 setCurrentAspectAdviceType(AspectAdviceType.AFTER);
                 executeAdvice(getAfterAdviceRuleList(), true);
+                recordAdvice(adviceTime);
             } catch (Exception e) {
                 setRaisedException(e);
             } finally {
                 if (forwardRule == null) {
+                    long adviceTime = nanoTimeIfMetered();
                     setCurrentAspectAdviceType(AspectAdviceType.FINALLY);
                     executeAdvice(getFinallyAdviceRuleList(), false);
+                    recordAdvice(adviceTime);
                 }
             }
 
             if (isExceptionRaised()) {
+                if (transletMetrics != null) {
+                    transletMetrics.recordException();
+                }
                 setCurrentAspectAdviceType(AspectAdviceType.THROWN);
                 exception();
                 if (translet != null) {
@@ -271,6 +301,9 @@ public class CoreActivity extends AdviceActivity {
         } catch (ActivityTerminatedException e) {
             throw e;
         } catch (Throwable e) {
+            if (transletMetrics != null && !isExceptionRaised()) {
+                transletMetrics.recordException();
+            }
             throw new ActivityPerformException("Failed to perform the activity", e);
         } finally {
             if (forwardRule == null) {
@@ -375,6 +408,10 @@ public class CoreActivity extends AdviceActivity {
             if (getResponseAdapter() != null) {
                 getResponseAdapter().flush();
             }
+
+            if (transletMetrics != null) {
+                recordFinish();
+            }
         } catch (Exception e) {
             logger.error("An error was detected while finishing an activity", e);
         } finally {
@@ -382,6 +419,63 @@ public class CoreActivity extends AdviceActivity {
         }
     }
 
+    /**
+     * Returns the number of bytes of the request body, for the metrics
+     * of the activity.
+     * @return the number of bytes received, or -1 if unknown
+     * @since 7.0.5
+     */
+    protected long getBytesReceived() {
+        return -1L;
+    }
+
+    /**
+     * Returns the number of bytes of the response body, for the metrics
+     * of the activity. It is called after the response has been flushed.
+     * @return the number of bytes sent, or -1 if unknown
+     * @since 7.0.5
+     */
+    protected long getBytesSent() {
+        return -1L;
+    }
+
+    /**
+     * Looks up the metrics of the translet if metrics are enabled,
+     * and returns the time the activity starts.
+     */
+    private long startMetrics(TransletRule transletRule) {
+        ActivityMetrics activityMetrics = getActivityContext().getActivityMetrics();
+        if (activityMetrics.isEnabled() && transletRule.getName() != null) {
+            transletMetrics = activityMetrics.getTransletMetrics(transletRule.getName());
+            startTime = System.nanoTime();
+        } else {
+            transletMetrics = null;
+        }
+        return startTime;
+    }
+
+    private long nanoTimeIfMetered() {
+        return (transletMetrics != null ? System.nanoTime() : 0L);
+    }
+
+    private void recordAdvice(long adviceTime) {
+        if (transletMetrics != null) {
+            transletMetrics.recordAdvice(System.nanoTime() - adviceTime);
+        }
+    }
+
+    private void recordFinish() {
+        transletMetrics.recordTotal(System.nanoTime() - startTime);
+        long bytesReceived = getBytesReceived();
+        if (bytesReceived > 0L) {
+            transletMetrics.addBytesIn(bytesReceived);
+        }
+        long bytesSent = getBytesSent();
+        if (bytesSent > 0L) {
+            transletMetrics.addBytesOut(bytesSent);
+        }
+    }
+
     protected void execute(ActionList actionList) throws ActionExecutionException {
         execute(actionList, null);
     }
@@ -432,7 +526,11 @@ public class CoreActivity extends AdviceActivity {
                     }
                 }
             } else {
+                long actionTime = nanoTimeIfMetered();
                 Object resultValue = action.execute(this);
+                if (transletMetrics != null) {
+                    transletMetrics.recordAction(action, System.nanoTime() - actionTime);
+                }
                 if (!action.isHidden() && contentResult != null && resultValue != ActionResult.NO_RESULT) {
                     if (resultValue instanceof ProcessResult) {
                         contentResult.addActionResult(action, (ProcessResult)resultValue);
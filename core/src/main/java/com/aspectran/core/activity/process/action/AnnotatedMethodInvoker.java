@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.activity.process.action;
+
+import com.aspectran.core.activity.Activity;
+import com.aspectran.core.activity.Translet;
+import com.aspectran.core.context.rule.ParameterBindingRule;
+import com.aspectran.core.util.MethodUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Invokes an action method with arguments bound from the request.
+ * The binders of the method parameters and a method handle that invokes
+ * the method are created once, so that each invocation only reads the
+ * request parameters, converts them and calls the method.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+final class AnnotatedMethodInvoker {
+
+    private final Method method;
+
+    private final MethodHandle invoker;
+
+    private final ParameterBindingRule[] parameterBindingRules;
+
+    private final ParameterBinder[] parameterBinders;
+
+    AnnotatedMethodInvoker(Method method, ParameterBindingRule[] parameterBindingRules) {
+        this.method = method;
+        this.invoker = createInvoker(method);
+        this.parameterBindingRules = parameterBindingRules;
+        if (parameterBindingRules != null) {
+            this.parameterBinders = new ParameterBinder[parameterBindingRules.length];
+            for (int i = 0; i < parameterBindingRules.length; i++) {
+                this.parameterBinders[i] = new ParameterBinder(parameterBindingRules[i]);
+            }
+        } else {
+            this.parameterBinders = null;
+        }
+    }
+
+    ParameterBindingRule[] getParameterBindingRules() {
+        return parameterBindingRules;
+    }
+
+    Object invoke(Activity activity, Object bean) throws Exception {
+        if (parameterBinders == null) {
+            return invoke(method, invoker, bean, MethodUtils.EMPTY_OBJECT_ARRAY);
+        }
+        ParameterBinder parameterBinder = null;
+        try {
+            Translet translet = activity.getTranslet();
+            Object[] args = new Object[parameterBinders.length];
+            for (int i = 0; i < parameterBinders.length; i++) {
+                parameterBinder = parameterBinders[i];
+                args[i] = parameterBinder.bind(translet);
+            }
+            parameterBinder = null;
+            return invoke(method, invoker, bean, args);
+        } catch (Exception e) {
+            if (parameterBinder != null) {
+                throw new ParameterBindingException(parameterBinder.getParameterBindingRule(), e);
+            } else {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Invokes a method through the given method handle, or through
+     * reflection if there is none. As with reflection, an exception thrown
+     * by the method is rethrown as is, and an error is wrapped in an
+     * {@code InvocationTargetException}.
+     */
+    static Object invoke(Method method, MethodHandle invoker, Object target, Object[] args) throws Exception {
+        try {
+            if (invoker != null) {
+                return (Object)invoker.invokeExact(target, args);
+            } else {
+                return method.invoke(target, args);
+            }
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception)e.getCause();
+            } else {
+                throw e;
+            }
+        } catch (Exception e) {
+            throw e;
+        } catch (Error e) {
+            if (invoker != null) {
+                throw new InvocationTargetException(e);
+            } else {
+                throw e;
+            }
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    /**
+     * Creates a method handle of type {@code (Object, Object[])Object} that
+     * invokes the given method; the first argument is ignored if the method
+     * is static. Returns {@code null} if the method is not accessible,
+     * in which case it is invoked through reflection.
+     */
+    static MethodHandle createInvoker(Method method) {
+        try {
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                method.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(method);
+            }
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            int paramCount = method.getParameterCount();
+            return handle.asFixedArity()
+                    .asType(MethodType.genericMethodType(paramCount + 1))
+                    .asSpreader(Object[].class, paramCount);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.activity.process.action;
+
+import com.aspectran.core.activity.Translet;
+import com.aspectran.core.activity.process.action.ValueConverters.ArrayConverter;
+import com.aspectran.core.activity.process.action.ValueConverters.ValueConverter;
+import com.aspectran.core.component.bean.annotation.Format;
+import com.aspectran.core.component.bean.annotation.Qualifier;
+import com.aspectran.core.component.bean.annotation.Required;
+import com.aspectran.core.util.BeanDescriptor;
+import com.aspectran.core.util.ClassUtils;
+import com.aspectran.core.util.ExceptionUtils;
+import com.aspectran.core.util.StringUtils;
+import com.aspectran.core.util.logging.Logger;
+import com.aspectran.core.util.logging.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds request parameters to the writable properties of a model object
+ * that is passed to an action method. The constructor, the setters and the
+ * value converters of the model class are resolved once, when the action
+ * is compiled.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+final class ModelBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelBinder.class);
+
+    private final Class<?> modelType;
+
+    private final Constructor<?> constructor;
+
+    private final PropertyBinder[] propertyBinders;
+
+    ModelBinder(Class<?> modelType) {
+        this.modelType = modelType;
+        this.constructor = findConstructor(modelType);
+        this.propertyBinders = createPropertyBinders(modelType);
+    }
+
+    Object bind(Translet translet) {
+        Object model = newInstance();
+        List<String> missingProperties = null;
+        for (PropertyBinder propertyBinder : propertyBinders) {
+            try {
+                Object val = propertyBinder.resolve(translet);
+                if (val != null) {
+                    propertyBinder.set(model, val);
+                } else if (propertyBinder.required) {
+                    if (missingProperties == null) {
+                        missingProperties = new ArrayList<>();
+                    }
+                    missingProperties.add(propertyBinder.name);
+                }
+            } catch (Exception e) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(e);
+                }
+            }
+        }
+        if (missingProperties != null) {
+            String properties = StringUtils.joinCommaDelimitedList(missingProperties);
+            throw new IllegalArgumentException("Missing required properties [" + properties + "] for " + modelType);
+        }
+        return model;
+    }
+
+    private Object newInstance() {
+        if (constructor == null) {
+            // throws the reason why the model cannot be instantiated
+            return ClassUtils.createInstance(modelType);
+        }
+        try {
+            return constructor.newInstance();
+        } catch (Exception e) {
+            throw ExceptionUtils.unwrapAndThrowAsIAE(e, "Unable to instantiate class " +
+                    modelType.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private static Constructor<?> findConstructor(Class<?> modelType) {
+        try {
+            return ClassUtils.findConstructor(modelType);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static PropertyBinder[] createPropertyBinders(Class<?> modelType) {
+        BeanDescriptor bd = BeanDescriptor.getInstance(modelType);
+        List<PropertyBinder> list = new ArrayList<>();
+        for (String name : bd.getWritablePropertyNames()) {
+            try {
+                Method method = bd.getSetter(name);
+                Class<?> type = bd.getSetterType(name);
+                Qualifier qualifierAnno = bd.getSetterAnnotation(method, Qualifier.class);
+                String paramName = (qualifierAnno != null ? qualifierAnno.value() : name);
+                Format formatAnno = bd.getSetterAnnotation(method, Format.class);
+                String format = (formatAnno != null ? formatAnno.value() : null);
+                boolean required = method.isAnnotationPresent(Required.class);
+                list.add(new PropertyBinder(name, paramName, type, format, required, method));
+            } catch (Exception e) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(e);
+                }
+            }
+        }
+        return list.toArray(new PropertyBinder[0]);
+    }
+
+    private static class PropertyBinder {
+
+        private final String name;
+
+        private final String paramName;
+
+        private final ValueConverter valueConverter;
+
+        private final ArrayConverter arrayConverter;
+
+        private final boolean required;
+
+        private final Method setter;
+
+        private final MethodHandle setterHandle;
+
+        PropertyBinder(String name, String paramName, Class<?> type, String format,
+                       boolean required, Method setter) {
+            this.name = name;
+            this.paramName = paramName;
+            if (type.isArray()) {
+                this.valueConverter = null;
+                this.arrayConverter = ValueConverters.forArray(type.getComponentType(), format);
+            } else {
+                this.valueConverter = ValueConverters.forValue(type, format);
+                this.arrayConverter = null;
+            }
+            this.required = required;
+            this.setter = setter;
+            this.setterHandle = AnnotatedMethodInvoker.createInvoker(setter);
+        }
+
+        Object resolve(Translet translet) throws Exception {
+            if (valueConverter != null) {
+                return valueConverter.convert(translet.getParameter(paramName));
+            } else if (arrayConverter != null) {
+                return arrayConverter.convert(translet.getParameterValues(paramName));
+            } else {
+                // nested models are not bound
+                return null;
+            }
+        }
+
+        void set(Object model, Object value) throws Exception {
+            AnnotatedMethodInvoker.invoke(setter, setterHandle, model, new Object[] { value });
+        }
+
+    }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.activity.process.action;
+
+import com.aspectran.core.activity.Translet;
+import com.aspectran.core.activity.process.action.ValueConverters.ArrayConverter;
+import com.aspectran.core.activity.process.action.ValueConverters.ValueConverter;
+import com.aspectran.core.activity.request.ParameterMap;
+import com.aspectran.core.component.bean.NoUniqueBeanException;
+import com.aspectran.core.component.bean.annotation.Component;
+import com.aspectran.core.context.rule.ParameterBindingRule;
+import com.aspectran.core.util.ClassUtils;
+import com.aspectran.core.util.apon.Parameters;
+import com.aspectran.core.util.logging.Logger;
+import com.aspectran.core.util.logging.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binds a request parameter, or the translet itself, to a parameter of an
+ * action method. How the argument is obtained is decided once from the
+ * parameter type, so binding it on each request does not branch on the type.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+final class ParameterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParameterBinder.class);
+
+    private final ParameterBindingRule parameterBindingRule;
+
+    private final ArgumentResolver resolver;
+
+    private final Object zeroValue;
+
+    ParameterBinder(ParameterBindingRule parameterBindingRule) {
+        this.parameterBindingRule = parameterBindingRule;
+        this.resolver = createResolver(parameterBindingRule.getType(),
+                parameterBindingRule.getName(), parameterBindingRule.getFormat());
+        this.zeroValue = ValueConverters.zeroValueOf(parameterBindingRule.getType());
+    }
+
+    ParameterBindingRule getParameterBindingRule() {
+        return parameterBindingRule;
+    }
+
+    Object bind(Translet translet) throws Exception {
+        Object arg = null;
+        Exception thrown = null;
+        try {
+            if (translet != null) {
+                arg = resolver.resolve(translet);
+            }
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (MethodArgumentTypeMismatchException e) {
+            thrown = e;
+            if (e.getCause() instanceof NumberFormatException) {
+                arg = zeroValue;
+            }
+        } catch (Exception e) {
+            thrown = e;
+        }
+        if (parameterBindingRule.isRequired() && (arg == null || thrown != null)) {
+            String name = parameterBindingRule.getName();
+            if (thrown != null) {
+                throw new IllegalArgumentException("Missing required parameter '" + name + "'; Cause: " +
+                        thrown.getMessage(), thrown);
+            } else {
+                throw new IllegalArgumentException("Missing required parameter '" + name + "'");
+            }
+        }
+        if (thrown != null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Failed to bind argument " + parameterBindingRule + "; Cause: " +
+                        thrown.getMessage(), thrown);
+            }
+        }
+        return arg;
+    }
+
+    private static ArgumentResolver createResolver(Class<?> type, String name, String format) {
+        if (type == Translet.class) {
+            return translet -> translet;
+        } else if (type.isArray()) {
+            Class<?> componentType = type.getComponentType();
+            if (componentType == Translet.class) {
+                return translet -> new Translet[] { translet };
+            }
+            ArrayConverter converter = ValueConverters.forArray(componentType, format);
+            if (converter == null) {
+                return translet -> null;
+            }
+            return translet -> {
+                String[] values = translet.getParameterValues(name);
+                try {
+                    return converter.convert(values);
+                } catch (Exception e) {
+                    throw new MethodArgumentTypeMismatchException(String[].class, componentType, e);
+                }
+            };
+        } else if (type == ParameterMap.class) {
+            return translet -> {
+                ParameterMap parameterMap = new ParameterMap();
+                for (String paramName : translet.getParameterNames()) {
+                    parameterMap.setParameterValues(paramName, translet.getParameterValues(paramName));
+                }
+                return parameterMap;
+            };
+        } else if (Map.class.isAssignableFrom(type)) {
+            if (!type.isInterface()) {
+                return translet -> {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> map = (Map<String, Object>)ClassUtils.createInstance(type);
+                    map.putAll(translet.getAllParameters());
+                    return map;
+                };
+            } else {
+                return translet -> new HashMap<>(translet.getAllParameters());
+            }
+        } else if (Collection.class.isAssignableFrom(type)) {
+            if (!type.isInterface()) {
+                return translet -> {
+                    String[] values = translet.getParameterValues(name);
+                    @SuppressWarnings("unchecked")
+                    Collection<String> collection = (Collection<String>)ClassUtils.createInstance(type);
+                    if (values != null) {
+                        collection.addAll(Arrays.asList(values));
+                    }
+                    return collection;
+                };
+            } else {
+                return translet -> {
+                    String[] values = translet.getParameterValues(name);
+                    if (values != null) {
+                        return new ArrayList<>(Arrays.asList(values));
+                    } else {
+                        return new ArrayList<>();
+                    }
+                };
+            }
+        } else if (Parameters.class.isAssignableFrom(type)) {
+            if (type.isInterface()) {
+                return translet -> {
+                    Parameters parameters = translet.getRequestAdapter().getBodyAsParameters();
+                    if (parameters == null) {
+                        parameters = translet.getRequestAdapter().getParameters();
+                    }
+                    return parameters;
+                };
+            } else {
+                @SuppressWarnings("unchecked")
+                Class<? extends Parameters> requiredType = (Class<? extends Parameters>)type;
+                return translet -> {
+                    Parameters parameters = translet.getRequestAdapter().getBodyAsParameters(requiredType);
+                    if (parameters == null) {
+                        parameters = translet.getRequestAdapter().getParameters(requiredType);
+                    }
+                    return parameters;
+                };
+            }
+        }
+        ValueConverter converter = ValueConverters.forValue(type, format);
+        if (converter != null) {
+            return translet -> {
+                String value = translet.getParameter(name);
+                try {
+                    return converter.convert(value);
+                } catch (Exception e) {
+                    throw new MethodArgumentTypeMismatchException(String.class, type, e);
+                }
+            };
+        } else if (type.isAnnotationPresent(Component.class)) {
+            return translet -> {
+                try {
+                    return translet.getBean(type);
+                } catch (NoUniqueBeanException e) {
+                    return translet.getBean(type, name);
+                }
+            };
+        } else {
+            ModelBinder modelBinder;
+            try {
+                modelBinder = new ModelBinder(type);
+            } catch (RuntimeException e) {
+                // fail when binding, as if the model had been introspected then
+                return translet -> {
+                    throw e;
+                };
+            }
+            return modelBinder::bind;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ArgumentResolver {
+
+        Object resolve(Translet translet) throws Exception;
+
+    }
+
+}
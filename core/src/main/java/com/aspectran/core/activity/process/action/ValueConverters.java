@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.activity.process.action;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * Resolves, once per parameter type, the conversion of request parameter
+ * values to the type of an action method parameter.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+final class ValueConverters {
+
+    private ValueConverters() {
+    }
+
+    /**
+     * Returns a converter of a single value to the given type.
+     * @param type the required type
+     * @param format the date format, or {@code null} if not specified
+     * @return the converter, or {@code null} if the type is not a value type
+     */
+    static ValueConverter forValue(Class<?> type, String format) {
+        if (type == String.class) {
+            return value -> value;
+        } else if (type == char.class) {
+            return value -> (value != null && !value.isEmpty() ? value.charAt(0) : Character.MIN_VALUE);
+        } else if (type == Character.class) {
+            return value -> (value != null && !value.isEmpty() ? value.charAt(0) : null);
+        } else if (type == Date.class) {
+            DateParser parser = dateParser(format);
+            return value -> (value != null ? parser.parse(value) : null);
+        } else if (type == LocalDate.class) {
+            DateTimeFormatter formatter = dateTimeFormatter(format);
+            return value -> (value != null ? LocalDate.parse(value, checked(formatter, format)) : null);
+        } else if (type == LocalDateTime.class) {
+            DateTimeFormatter formatter = dateTimeFormatter(format);
+            return value -> (value != null ? LocalDateTime.parse(value, checked(formatter, format)) : null);
+        } else if (type == boolean.class) {
+            return Boolean::valueOf;
+        } else if (type == Boolean.class) {
+            return value -> (value != null ? Boolean.valueOf(value) : null);
+        } else if (type == byte.class) {
+            return value -> (value != null ? Byte.valueOf(value) : (byte)0);
+        } else if (type == Byte.class) {
+            return value -> (value != null ? Byte.valueOf(value) : null);
+        } else if (type == short.class) {
+            return value -> (value != null ? Short.valueOf(value) : (short)0);
+        } else if (type == Short.class) {
+            return value -> (value != null ? Short.valueOf(value) : null);
+        } else if (type == int.class) {
+            return value -> (value != null ? Integer.valueOf(value) : 0);
+        } else if (type == Integer.class) {
+            return value -> (value != null ? Integer.valueOf(value) : null);
+        } else if (type == long.class) {
+            return value -> (value != null ? Long.valueOf(value) : 0L);
+        } else if (type == Long.class) {
+            return value -> (value != null ? Long.valueOf(value) : null);
+        } else if (type == float.class) {
+            return value -> (value != null ? Float.valueOf(value) : 0f);
+        } else if (type == Float.class) {
+            return value -> (value != null ? Float.valueOf(value) : null);
+        } else if (type == double.class) {
+            return value -> (value != null ? Double.valueOf(value) : 0d);
+        } else if (type == Double.class) {
+            return value -> (value != null ? Double.valueOf(value) : null);
+        } else if (type == BigInteger.class) {
+            return value -> (value != null ? new BigInteger(value) : null);
+        } else if (type == BigDecimal.class) {
+            return value -> (value != null ? new BigDecimal(value) : null);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a converter of multiple values to an array of the given type.
+     * @param type the component type of the required array
+     * @param format the date format, or {@code null} if not specified
+     * @return the converter, or {@code null} if the type is not a value type
+     */
+    static ArrayConverter forArray(Class<?> type, String format) {
+        if (type == String.class) {
+            return values -> values;
+        } else if (type == char.class) {
+            return values -> {
+                if (values == null) {
+                    return new char[0];
+                }
+                char[] arr = new char[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = (!values[i].isEmpty() ? values[i].charAt(0) : Character.MIN_VALUE);
+                }
+                return arr;
+            };
+        } else if (type == Character.class) {
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                Character[] arr = new Character[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = (!values[i].isEmpty() ? values[i].charAt(0) : null);
+                }
+                return arr;
+            };
+        } else if (type == Date.class) {
+            DateParser parser = dateParser(format);
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                Date[] arr = new Date[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = parser.parse(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == LocalDate.class) {
+            DateTimeFormatter formatter = dateTimeFormatter(format);
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                LocalDate[] arr = new LocalDate[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = LocalDate.parse(values[i], checked(formatter, format));
+                }
+                return arr;
+            };
+        } else if (type == LocalDateTime.class) {
+            DateTimeFormatter formatter = dateTimeFormatter(format);
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                LocalDateTime[] arr = new LocalDateTime[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = LocalDateTime.parse(values[i], checked(formatter, format));
+                }
+                return arr;
+            };
+        } else if (type == boolean.class) {
+            return values -> {
+                if (values == null) {
+                    return new boolean[0];
+                }
+                boolean[] arr = new boolean[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Boolean.parseBoolean(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == Boolean.class) {
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                Boolean[] arr = new Boolean[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Boolean.valueOf(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == byte.class) {
+            return values -> {
+                if (values == null) {
+                    return new byte[0];
+                }
+                byte[] arr = new byte[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Byte.parseByte(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == Byte.class) {
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                Byte[] arr = new Byte[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Byte.valueOf(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == short.class) {
+            return values -> {
+                if (values == null) {
+                    return new short[0];
+                }
+                short[] arr = new short[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Short.parseShort(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == Short.class) {
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                Short[] arr = new Short[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Short.valueOf(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == int.class) {
+            return values -> {
+                if (values == null) {
+                    return new int[0];
+                }
+                int[] arr = new int[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Integer.parseInt(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == Integer.class) {
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                Integer[] arr = new Integer[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Integer.valueOf(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == long.class) {
+            return values -> {
+                if (values == null) {
+                    return new long[0];
+                }
+                long[] arr = new long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Long.parseLong(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == Long.class) {
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                Long[] arr = new Long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Long.valueOf(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == float.class) {
+            return values -> {
+                if (values == null) {
+                    return new float[0];
+                }
+                float[] arr = new float[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Float.parseFloat(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == Float.class) {
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                Float[] arr = new Float[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Float.valueOf(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == double.class) {
+            return values -> {
+                if (values == null) {
+                    return new double[0];
+                }
+                double[] arr = new double[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Double.parseDouble(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == Double.class) {
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                Double[] arr = new Double[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = Double.valueOf(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == BigInteger.class) {
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                BigInteger[] arr = new BigInteger[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = new BigInteger(values[i]);
+                }
+                return arr;
+            };
+        } else if (type == BigDecimal.class) {
+            return values -> {
+                if (values == null) {
+                    return null;
+                }
+                BigDecimal[] arr = new BigDecimal[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    arr[i] = new BigDecimal(values[i]);
+                }
+                return arr;
+            };
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the value of a primitive type that is bound in place of
+     * a number that could not be parsed.
+     * @param type the required type
+     * @return the zero value of the type, or {@code null} if the type
+     *      is not a primitive number type
+     */
+    static Object zeroValueOf(Class<?> type) {
+        if (type == byte.class) {
+            return (byte)0;
+        } else if (type == short.class) {
+            return (short)0;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == double.class) {
+            return 0d;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * SimpleDateFormat is not thread-safe, so each parse works on a clone
+     * of a format whose pattern has already been compiled.
+     * An invalid or missing pattern fails when a value is parsed,
+     * not when the action is compiled.
+     */
+    private static DateParser dateParser(String format) {
+        SimpleDateFormat prototype;
+        try {
+            prototype = new SimpleDateFormat(format);
+        } catch (RuntimeException e) {
+            return value -> {
+                throw e;
+            };
+        }
+        return value -> ((SimpleDateFormat)prototype.clone()).parse(value);
+    }
+
+    private static DateTimeFormatter dateTimeFormatter(String format) {
+        try {
+            return DateTimeFormatter.ofPattern(format);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the compiled formatter, or throws the exception that
+     * compiling the pattern failed with.
+     */
+    private static DateTimeFormatter checked(DateTimeFormatter formatter, String format) {
+        return (formatter != null ? formatter : DateTimeFormatter.ofPattern(format));
+    }
+
+    @FunctionalInterface
+    interface ValueConverter {
+
+        Object convert(String value) throws Exception;
+
+    }
+
+    @FunctionalInterface
+    interface ArrayConverter {
+
+        Object convert(String[] values) throws Exception;
+
+    }
+
+    @FunctionalInterface
+    private interface DateParser {
+
+        Date parse(String value) throws Exception;
+
+    }
+
+}
@@ -17,8 +17,11 @@ package com.aspectran.core.activity.request;
 
 import com.aspectran.core.util.ClassUtils;
 import com.aspectran.core.util.StringUtils;
+import com.aspectran.core.util.apon.AponReader;
 import com.aspectran.core.util.apon.Parameters;
 
+import java.io.Reader;
+
 /**
  * Provides convenient methods to parse the request body.
  *
@@ -44,4 +47,26 @@ public class RequestBodyParser {
         }
     }
 
+    /**
+     * Parses the request body of APON format read from the given
+     * character stream, without reading it into a string first.
+     * @param <T> the type of the parameters
+     * @param reader the character stream of the request body
+     * @param requiredType the type of the parameters to be returned
+     * @return the parameters
+     * @throws RequestParseException if the request body could not be parsed
+     * @since 7.0.5
+     */
+    public static <T extends Parameters> T parseBodyAsParameters(Reader reader, Class<T> requiredType)
+            throws RequestParseException {
+        try {
+            T parameters = ClassUtils.createInstance(requiredType);
+            AponReader.parse(reader, parameters);
+            return parameters;
+        } catch (Exception e) {
+            throw new RequestParseException("Failed to parse request body of APON format to required type [" +
+                requiredType.getName() + "]", e);
+        }
+    }
+
 }
@@ -22,6 +22,7 @@ import com.aspectran.core.activity.response.Response;
 import com.aspectran.core.activity.response.transform.json.ContentsJsonWriter;
 import com.aspectran.core.adapter.ResponseAdapter;
 import com.aspectran.core.context.rule.TransformRule;
+import com.aspectran.core.util.BufferedCharWriter;
 
 import java.io.IOException;
 import java.io.Writer;
@@ -93,8 +94,10 @@ public class JsonTransformResponse extends TransformResponse {
         return new JsonTransformResponse(getTransformRule().replicate());
     }
 
-    private void transform(ProcessResult processResult, String callback, Writer writer, FormattingContext formattingContext)
+    private void transform(ProcessResult processResult, String callback, Writer out, FormattingContext formattingContext)
             throws IOException {
+        // the JSON writer emits many small tokens; pass them to the response in chunks
+        BufferedCharWriter writer = new BufferedCharWriter(out);
         if (callback != null) {
             writer.write(callback + ROUND_BRACKET_OPEN);
         }
@@ -126,6 +129,7 @@ public class JsonTransformResponse extends TransformResponse {
         if (callback != null) {
             writer.write(ROUND_BRACKET_CLOSE);
         }
+        writer.flushBuffer();
     }
 
 }
@@ -19,18 +19,11 @@ import com.aspectran.core.activity.Activity;
 import com.aspectran.core.activity.FormattingContext;
 import com.aspectran.core.activity.process.result.ProcessResult;
 import com.aspectran.core.activity.response.Response;
-import com.aspectran.core.activity.response.transform.xml.ContentsInputSource;
-import com.aspectran.core.activity.response.transform.xml.ContentsXMLReader;
+import com.aspectran.core.activity.response.transform.xml.ContentsXmlWriter;
 import com.aspectran.core.adapter.ResponseAdapter;
 import com.aspectran.core.context.rule.TransformRule;
 
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.sax.SAXSource;
-import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
 import java.io.Writer;
 
 /**
@@ -40,14 +33,6 @@ import java.io.Writer;
  */
 public class XmlTransformResponse extends TransformResponse {
 
-    private static final String OUTPUT_METHOD_XML = "xml";
-
-    private static final String INDENT_NUMBER_KEY = "indent-number";
-
-    private static final Integer DEFAULT_INDENT_SIZE = 2;
-
-    private static final String YES = "yes";
-
     private final String contentType;
 
     private final String encoding;
@@ -104,43 +89,22 @@ public class XmlTransformResponse extends TransformResponse {
     }
 
     public static void transform(Object object, Writer writer, String encoding, FormattingContext formattingContext)
-            throws TransformerException {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
+            throws IOException {
+        ContentsXmlWriter xmlWriter = new ContentsXmlWriter(writer);
+        xmlWriter.encoding(encoding);
         if (formattingContext != null) {
-            if (formattingContext.isPretty()) {
-                if (formattingContext.getIndentSize() > 0) {
-                    transformerFactory.setAttribute(INDENT_NUMBER_KEY, formattingContext.getIndentSize());
-                } else {
-                    transformerFactory.setAttribute(INDENT_NUMBER_KEY, DEFAULT_INDENT_SIZE);
-                }
+            xmlWriter.prettyPrint(formattingContext.isPretty());
+            if (formattingContext.getIndentSize() > 0) {
+                xmlWriter.indentSize(formattingContext.getIndentSize());
             }
-        } else {
-            transformerFactory.setAttribute(INDENT_NUMBER_KEY, DEFAULT_INDENT_SIZE);
-        }
-
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.METHOD, OUTPUT_METHOD_XML);
-        if (encoding != null) {
-            transformer.setOutputProperty(OutputKeys.ENCODING, encoding);
-        }
-        if (formattingContext == null || formattingContext.isPretty()) {
-            transformer.setOutputProperty(OutputKeys.INDENT, YES);
-            transformer.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC, YES);
-        }
-
-        ContentsXMLReader xmlReader = new ContentsXMLReader();
-        if (formattingContext != null) {
             if (formattingContext.getDateFormat() != null) {
-                xmlReader.setDateFormat(formattingContext.getDateFormat());
+                xmlWriter.dateFormat(formattingContext.getDateFormat());
             }
             if (formattingContext.getDateTimeFormat() != null) {
-                xmlReader.setDateTimeFormat(formattingContext.getDateTimeFormat());
+                xmlWriter.dateTimeFormat(formattingContext.getDateTimeFormat());
             }
         }
-
-        ContentsInputSource inputSource = new ContentsInputSource(object);
-        Source source = new SAXSource(xmlReader, inputSource);
-        transformer.transform(source, new StreamResult(writer));
+        xmlWriter.write(object);
     }
 
 }
@@ -23,9 +23,15 @@ import com.aspectran.core.activity.response.transform.xml.ContentsInputSource;
 import com.aspectran.core.activity.response.transform.xml.ContentsXMLReader;
 import com.aspectran.core.adapter.ApplicationAdapter;
 import com.aspectran.core.adapter.ResponseAdapter;
+import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.component.template.DefaultTemplateRenderer;
+import com.aspectran.core.component.template.TemplateRenderer;
+import com.aspectran.core.component.template.TemplateSourceCache;
 import com.aspectran.core.context.rule.TemplateRule;
 import com.aspectran.core.context.rule.TransformRule;
 import com.aspectran.core.context.rule.type.ContentType;
+import com.aspectran.core.util.logging.Logger;
+import com.aspectran.core.util.logging.LoggerFactory;
 
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Source;
@@ -38,36 +44,52 @@ import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Writer;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * XSL Transform Response converts the response data to XML and applies XSLT transformation to it.
+ *
+ * <p>The stylesheet is compiled once into {@link Templates}, and the
+ * transformers created from it are pooled and reused. A stylesheet file is
+ * checked for changes at most once per template reload interval, on a
+ * daemon thread shared by all XSL transform responses, and requests keep
+ * using the current stylesheet until the changed one has been compiled.</p>
  * 
  * Created: 2008. 03. 22 PM 5:51:58
  */
 public class XslTransformResponse extends TransformResponse {
 
+    private static final Logger logger = LoggerFactory.getLogger(XslTransformResponse.class);
+
     private static final String OUTPUT_METHOD_XML = "xml";
 
     private static final String OUTPUT_METHOD_HTML = "html";
 
     private static final String OUTPUT_METHOD_TEXT = "text";
 
-    private final TemplateRule templateRule;
+    private static final int MAX_IDLE_TRANSFORMERS = 16;
 
-    private Templates templates;
+    /** Checks stylesheet files for changes; its thread ends when idle */
+    private static final ThreadPoolExecutor reloadExecutor = createReloadExecutor();
 
-    private String contentType;
+    private final TemplateRule templateRule;
 
-    private String outputEncoding;
+    private final AtomicBoolean checkingForChanges = new AtomicBoolean();
 
-    private volatile long templateLastModifiedTime;
+    private volatile Stylesheet stylesheet;
 
-    private volatile boolean templateLoaded;
+    private volatile long nextCheckTime;
 
     /**
      * Instantiates a new XslTransformResponse.
@@ -82,13 +104,13 @@ public class XslTransformResponse extends TransformResponse {
     protected void transform(Activity activity) throws Exception {
         ResponseAdapter responseAdapter = activity.getResponseAdapter();
 
-        loadTemplate(activity.getApplicationAdapter());
+        Stylesheet stylesheet = getStylesheet(activity);
 
-        if (outputEncoding != null) {
-            responseAdapter.setEncoding(outputEncoding);
+        if (stylesheet.outputEncoding != null) {
+            responseAdapter.setEncoding(stylesheet.outputEncoding);
         }
-        if (contentType != null) {
-            responseAdapter.setContentType(contentType);
+        if (stylesheet.contentType != null) {
+            responseAdapter.setContentType(stylesheet.contentType);
         }
 
         Writer writer = responseAdapter.getWriter();
@@ -106,8 +128,10 @@ public class XslTransformResponse extends TransformResponse {
         ContentsInputSource inputSource = new ContentsInputSource(processResult);
         Source source = new SAXSource(xmlReader, inputSource);
 
-        Transformer transformer = templates.newTransformer();
+        Transformer transformer = stylesheet.borrowTransformer();
         transformer.transform(source, new StreamResult(writer));
+        // a transformer that failed is not reused
+        stylesheet.releaseTransformer(transformer);
     }
 
     @Override
@@ -115,89 +139,96 @@ public class XslTransformResponse extends TransformResponse {
         return new XslTransformResponse(getTransformRule().replicate());
     }
 
-    private void loadTemplate(ApplicationAdapter applicationAdapter)
-            throws TransformerConfigurationException, IOException {
-        String templateFile = templateRule.getFile();
-        String templateResource = templateRule.getResource();
-        String templateUrl = templateRule.getUrl();
-        boolean noCache = templateRule.isNoCache();
-
-        if (templateFile != null) {
-            File file = applicationAdapter.toRealPathAsFile(templateFile);
-            if (noCache) {
-                this.templates = createTemplates(file);
-                determineOutputStyle();
-            } else {
-                long lastModifiedTime = file.lastModified();
-                if (lastModifiedTime > this.templateLastModifiedTime) {
-                    synchronized (this) {
-                        lastModifiedTime = file.lastModified();
-                        if (lastModifiedTime > this.templateLastModifiedTime) {
-                            this.templates = createTemplates(file);
-                            determineOutputStyle();
-                            this.templateLastModifiedTime = lastModifiedTime;
-                        }
-                    }
-                }
-            }
-        } else if (templateResource != null) {
-            if (noCache) {
-                ClassLoader classLoader = applicationAdapter.getClassLoader();
-                this.templates = createTemplates(Objects.requireNonNull(classLoader.getResource(templateResource)));
-                determineOutputStyle();
-            } else {
-                if (!this.templateLoaded) {
-                    synchronized (this) {
-                        if (!this.templateLoaded) {
-                            ClassLoader classLoader = applicationAdapter.getClassLoader();
-                            this.templates = createTemplates(Objects.requireNonNull(classLoader.getResource(templateResource)));
-                            determineOutputStyle();
-                            this.templateLoaded = true;
-                        }
-                    }
+    private Stylesheet getStylesheet(Activity activity) throws TransformerConfigurationException, IOException {
+        ApplicationAdapter applicationAdapter = activity.getApplicationAdapter();
+        if (templateRule.isNoCache()) {
+            return loadStylesheet(applicationAdapter);
+        }
+        Stylesheet stylesheet = this.stylesheet;
+        if (stylesheet == null) {
+            synchronized (this) {
+                stylesheet = this.stylesheet;
+                if (stylesheet == null) {
+                    stylesheet = loadStylesheet(applicationAdapter);
+                    this.stylesheet = stylesheet;
+                    scheduleNextCheck(getReloadInterval(activity.getActivityContext()));
                 }
             }
-        } else if (templateUrl != null) {
-            if (noCache) {
-                this.templates = createTemplates(new URL(templateUrl));
-                determineOutputStyle();
-            } else {
-                if (!this.templateLoaded) {
-                    synchronized (this) {
-                        if (!this.templateLoaded) {
-                            this.templates = createTemplates(new URL(templateUrl));
-                            determineOutputStyle();
-                            this.templateLoaded = true;
-                        }
-                    }
+        } else if (stylesheet.file != null && nextCheckTime > 0L && System.nanoTime() - nextCheckTime >= 0L &&
+                checkingForChanges.compareAndSet(false, true)) {
+            int reloadInterval = getReloadInterval(activity.getActivityContext());
+            reloadExecutor.execute(() -> {
+                try {
+                    reloadIfModified(applicationAdapter);
+                } finally {
+                    scheduleNextCheck(reloadInterval);
+                    checkingForChanges.set(false);
                 }
-            }
+            });
+        }
+        return stylesheet;
+    }
+
+    private int getReloadInterval(ActivityContext context) {
+        TemplateRenderer templateRenderer = context.getTemplateRenderer();
+        if (templateRenderer instanceof DefaultTemplateRenderer) {
+            return ((DefaultTemplateRenderer)templateRenderer).getTemplateSourceCache().getReloadInterval();
         } else {
-            throw new IllegalArgumentException("No specified template " + templateRule);
+            return TemplateSourceCache.DEFAULT_RELOAD_INTERVAL;
         }
     }
 
-    private void determineOutputStyle() {
-        contentType = getTransformRule().getContentType();
-        if (contentType == null) {
-            contentType = getContentType(templates);
+    private void scheduleNextCheck(int reloadInterval) {
+        if (reloadInterval > 0) {
+            long nextCheckTime = System.nanoTime() + TimeUnit.SECONDS.toNanos(reloadInterval);
+            this.nextCheckTime = (nextCheckTime != 0L ? nextCheckTime : 1L);
+        } else {
+            this.nextCheckTime = 0L;
         }
+    }
 
-        outputEncoding = getOutputEncoding(templates);
-        if (outputEncoding == null) {
-            outputEncoding = getTransformRule().getEncoding();
+    private void reloadIfModified(ApplicationAdapter applicationAdapter) {
+        Stylesheet stylesheet = this.stylesheet;
+        if (stylesheet.file.lastModified() != stylesheet.lastModified) {
+            try {
+                this.stylesheet = loadStylesheet(applicationAdapter);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Reloaded stylesheet " + stylesheet.file);
+                }
+            } catch (Exception e) {
+                // keep using the current stylesheet
+                logger.warn("Unable to reload stylesheet " + stylesheet.file, e);
+            }
         }
     }
 
-    private Templates createTemplates(File templateFile) throws TransformerConfigurationException {
-        Source source = new StreamSource(templateFile);
-        return createTemplates(source);
+    private Stylesheet loadStylesheet(ApplicationAdapter applicationAdapter)
+            throws TransformerConfigurationException, IOException {
+        String templateFile = templateRule.getFile();
+        String templateResource = templateRule.getResource();
+        String templateUrl = templateRule.getUrl();
+        if (templateFile != null) {
+            File file = applicationAdapter.toRealPathAsFile(templateFile);
+            // take the time before compiling so that a change made meanwhile is detected
+            long lastModified = file.lastModified();
+            Templates templates = createTemplates(new StreamSource(file));
+            return new Stylesheet(templates, file, lastModified);
+        } else if (templateResource != null) {
+            ClassLoader classLoader = applicationAdapter.getClassLoader();
+            URL url = Objects.requireNonNull(classLoader.getResource(templateResource));
+            return new Stylesheet(createTemplates(url), null, 0L);
+        } else if (templateUrl != null) {
+            return new Stylesheet(createTemplates(new URL(templateUrl)), null, 0L);
+        } else {
+            throw new IllegalArgumentException("No specified template " + templateRule);
+        }
     }
-    
+
     private Templates createTemplates(URL url) throws TransformerConfigurationException, IOException {
         URLConnection conn = url.openConnection();
-        Source source = new StreamSource(conn.getInputStream());
-        return createTemplates(source);
+        try (InputStream input = conn.getInputStream()) {
+            return createTemplates(new StreamSource(input, url.toExternalForm()));
+        }
     }
 
     private Templates createTemplates(Source source) throws TransformerConfigurationException {
@@ -206,8 +237,67 @@ public class XslTransformResponse extends TransformResponse {
         return transFactory.newTemplates(source);
     }
 
-    private String getContentType(Templates templates) {
-        Properties outputProperties = templates.getOutputProperties();
+    private static ThreadPoolExecutor createReloadExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "XslReloadTask");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * A compiled stylesheet with its output style and a pool of idle
+     * transformers.
+     */
+    private class Stylesheet {
+
+        private final Templates templates;
+
+        private final File file;
+
+        private final long lastModified;
+
+        private final String contentType;
+
+        private final String outputEncoding;
+
+        private final BlockingQueue<Transformer> idleTransformers = new ArrayBlockingQueue<>(MAX_IDLE_TRANSFORMERS);
+
+        Stylesheet(Templates templates, File file, long lastModified) {
+            this.templates = templates;
+            this.file = file;
+            this.lastModified = lastModified;
+
+            Properties outputProperties = templates.getOutputProperties();
+            String contentType = getTransformRule().getContentType();
+            if (contentType == null) {
+                contentType = getContentType(outputProperties);
+            }
+            this.contentType = contentType;
+
+            String outputEncoding = outputProperties.getProperty(OutputKeys.ENCODING);
+            if (outputEncoding == null) {
+                outputEncoding = getTransformRule().getEncoding();
+            }
+            this.outputEncoding = outputEncoding;
+        }
+
+        Transformer borrowTransformer() throws TransformerConfigurationException {
+            Transformer transformer = idleTransformers.poll();
+            return (transformer != null ? transformer : templates.newTransformer());
+        }
+
+        void releaseTransformer(Transformer transformer) {
+            transformer.reset();
+            idleTransformers.offer(transformer);
+        }
+
+    }
+
+    private static String getContentType(Properties outputProperties) {
         String outputMethod = outputProperties.getProperty(OutputKeys.METHOD);
         String contentType = null;
         if (outputMethod != null) {
@@ -221,10 +311,5 @@ public class XslTransformResponse extends TransformResponse {
         }
         return contentType;
     }
-    
-    private String getOutputEncoding(Templates templates) {
-        Properties outputProperties = templates.getOutputProperties();
-        return outputProperties.getProperty(OutputKeys.ENCODING);
-    }
 
 }
@@ -0,0 +1,429 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.activity.response.transform.xml;
+
+import com.aspectran.core.activity.process.result.ActionResult;
+import com.aspectran.core.activity.process.result.ContentResult;
+import com.aspectran.core.activity.process.result.ProcessResult;
+import com.aspectran.core.util.BeanUtils;
+import com.aspectran.core.util.apon.Parameter;
+import com.aspectran.core.util.apon.ParameterValue;
+import com.aspectran.core.util.apon.Parameters;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Writes a ProcessResult object, or any other object, as an XML document
+ * straight to a character-output stream.
+ *
+ * <p>It produces the same document as an identity transformation of the
+ * events generated by {@link ContentsXMLReader}, with the same indentation,
+ * without building a transformer for each document.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+public class ContentsXmlWriter {
+
+    private static final String CONTENTS_TAG = "contents";
+
+    private static final String CONTENT_TAG = "content";
+
+    private static final String ROWS_TAG = "rows";
+
+    private static final String ROW_TAG = "row";
+
+    private static final String DEFAULT_ENCODING = "UTF-8";
+
+    private static final int DEFAULT_INDENT_SIZE = 2;
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private final Writer out;
+
+    private String encoding = DEFAULT_ENCODING;
+
+    private CharsetEncoder charsetEncoder;
+
+    private boolean prettyPrint = true;
+
+    private int indentSize = DEFAULT_INDENT_SIZE;
+
+    private String dateFormat;
+
+    private String dateTimeFormat;
+
+    private SimpleDateFormat simpleDateFormat;
+
+    private DateTimeFormatter dateFormatter;
+
+    private DateTimeFormatter dateTimeFormatter;
+
+    private int depth;
+
+    /** whether the start tag of the current element is not yet closed */
+    private boolean startTagOpen;
+
+    /** whether the current element has content that was written on its own line */
+    private boolean indentedContent;
+
+    private String pendingText;
+
+    /**
+     * Instantiates a new ContentsXmlWriter.
+     * Pretty printing is enabled by default with an indent size of 2.
+     * @param out the character-output stream
+     */
+    public ContentsXmlWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Sets the encoding declared in the XML declaration. Characters that
+     * the encoding cannot represent are written as character references.
+     * @param encoding the character encoding; UTF-8 if {@code null}
+     * @return this ContentsXmlWriter
+     */
+    public ContentsXmlWriter encoding(String encoding) {
+        this.encoding = (encoding != null ? encoding : DEFAULT_ENCODING);
+        Charset charset = Charset.forName(this.encoding);
+        if (StandardCharsets.UTF_8.equals(charset) || StandardCharsets.UTF_16.equals(charset)) {
+            this.charsetEncoder = null;
+        } else {
+            this.charsetEncoder = charset.newEncoder();
+        }
+        return this;
+    }
+
+    public ContentsXmlWriter prettyPrint(boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+        return this;
+    }
+
+    public ContentsXmlWriter indentSize(int indentSize) {
+        this.indentSize = (indentSize > 0 ? indentSize : DEFAULT_INDENT_SIZE);
+        return this;
+    }
+
+    public ContentsXmlWriter dateFormat(String dateFormat) {
+        this.dateFormat = dateFormat;
+        return this;
+    }
+
+    public ContentsXmlWriter dateTimeFormat(String dateTimeFormat) {
+        this.dateTimeFormat = dateTimeFormat;
+        return this;
+    }
+
+    /**
+     * Writes the given object as an XML document.
+     * @param object the object to write
+     * @throws IOException if an I/O error has occurred
+     */
+    public void write(Object object) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"");
+        out.write(encoding);
+        out.write("\"?>");
+        if (prettyPrint) {
+            out.write(NEW_LINE);
+        }
+        if (object instanceof ProcessResult) {
+            ProcessResult processResult = (ProcessResult)object;
+            if (!processResult.isEmpty()) {
+                writeProcessResult(processResult);
+            }
+        } else if (object != null) {
+            writeObject(object);
+        }
+        if (pendingText != null) {
+            flushText();
+        } else if (prettyPrint) {
+            out.write(NEW_LINE);
+        }
+        out.flush();
+    }
+
+    private void writeProcessResult(ProcessResult processResult) throws IOException {
+        String contentsName = null;
+        if (processResult.isExplicit()) {
+            contentsName = (processResult.getName() != null ? processResult.getName() : CONTENTS_TAG);
+            startElement(contentsName);
+        }
+        for (ContentResult contentResult : processResult) {
+            String contentName = null;
+            if (contentResult.isExplicit()) {
+                contentName = (contentResult.getName() != null ? contentResult.getName() : CONTENT_TAG);
+                startElement(contentName);
+            }
+            for (ActionResult actionResult : contentResult) {
+                String actionId = actionResult.getActionId();
+                if (actionId != null) {
+                    startElement(actionId);
+                }
+                writeObject(actionResult.getResultValue());
+                if (actionId != null) {
+                    endElement(actionId);
+                }
+            }
+            if (contentName != null) {
+                endElement(contentName);
+            }
+        }
+        if (contentsName != null) {
+            endElement(contentsName);
+        }
+    }
+
+    private void writeObject(Object object) throws IOException {
+        if (object == null) {
+            return;
+        }
+        if (object instanceof ProcessResult) {
+            writeProcessResult((ProcessResult)object);
+        } else if (object instanceof String
+                || object instanceof Number
+                || object instanceof Boolean) {
+            writeText(object.toString());
+        } else if (object instanceof Parameters) {
+            Map<String, ParameterValue> params = ((Parameters)object).getParameterValueMap();
+            for (Parameter p : params.values()) {
+                Object value = p.getValue();
+                checkCircularReference(object, value);
+                writeElement(p.getName(), value);
+            }
+        } else if (object instanceof Map<?, ?>) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>)object).entrySet()) {
+                Object value = entry.getValue();
+                checkCircularReference(object, value);
+                writeElement(entry.getKey().toString(), value);
+            }
+        } else if (object instanceof Collection<?>) {
+            startElement(ROWS_TAG);
+            for (Object value : (Collection<?>)object) {
+                checkCircularReference(object, value);
+                writeElement(ROW_TAG, value);
+            }
+            endElement(ROWS_TAG);
+        } else if (object.getClass().isArray()) {
+            startElement(ROWS_TAG);
+            int len = Array.getLength(object);
+            for (int i = 0; i < len; i++) {
+                Object value = Array.get(object, i);
+                checkCircularReference(object, value);
+                writeElement(ROW_TAG, value);
+            }
+            endElement(ROWS_TAG);
+        } else if (object instanceof Date) {
+            if (dateTimeFormat != null) {
+                if (simpleDateFormat == null) {
+                    simpleDateFormat = new SimpleDateFormat(dateTimeFormat);
+                }
+                writeText(simpleDateFormat.format((Date)object));
+            } else {
+                writeText(object.toString());
+            }
+        } else if (object instanceof LocalDate) {
+            if (dateFormat != null) {
+                if (dateFormatter == null) {
+                    dateFormatter = DateTimeFormatter.ofPattern(dateFormat);
+                }
+                writeText(((LocalDate)object).format(dateFormatter));
+            } else {
+                writeText(object.toString());
+            }
+        } else if (object instanceof LocalDateTime) {
+            if (dateTimeFormat != null) {
+                if (dateTimeFormatter == null) {
+                    dateTimeFormatter = DateTimeFormatter.ofPattern(dateTimeFormat);
+                }
+                writeText(((LocalDateTime)object).format(dateTimeFormatter));
+            } else {
+                writeText(object.toString());
+            }
+        } else {
+            String[] readablePropertyNames = BeanUtils.getReadablePropertyNamesWithoutNonSerializable(object);
+            if (readablePropertyNames != null) {
+                for (String name : readablePropertyNames) {
+                    Object value;
+                    try {
+                        value = BeanUtils.getProperty(object, name);
+                    } catch (InvocationTargetException e) {
+                        throw new IOException(e);
+                    }
+                    checkCircularReference(object, value);
+                    writeElement(name, value);
+                }
+            }
+        }
+    }
+
+    private void writeElement(String name, Object value) throws IOException {
+        startElement(name);
+        writeObject(value);
+        endElement(name);
+    }
+
+    private void startElement(String name) throws IOException {
+        closeStartTag();
+        if (pendingText != null) {
+            // text mixed with elements goes on its own line
+            if (depth > 0) {
+                nextLine();
+            }
+            flushText();
+        }
+        if (depth > 0) {
+            nextLine();
+        }
+        out.write('<');
+        out.write(name);
+        startTagOpen = true;
+        indentedContent = false;
+        depth++;
+    }
+
+    private void endElement(String name) throws IOException {
+        if (pendingText != null) {
+            closeStartTag();
+            if (indentedContent) {
+                nextLine();
+            }
+            flushText();
+        }
+        depth--;
+        if (startTagOpen) {
+            out.write("/>");
+            startTagOpen = false;
+        } else {
+            if (indentedContent) {
+                nextLine();
+            }
+            out.write("</");
+            out.write(name);
+            out.write('>');
+        }
+        // the parent element has an element child, so its end tag goes on its own line
+        indentedContent = true;
+    }
+
+    private void closeStartTag() throws IOException {
+        if (startTagOpen) {
+            out.write('>');
+            startTagOpen = false;
+        }
+    }
+
+    /**
+     * Holds the text until the next tag, which decides whether the text
+     * is written inline or on its own line.
+     */
+    private void writeText(String text) {
+        if (!text.isEmpty()) {
+            pendingText = (pendingText != null ? pendingText + text : text);
+        }
+    }
+
+    private void flushText() throws IOException {
+        writeEscaped(pendingText);
+        pendingText = null;
+    }
+
+    private void nextLine() throws IOException {
+        if (prettyPrint) {
+            out.write(NEW_LINE);
+            for (int i = depth * indentSize; i > 0; i--) {
+                out.write(' ');
+            }
+        }
+    }
+
+    /**
+     * Writes the text with markup characters escaped, and characters that
+     * are not allowed in XML or cannot be encoded written as character
+     * references. The characters that need no escaping are written in runs.
+     */
+    private void writeEscaped(String text) throws IOException {
+        int len = text.length();
+        int start = 0;
+        for (int i = 0; i < len; i++) {
+            char c = text.charAt(i);
+            String replacement;
+            int codePoint = -1;
+            if (c == '<') {
+                replacement = "&lt;";
+            } else if (c == '>') {
+                replacement = "&gt;";
+            } else if (c == '&') {
+                replacement = "&amp;";
+            } else if (c == '\n') {
+                replacement = NEW_LINE;
+            } else if (c < ' ' && c != '\t') {
+                replacement = null;
+                codePoint = c;
+            } else if (c >= '\u007f' && c <= '\u009f') {
+                replacement = null;
+                codePoint = c;
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(text.charAt(i + 1))) {
+                replacement = null;
+                codePoint = Character.toCodePoint(c, text.charAt(i + 1));
+            } else if (c >= '\u0080' && charsetEncoder != null && !charsetEncoder.canEncode(c)) {
+                replacement = null;
+                codePoint = c;
+            } else {
+                continue;
+            }
+            if (i > start) {
+                out.write(text, start, i - start);
+            }
+            if (replacement != null) {
+                out.write(replacement);
+            } else {
+                out.write("&#");
+                out.write(Integer.toString(codePoint));
+                out.write(';');
+                if (Character.isSupplementaryCodePoint(codePoint)) {
+                    i++;
+                }
+            }
+            start = i + 1;
+        }
+        if (start < len) {
+            out.write(text, start, len - start);
+        }
+    }
+
+    private void checkCircularReference(Object wrapper, Object member) throws IOException {
+        if (wrapper.equals(member)) {
+            throw new IOException("XML Serialization Failure: A circular reference was detected" +
+                    " while converting a member object [" + member + "] in [" + wrapper + "]");
+        }
+    }
+
+}
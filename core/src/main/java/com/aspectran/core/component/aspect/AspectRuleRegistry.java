@@ -18,11 +18,14 @@ package com.aspectran.core.component.aspect;
 import com.aspectran.core.component.AbstractComponent;
 import com.aspectran.core.component.aspect.pointcut.Pointcut;
 import com.aspectran.core.component.aspect.pointcut.PointcutPattern;
+import com.aspectran.core.context.ActivityContext;
 import com.aspectran.core.context.rule.AspectRule;
 import com.aspectran.core.context.rule.IllegalRuleException;
+import com.aspectran.core.context.rule.PointcutPatternRule;
 import com.aspectran.core.context.rule.type.JoinpointTargetType;
 import com.aspectran.core.util.cache.Cache;
 import com.aspectran.core.util.cache.ConcurrentReferenceCache;
+import com.aspectran.core.util.cache.ConcurrentTinyLfuCache;
 import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
 
@@ -43,12 +46,17 @@ public class AspectRuleRegistry extends AbstractComponent {
 
     private static final RelevantAspectRuleHolder EMPTY_HOLDER = new RelevantAspectRuleHolder();
 
+    private static final int TRANSLET_CACHE_CAPACITY = 1024;
+
     private final Cache<PointcutPattern, RelevantAspectRuleHolder> softCache =
             new ConcurrentReferenceCache<>(ReferenceType.SOFT, this::createRelevantAspectRuleHolder);
 
     private final Cache<PointcutPattern, RelevantAspectRuleHolder> weakCache =
             new ConcurrentReferenceCache<>(ReferenceType.WEAK, this::createRelevantAspectRuleHolder);
 
+    private final ConcurrentTinyLfuCache<String, RelevantAspectRuleHolder> transletCache =
+            new ConcurrentTinyLfuCache<>(TRANSLET_CACHE_CAPACITY, this::createTransletRelevantAspectRuleHolder);
+
     private final Map<String, AspectRule> aspectRuleMap = new LinkedHashMap<>();
 
     public AspectRuleRegistry() {
@@ -88,6 +96,10 @@ public class AspectRuleRegistry extends AbstractComponent {
 
     @Override
     protected void doDestroy() {
+        if (logger.isDebugEnabled() && transletCache.getHitCount() + transletCache.getMissCount() > 0) {
+            logger.debug("Aspect advice cache for translets with path variables " + transletCache);
+        }
+        transletCache.clear();
         aspectRuleMap.clear();
     }
 
@@ -99,6 +111,97 @@ public class AspectRuleRegistry extends AbstractComponent {
         return weakCache.get(pointcutPattern);
     }
 
+    /**
+     * Returns whether any bean-relevant aspect rule could advise the given
+     * bean method in some translet. Translet name patterns and exclusion
+     * patterns are not considered, so a {@code true} result only means that
+     * the advice has to be looked up for each call, while {@code false} means
+     * that the method is never advised.
+     * @param beanId the bean id
+     * @param className the bean class name
+     * @param methodName the method name
+     * @return {@code true} if the method may be advised, otherwise {@code false}
+     */
+    public boolean isAdvisable(String beanId, String className, String methodName) {
+        for (AspectRule aspectRule : getAspectRules()) {
+            if (aspectRule.isBeanRelevant()) {
+                Pointcut pointcut = aspectRule.getPointcut();
+                if (pointcut == null) {
+                    return true;
+                }
+                List<PointcutPatternRule> pointcutPatternRuleList = pointcut.getPointcutPatternRuleList();
+                if (pointcutPatternRuleList == null) {
+                    return true;
+                }
+                for (PointcutPatternRule ppr : pointcutPatternRuleList) {
+                    if (isAdvisable(pointcut, ppr.getPointcutPattern(), beanId, className, methodName)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isAdvisable(Pointcut pointcut, PointcutPattern pp,
+                                String beanId, String className, String methodName) {
+        if (pp == null) {
+            return true;
+        }
+        if (pp.getBeanIdPattern() != null && beanId != null &&
+                !pointcut.patternMatches(pp.getBeanIdPattern(), beanId, ActivityContext.ID_SEPARATOR_CHAR)) {
+            return false;
+        }
+        if (pp.getClassNamePattern() != null && className != null &&
+                !pointcut.patternMatches(pp.getClassNamePattern(), className, ActivityContext.ID_SEPARATOR_CHAR)) {
+            return false;
+        }
+        return (pp.getMethodNamePattern() == null || methodName == null ||
+                pointcut.patternMatches(pp.getMethodNamePattern(), methodName));
+    }
+
+    /**
+     * Returns a new aspect advice rule registry with the translet-relevant
+     * aspect rules that match the given request name. The matching rules are
+     * cached per request name, because translets with path variables cannot
+     * resolve them in advance.
+     * @param requestName the request name
+     * @return the aspect advice rule registry, or {@code null} if no aspect rule matches
+     */
+    public AspectAdviceRuleRegistry getTransletAspectAdviceRuleRegistry(String requestName) {
+        AspectAdviceRuleRegistry aarr = transletCache.get(requestName).getAspectAdviceRuleRegistry();
+        return (aarr != null ? aarr.replicate() : null);
+    }
+
+    /**
+     * Returns the ratio of lookups for translets with path variables
+     * that were served from the cache.
+     * @return the hit ratio of the translet aspect advice cache
+     */
+    public double getTransletCacheHitRatio() {
+        return transletCache.getHitRatio();
+    }
+
+    private RelevantAspectRuleHolder createTransletRelevantAspectRuleHolder(String requestName) {
+        AspectAdviceRulePostRegister postRegister = new AspectAdviceRulePostRegister();
+        for (AspectRule aspectRule : getAspectRules()) {
+            if (!aspectRule.isBeanRelevant()) {
+                Pointcut pointcut = aspectRule.getPointcut();
+                if (pointcut == null || pointcut.matches(requestName)) {
+                    postRegister.register(aspectRule);
+                }
+            }
+        }
+        AspectAdviceRuleRegistry aarr = postRegister.getAspectAdviceRuleRegistry();
+        if (aarr != null) {
+            RelevantAspectRuleHolder holder = new RelevantAspectRuleHolder();
+            holder.setAspectAdviceRuleRegistry(aarr);
+            return holder;
+        } else {
+            return EMPTY_HOLDER;
+        }
+    }
+
     private RelevantAspectRuleHolder createRelevantAspectRuleHolder(PointcutPattern pointcutPattern) {
         AspectAdviceRulePostRegister postRegister = new AspectAdviceRulePostRegister();
         List<AspectRule> dynamicAspectRuleList = new ArrayList<>();
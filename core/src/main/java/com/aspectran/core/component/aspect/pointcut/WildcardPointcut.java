@@ -15,99 +15,263 @@
  */
 package com.aspectran.core.component.aspect.pointcut;
 
+import com.aspectran.core.context.ActivityContext;
 import com.aspectran.core.context.rule.PointcutPatternRule;
 import com.aspectran.core.util.ConcurrentReferenceHashMap;
 import com.aspectran.core.util.wildcard.WildcardPattern;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.StringTokenizer;
 
 /**
  * Pointcut using Wildcard Matching to identify joinpoints.
+ *
+ * <p>The pointcut pattern rules are compiled when the pointcut is created,
+ * so matching a joinpoint against them does not parse patterns, look up
+ * caches or allocate objects.</p>
  */
 public class WildcardPointcut extends AbstractPointcut {
 
-    private static final String OR_MATCH_DELIMITER = "|";
+    private static final char OR_MATCH_DELIMITER = '|';
+
+    private static final char NO_SEPARATOR = Character.MIN_VALUE;
+
+    private final Map<String, CompiledPattern> cache = new ConcurrentReferenceHashMap<>();
+
+    private final Map<String, CompiledPattern> nameCache = new ConcurrentReferenceHashMap<>();
+
+    private final Map<String, CompiledPattern> idCache = new ConcurrentReferenceHashMap<>();
 
-    private final Map<String, WildcardPattern> cache = new ConcurrentReferenceHashMap<>();
+    private final Map<String, CompiledPattern> otherCache = new ConcurrentReferenceHashMap<>();
+
+    private final CompiledRule[] compiledRules;
 
     public WildcardPointcut(List<PointcutPatternRule> pointcutPatternRuleList) {
         super(pointcutPatternRuleList);
+        if (pointcutPatternRuleList != null) {
+            compiledRules = new CompiledRule[pointcutPatternRuleList.size()];
+            for (int i = 0; i < compiledRules.length; i++) {
+                compiledRules[i] = compileRule(pointcutPatternRuleList.get(i));
+            }
+        } else {
+            compiledRules = null;
+        }
     }
 
-    @Override
-    public boolean patternMatches(String pattern, String compareString) {
-        if (pattern == null) {
-            throw new IllegalArgumentException("pattern must not be null");
+    private CompiledRule compileRule(PointcutPatternRule ppr) {
+        PointcutPattern pp = ppr.getPointcutPattern();
+        CompiledPattern transletNamePattern = null;
+        CompiledPattern beanIdPattern = null;
+        CompiledPattern classNamePattern = null;
+        CompiledPattern methodNamePattern = null;
+        if (pp != null) {
+            if (pp.getTransletNamePattern() != null) {
+                transletNamePattern = getCompiledPattern(pp.getTransletNamePattern(),
+                        ActivityContext.NAME_SEPARATOR_CHAR);
+            }
+            if (pp.getBeanIdPattern() != null) {
+                beanIdPattern = getCompiledPattern(pp.getBeanIdPattern(), ActivityContext.ID_SEPARATOR_CHAR);
+            }
+            if (pp.getClassNamePattern() != null) {
+                classNamePattern = getCompiledPattern(pp.getClassNamePattern(), ActivityContext.ID_SEPARATOR_CHAR);
+            }
+            if (pp.getMethodNamePattern() != null) {
+                methodNamePattern = getCompiledPattern(pp.getMethodNamePattern(), NO_SEPARATOR);
+            }
         }
-        if (pattern.contains(OR_MATCH_DELIMITER)) {
-            StringTokenizer parser = new StringTokenizer(pattern, OR_MATCH_DELIMITER);
-            while (parser.hasMoreTokens()) {
-                if (wildcardPatternMatches(parser.nextToken(), compareString)) {
+        CompiledRule[] excludeRules = null;
+        List<PointcutPatternRule> epprList = ppr.getExcludePointcutPatternRuleList();
+        if (epprList != null && !epprList.isEmpty()) {
+            excludeRules = new CompiledRule[epprList.size()];
+            for (int i = 0; i < excludeRules.length; i++) {
+                excludeRules[i] = compileRule(epprList.get(i));
+            }
+        }
+        return new CompiledRule(transletNamePattern, beanIdPattern, classNamePattern,
+                methodNamePattern, excludeRules);
+    }
+
+    @Override
+    public boolean matches(String transletName, String beanId, String className, String methodName) {
+        if (compiledRules != null) {
+            for (CompiledRule rule : compiledRules) {
+                if (rule.exists(transletName, beanId, className, methodName)) {
+                    if (rule.excludeRules != null) {
+                        for (CompiledRule excludeRule : rule.excludeRules) {
+                            if (excludeRule.exists(transletName, beanId, className, methodName)) {
+                                return false;
+                            }
+                        }
+                    }
                     return true;
                 }
             }
-            return false;
-        } else {
-            return wildcardPatternMatches(pattern, compareString);
         }
+        return false;
     }
 
     @Override
-    public boolean patternMatches(String pattern, String compareString, char separator) {
-        if (pattern == null) {
-            throw new IllegalArgumentException("pattern must not be null");
-        }
-        if (pattern.contains(OR_MATCH_DELIMITER)) {
-            StringTokenizer parser = new StringTokenizer(pattern, OR_MATCH_DELIMITER);
-            while (parser.hasMoreTokens()) {
-                if (wildcardPatternMatches(parser.nextToken(), compareString, separator)) {
+    public boolean exists(String transletName, String beanId, String className, String methodName) {
+        if (compiledRules != null) {
+            for (CompiledRule rule : compiledRules) {
+                if (rule.exists(transletName, beanId, className, methodName)) {
                     return true;
                 }
             }
-            return false;
-        } else {
-            return wildcardPatternMatches(pattern, compareString, separator);
         }
+        return false;
     }
 
-    private boolean wildcardPatternMatches(String pattern, String compareString) {
-        if (!WildcardPattern.hasWildcards(pattern)) {
-            return pattern.equals(compareString);
+    @Override
+    public boolean patternMatches(String pattern, String compareString) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("pattern must not be null");
         }
+        return getCompiledPattern(pattern, NO_SEPARATOR).matches(compareString);
+    }
 
-        WildcardPattern wildcardPattern = cache.get(pattern);
-        if (wildcardPattern == null) {
-            wildcardPattern = new WildcardPattern(pattern);
-            WildcardPattern existing = cache.putIfAbsent(pattern, wildcardPattern);
-            if (existing != null) {
-                wildcardPattern = existing;
-            }
+    @Override
+    public boolean patternMatches(String pattern, String compareString, char separator) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("pattern must not be null");
         }
-        return wildcardPattern.matches(compareString);
+        return getCompiledPattern(pattern, separator).matches(compareString);
     }
 
-    private boolean wildcardPatternMatches(String pattern, String compareString, char separator) {
-        if (pattern.indexOf(separator) == -1 && !WildcardPattern.hasWildcards(pattern)) {
-            return pattern.equals(compareString);
+    private CompiledPattern getCompiledPattern(String pattern, char separator) {
+        Map<String, CompiledPattern> map;
+        String key = pattern;
+        if (separator == NO_SEPARATOR) {
+            map = cache;
+        } else if (separator == ActivityContext.NAME_SEPARATOR_CHAR) {
+            map = nameCache;
+        } else if (separator == ActivityContext.ID_SEPARATOR_CHAR) {
+            map = idCache;
+        } else {
+            map = otherCache;
+            key = pattern + separator;
         }
-
-        String patternKey = pattern + separator;
-        WildcardPattern wildcardPattern = cache.get(patternKey);
-        if (wildcardPattern == null) {
-            wildcardPattern = new WildcardPattern(pattern, separator);
-            WildcardPattern existing = cache.putIfAbsent(patternKey, wildcardPattern);
+        CompiledPattern compiledPattern = map.get(key);
+        if (compiledPattern == null) {
+            compiledPattern = CompiledPattern.compile(pattern, separator);
+            CompiledPattern existing = map.putIfAbsent(key, compiledPattern);
             if (existing != null) {
-                wildcardPattern = existing;
+                compiledPattern = existing;
             }
         }
-        return wildcardPattern.matches(compareString);
+        return compiledPattern;
     }
 
     @Override
     public void clear() {
         cache.clear();
+        nameCache.clear();
+        idCache.clear();
+        otherCache.clear();
+    }
+
+    /**
+     * The patterns of a pointcut pattern rule, compiled for matching.
+     */
+    private static class CompiledRule {
+
+        final CompiledPattern transletNamePattern;
+
+        final CompiledPattern beanIdPattern;
+
+        final CompiledPattern classNamePattern;
+
+        final CompiledPattern methodNamePattern;
+
+        final CompiledRule[] excludeRules;
+
+        CompiledRule(CompiledPattern transletNamePattern, CompiledPattern beanIdPattern,
+                     CompiledPattern classNamePattern, CompiledPattern methodNamePattern,
+                     CompiledRule[] excludeRules) {
+            this.transletNamePattern = transletNamePattern;
+            this.beanIdPattern = beanIdPattern;
+            this.classNamePattern = classNamePattern;
+            this.methodNamePattern = methodNamePattern;
+            this.excludeRules = excludeRules;
+        }
+
+        boolean exists(String transletName, String beanId, String className, String methodName) {
+            return ((transletNamePattern == null || transletNamePattern.matches(transletName)) &&
+                    (beanIdPattern == null || beanIdPattern.matches(beanId)) &&
+                    (classNamePattern == null || classNamePattern.matches(className)) &&
+                    (methodNamePattern == null || methodNamePattern.matches(methodName)));
+        }
+
+    }
+
+    /**
+     * A pattern that may consist of several alternatives separated by
+     * {@code |}, split into literals and wildcard patterns.
+     */
+    private static class CompiledPattern {
+
+        private static final String[] NO_LITERALS = new String[0];
+
+        private static final WildcardPattern[] NO_PATTERNS = new WildcardPattern[0];
+
+        final String[] literals;
+
+        final WildcardPattern[] patterns;
+
+        CompiledPattern(String[] literals, WildcardPattern[] patterns) {
+            this.literals = literals;
+            this.patterns = patterns;
+        }
+
+        boolean matches(String compareString) {
+            for (String literal : literals) {
+                if (literal.equals(compareString)) {
+                    return true;
+                }
+            }
+            for (WildcardPattern pattern : patterns) {
+                if (pattern.matches(compareString)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        static CompiledPattern compile(String pattern, char separator) {
+            List<String> literals = new ArrayList<>();
+            List<WildcardPattern> patterns = new ArrayList<>();
+            if (pattern.indexOf(OR_MATCH_DELIMITER) != -1) {
+                int start = 0;
+                while (start <= pattern.length()) {
+                    int end = pattern.indexOf(OR_MATCH_DELIMITER, start);
+                    if (end == -1) {
+                        end = pattern.length();
+                    }
+                    if (end > start) {
+                        addAlternative(pattern.substring(start, end), separator, literals, patterns);
+                    }
+                    start = end + 1;
+                }
+            } else {
+                addAlternative(pattern, separator, literals, patterns);
+            }
+            return new CompiledPattern(
+                    (literals.isEmpty() ? NO_LITERALS : literals.toArray(new String[0])),
+                    (patterns.isEmpty() ? NO_PATTERNS : patterns.toArray(new WildcardPattern[0])));
+        }
+
+        private static void addAlternative(String alternative, char separator,
+                                           List<String> literals, List<WildcardPattern> patterns) {
+            boolean literal = !WildcardPattern.hasWildcards(alternative) &&
+                    (separator == NO_SEPARATOR || alternative.indexOf(separator) == -1);
+            if (literal) {
+                literals.add(alternative);
+            } else {
+                patterns.add(new WildcardPattern(alternative, separator));
+            }
+        }
+
     }
 
 }
@@ -30,7 +30,10 @@ import com.aspectran.core.lang.Nullable;
 import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 
 /**
@@ -44,6 +47,14 @@ abstract class AbstractBeanRegistry extends AbstractBeanFactory implements BeanR
 
     private final SingletonScope singletonScope = new SingletonScope();
 
+    /** the singletons that have been fully created, looked up without locking */
+    private final Map<BeanRule, Object> singletons = new ConcurrentHashMap<>();
+
+    /** the singletons being created by the current thread, not yet initialized */
+    private final ThreadLocal<EarlySingletonScope> earlySingletonScope = new ThreadLocal<>();
+
+    private final BeanCreationGuard creationGuard = new BeanCreationGuard();
+
     private final BeanRuleRegistry beanRuleRegistry;
 
     AbstractBeanRegistry(ActivityContext context, BeanRuleRegistry beanRuleRegistry,
@@ -76,7 +87,66 @@ abstract class AbstractBeanRegistry extends AbstractBeanFactory implements BeanR
         if (beanRule == null) {
             throw new IllegalArgumentException("beanRule must not be null");
         }
-        return getScopedBean(singletonScope, beanRule);
+        Object bean = singletons.get(beanRule);
+        if (bean == null) {
+            bean = createSingleton(beanRule);
+        }
+        if (bean != null && beanRule.isFactoryProductionRequired()) {
+            // factory beans must be thread-safe, as they are shared once published
+            bean = getFactoryProducedObject(beanRule, bean);
+        }
+        return bean;
+    }
+
+    /**
+     * Creates a singleton bean unless another thread has just created it.
+     * The bean is only made available to other threads once it has been
+     * fully initialized. If the thread creating the bean requests it again,
+     * for example through a circular reference, the bean that has been
+     * instantiated but not yet initialized is returned.
+     * @param beanRule the bean rule of the singleton bean
+     * @return the singleton bean
+     * @throws BeanCreationException if the bean is requested again before
+     *      it has even been instantiated, as happens with circular
+     *      constructor arguments, or if two threads creating beans that
+     *      depend on each other would wait for each other
+     */
+    private Object createSingleton(BeanRule beanRule) {
+        if (!creationGuard.acquire(beanRule)) {
+            EarlySingletonScope earlyScope = earlySingletonScope.get();
+            BeanInstance instance = (earlyScope != null ? earlyScope.getBeanInstance(beanRule) : null);
+            if (instance == null) {
+                throw new BeanCreationException("Circular creation of bean detected", beanRule);
+            }
+            return instance.getBean();
+        }
+        try {
+            Object bean = singletons.get(beanRule);
+            if (bean == null) {
+                EarlySingletonScope earlyScope = earlySingletonScope.get();
+                boolean outermost = (earlyScope == null);
+                if (outermost) {
+                    earlyScope = new EarlySingletonScope();
+                    earlySingletonScope.set(earlyScope);
+                }
+                try {
+                    bean = createBean(beanRule, earlyScope);
+                    if (bean != null) {
+                        Activity activity = getActivityContext().getAvailableActivity();
+                        singletonScope.putBeanInstance(activity, beanRule, new BeanInstance(bean));
+                        singletons.put(beanRule, bean);
+                    }
+                } finally {
+                    earlyScope.remove(beanRule);
+                    if (outermost) {
+                        earlySingletonScope.remove();
+                    }
+                }
+            }
+            return bean;
+        } finally {
+            creationGuard.release(beanRule);
+        }
     }
 
     @Override
@@ -267,6 +337,7 @@ abstract class AbstractBeanRegistry extends AbstractBeanFactory implements BeanR
                 scopeLock.readLock().unlock();
                 scopeLock.writeLock().lock();
                 try {
+                    singletons.remove(beanRule);
                     singletonScope.destroy(bean);
                 } finally {
                     scopeLock.writeLock().unlock();
@@ -301,8 +372,8 @@ abstract class AbstractBeanRegistry extends AbstractBeanFactory implements BeanR
 
     private void instantiateSingleton(BeanRule beanRule) {
         if (beanRule.isSingleton() && !beanRule.isLazyInit()
-                && !singletonScope.containsBeanRule(beanRule)) {
-            createBean(beanRule, singletonScope);
+                && !singletons.containsKey(beanRule)) {
+            createSingleton(beanRule);
         }
     }
 
@@ -314,6 +385,7 @@ abstract class AbstractBeanRegistry extends AbstractBeanFactory implements BeanR
             logger.debug("Destroying singletons in " + this);
         }
         singletonScope.destroy();
+        singletons.clear();
     }
 
     @Override
@@ -326,4 +398,64 @@ abstract class AbstractBeanRegistry extends AbstractBeanFactory implements BeanR
         destroySingletons();
     }
 
+    /**
+     * Holds the singletons that the current thread has instantiated but not
+     * yet initialized, so that circular references among them can be
+     * resolved without exposing them to other threads.
+     */
+    private static final class EarlySingletonScope implements Scope {
+
+        private final Map<BeanRule, BeanInstance> beanInstances = new HashMap<>();
+
+        @Override
+        public ScopeType getScopeType() {
+            return ScopeType.SINGLETON;
+        }
+
+        @Override
+        public ReadWriteLock getScopeLock() {
+            return null;
+        }
+
+        @Override
+        public BeanInstance getBeanInstance(BeanRule beanRule) {
+            return beanInstances.get(beanRule);
+        }
+
+        @Override
+        public void putBeanInstance(Activity activity, BeanRule beanRule, BeanInstance beanInstance) {
+            beanInstances.put(beanRule, beanInstance);
+        }
+
+        @Override
+        public BeanRule getBeanRule(Object bean) {
+            for (Map.Entry<BeanRule, BeanInstance> entry : beanInstances.entrySet()) {
+                if (entry.getValue().getBean() == bean) {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsBeanRule(BeanRule beanRule) {
+            return beanInstances.containsKey(beanRule);
+        }
+
+        private void remove(BeanRule beanRule) {
+            beanInstances.remove(beanRule);
+        }
+
+        @Override
+        public void destroy(Object bean) {
+            // nothing to destroy; beans held here are published to the singleton scope once initialized
+        }
+
+        @Override
+        public void destroy() {
+            // nothing to destroy; beans held here are published to the singleton scope once initialized
+        }
+
+    }
+
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.bean;
+
+import com.aspectran.core.context.rule.BeanRule;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Guards the creation of singleton beans so that only one thread creates
+ * each bean, while other beans can be created and looked up concurrently.
+ *
+ * <p>Because each bean is guarded separately, two threads creating beans
+ * that depend on each other could wait for each other forever. The guard
+ * keeps track of which thread creates which bean and which bean each thread
+ * is waiting for, and refuses to let a thread wait if that would close
+ * a cycle.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+final class BeanCreationGuard {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    /** the thread that is creating each bean */
+    private final Map<BeanRule, Thread> owners = new HashMap<>();
+
+    /** the bean that each thread is waiting to create */
+    private final Map<Thread, BeanRule> waiting = new HashMap<>();
+
+    /**
+     * Acquires the guard of the given bean, waiting if another thread holds it.
+     * @param beanRule the bean rule of the bean to create
+     * @return {@code true} if the guard was acquired; {@code false} if the
+     *      current thread already holds it
+     * @throws BeanCreationException if waiting would never end because the
+     *      thread holding the guard is waiting for a bean that the current
+     *      thread is creating
+     */
+    boolean acquire(BeanRule beanRule) {
+        Thread current = Thread.currentThread();
+        lock.lock();
+        try {
+            Thread owner = owners.get(beanRule);
+            if (owner == current) {
+                return false;
+            }
+            if (owner != null) {
+                waiting.put(current, beanRule);
+                try {
+                    while (owner != null) {
+                        if (isWaitingFor(owner, current)) {
+                            throw new BeanCreationException("Circular creation of bean detected " +
+                                    "between threads " + current.getName() + " and " + owner.getName(), beanRule);
+                        }
+                        released.await();
+                        owner = owners.get(beanRule);
+                    }
+                } catch (InterruptedException e) {
+                    current.interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a bean to be created", e);
+                } finally {
+                    waiting.remove(current);
+                }
+            }
+            owners.put(beanRule, current);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the guard of the given bean held by the current thread.
+     * @param beanRule the bean rule of the bean that has been created
+     */
+    void release(BeanRule beanRule) {
+        lock.lock();
+        try {
+            owners.remove(beanRule);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the given owner is, directly or through the owners
+     * of the beans it is waiting for, waiting for the given thread.
+     */
+    private boolean isWaitingFor(Thread owner, Thread thread) {
+        Thread t = owner;
+        for (int i = 0; t != null && i <= waiting.size(); i++) {
+            if (t == thread) {
+                return true;
+            }
+            BeanRule beanRule = waiting.get(t);
+            if (beanRule == null) {
+                return false;
+            }
+            t = owners.get(beanRule);
+        }
+        return false;
+    }
+
+}
@@ -26,6 +26,7 @@ import com.aspectran.core.component.bean.aware.CurrentActivityAware;
 import com.aspectran.core.component.bean.aware.EnvironmentAware;
 import com.aspectran.core.component.bean.scan.BeanClassFilter;
 import com.aspectran.core.component.bean.scan.BeanClassScanner;
+import com.aspectran.core.component.bean.scan.ComponentClassScanner;
 import com.aspectran.core.context.rule.AspectRule;
 import com.aspectran.core.context.rule.AutowireRule;
 import com.aspectran.core.context.rule.BeanRule;
@@ -181,7 +182,7 @@ public class BeanRuleRegistry {
         logger.info("Auto scan for components on packages [" + StringUtils.joinCommaDelimitedList(basePackages) + "]");
 
         for (String basePackage : basePackages) {
-            BeanClassScanner scanner = new BeanClassScanner(classLoader);
+            ComponentClassScanner scanner = new ComponentClassScanner(classLoader);
             List<BeanRule> beanRules = new ArrayList<>();
             scanner.scan(basePackage + ".**", (resourceName, targetClass) -> {
                 if (targetClass.isAnnotationPresent(Component.class)) {
@@ -32,6 +32,8 @@ import com.aspectran.core.context.rule.SettingsAdviceRule;
 
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The Class AbstractDynamicBeanProxy.
@@ -40,6 +42,8 @@ public abstract class AbstractDynamicProxyBean {
 
     private final AspectRuleRegistry aspectRuleRegistry;
 
+    private final Map<Method, ProxyMethod> proxyMethods = new ConcurrentHashMap<>();
+
     public AbstractDynamicProxyBean(AspectRuleRegistry aspectRuleRegistry) {
         this.aspectRuleRegistry = aspectRuleRegistry;
     }
@@ -50,9 +54,49 @@ public abstract class AbstractDynamicProxyBean {
                 method.isAnnotationPresent(AvoidAdvice.class));
     }
 
+    /**
+     * Returns what has been resolved once for the given method of the proxied bean.
+     * @param beanRule the bean rule
+     * @param method the method called on the proxy
+     * @param invokable the method to be invoked on the target object; {@code null}
+     *      if the proxy invokes the target by other means
+     * @return the resolved proxy method
+     */
+    ProxyMethod getProxyMethod(BeanRule beanRule, Method method, Method invokable) {
+        ProxyMethod proxyMethod = proxyMethods.get(method);
+        if (proxyMethod == null) {
+            boolean advisable = (!isAvoidAdvice(method) &&
+                    aspectRuleRegistry.isAdvisable(beanRule.getId(), beanRule.getClassName(), method.getName()));
+            proxyMethod = new ProxyMethod(advisable, invokable);
+            ProxyMethod existing = proxyMethods.putIfAbsent(method, proxyMethod);
+            if (existing != null) {
+                proxyMethod = existing;
+            }
+        }
+        return proxyMethod;
+    }
+
+    AspectAdviceRuleRegistry getAspectAdviceRuleRegistry(Activity activity, BeanRule beanRule,
+            Method method, ProxyMethod proxyMethod)
+            throws AdviceConstraintViolationException, AspectAdviceException {
+        String requestName = (activity.getTranslet() != null ? activity.getTranslet().getRequestName() : null);
+        RelevantAspectRuleHolder holder = proxyMethod.getRelevantAspectRuleHolder(requestName);
+        if (holder == null) {
+            holder = getRelevantAspectRuleHolder(activity, beanRule.getId(), beanRule.getClassName(), method.getName());
+            proxyMethod.setRelevantAspectRuleHolder(requestName, holder);
+        }
+        return registerRelevantAspectRules(activity, holder);
+    }
+
     protected AspectAdviceRuleRegistry getAspectAdviceRuleRegistry(Activity activity,
             String beanId, String className, String methodName)
             throws AdviceConstraintViolationException, AspectAdviceException {
+        RelevantAspectRuleHolder holder = getRelevantAspectRuleHolder(activity, beanId, className, methodName);
+        return registerRelevantAspectRules(activity, holder);
+    }
+
+    private RelevantAspectRuleHolder getRelevantAspectRuleHolder(Activity activity,
+            String beanId, String className, String methodName) {
         String requestName;
         boolean literalPattern;
         if (activity.getTranslet() != null) {
@@ -70,7 +114,11 @@ public abstract class AbstractDynamicProxyBean {
         } else {
             holder = aspectRuleRegistry.getRelevantAspectRuleHolderFromWeakCache(pointcutPattern);
         }
+        return holder;
+    }
 
+    private AspectAdviceRuleRegistry registerRelevantAspectRules(Activity activity, RelevantAspectRuleHolder holder)
+            throws AdviceConstraintViolationException, AspectAdviceException {
         AspectAdviceRuleRegistry aarr = holder.getAspectAdviceRuleRegistry();
         if (aarr != null && aarr.getSettingsAdviceRuleList() != null) {
             for (SettingsAdviceRule sar : aarr.getSettingsAdviceRuleList()) {
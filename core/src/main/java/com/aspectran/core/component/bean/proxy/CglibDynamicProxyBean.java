@@ -44,27 +44,32 @@ public class CglibDynamicProxyBean extends AbstractDynamicProxyBean implements M
 
     @Override
     public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
-        if (isAvoidAdvice(method)) {
+        ProxyMethod proxyMethod = getProxyMethod(beanRule, method, null);
+        if (!proxyMethod.isAdvisable()) {
             return methodProxy.invokeSuper(proxy, args);
         }
         if (context.hasCurrentActivity()) {
             Activity activity = context.getCurrentActivity();
-            return intercept(proxy, method, args, methodProxy, activity);
+            return intercept(proxy, method, proxyMethod, args, methodProxy, activity);
         } else {
             try {
                 Activity activity = new InstantActivity(context);
-                return activity.perform(() -> intercept(proxy, method, args, methodProxy, activity));
+                return activity.perform(() -> intercept(proxy, method, proxyMethod, args, methodProxy, activity));
             } catch (Exception e) {
                 throw new InstantActivityException(e);
             }
         }
     }
 
-    public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy, Activity activity) throws Throwable {
-        String beanId = beanRule.getId();
-        String className = beanRule.getClassName();
-        String methodName = method.getName();
-        AspectAdviceRuleRegistry aarr = getAspectAdviceRuleRegistry(activity, beanId, className, methodName);
+    public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy, Activity activity)
+            throws Throwable {
+        ProxyMethod proxyMethod = getProxyMethod(beanRule, method, null);
+        return intercept(proxy, method, proxyMethod, args, methodProxy, activity);
+    }
+
+    private Object intercept(Object proxy, Method method, ProxyMethod proxyMethod, Object[] args,
+                             MethodProxy methodProxy, Activity activity) throws Throwable {
+        AspectAdviceRuleRegistry aarr = getAspectAdviceRuleRegistry(activity, beanRule, method, proxyMethod);
         if (aarr == null) {
             return methodProxy.invokeSuper(proxy, args);
         }
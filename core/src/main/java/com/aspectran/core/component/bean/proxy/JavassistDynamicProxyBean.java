@@ -45,34 +45,39 @@ public class JavassistDynamicProxyBean extends AbstractDynamicProxyBean implemen
 
     @Override
     public Object invoke(Object self, Method overridden, Method proceed, Object[] args) throws Throwable {
-        if (isAvoidAdvice(overridden)) {
-            return proceed.invoke(self, args);
+        ProxyMethod proxyMethod = getProxyMethod(beanRule, overridden, proceed);
+        if (!proxyMethod.isAdvisable()) {
+            return proxyMethod.invoke(self, args);
         }
         if (context.hasCurrentActivity()) {
             Activity activity = context.getCurrentActivity();
-            return invoke(self, overridden, proceed, args, activity);
+            return invoke(self, overridden, proxyMethod, args, activity);
         } else {
             try {
                 Activity activity = new InstantActivity(context);
-                return activity.perform(() -> invoke(self, overridden, proceed, args, activity));
+                return activity.perform(() -> invoke(self, overridden, proxyMethod, args, activity));
             } catch (Exception e) {
                 throw new InstantActivityException(e);
             }
         }
     }
 
-    public Object invoke(Object self, Method overridden, Method proceed, Object[] args, Activity activity) throws Exception {
-        String beanId = beanRule.getId();
-        String className = beanRule.getClassName();
-        String methodName = overridden.getName();
-        AspectAdviceRuleRegistry aarr = getAspectAdviceRuleRegistry(activity, beanId, className, methodName);
+    public Object invoke(Object self, Method overridden, Method proceed, Object[] args, Activity activity)
+            throws Exception {
+        ProxyMethod proxyMethod = getProxyMethod(beanRule, overridden, proceed);
+        return invoke(self, overridden, proxyMethod, args, activity);
+    }
+
+    private Object invoke(Object self, Method overridden, ProxyMethod proxyMethod, Object[] args, Activity activity)
+            throws Exception {
+        AspectAdviceRuleRegistry aarr = getAspectAdviceRuleRegistry(activity, beanRule, overridden, proxyMethod);
         if (aarr == null) {
-            return proceed.invoke(self, args);
+            return proxyMethod.invoke(self, args);
         }
         try {
             try {
                 beforeAdvice(aarr.getBeforeAdviceRuleList(), beanRule, activity);
-                Object result = proceed.invoke(self, args);
+                Object result = proxyMethod.invoke(self, args);
                 afterAdvice(aarr.getAfterAdviceRuleList(), beanRule, activity);
                 return result;
             } finally {
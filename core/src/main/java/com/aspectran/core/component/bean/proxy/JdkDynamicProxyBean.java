@@ -45,24 +45,21 @@ public class JdkDynamicProxyBean extends AbstractDynamicProxyBean implements Inv
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        if (isAvoidAdvice(method)) {
-            return method.invoke(bean, args);
+        ProxyMethod proxyMethod = getProxyMethod(beanRule, method, method);
+        if (!proxyMethod.isAdvisable()) {
+            return proxyMethod.invoke(bean, args);
         }
 
         Activity activity = context.getAvailableActivity();
-        String beanId = beanRule.getId();
-        String className = beanRule.getClassName();
-        String methodName = method.getName();
-
-        AspectAdviceRuleRegistry aarr = getAspectAdviceRuleRegistry(activity, beanId, className, methodName);
+        AspectAdviceRuleRegistry aarr = getAspectAdviceRuleRegistry(activity, beanRule, method, proxyMethod);
         if (aarr == null) {
-            return method.invoke(bean, args);
+            return proxyMethod.invoke(bean, args);
         }
 
         try {
             try {
                 beforeAdvice(aarr.getBeforeAdviceRuleList(), beanRule, activity);
-                Object result = method.invoke(bean, args);
+                Object result = proxyMethod.invoke(bean, args);
                 afterAdvice(aarr.getAfterAdviceRuleList(), beanRule, activity);
                 return result;
             } finally {
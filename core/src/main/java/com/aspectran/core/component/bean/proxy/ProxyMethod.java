@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.bean.proxy;
+
+import com.aspectran.core.component.aspect.RelevantAspectRuleHolder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Objects;
+
+/**
+ * Holds what a dynamic proxy bean resolves once for each of its methods:
+ * whether the method can be advised at all, a method handle that invokes
+ * the target method, and the aspect rules that matched the last translet
+ * in which the method was called.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+final class ProxyMethod {
+
+    private final boolean advisable;
+
+    private final Method invokable;
+
+    private final MethodHandle invoker;
+
+    private volatile RelevantAspectRules lastRelevantAspectRules;
+
+    /**
+     * Instantiates a new ProxyMethod.
+     * @param advisable whether the method can be advised
+     * @param invokable the method to be invoked on the target object;
+     *      {@code null} if the proxy invokes the target by other means
+     */
+    ProxyMethod(boolean advisable, Method invokable) {
+        this.advisable = advisable;
+        this.invokable = invokable;
+        this.invoker = (invokable != null ? createInvoker(invokable) : null);
+    }
+
+    boolean isAdvisable() {
+        return advisable;
+    }
+
+    /**
+     * Invokes the target method without wrapping the exception thrown
+     * by the method in an {@code InvocationTargetException}.
+     * @param target the object on which the method is invoked
+     * @param args the arguments for the method call
+     * @return the result of the method call
+     * @throws Exception if the method throws an exception
+     */
+    Object invoke(Object target, Object[] args) throws Exception {
+        try {
+            if (invoker != null) {
+                return (Object)invoker.invokeExact(target, args);
+            } else {
+                return invokable.invoke(target, args);
+            }
+        } catch (InvocationTargetException e) {
+            throw rethrow(e.getCause());
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    RelevantAspectRuleHolder getRelevantAspectRuleHolder(String requestName) {
+        RelevantAspectRules rules = lastRelevantAspectRules;
+        if (rules != null && Objects.equals(rules.requestName, requestName)) {
+            return rules.holder;
+        }
+        return null;
+    }
+
+    void setRelevantAspectRuleHolder(String requestName, RelevantAspectRuleHolder holder) {
+        lastRelevantAspectRules = new RelevantAspectRules(requestName, holder);
+    }
+
+    private static Exception rethrow(Throwable cause) {
+        if (cause instanceof Exception) {
+            return (Exception)cause;
+        } else if (cause instanceof Error) {
+            throw (Error)cause;
+        } else {
+            return new UndeclaredThrowableException(cause);
+        }
+    }
+
+    /**
+     * Creates a method handle of type {@code (Object, Object[])Object} that
+     * invokes the given method. Returns {@code null} if the method is not
+     * accessible, in which case it is invoked through reflection.
+     */
+    private static MethodHandle createInvoker(Method method) {
+        try {
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                method.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(method);
+            }
+            int paramCount = method.getParameterCount();
+            return handle.asFixedArity()
+                    .asType(MethodType.genericMethodType(paramCount + 1))
+                    .asSpreader(Object[].class, paramCount);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static class RelevantAspectRules {
+
+        private final String requestName;
+
+        private final RelevantAspectRuleHolder holder;
+
+        private RelevantAspectRules(String requestName, RelevantAspectRuleHolder holder) {
+            this.requestName = requestName;
+            this.holder = holder;
+        }
+
+    }
+
+}
@@ -20,6 +20,8 @@ import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
 import com.aspectran.core.util.wildcard.WildcardPattern;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Modifier;
 
 import static com.aspectran.core.context.ActivityContext.ID_SEPARATOR_CHAR;
@@ -75,6 +77,48 @@ public class BeanClassScanner extends ClassScanner {
         }
     }
 
+    /**
+     * Reads the class file to skip, without loading them, classes that
+     * are excluded or that can not be instantiated as beans.
+     */
+    @Override
+    protected boolean isCandidateClass(String className, ClassFileSource classFile) {
+        if (isExcluded(className)) {
+            return false;
+        }
+        ClassFileMetadata metadata;
+        try (InputStream in = classFile.open()) {
+            metadata = ClassFileMetadata.read(in);
+        } catch (IOException e) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Unable to read class file of " + className + "; it will be loaded to check", e);
+            }
+            return true;
+        }
+        return isCandidateClass(metadata);
+    }
+
+    /**
+     * Returns whether a class with the given metadata can be a bean.
+     * @param metadata the metadata read from the class file
+     * @return true if the class should be loaded
+     * @since 7.0.5
+     */
+    boolean isCandidateClass(ClassFileMetadata metadata) {
+        return (metadata.isPublic() && (metadata.isInterface() || !metadata.isAbstract()));
+    }
+
+    private boolean isExcluded(String className) {
+        if (excludePatterns != null) {
+            for (WildcardPattern pattern : excludePatterns) {
+                if (pattern.matches(className)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private class BeanSaveHandler implements SaveHandler {
 
         private final SaveHandler saveHandler;
@@ -111,12 +155,8 @@ public class BeanClassScanner extends ClassScanner {
                 }
             }
 
-            if (excludePatterns != null) {
-                for (WildcardPattern pattern : excludePatterns) {
-                    if (pattern.matches(className)) {
-                        return;
-                    }
-                }
+            if (isExcluded(className)) {
+                return;
             }
 
             saveHandler.save(beanId, targetClass);
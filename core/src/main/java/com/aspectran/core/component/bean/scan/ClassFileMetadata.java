@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.bean.scan;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The access flags and class-level runtime-visible annotations of a class,
+ * read from its class file without loading the class.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+final class ClassFileMetadata {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private final int accessFlags;
+
+    private final List<String> annotationTypes;
+
+    private ClassFileMetadata(int accessFlags, List<String> annotationTypes) {
+        this.accessFlags = accessFlags;
+        this.annotationTypes = annotationTypes;
+    }
+
+    /**
+     * Returns whether the class is declared public in its class file.
+     * A nested class declared protected is also public in its class file.
+     */
+    boolean isPublic() {
+        return Modifier.isPublic(accessFlags);
+    }
+
+    boolean isInterface() {
+        return ((accessFlags & 0x0200) != 0);
+    }
+
+    boolean isAbstract() {
+        return ((accessFlags & 0x0400) != 0);
+    }
+
+    /**
+     * Returns whether the class is directly annotated with the given annotation.
+     * @param annotationClassName the fully qualified name of the annotation type
+     */
+    boolean hasAnnotation(String annotationClassName) {
+        String descriptor = "L" + annotationClassName.replace('.', '/') + ";";
+        return annotationTypes.contains(descriptor);
+    }
+
+    /**
+     * Reads the metadata from the contents of a class file.
+     * @param in the input stream of the class file; not closed by this method
+     * @return the class file metadata
+     * @throws IOException if the class file cannot be read or is malformed
+     */
+    static ClassFileMetadata read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        data.readUnsignedShort(); // minor version
+        data.readUnsignedShort(); // major version
+
+        int constantPoolCount = data.readUnsignedShort();
+        String[] utf8 = new String[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; i++) {
+            int tag = data.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = data.readUTF();
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    skipFully(data, 2);
+                    break;
+                case 15: // MethodHandle
+                    skipFully(data, 3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    skipFully(data, 4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    skipFully(data, 8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        int accessFlags = data.readUnsignedShort();
+        skipFully(data, 4); // this_class, super_class
+        int interfacesCount = data.readUnsignedShort();
+        skipFully(data, 2L * interfacesCount);
+        skipMembers(data); // fields
+        skipMembers(data); // methods
+
+        List<String> annotationTypes = Collections.emptyList();
+        int attributesCount = data.readUnsignedShort();
+        for (int i = 0; i < attributesCount; i++) {
+            String name = utf8[data.readUnsignedShort()];
+            long length = data.readInt() & 0xFFFFFFFFL;
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                int numAnnotations = data.readUnsignedShort();
+                annotationTypes = new ArrayList<>(numAnnotations);
+                for (int j = 0; j < numAnnotations; j++) {
+                    annotationTypes.add(utf8[data.readUnsignedShort()]);
+                    skipElementValuePairs(data);
+                }
+            } else {
+                skipFully(data, length);
+            }
+        }
+        return new ClassFileMetadata(accessFlags, annotationTypes);
+    }
+
+    private static void skipMembers(DataInputStream data) throws IOException {
+        int count = data.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            skipFully(data, 6); // access_flags, name_index, descriptor_index
+            int attributesCount = data.readUnsignedShort();
+            for (int j = 0; j < attributesCount; j++) {
+                skipFully(data, 2);
+                skipFully(data, data.readInt() & 0xFFFFFFFFL);
+            }
+        }
+    }
+
+    private static void skipElementValuePairs(DataInputStream data) throws IOException {
+        int numPairs = data.readUnsignedShort();
+        for (int i = 0; i < numPairs; i++) {
+            skipFully(data, 2); // element_name_index
+            skipElementValue(data);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream data) throws IOException {
+        int tag = data.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                skipFully(data, 4);
+                break;
+            case '@':
+                skipFully(data, 2);
+                skipElementValuePairs(data);
+                break;
+            case '[':
+                int numValues = data.readUnsignedShort();
+                for (int i = 0; i < numValues; i++) {
+                    skipElementValue(data);
+                }
+                break;
+            default:
+                // constant value or class
+                skipFully(data, 2);
+                break;
+        }
+    }
+
+    private static void skipFully(DataInputStream data, long n) throws IOException {
+        while (n > 0) {
+            long skipped = data.skip(n);
+            if (skipped <= 0) {
+                if (data.read() == -1) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.bean.scan;
+
+import com.aspectran.core.component.bean.annotation.Component;
+import com.aspectran.core.util.ClassUtils;
+import com.aspectran.core.util.logging.Logger;
+import com.aspectran.core.util.logging.LoggerFactory;
+import com.aspectran.core.util.wildcard.WildcardMatcher;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.aspectran.core.util.ClassUtils.PACKAGE_SEPARATOR_CHAR;
+import static com.aspectran.core.util.ResourceUtils.REGULAR_FILE_SEPARATOR;
+import static com.aspectran.core.util.ResourceUtils.REGULAR_FILE_SEPARATOR_CHAR;
+
+/**
+ * Scans for classes annotated with {@link Component}.
+ *
+ * <p>If a class path entry contains a component index at
+ * {@value #COMPONENT_INDEX_LOCATION}, which the {@code aspectran-component-index}
+ * annotation processor writes at compile time, the classes listed in it are
+ * used instead of listing the class files of that entry. Otherwise, each
+ * class file is read to check for the annotation, and only the annotated
+ * classes are loaded.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+public class ComponentClassScanner extends BeanClassScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComponentClassScanner.class);
+
+    /** The location of the component index in a class path entry */
+    public static final String COMPONENT_INDEX_LOCATION = "META-INF/aspectran.components";
+
+    private static final String COMPONENT_ANNOTATION_NAME = Component.class.getName();
+
+    public ComponentClassScanner(ClassLoader classLoader) {
+        super(classLoader);
+    }
+
+    @Override
+    boolean isCandidateClass(ClassFileMetadata metadata) {
+        return (super.isCandidateClass(metadata) && metadata.hasAnnotation(COMPONENT_ANNOTATION_NAME));
+    }
+
+    @Override
+    protected boolean scanFromIndex(URL resource, String basePackageName, WildcardMatcher matcher,
+                                    SaveHandler saveHandler) throws IOException {
+        String rootUrl = determineRootUrl(resource, basePackageName);
+        if (rootUrl == null) {
+            return false;
+        }
+        List<String> classNames = readComponentIndex(new URL(rootUrl + COMPONENT_INDEX_LOCATION));
+        if (classNames == null) {
+            return false;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Using component index in " + rootUrl);
+        }
+        for (String className : classNames) {
+            String classPath = className.replace(PACKAGE_SEPARATOR_CHAR, REGULAR_FILE_SEPARATOR_CHAR);
+            if (classPath.startsWith(basePackageName) &&
+                    matcher.matches(classPath.substring(basePackageName.length()))) {
+                Class<?> targetClass;
+                try {
+                    targetClass = getClassLoader().loadClass(className);
+                } catch (ClassNotFoundException e) {
+                    logger.warn("Component index in " + rootUrl + " lists a class that does not exist: " +
+                            className);
+                    continue;
+                }
+                saveHandler.save(rootUrl + classPath + ClassUtils.CLASS_FILE_SUFFIX, targetClass);
+            }
+        }
+        return true;
+    }
+
+    private static String determineRootUrl(URL resource, String basePackageName) {
+        String url = resource.toExternalForm();
+        if (!url.endsWith(REGULAR_FILE_SEPARATOR)) {
+            url += REGULAR_FILE_SEPARATOR;
+        }
+        if (url.endsWith(basePackageName)) {
+            return url.substring(0, url.length() - basePackageName.length());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the class names listed in a component index.
+     * @param indexUrl the URL of the component index
+     * @return the class names, or {@code null} if there is no index
+     * @throws IOException if the index exists but cannot be read
+     */
+    static List<String> readComponentIndex(URL indexUrl) throws IOException {
+        InputStream in;
+        try {
+            URLConnection conn = indexUrl.openConnection();
+            conn.setUseCaches(false);
+            in = conn.getInputStream();
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        List<String> classNames = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    classNames.add(line);
+                }
+            }
+        }
+        return classNames;
+    }
+
+}
@@ -15,6 +15,9 @@
  */
 package com.aspectran.core.component.bean.scope;
 
+import com.aspectran.core.activity.Activity;
+import com.aspectran.core.component.bean.BeanInstance;
+import com.aspectran.core.context.rule.BeanRule;
 import com.aspectran.core.context.rule.type.ScopeType;
 
 import java.util.concurrent.locks.ReadWriteLock;
@@ -23,6 +26,9 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 /**
  * The Class SingletonScope.
  *
+ * <p>Different singleton beans can be created concurrently, so access to
+ * the bean instances is guarded by the scope lock.</p>
+ *
  * @since 2011. 3. 12.
  */
 public final class SingletonScope extends AbstractScope {
@@ -48,4 +54,64 @@ public final class SingletonScope extends AbstractScope {
         return scopeLock;
     }
 
+    @Override
+    public BeanInstance getBeanInstance(BeanRule beanRule) {
+        scopeLock.readLock().lock();
+        try {
+            return super.getBeanInstance(beanRule);
+        } finally {
+            scopeLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void putBeanInstance(Activity activity, BeanRule beanRule, BeanInstance beanInstance) {
+        scopeLock.writeLock().lock();
+        try {
+            super.putBeanInstance(activity, beanRule, beanInstance);
+        } finally {
+            scopeLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BeanRule getBeanRule(Object bean) {
+        scopeLock.readLock().lock();
+        try {
+            return super.getBeanRule(bean);
+        } finally {
+            scopeLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsBeanRule(BeanRule beanRule) {
+        scopeLock.readLock().lock();
+        try {
+            return super.containsBeanRule(beanRule);
+        } finally {
+            scopeLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void destroy(Object bean) throws Exception {
+        scopeLock.writeLock().lock();
+        try {
+            super.destroy(bean);
+        } finally {
+            scopeLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scopeLock.writeLock().lock();
+        try {
+            super.destroy();
+        } finally {
+            scopeLock.writeLock().unlock();
+        }
+    }
+
 }
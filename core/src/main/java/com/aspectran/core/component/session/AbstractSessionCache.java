@@ -290,7 +290,7 @@ public abstract class AbstractSessionCache extends AbstractComponent implements
                     if (logger.isTraceEnabled()) {
                         logger.trace("Eviction on request exit id=" + id);
                     }
-                    doDelete(session.getId());
+                    doEvict(session.getId());
                     session.setResident(false);
                 } else {
                     session.setResident(true);
@@ -351,6 +351,16 @@ public abstract class AbstractSessionCache extends AbstractComponent implements
         return doDelete(id);
     }
 
+    /**
+     * Removes a session that is still valid from memory, leaving it in the
+     * session store. By default, it is removed as if it had been deleted.
+     * @param id the session id
+     * @return the session that was removed, or null if there was none
+     */
+    protected DefaultSession doEvict(String id) {
+        return doDelete(id);
+    }
+
     /**
      * Get the session matching the key.
      * @param id the session id
@@ -493,7 +503,11 @@ public abstract class AbstractSessionCache extends AbstractComponent implements
                 if (sessionStore != null && (isClusterEnabled() || isSaveOnInactiveEviction())) {
                     sessionStore.save(session.getId(), session.getSessionData());
                 }
-                doDelete(session.getId()); // detach from this cache
+                if (sessionStore != null) {
+                    doEvict(session.getId()); // detach from this cache
+                } else {
+                    doDelete(session.getId());
+                }
                 session.setResident(false);
             }
         } catch (Exception e) {
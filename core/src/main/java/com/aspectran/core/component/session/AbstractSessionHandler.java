@@ -50,7 +50,7 @@ public abstract class AbstractSessionHandler extends AbstractComponent implement
 
     private final Set<String> candidateSessionIdsForExpiry = ConcurrentHashMap.newKeySet();
 
-    private final Scheduler scheduler;
+    private Scheduler scheduler;
 
     private String workerName;
 
@@ -72,6 +72,22 @@ public abstract class AbstractSessionHandler extends AbstractComponent implement
         return scheduler;
     }
 
+    /**
+     * Replaces the scheduler that runs the session timers. It must be
+     * called before any component that captures the scheduler, such as
+     * the {@link HouseKeeper}, is created.
+     * @param scheduler the scheduler
+     */
+    protected void setScheduler(Scheduler scheduler) {
+        if (scheduler == null) {
+            throw new IllegalArgumentException("scheduler must not be null");
+        }
+        if (this.scheduler.isRunning()) {
+            throw new IllegalStateException("The session scheduler is already running");
+        }
+        this.scheduler = scheduler;
+    }
+
     @Override
     public String getWorkerName() {
         return workerName;
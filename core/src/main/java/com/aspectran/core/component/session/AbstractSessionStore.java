@@ -42,6 +42,10 @@ public abstract class AbstractSessionStore extends AbstractComponent implements
 
     private Set<String> nonPersistentAttributes;
 
+    private boolean saveChangedAttributesOnly;
+
+    private SessionDataSerializer sessionDataSerializer = JavaSessionDataSerializer.INSTANCE;
+
     public int getGracePeriodSecs() {
         return gracePeriodSecs;
     }
@@ -77,6 +81,39 @@ public abstract class AbstractSessionStore extends AbstractComponent implements
         this.savePeriodSecs = savePeriodSecs;
     }
 
+    public boolean isSaveChangedAttributesOnly() {
+        return saveChangedAttributesOnly;
+    }
+
+    /**
+     * Sets whether to write only the attributes that have changed since
+     * the last save, instead of rewriting the whole session.
+     * Stores that do not support this always write the whole session.
+     * Note that changes made to an attribute value without calling
+     * {@code setAttribute} again will not be detected.
+     * @param saveChangedAttributesOnly true to write only changed attributes
+     */
+    public void setSaveChangedAttributesOnly(boolean saveChangedAttributesOnly) {
+        this.saveChangedAttributesOnly = saveChangedAttributesOnly;
+    }
+
+    public SessionDataSerializer getSessionDataSerializer() {
+        return sessionDataSerializer;
+    }
+
+    /**
+     * Sets the serializer used to convert session data to and from bytes.
+     * By default, session data is written with Java object serialization.
+     * @param sessionDataSerializer the session data serializer
+     */
+    public void setSessionDataSerializer(SessionDataSerializer sessionDataSerializer) {
+        checkAlreadyInitialized();
+        if (sessionDataSerializer == null) {
+            throw new IllegalArgumentException("sessionDataSerializer must not be null");
+        }
+        this.sessionDataSerializer = sessionDataSerializer;
+    }
+
     @Override
     public Set<String> getNonPersistentAttributes() {
         return nonPersistentAttributes;
@@ -127,10 +164,21 @@ public abstract class AbstractSessionStore extends AbstractComponent implements
         if (data.isDirty() || lastSaveMs <= 0 || (System.currentTimeMillis() - lastSaveMs) > savePeriodMs) {
             // set the last saved time to now
             data.setLastSaved(System.currentTimeMillis());
+            // attributes may change while saving, so only the names taken
+            // before writing are cleared once they have been written
+            Set<String> dirtyAttributes = new HashSet<>(data.getDirtyAttributes());
             try {
-                // call the specific store method, passing in previous save time
-                doSave(id, data);
+                if (saveChangedAttributesOnly && lastSaveMs > 0) {
+                    doSaveChanges(id, data, dirtyAttributes);
+                } else {
+                    doSave(id, data);
+                }
                 data.setDirty(false); // only undo the dirty setting if we saved it
+                data.clearDirtyAttributes(dirtyAttributes);
+                if (!data.getDirtyAttributes().isEmpty()) {
+                    // changed while saving; keep it dirty so the next save writes it
+                    data.setDirty(true);
+                }
             } catch (Exception e) {
                 // reset last save time if save failed
                 data.setLastSaved(lastSaveMs);
@@ -147,6 +195,20 @@ public abstract class AbstractSessionStore extends AbstractComponent implements
      */
     public abstract void doSave(String id, SessionData data) throws Exception;
 
+    /**
+     * Store only the metadata and the given attributes of a session that has
+     * been stored before. The default implementation stores the whole session.
+     * Implementations must fall back to {@link #doSave(String, SessionData)}
+     * if there is no previously stored data to apply the changes to.
+     * @param id identity of session to store
+     * @param data info of the session
+     * @param attrNames the names of attributes changed or removed since the last save
+     * @throws Exception if unable to store data
+     */
+    public void doSaveChanges(String id, SessionData data, Set<String> attrNames) throws Exception {
+        doSave(id, data);
+    }
+
     @Override
     public Set<String> getExpired(Set<String> candidates) {
         try {
@@ -29,6 +29,8 @@ public abstract class AbstractSessionStoreFactory implements SessionStoreFactory
 
     private String[] nonPersistentAttributes;
 
+    private SessionDataSerializer sessionDataSerializer;
+
     public ApplicationAdapter getApplicationAdapter() {
         return applicationAdapter;
     }
@@ -48,4 +50,12 @@ public abstract class AbstractSessionStoreFactory implements SessionStoreFactory
         this.nonPersistentAttributes = nonPersistentAttributes;
     }
 
+    public SessionDataSerializer getSessionDataSerializer() {
+        return sessionDataSerializer;
+    }
+
+    public void setSessionDataSerializer(SessionDataSerializer sessionDataSerializer) {
+        this.sessionDataSerializer = sessionDataSerializer;
+    }
+
 }
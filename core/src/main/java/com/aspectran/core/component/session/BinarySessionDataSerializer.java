@@ -0,0 +1,718 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session;
+
+import com.aspectran.core.util.CustomObjectInputStream;
+import com.aspectran.core.util.ToStringBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A compact binary {@link SessionDataSerializer}.
+ *
+ * <p>Strings, boxed primitives, byte arrays, {@link ArrayList}, {@link HashMap}
+ * and {@link LinkedHashMap} values are written directly with variable-length
+ * integers. Values of any other type fall back to Java object serialization,
+ * as do collections that hold such a value, contain themselves or refer to
+ * the same collection or byte array more than once, so that the references
+ * between them are preserved.
+ * If a compression threshold is set, payloads larger than the threshold are
+ * compressed with Deflate.</p>
+ *
+ * <p>Data written by {@link JavaSessionDataSerializer} can still be read, so an
+ * existing store can be switched over without losing sessions.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+public class BinarySessionDataSerializer implements SessionDataSerializer {
+
+    /** Data written by the Java serializer always starts with a zero byte */
+    private static final int MAGIC = 0xA5;
+
+    private static final int KIND_DATA = 1;
+    private static final int KIND_CHANGES = 2;
+
+    private static final int FLAG_DEFLATED = 0x01;
+
+    private static final int T_NULL = 0;
+    private static final int T_STRING = 1;
+    private static final int T_INTEGER = 2;
+    private static final int T_LONG = 3;
+    private static final int T_TRUE = 4;
+    private static final int T_FALSE = 5;
+    private static final int T_DOUBLE = 6;
+    private static final int T_FLOAT = 7;
+    private static final int T_SHORT = 8;
+    private static final int T_BYTE = 9;
+    private static final int T_CHARACTER = 10;
+    private static final int T_BYTES = 11;
+    private static final int T_ARRAY_LIST = 12;
+    private static final int T_HASH_MAP = 13;
+    private static final int T_LINKED_HASH_MAP = 14;
+    private static final int T_SERIALIZED = 15;
+
+    /** Buffers larger than this are not kept for reuse */
+    private static final int MAX_CACHED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<Output> cachedOutput = ThreadLocal.withInitial(() -> new Output(1024));
+
+    private int compressionThreshold = -1;
+
+    private int compressionLevel = Deflater.BEST_SPEED;
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Sets the size in bytes above which the payload is compressed.
+     * A negative value, the default, disables compression.
+     * @param compressionThreshold the compression threshold in bytes
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets the Deflate compression level, from 1 to 9.
+     * @param compressionLevel the compression level
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        if (compressionLevel < Deflater.BEST_SPEED || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    @Override
+    public void serialize(SessionData data, OutputStream os, Set<String> nonPersistentAttributes)
+            throws IOException {
+        Output out = acquireOutput();
+        try {
+            out.writeString(data.getId());
+            out.writeVarLong(data.getCreated());
+            out.writeVarLong(data.getAccessed());
+            out.writeVarLong(data.getLastAccessed());
+            out.writeVarLong(data.getExpiry());
+            out.writeVarLong(data.getInactiveInterval());
+            Map<String, Object> attributes = data.getAllAttributes();
+            List<String> attrKeys = new ArrayList<>(attributes.size());
+            for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+                String name = entry.getKey();
+                if (entry.getValue() instanceof NonPersistent ||
+                        (nonPersistentAttributes != null && nonPersistentAttributes.contains(name))) {
+                    continue;
+                }
+                attrKeys.add(name);
+            }
+            out.writeVarInt(attrKeys.size());
+            for (String name : attrKeys) {
+                out.writeString(name);
+                writeValue(out, attributes.get(name));
+            }
+            writePayload(os, KIND_DATA, out);
+        } finally {
+            releaseOutput(out);
+        }
+    }
+
+    @Override
+    public SessionData deserialize(InputStream is) throws Exception {
+        PushbackInputStream pis = new PushbackInputStream(is, 1);
+        int first = pis.read();
+        if (first == -1) {
+            throw new EOFException();
+        }
+        pis.unread(first);
+        if (first != MAGIC) {
+            return SessionData.deserialize(pis);
+        }
+        Input in = readPayload(pis, KIND_DATA);
+        String id = in.readString();
+        long created = in.readVarLong();
+        long accessed = in.readVarLong();
+        long lastAccessed = in.readVarLong();
+        long expiry = in.readVarLong();
+        long inactiveInterval = in.readVarLong();
+        SessionData data = new SessionData(id, created, accessed, lastAccessed, inactiveInterval);
+        data.setExpiry(expiry);
+        int entries = in.readVarInt();
+        for (int i = 0; i < entries; i++) {
+            String name = in.readString();
+            data.restoreAttribute(name, readValue(in));
+        }
+        return data;
+    }
+
+    @Override
+    public void serializeChanges(SessionData data, Set<String> attrNames, OutputStream os,
+                                 Set<String> nonPersistentAttributes) throws IOException {
+        Output out = acquireOutput();
+        try {
+            out.writeVarLong(data.getAccessed());
+            out.writeVarLong(data.getLastAccessed());
+            out.writeVarLong(data.getExpiry());
+            out.writeVarLong(data.getInactiveInterval());
+            List<String> attrKeys = new ArrayList<>(attrNames.size());
+            for (String name : attrNames) {
+                if (nonPersistentAttributes == null || !nonPersistentAttributes.contains(name)) {
+                    attrKeys.add(name);
+                }
+            }
+            out.writeVarInt(attrKeys.size());
+            for (String name : attrKeys) {
+                Object value = data.getAttribute(name);
+                out.writeString(name);
+                // a null value records the removal of the attribute
+                writeValue(out, (value instanceof NonPersistent ? null : value));
+            }
+            writePayload(os, KIND_CHANGES, out);
+        } finally {
+            releaseOutput(out);
+        }
+    }
+
+    @Override
+    public void deserializeChanges(SessionData data, InputStream is) throws Exception {
+        PushbackInputStream pis = new PushbackInputStream(is, 1);
+        int first = pis.read();
+        if (first == -1) {
+            throw new EOFException();
+        }
+        pis.unread(first);
+        if (first != MAGIC) {
+            SessionData.deserializeChanges(data, pis);
+            return;
+        }
+        Input in = readPayload(pis, KIND_CHANGES);
+        data.setAccessed(in.readVarLong());
+        data.setLastAccessed(in.readVarLong());
+        data.setExpiry(in.readVarLong());
+        data.setInactiveInterval(in.readVarLong());
+        int entries = in.readVarInt();
+        for (int i = 0; i < entries; i++) {
+            String name = in.readString();
+            data.restoreAttribute(name, readValue(in));
+        }
+    }
+
+    private void writePayload(OutputStream os, int kind, Output out) throws IOException {
+        int flags = 0;
+        byte[] payload = out.buf;
+        int length = out.size;
+        int rawLength = length;
+        if (compressionThreshold >= 0 && length > compressionThreshold) {
+            Deflater deflater = new Deflater(compressionLevel);
+            try {
+                deflater.setInput(out.buf, 0, out.size);
+                deflater.finish();
+                byte[] compressed = new byte[Math.max(64, out.size / 2)];
+                int compressedLength = 0;
+                while (!deflater.finished()) {
+                    if (compressedLength == compressed.length) {
+                        byte[] grown = new byte[compressed.length * 2];
+                        System.arraycopy(compressed, 0, grown, 0, compressedLength);
+                        compressed = grown;
+                    }
+                    compressedLength += deflater.deflate(compressed, compressedLength,
+                            compressed.length - compressedLength);
+                }
+                if (compressedLength < length) {
+                    flags |= FLAG_DEFLATED;
+                    payload = compressed;
+                    length = compressedLength;
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        Output header = new Output(16);
+        header.writeByte(MAGIC);
+        header.writeByte(kind);
+        header.writeByte(flags);
+        if ((flags & FLAG_DEFLATED) != 0) {
+            header.writeVarInt(rawLength);
+        }
+        header.writeVarInt(length);
+        os.write(header.buf, 0, header.size);
+        os.write(payload, 0, length);
+    }
+
+    private Input readPayload(InputStream is, int kind) throws IOException {
+        DataInputStream dis = new DataInputStream(is);
+        dis.readUnsignedByte(); // magic
+        int actualKind = dis.readUnsignedByte();
+        if (actualKind != kind) {
+            throw new StreamCorruptedException("Unexpected record kind: " + actualKind);
+        }
+        int flags = dis.readUnsignedByte();
+        int rawLength = -1;
+        if ((flags & FLAG_DEFLATED) != 0) {
+            rawLength = readVarInt(dis);
+        }
+        int length = readVarInt(dis);
+        byte[] payload = new byte[length];
+        dis.readFully(payload);
+        if (rawLength >= 0) {
+            byte[] raw = new byte[rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(payload);
+                int n = 0;
+                while (n < rawLength) {
+                    int r = inflater.inflate(raw, n, rawLength - n);
+                    if (r == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new StreamCorruptedException("Truncated compressed session data");
+                    }
+                    n += r;
+                }
+            } catch (DataFormatException e) {
+                throw new StreamCorruptedException("Invalid compressed session data: " + e.getMessage());
+            } finally {
+                inflater.end();
+            }
+            payload = raw;
+        }
+        return new Input(payload);
+    }
+
+    private static int readVarInt(DataInputStream dis) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = dis.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable-length integer");
+    }
+
+    private static void writeValue(Output out, Object value) throws IOException {
+        if (value != null && isCollection(value.getClass()) &&
+                !isWritableDirectly(value, Collections.newSetFromMap(new IdentityHashMap<>()))) {
+            writeSerialized(out, value);
+        } else {
+            writeDirectly(out, value);
+        }
+    }
+
+    private static boolean isCollection(Class<?> type) {
+        return (type == ArrayList.class || type == HashMap.class || type == LinkedHashMap.class);
+    }
+
+    /**
+     * Returns whether the given value and everything it contains can be written
+     * without object serialization and without losing references between them.
+     * @param value the value to check
+     * @param seen the collections and byte arrays visited so far
+     * @return true if the value can be written directly
+     */
+    private static boolean isWritableDirectly(Object value, Set<Object> seen) {
+        if (value == null) {
+            return true;
+        }
+        Class<?> type = value.getClass();
+        if (type == ArrayList.class) {
+            if (!seen.add(value)) {
+                return false;
+            }
+            for (Object item : (List<?>)value) {
+                if (!isWritableDirectly(item, seen)) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (type == HashMap.class || type == LinkedHashMap.class) {
+            if (!seen.add(value)) {
+                return false;
+            }
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+                if (!isWritableDirectly(entry.getKey(), seen) || !isWritableDirectly(entry.getValue(), seen)) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (type == byte[].class) {
+            return seen.add(value);
+        } else {
+            return (type == String.class || type == Integer.class || type == Long.class ||
+                    type == Boolean.class || type == Double.class || type == Float.class ||
+                    type == Short.class || type == Byte.class || type == Character.class);
+        }
+    }
+
+    private static void writeDirectly(Output out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(T_NULL);
+            return;
+        }
+        Class<?> type = value.getClass();
+        if (type == String.class) {
+            out.writeByte(T_STRING);
+            out.writeString((String)value);
+        } else if (type == Integer.class) {
+            out.writeByte(T_INTEGER);
+            out.writeVarLong(zigzag((Integer)value));
+        } else if (type == Long.class) {
+            out.writeByte(T_LONG);
+            out.writeVarLong(zigzag((Long)value));
+        } else if (type == Boolean.class) {
+            out.writeByte((Boolean)value ? T_TRUE : T_FALSE);
+        } else if (type == Double.class) {
+            out.writeByte(T_DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits((Double)value));
+        } else if (type == Float.class) {
+            out.writeByte(T_FLOAT);
+            out.writeInt(Float.floatToRawIntBits((Float)value));
+        } else if (type == Short.class) {
+            out.writeByte(T_SHORT);
+            out.writeVarLong(zigzag((Short)value));
+        } else if (type == Byte.class) {
+            out.writeByte(T_BYTE);
+            out.writeByte((Byte)value);
+        } else if (type == Character.class) {
+            out.writeByte(T_CHARACTER);
+            out.writeVarInt((Character)value);
+        } else if (type == byte[].class) {
+            out.writeByte(T_BYTES);
+            byte[] bytes = (byte[])value;
+            out.writeVarInt(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        } else if (type == ArrayList.class) {
+            out.writeByte(T_ARRAY_LIST);
+            List<?> list = (List<?>)value;
+            out.writeVarInt(list.size());
+            for (Object item : list) {
+                writeDirectly(out, item);
+            }
+        } else if (type == HashMap.class || type == LinkedHashMap.class) {
+            out.writeByte(type == HashMap.class ? T_HASH_MAP : T_LINKED_HASH_MAP);
+            Map<?, ?> map = (Map<?, ?>)value;
+            out.writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeDirectly(out, entry.getKey());
+                writeDirectly(out, entry.getValue());
+            }
+        } else {
+            writeSerialized(out, value);
+        }
+    }
+
+    private static void writeSerialized(Output out, Object value) throws IOException {
+        out.writeByte(T_SERIALIZED);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(value);
+        }
+        out.writeVarInt(baos.size());
+        out.write(baos.toByteArray(), 0, baos.size());
+    }
+
+    private static Object readValue(Input in) throws IOException, ClassNotFoundException {
+        int type = in.readByte();
+        switch (type) {
+            case T_NULL:
+                return null;
+            case T_STRING:
+                return in.readString();
+            case T_INTEGER:
+                return (int)unzigzag(in.readVarLong());
+            case T_LONG:
+                return unzigzag(in.readVarLong());
+            case T_TRUE:
+                return Boolean.TRUE;
+            case T_FALSE:
+                return Boolean.FALSE;
+            case T_DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case T_FLOAT:
+                return Float.intBitsToFloat(in.readInt());
+            case T_SHORT:
+                return (short)unzigzag(in.readVarLong());
+            case T_BYTE:
+                return (byte)in.readByte();
+            case T_CHARACTER:
+                return (char)in.readVarInt();
+            case T_BYTES:
+                return in.readBytes(in.readVarInt());
+            case T_ARRAY_LIST: {
+                int size = in.readVarInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case T_HASH_MAP:
+            case T_LINKED_HASH_MAP: {
+                int size = in.readVarInt();
+                Map<Object, Object> map = (type == T_HASH_MAP ?
+                        new HashMap<>(size * 4 / 3 + 1) : new LinkedHashMap<>(size * 4 / 3 + 1));
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue(in);
+                    map.put(key, readValue(in));
+                }
+                return map;
+            }
+            case T_SERIALIZED: {
+                int length = in.readVarInt();
+                ByteArrayInputStream bais = new ByteArrayInputStream(in.buf, in.pos, length);
+                in.skip(length);
+                try (ObjectInputStream ois = new CustomObjectInputStream(bais)) {
+                    return ois.readObject();
+                }
+            }
+            default:
+                throw new StreamCorruptedException("Unknown value type: " + type);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static Output acquireOutput() {
+        Output out = cachedOutput.get();
+        if (out.inUse) {
+            // nested use on the same thread; should not normally happen
+            return new Output(1024);
+        }
+        out.inUse = true;
+        out.size = 0;
+        return out;
+    }
+
+    private static void releaseOutput(Output out) {
+        out.inUse = false;
+        if (out.buf.length > MAX_CACHED_BUFFER_SIZE) {
+            cachedOutput.remove();
+        }
+    }
+
+    @Override
+    public String toString() {
+        ToStringBuilder tsb = new ToStringBuilder();
+        tsb.append("compressionThreshold", compressionThreshold);
+        tsb.append("compressionLevel", compressionLevel);
+        return tsb.toString();
+    }
+
+    /**
+     * A growable byte buffer with the primitive writers used by this format.
+     */
+    private static class Output {
+
+        byte[] buf;
+
+        int size;
+
+        boolean inUse;
+
+        Output(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        private void ensureCapacity(int extra) {
+            int required = size + extra;
+            if (required > buf.length) {
+                byte[] grown = new byte[Math.max(buf.length * 2, required)];
+                System.arraycopy(buf, 0, grown, 0, size);
+                buf = grown;
+            }
+        }
+
+        void writeByte(int b) {
+            ensureCapacity(1);
+            buf[size++] = (byte)b;
+        }
+
+        void write(byte[] bytes, int off, int len) {
+            ensureCapacity(len);
+            System.arraycopy(bytes, off, buf, size, len);
+            size += len;
+        }
+
+        void writeInt(int v) {
+            ensureCapacity(4);
+            buf[size++] = (byte)(v >>> 24);
+            buf[size++] = (byte)(v >>> 16);
+            buf[size++] = (byte)(v >>> 8);
+            buf[size++] = (byte)v;
+        }
+
+        void writeLong(long v) {
+            writeInt((int)(v >>> 32));
+            writeInt((int)v);
+        }
+
+        void writeVarInt(int v) {
+            ensureCapacity(5);
+            while ((v & ~0x7F) != 0) {
+                buf[size++] = (byte)((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[size++] = (byte)v;
+        }
+
+        void writeVarLong(long v) {
+            ensureCapacity(10);
+            while ((v & ~0x7FL) != 0L) {
+                buf[size++] = (byte)((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[size++] = (byte)v;
+        }
+
+        void writeString(String s) {
+            int len = s.length();
+            // fast path for ASCII strings, which need no encoding
+            ensureCapacity(5 + len);
+            int start = size;
+            writeVarInt(len);
+            int pos = size;
+            for (int i = 0; i < len; i++) {
+                char c = s.charAt(i);
+                if (c >= 0x80) {
+                    size = start;
+                    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                    writeVarInt(bytes.length);
+                    write(bytes, 0, bytes.length);
+                    return;
+                }
+                buf[pos++] = (byte)c;
+            }
+            size = pos;
+        }
+
+    }
+
+    /**
+     * Reads the primitives written by {@link Output} from a byte array.
+     */
+    private static class Input {
+
+        final byte[] buf;
+
+        int pos;
+
+        Input(byte[] buf) {
+            this.buf = buf;
+        }
+
+        private void require(int n) throws EOFException {
+            if (pos + n > buf.length) {
+                throw new EOFException();
+            }
+        }
+
+        int readByte() throws EOFException {
+            require(1);
+            return buf[pos++] & 0xFF;
+        }
+
+        int readInt() throws EOFException {
+            require(4);
+            int v = ((buf[pos] & 0xFF) << 24) | ((buf[pos + 1] & 0xFF) << 16) |
+                    ((buf[pos + 2] & 0xFF) << 8) | (buf[pos + 3] & 0xFF);
+            pos += 4;
+            return v;
+        }
+
+        long readLong() throws EOFException {
+            long high = readInt() & 0xFFFFFFFFL;
+            long low = readInt() & 0xFFFFFFFFL;
+            return (high << 32) | low;
+        }
+
+        int readVarInt() throws IOException {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new StreamCorruptedException("Malformed variable-length integer");
+        }
+
+        long readVarLong() throws IOException {
+            long result = 0L;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long)(b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new StreamCorruptedException("Malformed variable-length integer");
+        }
+
+        byte[] readBytes(int len) throws EOFException {
+            require(len);
+            byte[] bytes = new byte[len];
+            System.arraycopy(buf, pos, bytes, 0, len);
+            pos += len;
+            return bytes;
+        }
+
+        void skip(int len) throws EOFException {
+            require(len);
+            pos += len;
+        }
+
+        String readString() throws IOException {
+            int len = readVarInt();
+            require(len);
+            String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+
+    }
+
+}
@@ -45,6 +45,9 @@ public class DefaultSession implements Session {
 
     private boolean resident;
 
+    /** the time this session was last looked up in the session cache */
+    private volatile long lastCacheAccessed;
+
     private int requests;
 
     private State state = State.VALID;
@@ -398,6 +401,14 @@ public class DefaultSession implements Session {
         }
     }
 
+    long getLastCacheAccessed() {
+        return lastCacheAccessed;
+    }
+
+    void setLastCacheAccessed(long lastCacheAccessed) {
+        this.lastCacheAccessed = lastCacheAccessed;
+    }
+
     /**
      * Check to see if session has expired as at the time given.
      * @param time the time since the epoch in ms
@@ -19,16 +19,31 @@ import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
 import com.aspectran.core.util.statistic.CounterStatistic;
 import com.aspectran.core.util.thread.AutoLock;
+import com.aspectran.core.util.thread.Scheduler;
 
+import java.util.HashSet;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 /**
  * Implementation of {@code SessionCache}.
  *
+ * <p>If a maximum number of resident sessions is set and there is a session
+ * store, the cache works as the memory tier in front of the store: once the
+ * limit is exceeded, the least recently looked up sessions that are not in
+ * use are saved to the store and dropped from memory, in a batch run on the
+ * session scheduler, until the cache is {@value #EVICTION_HEADROOM_PERCENT}%
+ * below the limit. The number of resident sessions can briefly exceed the
+ * limit while the batch is pending. Evicted sessions are loaded back from
+ * the store when they are next accessed. Evicted sessions still count as
+ * active sessions, and towards the maximum number of sessions.</p>
+ *
  * <p>Created: 2017. 6. 24.</p>
  */
 public class DefaultSessionCache extends AbstractSessionCache {
@@ -44,9 +59,25 @@ public class DefaultSessionCache extends AbstractSessionCache {
 
     private final AtomicLong rejectedSessionCount = new AtomicLong();
 
+    private final CounterStatistic evictions = new CounterStatistic();
+
+    private final CounterStatistic hits = new CounterStatistic();
+
+    private final CounterStatistic misses = new CounterStatistic();
+
+    /** the ids of sessions evicted to the store, which are still active */
+    private final Set<String> evictedSessionIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean evictionPending = new AtomicBoolean();
+
+    private static final int EVICTION_HEADROOM_PERCENT = 5;
+
     /** Determines the maximum number of active sessions allowed. */
     private volatile int maxSessions;
 
+    /** Determines the maximum number of sessions kept in memory. */
+    private volatile int maxResidentSessions;
+
     public DefaultSessionCache(SessionHandler sessionHandler, SessionStore sessionStore, boolean clusterEnabled) {
         super(sessionHandler, sessionStore, clusterEnabled);
     }
@@ -61,12 +92,33 @@ public class DefaultSessionCache extends AbstractSessionCache {
         this.maxSessions = maxSessions;
     }
 
+    @Override
+    public int getMaxResidentSessions() {
+        return maxResidentSessions;
+    }
+
+    @Override
+    public void setMaxResidentSessions(int maxResidentSessions) {
+        this.maxResidentSessions = maxResidentSessions;
+    }
+
+    @Override
+    public int getResidentSessionCount() {
+        return sessions.size();
+    }
+
     @Override
     protected DefaultSession doGet(String id) {
         if (id == null) {
             return null;
         }
-        return sessions.get(id);
+        DefaultSession session = sessions.get(id);
+        if (session != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return session;
     }
 
     @Override
@@ -74,19 +126,38 @@ public class DefaultSessionCache extends AbstractSessionCache {
         DefaultSession ds = sessions.putIfAbsent(id, session);
         if (ds == null) {
             checkMaxSessions(id);
+            session.setLastCacheAccessed(System.nanoTime());
+            checkMaxResidentSessions();
         }
         return ds;
     }
 
     @Override
     protected DefaultSession doComputeIfAbsent(String id, Function<String, DefaultSession> mappingFunction) {
-        return sessions.computeIfAbsent(id, k -> {
+        boolean[] missed = new boolean[1];
+        DefaultSession session = sessions.computeIfAbsent(id, k -> {
+            missed[0] = true;
             DefaultSession ds = mappingFunction.apply(k);
-            if (ds != null) {
+            // an evicted session has stayed active while out of memory, so it is
+            // already counted; one that could not be loaded is forgotten only once
+            // it has been deleted, as loading may also have failed for other reasons
+            if (ds != null && !evictedSessionIds.remove(k)) {
                 checkMaxSessions(null);
             }
             return ds;
         });
+        if (missed[0]) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        if (session != null) {
+            session.setLastCacheAccessed(System.nanoTime());
+            if (missed[0]) {
+                checkMaxResidentSessions();
+            }
+        }
+        return session;
     }
 
     @Override
@@ -99,6 +170,40 @@ public class DefaultSessionCache extends AbstractSessionCache {
         return ds;
     }
 
+    @Override
+    protected DefaultSession doEvict(String id) {
+        DefaultSession ds = sessions.remove(id);
+        if (ds != null) {
+            // it stays active in the session store until it expires or is loaded back
+            evictedSessionIds.add(id);
+        }
+        return ds;
+    }
+
+    @Override
+    public DefaultSession delete(String id) throws Exception {
+        DefaultSession session = super.delete(id);
+        if (evictedSessionIds.remove(id)) {
+            // an evicted session that was no longer in the store could not be loaded back
+            statistics.decrement();
+            expiredSessionCount.incrementAndGet();
+        }
+        return session;
+    }
+
+    @Override
+    public Set<String> checkExpiration(Set<String> candidates) {
+        if (!evictedSessionIds.isEmpty() && getSessionStore() != null) {
+            // evicted sessions are not resident, so no timer makes them candidates;
+            // the store reports those that have expired or no longer exist,
+            // for example because another node has invalidated them
+            Set<String> allCandidates = new HashSet<>(candidates);
+            allCandidates.addAll(evictedSessionIds);
+            candidates = allCandidates;
+        }
+        return super.checkExpiration(candidates);
+    }
+
     @Override
     protected boolean doReplace(String id, DefaultSession oldValue, DefaultSession newValue) {
         return sessions.replace(id, oldValue, newValue);
@@ -117,6 +222,92 @@ public class DefaultSessionCache extends AbstractSessionCache {
         }
     }
 
+    /**
+     * Schedules the eviction of the least recently used sessions if there
+     * are more resident sessions than allowed and none is already pending.
+     */
+    private void checkMaxResidentSessions() {
+        int max = maxResidentSessions;
+        if (max > 0 && getSessionStore() != null && sessions.size() > max &&
+                evictionPending.compareAndSet(false, true)) {
+            Scheduler scheduler = getSessionHandler().getScheduler();
+            if (scheduler != null && scheduler.isRunning()) {
+                scheduler.schedule(this::evictLeastRecentlyUsed, 0L, TimeUnit.MILLISECONDS);
+            } else {
+                evictLeastRecentlyUsed();
+            }
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        try {
+            int max = maxResidentSessions;
+            long excess = (long)sessions.size() - max;
+            if (max <= 0 || excess <= 0L || isDestroying() || isDestroyed()) {
+                return;
+            }
+            int count = (int)Math.min(excess + (long)max * EVICTION_HEADROOM_PERCENT / 100, Integer.MAX_VALUE);
+            // keep the least recently used sessions in a heap whose head is the most recent of them
+            PriorityQueue<EvictionCandidate> candidates = new PriorityQueue<>(count,
+                    (c1, c2) -> Long.compare(c2.lastAccessed, c1.lastAccessed));
+            for (DefaultSession session : sessions.values()) {
+                long lastAccessed = session.getLastCacheAccessed();
+                if (candidates.size() < count) {
+                    candidates.add(new EvictionCandidate(session, lastAccessed));
+                } else if (lastAccessed - candidates.peek().lastAccessed < 0L) {
+                    candidates.poll();
+                    candidates.add(new EvictionCandidate(session, lastAccessed));
+                }
+            }
+            int evicted = 0;
+            for (EvictionCandidate candidate : candidates) {
+                if (evict(candidate.session, candidate.lastAccessed)) {
+                    evicted++;
+                }
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Evicted " + evicted + " least recently used sessions to the session store; " +
+                        sessions.size() + " sessions remain resident");
+            }
+            if (evicted == 0) {
+                // all candidates are in use; wait for the next session to be added
+                return;
+            }
+        } finally {
+            evictionPending.set(false);
+        }
+        // sessions added while evicting may have pushed the cache over the limit again
+        checkMaxResidentSessions();
+    }
+
+    /**
+     * Saves the session to the store and drops it from memory. The session
+     * lock is held while saving: the session is not in use, so only requests
+     * that are about to use it wait, and they would otherwise have to load it
+     * back from the store. Writing outside the lock would let such a request
+     * change the session while an older snapshot of it is still being written.
+     */
+    private boolean evict(DefaultSession session, long lastAccessed) {
+        try (AutoLock ignored = session.lock()) {
+            // sessions that are in use or were looked up since the scan stay resident
+            if (session.getLastCacheAccessed() != lastAccessed || !session.isValid() ||
+                    !session.isResident() || session.getRequests() > 0) {
+                return false;
+            }
+            String id = session.getId();
+            getSessionStore().save(id, session.getSessionData());
+            if (sessions.remove(id, session)) {
+                evictedSessionIds.add(id);
+                evictions.increment();
+            }
+            session.setResident(false);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Eviction of session " + session.getId() + " failed", e);
+            return false;
+        }
+    }
+
     @Override
     public Set<String> getAllSessions() {
         return sessions.keySet();
@@ -147,17 +338,37 @@ public class DefaultSessionCache extends AbstractSessionCache {
         return rejectedSessionCount.get();
     }
 
+    @Override
+    public long getEvictedSessionCount() {
+        return evictions.getTotal();
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return hits.getTotal();
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        return misses.getTotal();
+    }
+
     @Override
     public void resetStatistics() {
         statistics.reset();
         expiredSessionCount.set(0L);
         rejectedSessionCount.set(0L);
+        evictions.reset(0L);
+        hits.reset(0L);
+        misses.reset(0L);
     }
 
     @Override
     protected void doInitialize() throws Exception {
         if (getSessionStore() != null) {
             getSessionStore().initialize();
+        } else if (maxResidentSessions > 0) {
+            logger.warn("maxResidentSessions is ignored because there is no session store to evict sessions to");
         }
     }
 
@@ -205,9 +416,23 @@ public class DefaultSessionCache extends AbstractSessionCache {
                 }
             }
         }
+        evictedSessionIds.clear();
         if (getSessionStore() != null) {
             getSessionStore().destroy();
         }
     }
 
+    private static class EvictionCandidate {
+
+        private final DefaultSession session;
+
+        private final long lastAccessed;
+
+        private EvictionCandidate(DefaultSession session, long lastAccessed) {
+            this.session = session;
+            this.lastAccessed = lastAccessed;
+        }
+
+    }
+
 }
@@ -21,8 +21,10 @@ import com.aspectran.core.component.bean.aware.ApplicationAdapterAware;
 import com.aspectran.core.context.config.SessionFileStoreConfig;
 import com.aspectran.core.context.config.SessionManagerConfig;
 import com.aspectran.core.util.StringUtils;
+import com.aspectran.core.util.thread.TimingWheelScheduler;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of SessionManager.
@@ -89,6 +91,13 @@ public class DefaultSessionManager extends AbstractSessionHandler
             if (sessionManagerConfig.isClusterEnabled()) {
                 clusterEnabled = true;
             }
+            if (sessionManagerConfig.hasSchedulerTickMillis()) {
+                int millis = sessionManagerConfig.getSchedulerTickMillis();
+                if (millis > 0) {
+                    setScheduler(new TimingWheelScheduler(String.format("SessionScheduler-%x", hashCode()),
+                            false, millis, TimeUnit.MILLISECONDS));
+                }
+            }
             if (sessionManagerConfig.hasWorkerName()) {
                 setWorkerName(sessionManagerConfig.getWorkerName());
             }
@@ -109,7 +118,11 @@ public class DefaultSessionManager extends AbstractSessionHandler
         }
 
         if (getSessionIdGenerator() == null) {
-            SessionIdGenerator sessionIdGenerator = new SessionIdGenerator(getWorkerName());
+            int stripes = 0;
+            if (sessionManagerConfig != null && sessionManagerConfig.hasIdGeneratorStripes()) {
+                stripes = sessionManagerConfig.getIdGeneratorStripes();
+            }
+            SessionIdGenerator sessionIdGenerator = new SessionIdGenerator(getWorkerName(), stripes);
             setSessionIdGenerator(sessionIdGenerator);
         }
 
@@ -119,7 +132,24 @@ public class DefaultSessionManager extends AbstractSessionHandler
                 sessionStore = sessionStoreFactory.getSessionStore();
             } else if (sessionManagerConfig != null) {
                 SessionFileStoreConfig fileStoreConfig = sessionManagerConfig.getFileStoreConfig();
-                if (fileStoreConfig != null) {
+                if (fileStoreConfig != null && fileStoreConfig.isSharded()) {
+                    ShardedFileSessionStoreFactory shardedFileSessionStoreFactory = new ShardedFileSessionStoreFactory();
+                    shardedFileSessionStoreFactory.setApplicationAdapter(applicationAdapter);
+                    String storeDir = fileStoreConfig.getStoreDir();
+                    if (StringUtils.hasText(storeDir)) {
+                        shardedFileSessionStoreFactory.setStoreDir(storeDir);
+                    }
+                    boolean deleteUnrestorableFiles = fileStoreConfig.isDeleteUnrestorableFiles();
+                    if (deleteUnrestorableFiles) {
+                        shardedFileSessionStoreFactory.setDeleteUnrestorableFiles(true);
+                    }
+                    String[] nonPersistentAttributes = fileStoreConfig.getNonPersistentAttributes();
+                    if (nonPersistentAttributes != null) {
+                        shardedFileSessionStoreFactory.setNonPersistentAttributes(nonPersistentAttributes);
+                    }
+                    sessionStoreFactory = shardedFileSessionStoreFactory;
+                    sessionStore = shardedFileSessionStoreFactory.getSessionStore();
+                } else if (fileStoreConfig != null) {
                     FileSessionStoreFactory fileSessionStoreFactory = new FileSessionStoreFactory();
                     fileSessionStoreFactory.setApplicationAdapter(applicationAdapter);
                     String storeDir = fileStoreConfig.getStoreDir();
@@ -130,6 +160,10 @@ public class DefaultSessionManager extends AbstractSessionHandler
                     if (deleteUnrestorableFiles) {
                         fileSessionStoreFactory.setDeleteUnrestorableFiles(true);
                     }
+                    boolean saveChangedAttributesOnly = fileStoreConfig.isSaveChangedAttributesOnly();
+                    if (saveChangedAttributesOnly) {
+                        fileSessionStoreFactory.setSaveChangedAttributesOnly(true);
+                    }
                     String[] nonPersistentAttributes = fileStoreConfig.getNonPersistentAttributes();
                     if (nonPersistentAttributes != null) {
                         fileSessionStoreFactory.setNonPersistentAttributes(nonPersistentAttributes);
@@ -145,6 +179,10 @@ public class DefaultSessionManager extends AbstractSessionHandler
                     int maxSessions = sessionManagerConfig.getMaxSessions();
                     sessionCache.setMaxSessions(maxSessions);
                 }
+                if (sessionManagerConfig.hasMaxResidentSessions()) {
+                    int maxResidentSessions = sessionManagerConfig.getMaxResidentSessions();
+                    sessionCache.setMaxResidentSessions(maxResidentSessions);
+                }
                 if (sessionManagerConfig.hasEvictionIdleSeconds()) {
                     int secs = sessionManagerConfig.getEvictionIdleSeconds();
                     sessionCache.setEvictionIdleSecs(secs);
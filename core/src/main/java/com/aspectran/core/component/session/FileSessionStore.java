@@ -21,6 +21,12 @@ import com.aspectran.core.util.ToStringBuilder;
 import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -28,6 +34,7 @@ import java.io.IOException;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -41,8 +48,14 @@ public class FileSessionStore extends AbstractSessionStore {
 
     private static final Logger logger = LoggerFactory.getLogger(FileSessionStore.class);
 
+    /** the maximum number of change records appended before the session file is rewritten */
+    private static final int MAX_CHANGE_RECORDS = 16;
+
     private final Map<String, String> sessionFilenames = new ConcurrentHashMap<>();
 
+    /** the number of change records appended to each session file since it was last rewritten */
+    private final Map<String, Integer> changeRecordCounts = new ConcurrentHashMap<>();
+
     private File storeDir;
 
     private boolean deleteUnrestorableFiles = true;
@@ -84,8 +97,15 @@ public class FileSessionStore extends AbstractSessionStore {
             }
             return null;
         }
-        try (FileInputStream in = new FileInputStream(file)) {
-            SessionData data = SessionData.deserialize(in);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            SessionData data = getSessionDataSerializer().deserialize(in);
+            int records = restoreChanges(in, data);
+            if (records >= 0) {
+                changeRecordCounts.put(id, records);
+            } else {
+                // never append after a torn record; the next save rewrites the file
+                changeRecordCounts.put(id, MAX_CHANGE_RECORDS);
+            }
             data.setLastSaved(file.lastModified());
             return data;
         } catch (Exception e) {
@@ -97,6 +117,7 @@ public class FileSessionStore extends AbstractSessionStore {
     public boolean delete(String id) throws Exception {
         if (storeDir != null) {
             // remove from our map
+            changeRecordCounts.remove(id);
             String filename = sessionFilenames.remove(id);
             if (filename == null) {
                 return false;
@@ -146,8 +167,9 @@ public class FileSessionStore extends AbstractSessionStore {
             String filename = getIdWithExpiry(data);
             File file = new File(storeDir, filename);
             try (FileOutputStream fos = new FileOutputStream(file,false)) {
-                SessionData.serialize(data, fos, getNonPersistentAttributes());
+                getSessionDataSerializer().serialize(data, fos, getNonPersistentAttributes());
                 sessionFilenames.put(id, filename);
+                changeRecordCounts.put(id, 0);
             } catch (Exception e) {
                 file.delete(); // No point keeping the file if we didn't save the whole session
                 throw new UnwritableSessionDataException(id, e);
@@ -155,6 +177,77 @@ public class FileSessionStore extends AbstractSessionStore {
         }
     }
 
+    /**
+     * Appends a change record containing only the given attributes to the
+     * existing session file, and renames the file if the expiry has changed.
+     * The whole session is rewritten if there is no file for the session yet,
+     * if the file has not been read or written by this store, if it ends with
+     * a torn change record, or if too many change records have accumulated.
+     */
+    @Override
+    public void doSaveChanges(String id, SessionData data, Set<String> attrNames) throws Exception {
+        if (storeDir != null) {
+            String filename = sessionFilenames.get(id);
+            Integer count = changeRecordCounts.get(id);
+            File file = (filename != null ? new File(storeDir, filename) : null);
+            if (file == null || count == null || count >= MAX_CHANGE_RECORDS || !file.exists()) {
+                doSave(id, data);
+                return;
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            getSessionDataSerializer().serializeChanges(data, attrNames, baos, getNonPersistentAttributes());
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file, true))) {
+                out.writeInt(baos.size());
+                baos.writeTo(out);
+            } catch (Exception e) {
+                // the record may have been written in part, so rewrite the file next time
+                changeRecordCounts.put(id, MAX_CHANGE_RECORDS);
+                throw new UnwritableSessionDataException(id, e);
+            }
+            changeRecordCounts.put(id, count + 1);
+            String newFilename = getIdWithExpiry(data);
+            if (!newFilename.equals(filename)) {
+                Files.move(file.toPath(), new File(storeDir, newFilename).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+                sessionFilenames.put(id, newFilename);
+            }
+        }
+    }
+
+    /**
+     * Applies the change records that follow the session data in a session file.
+     * A truncated record at the end of the file, as left by an interrupted write,
+     * is ignored.
+     * @param in the input stream positioned after the session data
+     * @param data the session data to apply the changes to
+     * @return the number of change records applied, or -1 if the file ends
+     *      with a truncated record
+     * @throws Exception if a change record could not be read
+     */
+    private int restoreChanges(DataInputStream in, SessionData data) throws Exception {
+        int count = 0;
+        while (true) {
+            int b = in.read();
+            if (b == -1) {
+                return count;
+            }
+            byte[] record;
+            try {
+                int length = (b << 24) | (in.readUnsignedByte() << 16) |
+                        (in.readUnsignedByte() << 8) | in.readUnsignedByte();
+                if (length < 0 || length > in.available()) {
+                    return -1;
+                }
+                record = new byte[length];
+                in.readFully(record);
+            } catch (EOFException e) {
+                return -1;
+            }
+            getSessionDataSerializer().deserializeChanges(data, new ByteArrayInputStream(record));
+            count++;
+        }
+    }
+
     /**
      * Check to see which sessions have expired.
      * @param candidates the set of session ids that the SessionCache believes
@@ -310,6 +403,7 @@ public class FileSessionStore extends AbstractSessionStore {
     @Override
     protected void doDestroy() {
         sessionFilenames.clear();
+        changeRecordCounts.clear();
         lastSweepTime = 0L;
     }
 
@@ -26,6 +26,8 @@ public class FileSessionStoreFactory extends AbstractSessionStoreFactory {
 
     private boolean deleteUnrestorableFiles;
 
+    private boolean saveChangedAttributesOnly;
+
     public void setStoreDir(String storeDir) {
         this.storeDir = storeDir;
     }
@@ -34,6 +36,10 @@ public class FileSessionStoreFactory extends AbstractSessionStoreFactory {
         this.deleteUnrestorableFiles = deleteUnrestorableFiles;
     }
 
+    public void setSaveChangedAttributesOnly(boolean saveChangedAttributesOnly) {
+        this.saveChangedAttributesOnly = saveChangedAttributesOnly;
+    }
+
     @Override
     public SessionStore getSessionStore() throws IOException {
         FileSessionStore sessionStore = new FileSessionStore();
@@ -54,6 +60,12 @@ public class FileSessionStoreFactory extends AbstractSessionStoreFactory {
         if (deleteUnrestorableFiles) {
             sessionStore.setDeleteUnrestorableFiles(true);
         }
+        if (saveChangedAttributesOnly) {
+            sessionStore.setSaveChangedAttributesOnly(true);
+        }
+        if (getSessionDataSerializer() != null) {
+            sessionStore.setSessionDataSerializer(getSessionDataSerializer());
+        }
         return sessionStore;
     }
 
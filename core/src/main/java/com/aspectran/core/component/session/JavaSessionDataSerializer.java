@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Set;
+
+/**
+ * The default {@link SessionDataSerializer} which writes attribute values
+ * with Java object serialization.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+public class JavaSessionDataSerializer implements SessionDataSerializer {
+
+    public static final JavaSessionDataSerializer INSTANCE = new JavaSessionDataSerializer();
+
+    @Override
+    public void serialize(SessionData data, OutputStream os, Set<String> nonPersistentAttributes)
+            throws IOException {
+        SessionData.serialize(data, os, nonPersistentAttributes);
+    }
+
+    @Override
+    public SessionData deserialize(InputStream is) throws Exception {
+        return SessionData.deserialize(is);
+    }
+
+    @Override
+    public void serializeChanges(SessionData data, Set<String> attrNames, OutputStream os,
+                                 Set<String> nonPersistentAttributes) throws IOException {
+        SessionData.serializeChanges(data, attrNames, os, nonPersistentAttributes);
+    }
+
+    @Override
+    public void deserializeChanges(SessionData data, InputStream is) throws Exception {
+        SessionData.deserializeChanges(data, is);
+    }
+
+}
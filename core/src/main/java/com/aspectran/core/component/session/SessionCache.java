@@ -43,6 +43,24 @@ public interface SessionCache {
      */
     void setMaxSessions(int maxSessions);
 
+    int getMaxResidentSessions();
+
+    /**
+     * Sets the maximum number of sessions kept in memory. When the limit is
+     * exceeded, the least recently used sessions that are not in use are
+     * saved to the session store and evicted from memory, to be loaded back
+     * when they are next accessed. Has no effect without a session store.
+     * @param maxResidentSessions the maximum number of resident sessions;
+     *      {@code 0} for no limit
+     */
+    void setMaxResidentSessions(int maxResidentSessions);
+
+    /**
+     * @return the number of sessions currently kept in memory, which is
+     *      less than the number of active sessions if some were evicted
+     */
+    int getResidentSessionCount();
+
     int getEvictionIdleSecs();
 
     /**
@@ -182,7 +200,8 @@ public interface SessionCache {
     Set<String> getAllSessions();
 
     /**
-     * @return the number of sessions in the cache
+     * @return the number of sessions in the cache, including those that
+     *      have been evicted from memory but are still in the session store
      */
     long getActiveSessionCount();
 
@@ -200,6 +219,22 @@ public interface SessionCache {
 
     long getRejectedSessionCount();
 
+    /**
+     * @return the number of sessions evicted from memory because the
+     *      maximum number of resident sessions was exceeded
+     */
+    long getEvictedSessionCount();
+
+    /**
+     * @return the number of lookups that found the session in memory
+     */
+    long getCacheHitCount();
+
+    /**
+     * @return the number of lookups that had to go to the session store
+     */
+    long getCacheMissCount();
+
     /**
      * Resets the running total session count in the cache.
      */
@@ -27,6 +27,7 @@ import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -65,6 +66,9 @@ public class SessionData implements Serializable {
 
     private final Map<String, Object> attributes = new ConcurrentHashMap<>();
 
+    /** names of attributes changed or removed since the last save */
+    private final Set<String> dirtyAttributes = ConcurrentHashMap.newKeySet();
+
     public SessionData(String id, long created, long accessed, long lastAccessed, long inactiveInterval) {
         if (id == null) {
             throw new IllegalArgumentException("id must not be null");
@@ -179,10 +183,30 @@ public class SessionData implements Serializable {
         if (value == null && old == null) {
             return null;
         }
+        dirtyAttributes.add(name);
         setDirty(true);
         return old;
     }
 
+    /**
+     * Returns the names of attributes that have been changed or removed
+     * since the last time they were cleared.
+     * @return an unmodifiable set of attribute names
+     */
+    public Set<String> getDirtyAttributes() {
+        return Collections.unmodifiableSet(dirtyAttributes);
+    }
+
+    /**
+     * Clears the given attribute names from the set of changed attributes.
+     * Only the names that were actually written out should be cleared,
+     * so that attributes changed while saving are not missed.
+     * @param names the attribute names to clear
+     */
+    public void clearDirtyAttributes(Collection<String> names) {
+        dirtyAttributes.removeAll(names);
+    }
+
     /**
      * @return a Set of attribute names
      */
@@ -206,6 +230,20 @@ public class SessionData implements Serializable {
         this.attributes.putAll(attributes);
     }
 
+    /**
+     * Sets or removes an attribute read back from a session store
+     * without marking it as changed.
+     * @param name the attribute name
+     * @param value the attribute value, or {@code null} to remove it
+     */
+    void restoreAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
     /**
      * Removes all attributes.
      */
@@ -269,6 +307,74 @@ public class SessionData implements Serializable {
         }
     }
 
+    /**
+     * Save only the metadata of the session data and the given attributes.
+     * Attributes that no longer exist are recorded as removed.
+     * @param data the session data
+     * @param attrNames the names of the attributes to save
+     * @param os the output stream to save to
+     * @param nonPersistentAttributes the attribute names to be excluded from serialization
+     * @throws IOException if an I/O error has occurred
+     * @see #deserializeChanges(SessionData, InputStream)
+     */
+    public static void serializeChanges(SessionData data, Set<String> attrNames, OutputStream os,
+                                        Set<String> nonPersistentAttributes) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeLong(data.getAccessed());
+        out.writeLong(data.getLastAccessed());
+        out.writeLong(data.getExpiry());
+        out.writeLong(data.getInactiveInterval());
+
+        List<String> attrKeys = new ArrayList<>(attrNames.size());
+        for (String name : attrNames) {
+            if (nonPersistentAttributes == null || !nonPersistentAttributes.contains(name)) {
+                attrKeys.add(name);
+            }
+        }
+        out.writeInt(attrKeys.size());
+        if (!attrKeys.isEmpty()) {
+            ObjectOutputStream oos = new ObjectOutputStream(out);
+            for (String name : attrKeys) {
+                Object value = data.getAttribute(name);
+                oos.writeUTF(name);
+                if (value == null || value instanceof NonPersistent) {
+                    oos.writeBoolean(false);
+                } else {
+                    oos.writeBoolean(true);
+                    oos.writeObject(value);
+                }
+            }
+            oos.flush();
+        }
+    }
+
+    /**
+     * Apply the changes saved by {@link #serializeChanges(SessionData, Set, OutputStream, Set)}
+     * to the given session data.
+     * @param data the session data to apply the changes to
+     * @param is the input stream containing the changes
+     * @throws Exception if the changes could not be read
+     */
+    public static void deserializeChanges(SessionData data, InputStream is) throws Exception {
+        DataInputStream dis = new DataInputStream(is);
+        data.setAccessed(dis.readLong());
+        data.setLastAccessed(dis.readLong());
+        data.setExpiry(dis.readLong());
+        data.setInactiveInterval(dis.readLong());
+        int entries = dis.readInt();
+        if (entries > 0) {
+            ObjectInputStream ois = new CustomObjectInputStream(dis);
+            for (int i = 0; i < entries; i++) {
+                String name = ois.readUTF();
+                if (ois.readBoolean()) {
+                    data.restoreAttribute(name, ois.readObject());
+                } else {
+                    data.restoreAttribute(name, null);
+                }
+            }
+        }
+    }
+
     /**
      * Load session data from an input stream that contains session data.
      * @param is the input stream containing session data
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Set;
+
+/**
+ * Converts session data to and from the byte format kept by a session store.
+ *
+ * <p>Implementations must not read past the end of the data they wrote,
+ * because a store may keep more records after it in the same stream.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @see JavaSessionDataSerializer
+ * @see BinarySessionDataSerializer
+ */
+public interface SessionDataSerializer {
+
+    /**
+     * Writes the whole session data.
+     * @param data the session data
+     * @param os the output stream to write to
+     * @param nonPersistentAttributes the attribute names to be excluded from serialization
+     * @throws IOException if an I/O error has occurred
+     */
+    void serialize(SessionData data, OutputStream os, Set<String> nonPersistentAttributes)
+            throws IOException;
+
+    /**
+     * Reads the session data written by {@link #serialize}.
+     * @param is the input stream to read from
+     * @return the session data
+     * @throws Exception if the session data could not be read
+     */
+    SessionData deserialize(InputStream is) throws Exception;
+
+    /**
+     * Writes only the metadata of the session data and the given attributes.
+     * Attributes that no longer exist are recorded as removed.
+     * @param data the session data
+     * @param attrNames the names of the attributes to write
+     * @param os the output stream to write to
+     * @param nonPersistentAttributes the attribute names to be excluded from serialization
+     * @throws IOException if an I/O error has occurred
+     */
+    void serializeChanges(SessionData data, Set<String> attrNames, OutputStream os,
+                          Set<String> nonPersistentAttributes) throws IOException;
+
+    /**
+     * Applies the changes written by {@link #serializeChanges} to the given session data.
+     * @param data the session data to apply the changes to
+     * @param is the input stream to read from
+     * @throws Exception if the changes could not be read
+     */
+    void deserializeChanges(SessionData data, InputStream is) throws Exception;
+
+}
@@ -18,6 +18,7 @@ package com.aspectran.core.component.session;
 import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
 
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -25,6 +26,14 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * The Session ID Generator.
  *
+ * <p>By default, all ids are drawn from one shared {@link SecureRandom}, so
+ * threads that create sessions at the same time wait for each other. If a
+ * number of stripes is given, each thread draws from one of that many
+ * independent sources instead, each seeded from the shared
+ * {@code SecureRandom} and reseeded every {@value #RESEED_INTERVAL} ids.
+ * Ids have the same form in both modes, and end with the worker name that
+ * clustered deployments use to route requests.</p>
+ *
  * <p>Created: 2017. 6. 12.</p>
  */
 public class SessionIdGenerator {
@@ -33,10 +42,24 @@ public class SessionIdGenerator {
 
     private static final AtomicLong COUNTER = new AtomicLong();
 
-    private final String workerName;
+    /** The number of ids a stripe generates before it is reseeded */
+    private static final int RESEED_INTERVAL = 100_000;
+
+    private static final int SEED_LENGTH = 32;
+
+    /** The maximum number of chars of two base-36 longs and a decimal counter */
+    private static final int MAX_ID_LENGTH = 13 + 13 + 19;
+
+    private static final char[] DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private final char[] workerSuffix;
 
     private final Random random;
 
+    private final Stripe[] stripes;
+
+    private final int stripeMask;
+
     private boolean weakRandom;
 
     public SessionIdGenerator() {
@@ -44,11 +67,39 @@ public class SessionIdGenerator {
     }
 
     public SessionIdGenerator(String workerName) {
+        this(workerName, 0);
+    }
+
+    /**
+     * Instantiates a new SessionIdGenerator.
+     * @param workerName the worker name appended to each id; may be {@code null}
+     * @param stripes the number of independent random sources among which
+     *      threads are spread, rounded up to a power of two;
+     *      {@code 0} to draw all ids from a single shared source
+     */
+    public SessionIdGenerator(String workerName, int stripes) {
         if (workerName != null && workerName.contains(".")) {
             throw new IllegalArgumentException("Worker name cannot contain '.'");
         }
-        this.workerName = workerName;
+        if (stripes < 0) {
+            throw new IllegalArgumentException("stripes must not be negative");
+        }
+        this.workerSuffix = (workerName != null ? ("." + workerName).toCharArray() : new char[0]);
         this.random = initRandom();
+        if (stripes > 0) {
+            int size = 1;
+            while (size < stripes) {
+                size <<= 1;
+            }
+            this.stripes = new Stripe[size];
+            for (int i = 0; i < size; i++) {
+                this.stripes[i] = new Stripe(newStripeRandom());
+            }
+            this.stripeMask = size - 1;
+        } else {
+            this.stripes = null;
+            this.stripeMask = 0;
+        }
     }
 
     /**
@@ -57,34 +108,58 @@ public class SessionIdGenerator {
      * @return a new unique session id
      */
     public String createSessionId(long seedTerm) {
-        synchronized (random) {
-            long r0;
-            if (weakRandom) {
-                r0 = hashCode() ^ Runtime.getRuntime().freeMemory() ^ random.nextInt() ^ (seedTerm << 32);
-            } else {
-                r0 = random.nextLong();
-            }
-            if (r0 < 0) {
-                r0 = -r0;
-            }
-            long r1;
-            if (weakRandom) {
-                r1 = hashCode() ^ Runtime.getRuntime().freeMemory() ^ random.nextInt() ^ (seedTerm << 32);
-            } else {
-                r1 = random.nextLong();
-            }
-            if (r1 < 0) {
-                r1 = -r1;
+        long r0;
+        long r1;
+        if (stripes != null) {
+            Stripe stripe = stripes[(int)Thread.currentThread().getId() & stripeMask];
+            synchronized (stripe) {
+                if (++stripe.count >= RESEED_INTERVAL) {
+                    stripe.count = 0;
+                    reseed(stripe.random);
+                }
+                r0 = nextLong(stripe.random, seedTerm);
+                r1 = nextLong(stripe.random, seedTerm);
             }
-            StringBuilder id = new StringBuilder();
-            id.append(Long.toString(r0, Character.MAX_RADIX));
-            id.append(Long.toString(r1, Character.MAX_RADIX));
-            id.append(COUNTER.getAndIncrement());
-            if (workerName != null) {
-                id.append(".").append(workerName);
+        } else {
+            synchronized (random) {
+                r0 = nextLong(random, seedTerm);
+                r1 = nextLong(random, seedTerm);
             }
-            return id.toString();
         }
+        return encode(r0, r1, COUNTER.getAndIncrement());
+    }
+
+    private long nextLong(Random random, long seedTerm) {
+        long r;
+        if (weakRandom) {
+            r = hashCode() ^ Runtime.getRuntime().freeMemory() ^ random.nextInt() ^ (seedTerm << 32);
+        } else {
+            r = random.nextLong();
+        }
+        // drop the sign bit so that only digits are encoded
+        return (r & Long.MAX_VALUE);
+    }
+
+    /**
+     * Encodes the two random numbers in base 36, followed by the counter
+     * in decimal and the worker name, filling a char array from the end.
+     */
+    private String encode(long r0, long r1, long count) {
+        char[] buf = new char[MAX_ID_LENGTH + workerSuffix.length];
+        int pos = buf.length - workerSuffix.length;
+        System.arraycopy(workerSuffix, 0, buf, pos, workerSuffix.length);
+        pos = writeDigits(buf, pos, count & Long.MAX_VALUE, 10);
+        pos = writeDigits(buf, pos, r1, Character.MAX_RADIX);
+        pos = writeDigits(buf, pos, r0, Character.MAX_RADIX);
+        return new String(buf, pos, buf.length - pos);
+    }
+
+    private static int writeDigits(char[] buf, int pos, long value, int radix) {
+        do {
+            buf[--pos] = DIGITS[(int)(value % radix)];
+            value /= radix;
+        } while (value != 0L);
+        return pos;
     }
 
     /**
@@ -102,4 +177,51 @@ public class SessionIdGenerator {
         }
     }
 
+    /**
+     * Creates the random source of a stripe, seeded from the shared one.
+     * SHA1PRNG is preferred because it keeps its state per instance,
+     * whereas the native generators serialize all instances on one lock.
+     */
+    private Random newStripeRandom() {
+        if (weakRandom) {
+            return new Random(random.nextLong());
+        }
+        try {
+            SecureRandom secureRandom = SecureRandom.getInstance("SHA1PRNG");
+            secureRandom.setSeed(nextSeed());
+            return secureRandom;
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom(nextSeed());
+        }
+    }
+
+    private void reseed(Random stripeRandom) {
+        if (stripeRandom instanceof SecureRandom) {
+            // supplements, rather than replaces, the current seed
+            ((SecureRandom)stripeRandom).setSeed(nextSeed());
+        } else {
+            stripeRandom.setSeed(random.nextLong());
+        }
+    }
+
+    private byte[] nextSeed() {
+        byte[] seed = new byte[SEED_LENGTH];
+        synchronized (random) {
+            random.nextBytes(seed);
+        }
+        return seed;
+    }
+
+    private static class Stripe {
+
+        private final Random random;
+
+        private int count;
+
+        private Stripe(Random random) {
+            this.random = random;
+        }
+
+    }
+
 }
@@ -0,0 +1,769 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session;
+
+import com.aspectran.core.util.ToStringBuilder;
+import com.aspectran.core.util.logging.Logger;
+import com.aspectran.core.util.logging.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A file-based store of session data that scales to a large number of sessions.
+ *
+ * <p>Unlike {@link FileSessionStore}, session files are spread over two levels
+ * of hashed subdirectories ({@code storeDir/3f/a0/<id>}), and the expiry time
+ * is not encoded in the file name. Instead, each save appends a small record
+ * to an expiry index, which is a set of append-only logs, one for each time
+ * bucket of expiry times ({@code storeDir/expiry-index/<bucket>.log}).
+ * Checking for expired sessions only reads the logs of the buckets that have
+ * elapsed, and a restart only reads the index, so neither has to list the
+ * session files. Logs are compacted when the store is initialized.</p>
+ *
+ * <p>A session file is written to a temporary file in the same directory and
+ * then renamed over the previous one, so that a concurrent reader sees either
+ * the old or the new session, never a partially written one. For the same
+ * reason, changed attributes are not appended to the session file, and the
+ * whole session is always written. Temporary files left behind by an
+ * interrupted write are deleted when expired sessions are swept.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+public class ShardedFileSessionStore extends AbstractSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedFileSessionStore.class);
+
+    public static final int DEFAULT_EXPIRY_BUCKET_SECS = 60;
+
+    private static final String INDEX_DIR_NAME = "expiry-index";
+
+    private static final String INDEX_FILE_SUFFIX = ".log";
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /** the expiry of a record written when a session is deleted */
+    private static final long DELETED = -1L;
+
+    /** the bucket for sessions that never expire */
+    private static final long NEVER_EXPIRES_BUCKET = 0L;
+
+    /** the current expiry time of each stored session; 0 if it never expires */
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+
+    private final ConcurrentNavigableMap<Long, BucketLog> buckets = new ConcurrentSkipListMap<>();
+
+    /** the sessions that have expired but have not been deleted yet */
+    private final Set<String> overdue = ConcurrentHashMap.newKeySet();
+
+    /** orders the index records of a session across buckets and restarts */
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicLong tempFileCounter = new AtomicLong();
+
+    private File storeDir;
+
+    private Path storePath;
+
+    private Path indexPath;
+
+    private int expiryBucketSecs = DEFAULT_EXPIRY_BUCKET_SECS;
+
+    private long bucketMillis;
+
+    private long lastSweepTime;
+
+    private boolean deleteUnrestorableFiles;
+
+    public File getStoreDir() {
+        return storeDir;
+    }
+
+    public void setStoreDir(File storeDir) {
+        checkAlreadyInitialized();
+        this.storeDir = storeDir;
+    }
+
+    public boolean isDeleteUnrestorableFiles() {
+        return deleteUnrestorableFiles;
+    }
+
+    /**
+     * Sets whether to delete, when expired sessions are swept, the session
+     * files that are not recorded in the expiry index and so can never be
+     * loaded.
+     * @param deleteUnrestorableFiles true to delete unrestorable session files
+     */
+    public void setDeleteUnrestorableFiles(boolean deleteUnrestorableFiles) {
+        checkAlreadyInitialized();
+        this.deleteUnrestorableFiles = deleteUnrestorableFiles;
+    }
+
+    public int getExpiryBucketSecs() {
+        return expiryBucketSecs;
+    }
+
+    /**
+     * Sets the span of expiry times, in seconds, whose index records are
+     * kept in the same log. Expired sessions are detected at the latest
+     * this long after they expire.
+     * @param expiryBucketSecs the span of an expiry bucket in seconds
+     */
+    public void setExpiryBucketSecs(int expiryBucketSecs) {
+        checkAlreadyInitialized();
+        if (expiryBucketSecs <= 0) {
+            throw new IllegalArgumentException("expiryBucketSecs must be positive");
+        }
+        this.expiryBucketSecs = expiryBucketSecs;
+    }
+
+    @Override
+    public SessionData load(String id) throws Exception {
+        if (!isValidId(id) || !expiries.containsKey(id)) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("Unknown session file: " + id);
+            }
+            return null;
+        }
+        Path file = getSessionFile(id);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            SessionData data = getSessionDataSerializer().deserialize(in);
+            data.setLastSaved(Files.getLastModifiedTime(file).toMillis());
+            return data;
+        } catch (NoSuchFileException e) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("No such session file: " + file);
+            }
+            return null;
+        } catch (Exception e) {
+            throw new UnreadableSessionDataException(id, e);
+        }
+    }
+
+    @Override
+    public boolean delete(String id) throws Exception {
+        if (!isValidId(id)) {
+            return false;
+        }
+        overdue.remove(id);
+        Long expiry = expiries.remove(id);
+        if (expiry != null) {
+            appendRecord(id, expiry, DELETED);
+        }
+        return Files.deleteIfExists(getSessionFile(id));
+    }
+
+    @Override
+    public boolean exists(String id) {
+        Long expiry = (isValidId(id) ? expiries.get(id) : null);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry > 0L && expiry <= System.currentTimeMillis()) {
+            return false; // has expired
+        }
+        return Files.exists(getSessionFile(id));
+    }
+
+    @Override
+    public void doSave(String id, SessionData data) throws Exception {
+        Path file = getSessionFile(id);
+        Path tempFile = file.resolveSibling("." + id + "." + tempFileCounter.incrementAndGet() + TEMP_FILE_SUFFIX);
+        try {
+            try {
+                writeSessionFile(tempFile, data);
+            } catch (NoSuchFileException e) {
+                Files.createDirectories(tempFile.getParent());
+                writeSessionFile(tempFile, data);
+            }
+            moveAtomically(tempFile, file);
+        } catch (Exception e) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ex) {
+                // ignore
+            }
+            throw new UnwritableSessionDataException(id, e);
+        }
+        long expiry = Math.max(data.getExpiry(), 0L);
+        Long old = expiries.put(id, expiry);
+        if (old == null || old != expiry) {
+            appendRecord(id, expiry, expiry);
+        }
+    }
+
+    private void writeSessionFile(Path file, SessionData data) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            getSessionDataSerializer().serialize(data, out, getNonPersistentAttributes());
+        }
+    }
+
+    /**
+     * Check to see which sessions have expired. Only the index logs of the
+     * expiry buckets that have elapsed since the last check are read.
+     * @param candidates the set of session ids that the SessionCache believes
+     *      have expired
+     * @return the complete set of sessions that have expired, including those
+     *      that are not currently loaded into the SessionCache
+     */
+    @Override
+    public Set<String> doGetExpired(Set<String> candidates) {
+        long now = System.currentTimeMillis();
+        for (BucketLog bucket : buckets.subMap(NEVER_EXPIRES_BUCKET, false, getBucket(now), false).values()) {
+            if (!bucket.isChecked()) {
+                try {
+                    for (IndexRecord record : bucket.readRecords()) {
+                        if (isCurrent(record) && record.expiry < now) {
+                            overdue.add(record.id);
+                        }
+                    }
+                    bucket.setChecked(true);
+                } catch (IOException e) {
+                    logger.warn("Failed to read expiry index " + bucket, e);
+                }
+            }
+            if (bucket.isChecked() && getGracePeriodSecs() <= 0) {
+                // there is no sweeping, so keep the index log until the
+                // sessions in it have been deleted or saved with a new expiry
+                removeBucketIfStale(bucket);
+            }
+        }
+        Set<String> expired = new HashSet<>();
+        for (Iterator<String> iter = overdue.iterator(); iter.hasNext(); ) {
+            String id = iter.next();
+            Long expiry = expiries.get(id);
+            if (expiry != null && expiry > 0L && expiry < now) {
+                expired.add(id);
+            } else {
+                iter.remove(); // deleted or saved with a new expiry
+            }
+        }
+        // check candidates that were not found to be expired, perhaps
+        // because they no longer exist and they should be expired
+        for (String id : candidates) {
+            if (!expiries.containsKey(id)) {
+                expired.add(id);
+            }
+        }
+        // Infrequently delete the sessions that expired a long time ago.
+        // If the grace period is disabled, don't do the sweep!
+        if (getGracePeriodSecs() > 0 &&
+                (lastSweepTime == 0L ||
+                        ((now - lastSweepTime) >= (5 * TimeUnit.SECONDS.toMillis(getGracePeriodSecs()))))) {
+            lastSweepTime = now;
+            sweep(now);
+        }
+        return expired;
+    }
+
+    /**
+     * Deletes the sessions that expired at least 5 grace periods ago
+     * along with the index logs of their buckets.
+     * @param now the time now in msec
+     */
+    private void sweep(long now) {
+        long threshold = now - 5 * TimeUnit.SECONDS.toMillis(getGracePeriodSecs());
+        for (BucketLog bucket : buckets.subMap(NEVER_EXPIRES_BUCKET, false, getBucket(threshold), false).values()) {
+            if (bucket.isChecked()) {
+                try {
+                    for (IndexRecord record : bucket.readRecords()) {
+                        if (isCurrent(record)) {
+                            expiries.remove(record.id);
+                            overdue.remove(record.id);
+                            Files.deleteIfExists(getSessionFile(record.id));
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Sweep expired session file: " + record.id);
+                            }
+                        }
+                    }
+                    removeBucket(bucket);
+                } catch (IOException e) {
+                    logger.warn("Failed to sweep expiry index " + bucket, e);
+                }
+            }
+        }
+        sweepFiles(threshold);
+    }
+
+    /**
+     * Deletes the temporary files left behind by interrupted writes and, if
+     * {@code deleteUnrestorableFiles} is set, the session files that are not
+     * in the index, if they were last modified before the given time.
+     * Newer files may belong to a save in progress.
+     * @param threshold the time in msec
+     */
+    private void sweepFiles(long threshold) {
+        try {
+            Files.walkFileTree(storePath, Collections.emptySet(), 3, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return (dir.equals(indexPath) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE);
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (attrs.isRegularFile() && attrs.lastModifiedTime().toMillis() < threshold &&
+                            storePath.relativize(file).getNameCount() == 3) {
+                        String filename = file.getFileName().toString();
+                        if (filename.startsWith(".") && filename.endsWith(TEMP_FILE_SUFFIX)) {
+                            Files.deleteIfExists(file);
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Deleted temporary session file: " + file);
+                            }
+                        } else if (deleteUnrestorableFiles && !expiries.containsKey(filename)) {
+                            Files.deleteIfExists(file);
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Deleted unrestorable session file: " + file);
+                            }
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    logger.warn("Failed to visit session file " + file, e);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to sweep session files in " + storePath, e);
+        }
+    }
+
+    private boolean isCurrent(IndexRecord record) {
+        Long expiry = expiries.get(record.id);
+        return (expiry != null && expiry == record.expiry);
+    }
+
+    private long getBucket(long expiry) {
+        return (expiry > 0L ? expiry / bucketMillis + 1 : NEVER_EXPIRES_BUCKET);
+    }
+
+    /**
+     * Appends a record to the index log of the bucket of the given expiry.
+     * @param id the session id
+     * @param bucketExpiry the expiry that determines the bucket
+     * @param expiry the expiry to record, or {@link #DELETED}
+     */
+    private void appendRecord(String id, long bucketExpiry, long expiry) throws IOException {
+        long bucketKey = getBucket(bucketExpiry);
+        byte[] record = new IndexRecord(id, expiry, sequence.incrementAndGet()).toBytes();
+        while (true) {
+            BucketLog bucket = buckets.computeIfAbsent(bucketKey, this::newBucketLog);
+            if (bucket.append(record)) {
+                if (bucket.isChecked() && expiry > 0L) {
+                    // saved with an expiry that has already been checked
+                    overdue.add(id);
+                }
+                return;
+            }
+            // the bucket has just been removed, so start a new one
+            buckets.remove(bucketKey, bucket);
+        }
+    }
+
+    private BucketLog newBucketLog(long bucketKey) {
+        return new BucketLog(bucketKey, indexPath.resolve(bucketKey + INDEX_FILE_SUFFIX));
+    }
+
+    private void removeBucketIfStale(BucketLog bucket) {
+        try {
+            for (IndexRecord record : bucket.readRecords()) {
+                if (isCurrent(record)) {
+                    return;
+                }
+            }
+            removeBucket(bucket);
+        } catch (IOException e) {
+            logger.warn("Failed to read expiry index " + bucket, e);
+        }
+    }
+
+    private void removeBucket(BucketLog bucket) {
+        buckets.remove(bucket.getKey(), bucket);
+        try {
+            bucket.delete();
+        } catch (IOException e) {
+            logger.warn("Failed to delete expiry index " + bucket, e);
+        }
+    }
+
+    /**
+     * Returns whether the session id can be used as a file name in the
+     * store directory, without naming a temporary file or another directory.
+     * @param id the session id
+     * @return true if the session id is valid
+     */
+    private static boolean isValidId(String id) {
+        if (id == null || id.isEmpty() || id.charAt(0) == '.') {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c == '/' || c == '\\' || c == ':' || c == File.separatorChar || c < ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the path of the session file, which is placed in two levels
+     * of subdirectories chosen by the hash of the session id.
+     * @param id the session id
+     * @return the path of the session file
+     * @throws IllegalArgumentException if the session id is not valid
+     */
+    private Path getSessionFile(String id) {
+        if (!isValidId(id)) {
+            throw new IllegalArgumentException("Invalid session id: " + id);
+        }
+        int h = id.hashCode();
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return storePath.resolve(toHex(h & 0xff)).resolve(toHex((h >>> 8) & 0xff)).resolve(id);
+    }
+
+    private static String toHex(int b) {
+        char[] chars = new char[2];
+        chars[0] = Character.forDigit(b >>> 4, 16);
+        chars[1] = Character.forDigit(b & 0x0f, 16);
+        return new String(chars);
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    protected void doInitialize() throws Exception {
+        if (storeDir == null) {
+            throw new IllegalStateException("No file store specified");
+        }
+        if (!storeDir.exists()) {
+            storeDir.mkdirs();
+        }
+        if (!(storeDir.isDirectory() && storeDir.canWrite() && storeDir.canRead())) {
+            throw new IllegalStateException(storeDir.getAbsolutePath() + " must be readable/writable directory");
+        }
+        storePath = storeDir.toPath();
+        indexPath = storePath.resolve(INDEX_DIR_NAME);
+        bucketMillis = TimeUnit.SECONDS.toMillis(expiryBucketSecs);
+        Files.createDirectories(indexPath);
+        deleteTempIndexFiles();
+        loadIndex();
+    }
+
+    /**
+     * Deletes the temporary files left behind by an interrupted rewrite of an index log.
+     */
+    private void deleteTempIndexFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(indexPath, "*" + TEMP_FILE_SUFFIX)) {
+            for (Path path : stream) {
+                Files.deleteIfExists(path);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Deleted temporary expiry index file: " + path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the expiry times of the stored sessions from the index logs,
+     * and rewrites the logs that contain records that have been superseded.
+     */
+    private void loadIndex() throws IOException {
+        Map<Long, List<IndexRecord>> records = new HashMap<>();
+        Map<String, IndexRecord> latest = new HashMap<>();
+        Set<Long> incomplete = new HashSet<>();
+        long maxSequence = 0L;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(indexPath, "*" + INDEX_FILE_SUFFIX)) {
+            for (Path path : stream) {
+                String filename = path.getFileName().toString();
+                long bucketKey;
+                try {
+                    bucketKey = Long.parseLong(filename.substring(0, filename.length() - INDEX_FILE_SUFFIX.length()));
+                } catch (NumberFormatException e) {
+                    logger.warn("Not valid expiry index filename: " + path);
+                    continue;
+                }
+                BucketLog bucket = newBucketLog(bucketKey);
+                List<IndexRecord> list = new ArrayList<>();
+                if (!bucket.readRecords(list)) {
+                    incomplete.add(bucketKey);
+                }
+                for (IndexRecord record : list) {
+                    IndexRecord prev = latest.get(record.id);
+                    if (prev == null || prev.sequence < record.sequence) {
+                        latest.put(record.id, record);
+                    }
+                    maxSequence = Math.max(maxSequence, record.sequence);
+                }
+                records.put(bucketKey, list);
+                buckets.put(bucketKey, bucket);
+            }
+        }
+        sequence.set(maxSequence);
+        for (IndexRecord record : latest.values()) {
+            if (record.expiry != DELETED) {
+                expiries.put(record.id, record.expiry);
+            }
+        }
+        for (Map.Entry<Long, List<IndexRecord>> entry : records.entrySet()) {
+            List<IndexRecord> live = new ArrayList<>();
+            for (IndexRecord record : entry.getValue()) {
+                if (record.expiry != DELETED && latest.get(record.id) == record) {
+                    live.add(record);
+                }
+            }
+            BucketLog bucket = buckets.get(entry.getKey());
+            if (live.isEmpty()) {
+                removeBucket(bucket);
+            } else if (live.size() < entry.getValue().size() || incomplete.contains(entry.getKey())) {
+                bucket.rewrite(live);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Loaded expiry index of " + expiries.size() + " sessions in " +
+                    buckets.size() + " buckets from " + indexPath);
+        }
+    }
+
+    @Override
+    protected void doDestroy() {
+        for (BucketLog bucket : buckets.values()) {
+            try {
+                bucket.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close expiry index " + bucket, e);
+            }
+        }
+        buckets.clear();
+        expiries.clear();
+        overdue.clear();
+        lastSweepTime = 0L;
+    }
+
+    @Override
+    public String toString() {
+        ToStringBuilder tsb = new ToStringBuilder();
+        tsb.append("storeDir", storeDir);
+        tsb.append("expiryBucketSecs", expiryBucketSecs);
+        tsb.append("deleteUnrestorableFiles", deleteUnrestorableFiles);
+        return tsb.toString();
+    }
+
+    /**
+     * A record of the expiry index.
+     */
+    private static class IndexRecord {
+
+        private final String id;
+
+        private final long expiry;
+
+        private final long sequence;
+
+        private IndexRecord(String id, long expiry, long sequence) {
+            this.id = id;
+            this.expiry = expiry;
+            this.sequence = sequence;
+        }
+
+        private byte[] toBytes() throws IOException {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(id.length() + 18);
+            DataOutputStream out = new DataOutputStream(baos);
+            write(out);
+            return baos.toByteArray();
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeUTF(id);
+            out.writeLong(expiry);
+            out.writeLong(sequence);
+        }
+
+        private static IndexRecord read(DataInputStream in) throws IOException {
+            String id = in.readUTF();
+            long expiry = in.readLong();
+            long sequence = in.readLong();
+            return new IndexRecord(id, expiry, sequence);
+        }
+
+    }
+
+    /**
+     * The append-only index log of an expiry bucket.
+     */
+    private static class BucketLog {
+
+        private final long key;
+
+        private final Path path;
+
+        private FileChannel channel;
+
+        private boolean removed;
+
+        private volatile boolean checked;
+
+        private BucketLog(long key, Path path) {
+            this.key = key;
+            this.path = path;
+        }
+
+        private long getKey() {
+            return key;
+        }
+
+        private boolean isChecked() {
+            return checked;
+        }
+
+        private void setChecked(boolean checked) {
+            this.checked = checked;
+        }
+
+        /**
+         * Appends a record to the log.
+         * @param record the encoded record
+         * @return {@code false} if the log has been removed
+         */
+        private synchronized boolean append(byte[] record) throws IOException {
+            if (removed) {
+                return false;
+            }
+            if (channel == null) {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return true;
+        }
+
+        private List<IndexRecord> readRecords() throws IOException {
+            List<IndexRecord> records = new ArrayList<>();
+            readRecords(records);
+            return records;
+        }
+
+        /**
+         * Reads the records of the log into the given list.
+         * A truncated record at the end, as left by an interrupted write, is ignored.
+         * @param records the list to add the records to
+         * @return {@code false} if the log ends with a truncated record
+         */
+        private synchronized boolean readRecords(List<IndexRecord> records) throws IOException {
+            byte[] bytes;
+            try {
+                bytes = Files.readAllBytes(path);
+            } catch (NoSuchFileException e) {
+                return true;
+            }
+            ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
+            DataInputStream in = new DataInputStream(bais);
+            while (bais.available() > 0) {
+                try {
+                    records.add(IndexRecord.read(in));
+                } catch (EOFException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Replaces the log with one that contains only the given records.
+         * @param records the records to keep
+         */
+        private synchronized void rewrite(List<IndexRecord> records) throws IOException {
+            close();
+            Path tempFile = path.resolveSibling(path.getFileName() + TEMP_FILE_SUFFIX);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(tempFile)))) {
+                for (IndexRecord record : records) {
+                    record.write(out);
+                }
+            }
+            moveAtomically(tempFile, path);
+        }
+
+        private synchronized void delete() throws IOException {
+            removed = true;
+            close();
+            Files.deleteIfExists(path);
+        }
+
+        private synchronized void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+
+    }
+
+}
@@ -18,13 +18,16 @@ package com.aspectran.core.component.template;
 import com.aspectran.core.activity.Activity;
 import com.aspectran.core.activity.ActivityData;
 import com.aspectran.core.component.AbstractComponent;
+import com.aspectran.core.component.template.TemplateSourceCache.CachedTemplateSource;
 import com.aspectran.core.component.template.engine.TemplateEngine;
 import com.aspectran.core.context.ActivityContext;
 import com.aspectran.core.context.expr.TokenEvaluation;
 import com.aspectran.core.context.expr.TokenEvaluator;
 import com.aspectran.core.context.expr.token.Token;
 import com.aspectran.core.context.rule.TemplateRule;
+import com.aspectran.core.context.rule.type.TokenType;
 
+import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Locale;
@@ -41,6 +44,8 @@ public class DefaultTemplateRenderer extends AbstractComponent implements Templa
 
     private final TemplateRuleRegistry templateRuleRegistry;
 
+    private final TemplateSourceCache templateSourceCache;
+
     /**
      * Instantiates a new context template renderer.
      * @param context the activity context
@@ -49,6 +54,17 @@ public class DefaultTemplateRenderer extends AbstractComponent implements Templa
     public DefaultTemplateRenderer(ActivityContext context, TemplateRuleRegistry templateRuleRegistry) {
         this.context = context;
         this.templateRuleRegistry = templateRuleRegistry;
+        this.templateSourceCache = new TemplateSourceCache(context.getApplicationAdapter());
+    }
+
+    /**
+     * Returns the cache of template sources loaded from files,
+     * resources and URLs.
+     * @return the template source cache
+     * @since 7.0.5
+     */
+    public TemplateSourceCache getTemplateSourceCache() {
+        return templateSourceCache;
     }
 
     @Override
@@ -152,7 +168,12 @@ public class DefaultTemplateRenderer extends AbstractComponent implements Templa
                     Locale locale = (activity.getRequestAdapter() != null ? activity.getRequestAdapter().getLocale() : null);
                     engine.process(templateName, model, writer, locale);
                 } else {
-                    String templateSource = templateRule.getTemplateSource(context.getApplicationAdapter());
+                    String templateSource;
+                    if (TemplateSourceCache.isCacheable(templateRule)) {
+                        templateSource = templateSourceCache.get(templateRule).getSource();
+                    } else {
+                        templateSource = templateRule.getTemplateSource(context.getApplicationAdapter());
+                    }
                     if (templateSource != null) {
                         String templateName = templateRule.getId();
                         if (templateName == null) {
@@ -161,11 +182,22 @@ public class DefaultTemplateRenderer extends AbstractComponent implements Templa
                         engine.process(templateName, model, templateSource, writer);
                     }
                 }
+            } else if (TemplateSourceCache.isCacheable(templateRule)) {
+                CachedTemplateSource cached = templateSourceCache.get(templateRule);
+                if (cached.getTokens() != null) {
+                    if (cached.getText() != null) {
+                        writer.write(cached.getText());
+                        writer.flush();
+                    } else {
+                        evaluate(cached.getTokens(), activity, writer);
+                    }
+                } else {
+                    writer.write(cached.getSource());
+                }
             } else {
                 Token[] templateTokens = templateRule.getTemplateTokens(context.getApplicationAdapter());
                 if (templateTokens != null) {
-                    TokenEvaluator evaluator = new TokenEvaluation(activity);
-                    evaluator.evaluate(templateTokens, writer);
+                    evaluate(templateTokens, activity, writer);
                 } else {
                     writer.write(templateRule.getTemplateSource(context.getApplicationAdapter()));
                 }
@@ -175,6 +207,29 @@ public class DefaultTemplateRenderer extends AbstractComponent implements Templa
         }
     }
 
+    /**
+     * Writes the values of the tokens. Text tokens are written as is,
+     * so a token evaluator is created only if there is an expression.
+     */
+    private void evaluate(Token[] tokens, Activity activity, Writer writer) throws IOException {
+        TokenEvaluator evaluator = null;
+        for (Token token : tokens) {
+            Object value;
+            if (token.getType() == TokenType.TEXT) {
+                value = token.getDefaultValue();
+            } else {
+                if (evaluator == null) {
+                    evaluator = new TokenEvaluation(activity);
+                }
+                value = evaluator.evaluate(token);
+            }
+            if (value != null) {
+                writer.write(value.toString());
+            }
+        }
+        writer.flush();
+    }
+
     @Override
     protected void doInitialize() throws Exception {
         templateRuleRegistry.initialize();
@@ -182,6 +237,7 @@ public class DefaultTemplateRenderer extends AbstractComponent implements Templa
 
     @Override
     protected void doDestroy() {
+        templateSourceCache.clear();
         templateRuleRegistry.destroy();
     }
 
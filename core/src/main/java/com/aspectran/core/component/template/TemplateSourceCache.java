@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.template;
+
+import com.aspectran.core.adapter.ApplicationAdapter;
+import com.aspectran.core.context.expr.token.Token;
+import com.aspectran.core.context.expr.token.Tokenizer;
+import com.aspectran.core.context.rule.TemplateRule;
+import com.aspectran.core.context.rule.type.TokenType;
+import com.aspectran.core.util.ResourceUtils;
+import com.aspectran.core.util.logging.Logger;
+import com.aspectran.core.util.logging.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the sources of templates that are loaded from a file, a class path
+ * resource or a URL, along with their parsed tokens.
+ *
+ * <p>Rendering a cached template does no I/O. Files are checked for changes
+ * by a background timer every {@code reloadInterval} seconds, and a changed
+ * file is read and parsed on that timer thread, replacing the cached entry
+ * in one step. Resources and URLs are loaded once, as before.
+ * Templates marked {@code noCache} are not cached.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+public class TemplateSourceCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateSourceCache.class);
+
+    /** The default interval in seconds between checks for file changes */
+    public static final int DEFAULT_RELOAD_INTERVAL = 5;
+
+    private final Map<TemplateRule, CachedTemplateSource> cache = new ConcurrentHashMap<>();
+
+    private final ApplicationAdapter applicationAdapter;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder reloads = new LongAdder();
+
+    private volatile int reloadInterval = DEFAULT_RELOAD_INTERVAL;
+
+    private volatile Timer timer;
+
+    private volatile boolean destroyed;
+
+    public TemplateSourceCache(ApplicationAdapter applicationAdapter) {
+        if (applicationAdapter == null) {
+            throw new IllegalArgumentException("applicationAdapter must not be null");
+        }
+        this.applicationAdapter = applicationAdapter;
+    }
+
+    public int getReloadInterval() {
+        return reloadInterval;
+    }
+
+    /**
+     * Sets the interval in seconds between checks for changes in
+     * file-based templates. A value of 0 or less disables the checks,
+     * so that files are read only once.
+     * @param reloadInterval the reload interval in seconds
+     */
+    public void setReloadInterval(int reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+
+    /**
+     * Returns the number of renders served from the cache.
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of renders that had to load the template source.
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of times a changed file was reloaded.
+     * @return the reload count
+     */
+    public long getReloadCount() {
+        return reloads.sum();
+    }
+
+    /**
+     * Returns the number of cached templates.
+     * @return the number of cached templates
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Returns whether the source of the given template rule is loaded
+     * from a file, a resource or a URL and is cacheable.
+     * @param templateRule the template rule
+     * @return true if the template source can be cached
+     */
+    static boolean isCacheable(TemplateRule templateRule) {
+        return ((templateRule.getFile() != null || templateRule.getResource() != null ||
+                templateRule.getUrl() != null) && !templateRule.isNoCache());
+    }
+
+    /**
+     * Returns the cached source of the given template rule, loading it
+     * on first use.
+     * @param templateRule a template rule for which {@link #isCacheable} is true
+     * @return the cached template source
+     * @throws IOException if the template source could not be read
+     */
+    CachedTemplateSource get(TemplateRule templateRule) throws IOException {
+        CachedTemplateSource source = cache.get(templateRule);
+        if (source != null) {
+            hits.increment();
+            return source;
+        }
+        synchronized (templateRule) {
+            source = cache.get(templateRule);
+            if (source != null) {
+                hits.increment();
+                return source;
+            }
+            misses.increment();
+            source = load(templateRule);
+            if (!destroyed) {
+                cache.put(templateRule, source);
+                if (source.file != null) {
+                    startTimerIfNecessary();
+                }
+            }
+            return source;
+        }
+    }
+
+    private CachedTemplateSource load(TemplateRule templateRule) throws IOException {
+        String encoding = templateRule.getEncoding();
+        if (templateRule.getFile() != null) {
+            File file = applicationAdapter.toRealPathAsFile(templateRule.getFile());
+            // take the time before reading so that a change made while reading is detected
+            long lastModified = file.lastModified();
+            String source = ResourceUtils.read(file, encoding);
+            return new CachedTemplateSource(templateRule, source, file, lastModified);
+        } else if (templateRule.getResource() != null) {
+            URL url = applicationAdapter.getClassLoader().getResource(templateRule.getResource());
+            return new CachedTemplateSource(templateRule, ResourceUtils.read(url, encoding), null, 0L);
+        } else {
+            URL url = new URL(templateRule.getUrl());
+            return new CachedTemplateSource(templateRule, ResourceUtils.read(url, encoding), null, 0L);
+        }
+    }
+
+    private void startTimerIfNecessary() {
+        int interval = reloadInterval;
+        if (timer == null && interval > 0) {
+            synchronized (this) {
+                if (timer == null && !destroyed) {
+                    timer = new Timer("TemplateReloadTask@" + hashCode(), true);
+                    timer.schedule(new ReloadTask(), interval * 1000L, interval * 1000L);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads again the files that have changed since they were cached.
+     */
+    void reloadModified() {
+        for (Map.Entry<TemplateRule, CachedTemplateSource> entry : cache.entrySet()) {
+            CachedTemplateSource source = entry.getValue();
+            if (source.file != null && source.file.lastModified() != source.lastModified) {
+                TemplateRule templateRule = entry.getKey();
+                synchronized (templateRule) {
+                    try {
+                        CachedTemplateSource reloaded = load(templateRule);
+                        cache.replace(templateRule, source, reloaded);
+                        reloads.increment();
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("Reloaded template " + source.file);
+                        }
+                    } catch (IOException e) {
+                        // let the next render load it again and report the error
+                        cache.remove(templateRule, source);
+                        logger.warn("Unable to reload template " + source.file, e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards all cached templates and stops checking for file changes.
+     */
+    public void clear() {
+        synchronized (this) {
+            destroyed = true;
+            if (timer != null) {
+                timer.cancel();
+                timer = null;
+            }
+        }
+        cache.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "{size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount() +
+                ", reloads=" + getReloadCount() + "}";
+    }
+
+    private class ReloadTask extends TimerTask {
+
+        @Override
+        public void run() {
+            try {
+                reloadModified();
+            } catch (Exception e) {
+                logger.warn("Failed to check templates for changes", e);
+            }
+        }
+
+    }
+
+    /**
+     * A template source with its tokens, parsed once.
+     */
+    static class CachedTemplateSource {
+
+        private final String source;
+
+        private final Token[] tokens;
+
+        /** The text of the tokens if they are all plain text */
+        private final String text;
+
+        private final File file;
+
+        private final long lastModified;
+
+        CachedTemplateSource(TemplateRule templateRule, String source, File file, long lastModified) {
+            this.source = source;
+            this.file = file;
+            this.lastModified = lastModified;
+            if (templateRule.isTokenize() && source != null && !source.isEmpty()) {
+                List<Token> tokenList = Tokenizer.tokenize(source, false);
+                StringBuilder sb = new StringBuilder(source.length());
+                for (Token token : tokenList) {
+                    if (token.getType() != TokenType.TEXT) {
+                        sb = null;
+                        break;
+                    }
+                    if (token.getDefaultValue() != null) {
+                        sb.append(token.getDefaultValue());
+                    }
+                }
+                this.tokens = tokenList.toArray(new Token[0]);
+                this.text = (sb != null ? sb.toString() : null);
+            } else {
+                this.tokens = null;
+                this.text = null;
+            }
+        }
+
+        String getSource() {
+            return source;
+        }
+
+        /**
+         * Returns the parsed tokens, or {@code null} if the template
+         * is not tokenized or is empty.
+         */
+        Token[] getTokens() {
+            return tokens;
+        }
+
+        /**
+         * Returns the text to write as is if the tokens contain
+         * no expressions, otherwise {@code null}.
+         */
+        String getText() {
+            return text;
+        }
+
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.template.engine;
+
+import com.aspectran.core.util.Assert;
+import com.aspectran.core.util.cache.ConcurrentTinyLfuCache;
+
+/**
+ * A bounded cache of templates compiled from template sources, shared by
+ * the template engines that are handed the source of inline templates.
+ *
+ * <p>A compiled template is looked up by the template name, which
+ * identifies the template rule, and by the template source, so a rule
+ * whose source has changed gets a new compiled template. Superseded and
+ * rarely used templates are discarded once the capacity is reached.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @param <T> the type of the compiled templates
+ * @since 7.0.5
+ */
+public class CompiledTemplateCache<T> {
+
+    /** The default maximum number of compiled templates */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final ConcurrentTinyLfuCache<TemplateKey, T> cache;
+
+    public CompiledTemplateCache(TemplateCompiler<T> compiler) {
+        this(DEFAULT_CAPACITY, compiler);
+    }
+
+    public CompiledTemplateCache(int capacity, TemplateCompiler<T> compiler) {
+        Assert.notNull(compiler, "compiler must not be null");
+        this.cache = new ConcurrentTinyLfuCache<>(capacity, key -> {
+            try {
+                return compiler.compile(key.templateName, key.templateSource);
+            } catch (Exception e) {
+                throw new CompileFailure(e);
+            }
+        });
+    }
+
+    /**
+     * Returns the compiled template for the given template source,
+     * compiling it on first use.
+     * @param templateName the template name
+     * @param templateSource the template source
+     * @return the compiled template
+     * @throws Exception if the template could not be compiled
+     */
+    public T get(String templateName, String templateSource) throws Exception {
+        Assert.notNull(templateSource, "templateSource must not be null");
+        try {
+            return cache.get(new TemplateKey(templateName, templateSource));
+        } catch (CompileFailure e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found a compiled template.
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    /**
+     * Returns the number of lookups that had to compile the template.
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    /**
+     * Returns the number of compiled templates discarded to stay within
+     * the capacity.
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    /**
+     * Returns the number of compiled templates.
+     * @return the number of compiled templates
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Discards all compiled templates.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public String toString() {
+        return cache.toString();
+    }
+
+    /**
+     * Compiles a template source into a template of an engine.
+     * @param <T> the type of the compiled templates
+     */
+    @FunctionalInterface
+    public interface TemplateCompiler<T> {
+
+        /**
+         * Compiles the given template source.
+         * @param templateName the template name
+         * @param templateSource the template source
+         * @return the compiled template
+         * @throws Exception if the template could not be compiled
+         */
+        T compile(String templateName, String templateSource) throws Exception;
+
+    }
+
+    private static class TemplateKey {
+
+        private final String templateName;
+
+        private final String templateSource;
+
+        private final int hash;
+
+        TemplateKey(String templateName, String templateSource) {
+            this.templateName = templateName;
+            this.templateSource = templateSource;
+            int hash = templateSource.hashCode();
+            if (templateName != null) {
+                hash = 31 * hash + templateName.hashCode();
+            }
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey that = (TemplateKey)other;
+            return (hash == that.hash &&
+                    (templateName != null ? templateName.equals(that.templateName) : that.templateName == null) &&
+                    templateSource.equals(that.templateSource));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+    /**
+     * Carries a checked exception thrown by the compiler out of the
+     * generator function of the underlying cache.
+     */
+    @SuppressWarnings("serial")
+    private static class CompileFailure extends RuntimeException {
+
+        CompileFailure(Exception cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception)super.getCause();
+        }
+
+    }
+
+}
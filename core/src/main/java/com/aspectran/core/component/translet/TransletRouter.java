@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.translet;
+
+import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.context.rule.TransletRule;
+import com.aspectran.core.util.wildcard.WildcardPattern;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A segment-based routing trie for translets whose names contain path variables.
+ *
+ * <p>Each translet name pattern is split into segments delimited by
+ * {@link ActivityContext#NAME_SEPARATOR_CHAR}. A segment that consists only of
+ * literal characters becomes a static node, and a segment that consists only of
+ * a single {@code *} (which is what a path variable like {@code ${id}} compiles to)
+ * becomes a variable node matching exactly one segment. Patterns containing any
+ * other wildcard forms are kept in a separate list and matched with
+ * {@link WildcardPattern#matches(String)} as before.</p>
+ *
+ * <p>The rules must be given in the order in which they should take precedence,
+ * which is the iteration order of the weight-ordered sets held by
+ * {@link TransletRuleRegistry}. When several routes match the same request name,
+ * the one that comes first in that order wins, so the result is always the same
+ * as scanning the ordered set from the beginning.</p>
+ *
+ * <p>Instances are immutable once built and are safe for concurrent lookups.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+class TransletRouter {
+
+    private static final char SEPARATOR_CHAR = ActivityContext.NAME_SEPARATOR_CHAR;
+
+    private static final String VARIABLE_SEGMENT = String.valueOf(WildcardPattern.STAR_CHAR);
+
+    private final Node root = new Node();
+
+    private final List<Route> complexRoutes = new ArrayList<>();
+
+    private final int size;
+
+    TransletRouter(Collection<TransletRule> transletRules) {
+        int rank = 0;
+        for (TransletRule transletRule : transletRules) {
+            addRoute(new Route(transletRule, rank++));
+        }
+        this.size = rank;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the translet rule that matches the given translet name.
+     * @param transletName the translet name to route
+     * @return the matched translet rule, or {@code null} if there is no match
+     */
+    TransletRule route(String transletName) {
+        Route best = null;
+        if (root.minRank != Integer.MAX_VALUE) {
+            best = match(root, transletName, 0, null);
+        }
+        for (Route route : complexRoutes) {
+            if (best != null && route.rank > best.rank) {
+                break;
+            }
+            if (route.matches(transletName)) {
+                best = route;
+                break;
+            }
+        }
+        return (best != null ? best.transletRule : null);
+    }
+
+    private Route match(Node node, String name, int start, Route best) {
+        int end = name.indexOf(SEPARATOR_CHAR, start);
+        boolean last = (end == -1);
+        if (last) {
+            end = name.length();
+        }
+        if (node.staticChildren != null) {
+            Node child = node.staticChildren.get(name.substring(start, end));
+            if (child != null) {
+                best = descend(child, name, end, last, best);
+            }
+        }
+        if (node.variableChild != null) {
+            best = descend(node.variableChild, name, end, last, best);
+        }
+        return best;
+    }
+
+    private Route descend(Node child, String name, int end, boolean last, Route best) {
+        if (best != null && child.minRank > best.rank) {
+            return best;
+        }
+        if (last) {
+            Route route = child.route;
+            if (route != null && (best == null || route.rank < best.rank)) {
+                return route;
+            }
+            return best;
+        }
+        return match(child, name, end + 1, best);
+    }
+
+    private void addRoute(Route route) {
+        String[] segments = route.segments;
+        if (segments == null) {
+            complexRoutes.add(route);
+            return;
+        }
+        Node node = root;
+        node.updateMinRank(route.rank);
+        for (String segment : segments) {
+            node = node.touchChild(segment);
+            node.updateMinRank(route.rank);
+        }
+        if (node.route == null) {
+            node.route = route;
+        }
+    }
+
+    /**
+     * Splits the given name into segments, keeping empty segments.
+     */
+    private static String[] split(String name) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = name.indexOf(SEPARATOR_CHAR, start)) != -1) {
+            segments.add(name.substring(start, end));
+            start = end + 1;
+        }
+        segments.add(name.substring(start));
+        return segments.toArray(new String[0]);
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == WildcardPattern.STAR_CHAR || c == WildcardPattern.QUESTION_CHAR ||
+                    c == WildcardPattern.PLUS_CHAR || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Node {
+
+        private Map<String, Node> staticChildren;
+
+        private Node variableChild;
+
+        private Route route;
+
+        private int minRank = Integer.MAX_VALUE;
+
+        Node touchChild(String segment) {
+            if (VARIABLE_SEGMENT.equals(segment)) {
+                if (variableChild == null) {
+                    variableChild = new Node();
+                }
+                return variableChild;
+            } else {
+                if (staticChildren == null) {
+                    staticChildren = new HashMap<>();
+                }
+                return staticChildren.computeIfAbsent(segment, k -> new Node());
+            }
+        }
+
+        void updateMinRank(int rank) {
+            if (rank < minRank) {
+                minRank = rank;
+            }
+        }
+
+    }
+
+    private static class Route {
+
+        private final TransletRule transletRule;
+
+        private final int rank;
+
+        private final String[] segments;
+
+        Route(TransletRule transletRule, int rank) {
+            this.transletRule = transletRule;
+            this.rank = rank;
+            this.segments = compile(transletRule);
+        }
+
+        boolean matches(String transletName) {
+            WildcardPattern namePattern = transletRule.getNamePattern();
+            if (namePattern != null) {
+                return namePattern.matches(transletName);
+            } else {
+                return transletName.equals(transletRule.getName());
+            }
+        }
+
+        /**
+         * Returns the segments of the route if it can be placed in the trie,
+         * otherwise {@code null}.
+         */
+        private static String[] compile(TransletRule transletRule) {
+            WildcardPattern namePattern = transletRule.getNamePattern();
+            if (namePattern == null) {
+                String name = transletRule.getName();
+                if (name == null) {
+                    return null;
+                }
+                String[] segments = split(name);
+                for (String segment : segments) {
+                    if (VARIABLE_SEGMENT.equals(segment)) {
+                        // A literal star must not be confused with a variable segment
+                        return null;
+                    }
+                }
+                return segments;
+            }
+            if (namePattern.getSeparator() != SEPARATOR_CHAR) {
+                return null;
+            }
+            String[] segments = split(namePattern.toString());
+            for (String segment : segments) {
+                if (!VARIABLE_SEGMENT.equals(segment) && !isLiteral(segment)) {
+                    return null;
+                }
+            }
+            return segments;
+        }
+
+    }
+
+}
@@ -80,6 +80,16 @@ public class TransletRuleRegistry extends AbstractComponent {
 
     private final Set<TransletRule> etcTransletRuleSet = new TreeSet<>(comparator);
 
+    private volatile TransletRouter wildGetTransletRouter;
+
+    private volatile TransletRouter wildPostTransletRouter;
+
+    private volatile TransletRouter wildPutTransletRouter;
+
+    private volatile TransletRouter wildPatchTransletRouter;
+
+    private volatile TransletRouter wildDeleteTransletRouter;
+
     private final String basePath;
 
     private final ClassLoader classLoader;
@@ -116,31 +126,31 @@ public class TransletRuleRegistry extends AbstractComponent {
             case GET:
                 transletRule = getTransletRuleMap.get(transletName);
                 if (transletRule == null) {
-                    transletRule = lookupWildTransletRule(wildGetTransletRuleSet, transletName);
+                    transletRule = lookupWildTransletRule(wildGetTransletRouter, wildGetTransletRuleSet, transletName);
                 }
                 break;
             case POST:
                 transletRule = postTransletRuleMap.get(transletName);
                 if (transletRule == null) {
-                    transletRule = lookupWildTransletRule(wildPostTransletRuleSet, transletName);
+                    transletRule = lookupWildTransletRule(wildPostTransletRouter, wildPostTransletRuleSet, transletName);
                 }
                 break;
             case PUT:
                 transletRule = putTransletRuleMap.get(transletName);
                 if (transletRule == null) {
-                    transletRule = lookupWildTransletRule(wildPutTransletRuleSet, transletName);
+                    transletRule = lookupWildTransletRule(wildPutTransletRouter, wildPutTransletRuleSet, transletName);
                 }
                 break;
             case PATCH:
                 transletRule = patchTransletRuleMap.get(transletName);
                 if (transletRule == null) {
-                    transletRule = lookupWildTransletRule(wildPatchTransletRuleSet, transletName);
+                    transletRule = lookupWildTransletRule(wildPatchTransletRouter, wildPatchTransletRuleSet, transletName);
                 }
                 break;
             case DELETE:
                 transletRule = deleteTransletRuleMap.get(transletName);
                 if (transletRule == null) {
-                    transletRule = lookupWildTransletRule(wildDeleteTransletRuleSet, transletName);
+                    transletRule = lookupWildTransletRule(wildDeleteTransletRouter, wildDeleteTransletRuleSet, transletName);
                 }
                 break;
             default:
@@ -149,13 +159,17 @@ public class TransletRuleRegistry extends AbstractComponent {
         if (transletRule == null && requestMethod != MethodType.GET) {
             transletRule = transletRuleMap.get(transletName);
             if (transletRule == null) {
-                transletRule = lookupWildTransletRule(wildGetTransletRuleSet, transletName);
+                transletRule = lookupWildTransletRule(wildGetTransletRouter, wildGetTransletRuleSet, transletName);
             }
         }
         return transletRule;
     }
 
-    private TransletRule lookupWildTransletRule(Set<TransletRule> transletRuleSet, String transletName) {
+    private TransletRule lookupWildTransletRule(TransletRouter transletRouter,
+                                                Set<TransletRule> transletRuleSet, String transletName) {
+        if (transletRouter != null) {
+            return transletRouter.route(transletName);
+        }
         if (!transletRuleSet.isEmpty()) {
             for (TransletRule transletRule : transletRuleSet) {
                 WildcardPattern namePattern = transletRule.getNamePattern();
@@ -356,11 +370,32 @@ public class TransletRuleRegistry extends AbstractComponent {
             }
         }
 
+        if (isInitialized()) {
+            buildTransletRouters();
+        }
+
         if (logger.isTraceEnabled()) {
             logger.trace("add TransletRule " + transletRule);
         }
     }
 
+    /**
+     * Compiles the weight-ordered sets of translet rules with path variables
+     * into routing tries, so that a request name can be resolved without
+     * matching every wildcard pattern in turn.
+     */
+    private void buildTransletRouters() {
+        wildGetTransletRouter = createTransletRouter(wildGetTransletRuleSet);
+        wildPostTransletRouter = createTransletRouter(wildPostTransletRuleSet);
+        wildPutTransletRouter = createTransletRouter(wildPutTransletRuleSet);
+        wildPatchTransletRouter = createTransletRouter(wildPatchTransletRuleSet);
+        wildDeleteTransletRouter = createTransletRouter(wildDeleteTransletRuleSet);
+    }
+
+    private TransletRouter createTransletRouter(Set<TransletRule> transletRuleSet) {
+        return (!transletRuleSet.isEmpty() ? new TransletRouter(transletRuleSet) : null);
+    }
+
     private void savePathVariables(TransletRule transletRule) {
         final String transletName = transletRule.getName();
         List<Token> tokenList = Tokenizer.tokenize(transletName, false);
@@ -456,7 +491,7 @@ public class TransletRuleRegistry extends AbstractComponent {
 
     @Override
     protected void doInitialize() {
-        // Nothing to do
+        buildTransletRouters();
     }
 
     @Override
@@ -473,6 +508,11 @@ public class TransletRuleRegistry extends AbstractComponent {
         wildPatchTransletRuleSet.clear();
         wildDeleteTransletRuleSet.clear();
         etcTransletRuleSet.clear();
+        wildGetTransletRouter = null;
+        wildPostTransletRouter = null;
+        wildPutTransletRouter = null;
+        wildPatchTransletRouter = null;
+        wildDeleteTransletRouter = null;
     }
 
     static class WeightComparator implements Comparator<TransletRule> {
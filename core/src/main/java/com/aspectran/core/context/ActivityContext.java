@@ -23,6 +23,7 @@ import com.aspectran.core.component.schedule.ScheduleRuleRegistry;
 import com.aspectran.core.component.template.TemplateRenderer;
 import com.aspectran.core.component.translet.TransletRuleRegistry;
 import com.aspectran.core.context.env.Environment;
+import com.aspectran.core.context.metrics.ActivityMetrics;
 import com.aspectran.core.service.CoreService;
 import com.aspectran.core.support.i18n.message.MessageSource;
 
@@ -106,6 +107,13 @@ public interface ActivityContext {
      */
     TransletRuleRegistry getTransletRuleRegistry();
 
+    /**
+     * Gets the metrics of the activities performed in this context.
+     * @return the activity metrics
+     * @since 7.0.5
+     */
+    ActivityMetrics getActivityMetrics();
+
     /**
      * Gets the message source.
      * @return the message source
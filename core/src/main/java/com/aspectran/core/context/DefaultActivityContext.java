@@ -28,6 +28,7 @@ import com.aspectran.core.component.template.TemplateRenderer;
 import com.aspectran.core.component.translet.TransletRuleRegistry;
 import com.aspectran.core.context.env.ActivityEnvironment;
 import com.aspectran.core.context.env.Environment;
+import com.aspectran.core.context.metrics.ActivityMetrics;
 import com.aspectran.core.context.rule.DescriptionRule;
 import com.aspectran.core.service.CoreService;
 import com.aspectran.core.support.i18n.message.DelegatingMessageSource;
@@ -36,6 +37,11 @@ import com.aspectran.core.util.Assert;
 import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * The Class DefaultActivityContext.
  * 
@@ -47,6 +53,19 @@ public class DefaultActivityContext extends AbstractComponent implements Activit
 
     private final ThreadLocal<Activity> currentActivityHolder = new ThreadLocal<>();
 
+    /** The number of threads that are performing an activity in this context */
+    private final AtomicInteger activeActivityCount = new AtomicInteger();
+
+    private final ActivityMetrics activityMetrics = new ActivityMetrics(activeActivityCount::get);
+
+    /** Signalled when an activity completes while a thread awaits the completion of activities */
+    private final ReentrantLock completionLock = new ReentrantLock();
+
+    private final Condition activityCompleted = completionLock.newCondition();
+
+    /** The number of threads awaiting the completion of activities */
+    private final AtomicInteger completionWaiters = new AtomicInteger();
+
     private final ApplicationAdapter applicationAdapter;
 
     private final Activity defaultActivity;
@@ -176,6 +195,11 @@ public class DefaultActivityContext extends AbstractComponent implements Activit
         this.transletRuleRegistry = transletRuleRegistry;
     }
 
+    @Override
+    public ActivityMetrics getActivityMetrics() {
+        return activityMetrics;
+    }
+
     @Override
     public MessageSource getMessageSource() {
         if (this.messageSource == null) {
@@ -206,11 +230,25 @@ public class DefaultActivityContext extends AbstractComponent implements Activit
 
     @Override
     public void setCurrentActivity(Activity activity) {
+        if (currentActivityHolder.get() == null) {
+            activeActivityCount.incrementAndGet();
+        }
         currentActivityHolder.set(activity);
     }
 
     @Override
     public void removeCurrentActivity() {
+        if (currentActivityHolder.get() != null) {
+            activeActivityCount.decrementAndGet();
+            if (completionWaiters.get() > 0) {
+                completionLock.lock();
+                try {
+                    activityCompleted.signalAll();
+                } finally {
+                    completionLock.unlock();
+                }
+            }
+        }
         currentActivityHolder.remove();
     }
 
@@ -219,6 +257,47 @@ public class DefaultActivityContext extends AbstractComponent implements Activit
         return (currentActivityHolder.get() != null);
     }
 
+    /**
+     * Returns the number of threads that are currently performing
+     * an activity in this context.
+     * @return the number of active activities
+     * @since 7.0.5
+     */
+    public int getActiveActivityCount() {
+        return activeActivityCount.get();
+    }
+
+    /**
+     * Waits until the activities being performed by other threads
+     * have completed, or the timeout elapses.
+     * @param timeout the maximum time to wait, in milliseconds
+     * @return true if no activity is running in other threads;
+     *      false if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     * @since 7.0.5
+     */
+    public boolean awaitActivitiesCompletion(long timeout) throws InterruptedException {
+        int own = (hasCurrentActivity() ? 1 : 0);
+        if (activeActivityCount.get() <= own) {
+            return true;
+        }
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+        completionLock.lock();
+        completionWaiters.incrementAndGet();
+        try {
+            while (activeActivityCount.get() > own) {
+                if (nanos <= 0L) {
+                    return false;
+                }
+                nanos = activityCompleted.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            completionWaiters.decrementAndGet();
+            completionLock.unlock();
+        }
+    }
+
     /**
      * Initialize the MessageSource.
      * Use parent's if none defined in this context.
@@ -264,6 +343,9 @@ public class DefaultActivityContext extends AbstractComponent implements Activit
 
     @Override
     protected void doDestroy() {
+        if (activityEnvironment != null) {
+            activityEnvironment.getClasspathPropertiesCache().clear();
+        }
         if (transletRuleRegistry != null) {
             transletRuleRegistry.destroy();
             transletRuleRegistry = null;
@@ -312,9 +312,32 @@ public abstract class AbstractActivityContextBuilder implements ActivityContextB
 
     protected ApplicationAdapter createApplicationAdapter() throws InvalidResourceException {
         AspectranClassLoader acl = newAspectranClassLoader();
+        aspectranClassLoader = acl;
         return new DefaultApplicationAdapter(basePath, acl);
     }
 
+    /**
+     * Creates an application adapter for rules parsed in advance of a
+     * rebuild. With hard reload, the new class loader is not used by this
+     * builder until the rules are built; see {@link #adoptApplicationAdapter}.
+     * @return the application adapter
+     * @throws InvalidResourceException if the resource locations are invalid
+     * @since 7.0.5
+     */
+    protected ApplicationAdapter createPendingApplicationAdapter() throws InvalidResourceException {
+        return new DefaultApplicationAdapter(basePath, newAspectranClassLoader());
+    }
+
+    /**
+     * Makes the class loader of an application adapter created in advance
+     * the class loader of this builder.
+     * @param applicationAdapter the application adapter to adopt
+     * @since 7.0.5
+     */
+    protected void adoptApplicationAdapter(ApplicationAdapter applicationAdapter) {
+        aspectranClassLoader = (AspectranClassLoader)applicationAdapter.getClassLoader();
+    }
+
     protected EnvironmentProfiles createEnvironmentProfiles() {
         EnvironmentProfiles environmentProfiles = new EnvironmentProfiles();
         if (activeProfiles != null) {
@@ -359,6 +382,16 @@ public abstract class AbstractActivityContextBuilder implements ActivityContextB
         TemplateRuleRegistry templateRuleRegistry = assistant.getTemplateRuleRegistry();
         DefaultTemplateRenderer defaultTemplateRenderer = new DefaultTemplateRenderer(
                 activityContext, templateRuleRegistry);
+        String templateReloadInterval = (String)assistant.getSetting(DefaultSettingType.TEMPLATE_RELOAD_INTERVAL);
+        if (templateReloadInterval != null) {
+            defaultTemplateRenderer.getTemplateSourceCache().setReloadInterval(
+                    Integer.parseInt(templateReloadInterval));
+        }
+
+        String metricsEnabled = (String)assistant.getSetting(DefaultSettingType.METRICS_ENABLED);
+        if (metricsEnabled != null) {
+            activityContext.getActivityMetrics().setEnabled(Boolean.parseBoolean(metricsEnabled));
+        }
 
         ScheduleRuleRegistry scheduleRuleRegistry = assistant.getScheduleRuleRegistry();
         TransletRuleRegistry transletRuleRegistry = assistant.getTransletRuleRegistry();
@@ -374,6 +407,7 @@ public abstract class AbstractActivityContextBuilder implements ActivityContextB
     protected void startContextReloader() {
         if (autoReloadEnabled && aspectranClassLoader != null) {
             contextReloader = new ActivityContextReloader(serviceController);
+            contextReloader.setContextBuilder(this);
             contextReloader.setResources(aspectranClassLoader.getAllResources());
             contextReloader.start(scanIntervalSeconds);
         }
@@ -392,7 +426,7 @@ public abstract class AbstractActivityContextBuilder implements ActivityContextB
             if (resourceLocations != null && resourceLocations.length > 0) {
                 acl.setResourceLocations(resourceLocations);
             }
-            aspectranClassLoader = acl;
+            return acl;
         }
         return aspectranClassLoader;
     }
@@ -400,6 +434,9 @@ public abstract class AbstractActivityContextBuilder implements ActivityContextB
     private ActivityEnvironment createActivityEnvironment(ActivityRuleAssistant assistant, ActivityContext activityContext) {
         EnvironmentProfiles environmentProfiles = assistant.getEnvironmentProfiles();
         ActivityEnvironment environment = new ActivityEnvironment(environmentProfiles, activityContext);
+        if (autoReloadEnabled) {
+            environment.getClasspathPropertiesCache().setRefreshInterval(scanIntervalSeconds);
+        }
         if (propertyItemRuleMap != null && !propertyItemRuleMap.isEmpty()) {
             environment.setPropertyItemRuleMap(propertyItemRuleMap);
         }
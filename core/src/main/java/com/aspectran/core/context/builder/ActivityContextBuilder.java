@@ -98,6 +98,23 @@ public interface ActivityContextBuilder {
 
     ActivityContext build() throws ActivityContextBuilderException;
 
+    /**
+     * Parses the rules for the next build in advance, while the current
+     * ActivityContext keeps serving. The next build uses the parsed rules
+     * instead of parsing them again, so a context restart only has to
+     * create and initialize the new ActivityContext.
+     * @throws ActivityContextBuilderException if the rules cannot be parsed
+     * @since 7.0.5
+     */
+    void prepareRebuild() throws ActivityContextBuilderException;
+
+    /**
+     * Discards the rules parsed in advance if they have not been used,
+     * for example because the restart they were parsed for did not happen.
+     * @since 7.0.5
+     */
+    void discardPreparedRebuild();
+
     void destroy();
 
     boolean isActive();
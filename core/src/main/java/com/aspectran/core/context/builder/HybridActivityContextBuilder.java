@@ -19,6 +19,7 @@ import com.aspectran.core.adapter.ApplicationAdapter;
 import com.aspectran.core.component.Component;
 import com.aspectran.core.component.bean.BeanRuleRegistry;
 import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.context.DefaultActivityContext;
 import com.aspectran.core.context.env.EnvironmentProfiles;
 import com.aspectran.core.context.rule.assistant.ActivityRuleAssistant;
 import com.aspectran.core.context.rule.params.AspectranParameters;
@@ -37,10 +38,16 @@ public class HybridActivityContextBuilder extends AbstractActivityContextBuilder
 
     private static final Logger logger = LoggerFactory.getLogger(HybridActivityContextBuilder.class);
 
+    /** The maximum time to wait for running activities before destroying the ActivityContext */
+    private static final long ACTIVITIES_COMPLETION_TIMEOUT = 30000L;
+
     private final AbstractCoreService coreService;
 
     private volatile ActivityContext activityContext;
 
+    /** The rules parsed in advance for the next build, if any */
+    private volatile ActivityRuleAssistant preparedAssistant;
+
     /** Flag that indicates whether an ActivityContext is activated */
     private final AtomicBoolean active = new AtomicBoolean();
 
@@ -109,28 +116,15 @@ public class HybridActivityContextBuilder extends AbstractActivityContextBuilder
 
             long startTime = System.currentTimeMillis();
 
-            ApplicationAdapter applicationAdapter = createApplicationAdapter();
-            EnvironmentProfiles environmentProfiles = createEnvironmentProfiles();
-            ActivityRuleAssistant assistant = new ActivityRuleAssistant(applicationAdapter, environmentProfiles);
-            assistant.ready();
-
-            if (getBasePackages() != null) {
-                BeanRuleRegistry beanRuleRegistry = assistant.getBeanRuleRegistry();
-                beanRuleRegistry.scanConfigurableBeans(getBasePackages());
-            }
-
-            if (rootFile != null || aspectranParameters != null) {
-                ActivityContextParser parser = new HybridActivityContextParser(assistant);
-                parser.setEncoding(getEncoding());
-                parser.setUseXmlToApon(isUseAponToLoadXml());
-                parser.setDebugMode(isDebugMode());
-                if (rootFile != null) {
-                    parser.parse(rootFile);
-                } else {
-                    parser.parse(aspectranParameters);
+            ActivityRuleAssistant assistant = this.preparedAssistant;
+            if (assistant != null) {
+                this.preparedAssistant = null;
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Using the rules parsed in advance");
                 }
-                assistant = parser.getContextRuleAssistant();
-                assistant.clearCurrentRuleAppender();
+                adoptApplicationAdapter(assistant.getApplicationAdapter());
+            } else {
+                assistant = parseRules(false);
             }
 
             activityContext = createActivityContext(assistant);
@@ -151,7 +145,7 @@ public class HybridActivityContextBuilder extends AbstractActivityContextBuilder
                 // If it is driven by a builder without a service
                 registerDestroyTask();
             } else {
-                // Timer starts only if it is driven by a service
+                // Reloader starts only if it is driven by a service
                 startContextReloader();
             }
 
@@ -163,6 +157,73 @@ public class HybridActivityContextBuilder extends AbstractActivityContextBuilder
         }
     }
 
+    @Override
+    public void prepareRebuild() throws ActivityContextBuilderException {
+        try {
+            long startTime = System.currentTimeMillis();
+
+            discardPreparedRebuild();
+            this.preparedAssistant = parseRules(true);
+
+            long elapsedTime = System.currentTimeMillis() - startTime;
+
+            logger.info("Rules for the next ActivityContext parsed in " + elapsedTime + " ms");
+        } catch (Exception e) {
+            throw new ActivityContextBuilderException("Failed to parse rules for the next ActivityContext", e);
+        }
+    }
+
+    @Override
+    public void discardPreparedRebuild() {
+        ActivityRuleAssistant assistant = this.preparedAssistant;
+        if (assistant != null) {
+            this.preparedAssistant = null;
+            assistant.release();
+        }
+    }
+
+    /**
+     * Parses the rules.
+     * @param pending whether the rules are parsed in advance of a rebuild,
+     *      in which case the class loader is not swapped until they are built
+     * @return the rule assistant holding the parsed rules
+     */
+    private ActivityRuleAssistant parseRules(boolean pending) throws Exception {
+        String rootFile = getRootFile();
+        AspectranParameters aspectranParameters = getAspectranParameters();
+
+        ApplicationAdapter applicationAdapter;
+        if (pending) {
+            applicationAdapter = createPendingApplicationAdapter();
+        } else {
+            applicationAdapter = createApplicationAdapter();
+        }
+        EnvironmentProfiles environmentProfiles = createEnvironmentProfiles();
+        ActivityRuleAssistant assistant = new ActivityRuleAssistant(applicationAdapter, environmentProfiles);
+        assistant.ready();
+
+        if (getBasePackages() != null) {
+            BeanRuleRegistry beanRuleRegistry = assistant.getBeanRuleRegistry();
+            beanRuleRegistry.scanConfigurableBeans(getBasePackages());
+        }
+
+        if (rootFile != null || aspectranParameters != null) {
+            ActivityContextParser parser = new HybridActivityContextParser(assistant);
+            parser.setEncoding(getEncoding());
+            parser.setUseXmlToApon(isUseAponToLoadXml());
+            parser.setDebugMode(isDebugMode());
+            if (rootFile != null) {
+                parser.parse(rootFile);
+            } else {
+                parser.parse(aspectranParameters);
+            }
+            assistant = parser.getContextRuleAssistant();
+            assistant.clearCurrentRuleAppender();
+        }
+
+        return assistant;
+    }
+
     @Override
     public void destroy() {
         synchronized (this.buildDestroyMonitor) {
@@ -175,6 +236,7 @@ public class HybridActivityContextBuilder extends AbstractActivityContextBuilder
         if (this.active.get()) {
             stopContextReloader();
             if (activityContext != null) {
+                awaitActivitiesCompletion();
                 ((Component)activityContext).destroy();
                 activityContext = null;
             }
@@ -185,6 +247,24 @@ public class HybridActivityContextBuilder extends AbstractActivityContextBuilder
         }
     }
 
+    /**
+     * Gives the activities still running in the ActivityContext
+     * a chance to complete before it is destroyed.
+     */
+    private void awaitActivitiesCompletion() {
+        if (activityContext instanceof DefaultActivityContext) {
+            DefaultActivityContext context = (DefaultActivityContext)activityContext;
+            try {
+                if (!context.awaitActivitiesCompletion(ACTIVITIES_COMPLETION_TIMEOUT)) {
+                    logger.warn("ActivityContext is being destroyed while " +
+                            context.getActiveActivityCount() + " activities are still running");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Registers a shutdown hook with the JVM runtime, closing this context
      * on JVM shutdown unless it has already been closed at that time.
@@ -15,6 +15,8 @@
  */
 package com.aspectran.core.context.builder.reload;
 
+import com.aspectran.core.context.builder.ActivityContextBuilder;
+import com.aspectran.core.context.builder.ActivityContextBuilderException;
 import com.aspectran.core.service.ServiceController;
 import com.aspectran.core.util.StringUtils;
 import com.aspectran.core.util.logging.Logger;
@@ -23,26 +25,52 @@ import com.aspectran.core.util.logging.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.TimerTask;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static com.aspectran.core.util.ResourceUtils.JAR_URL_SEPARATOR;
 import static com.aspectran.core.util.ResourceUtils.URL_PROTOCOL_JAR;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 
-public class ActivityContextReloadTask extends TimerTask {
+/**
+ * Waits for file system events on the directories of the resource files
+ * and restarts the service once no further change has been detected for
+ * the quiet period. If an ActivityContext builder is given, the rules are
+ * parsed before the service is stopped, so the current ActivityContext
+ * keeps serving while they are parsed, and is kept if they are invalid.
+ */
+public class ActivityContextReloadTask implements Runnable {
 
     private static final Logger logger = LoggerFactory.getLogger(ActivityContextReloadTask.class);
 
     private final ServiceController serviceController;
 
-    private final Map<String, Long> modifiedTimeMap = new HashMap<>();
+    private final ActivityContextBuilder contextBuilder;
+
+    private final Set<Path> files = new HashSet<>();
+
+    private long quietPeriod;
 
-    private volatile boolean modified = false;
+    private volatile boolean cancelled;
 
     public ActivityContextReloadTask(ServiceController serviceController) {
+        this(serviceController, null);
+    }
+
+    public ActivityContextReloadTask(ServiceController serviceController, ActivityContextBuilder contextBuilder) {
         this.serviceController = serviceController;
+        this.contextBuilder = contextBuilder;
     }
 
     public void setResources(Enumeration<URL> resources) {
@@ -58,8 +86,7 @@ public class ActivityContextReloadTask extends TimerTask {
                     } else {
                         file = new File(url.getFile());
                     }
-                    String filePath = file.getAbsolutePath();
-                    modifiedTimeMap.put(filePath, file.lastModified());
+                    files.add(file.getAbsoluteFile().toPath());
                 } catch (IOException e) {
                     logger.error(e);
                 }
@@ -67,46 +94,91 @@ public class ActivityContextReloadTask extends TimerTask {
         }
     }
 
+    /**
+     * Sets the time in milliseconds during which no further changes must
+     * be detected before the service is restarted.
+     * @param quietPeriod the quiet period in milliseconds
+     */
+    public void setQuietPeriod(long quietPeriod) {
+        this.quietPeriod = quietPeriod;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
     @Override
     public void run() {
-        if (modifiedTimeMap.isEmpty()) {
+        if (files.isEmpty()) {
             return;
         }
-        if (modified) {
-            if (!serviceController.isBusy()) {
-                restartService();
-            } else {
-                return;
-            }
-        }
-        for (Map.Entry<String, Long> entry : modifiedTimeMap.entrySet()) {
-            String filePath = entry.getKey();
-            long prevLastModifiedTime = entry.getValue();
-            File file = new File(filePath);
-            long lastModifiedTime = file.lastModified();
-            if (prevLastModifiedTime != lastModifiedTime) {
-                modified = true;
-                modifiedTimeMap.put(filePath, lastModifiedTime);
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Detected modified file: " + filePath);
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Set<Path> dirs = new HashSet<>();
+            for (Path file : files) {
+                Path dir = file.getParent();
+                if (dir != null && dirs.add(dir) && dir.toFile().isDirectory()) {
+                    dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
                 }
             }
-        }
-        if (modified) {
-            if (!serviceController.isBusy()) {
-                restartService();
+            boolean modified = false;
+            while (!cancelled) {
+                WatchKey key;
+                if (modified) {
+                    key = watchService.poll(quietPeriod, TimeUnit.MILLISECONDS);
+                } else {
+                    key = watchService.take();
+                }
+                if (key == null) {
+                    // no further changes during the quiet period
+                    if (!serviceController.isBusy()) {
+                        modified = false;
+                        reload();
+                    }
+                    continue;
+                }
+                Path dir = (Path)key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        modified = true;
+                    } else {
+                        Path file = dir.resolve((Path)event.context());
+                        if (files.contains(file)) {
+                            modified = true;
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Detected modified file: " + file);
+                            }
+                        }
+                    }
+                }
+                key.reset();
             }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopped
+        } catch (IOException e) {
+            logger.error("Unable to watch resources for changes", e);
         }
     }
 
-    private void restartService() {
+    private void reload() {
+        if (contextBuilder != null) {
+            try {
+                contextBuilder.prepareRebuild();
+            } catch (ActivityContextBuilderException e) {
+                logger.error("Resource file changes have been detected, but the current " +
+                        "ActivityContext is kept because the rules could not be parsed", e);
+                return;
+            }
+        }
         try {
             String message = "Some resource file changes have been detected.";
             serviceController.restart(message);
         } catch (Exception e) {
-            throw new RuntimeException(e);
+            logger.error("Unable to reload ActivityContext", e);
         } finally {
-            modified = false;
+            if (contextBuilder != null) {
+                // not used if the service was not restarted
+                contextBuilder.discardPreparedRebuild();
+            }
         }
     }
 
@@ -15,16 +15,17 @@
  */
 package com.aspectran.core.context.builder.reload;
 
+import com.aspectran.core.context.builder.ActivityContextBuilder;
 import com.aspectran.core.service.ServiceController;
 import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
 
 import java.net.URL;
 import java.util.Enumeration;
-import java.util.Timer;
 
 /**
- * Provides timer control to reload the ActivityContext.
+ * Watches the resources of the ActivityContext for changes and reloads
+ * the ActivityContext once the changes have settled.
  */
 public class ActivityContextReloader {
 
@@ -32,9 +33,11 @@ public class ActivityContextReloader {
 
     private final ServiceController serviceController;
 
+    private ActivityContextBuilder contextBuilder;
+
     private Enumeration<URL> resources;
 
-    private volatile Timer timer;
+    private volatile Thread thread;
 
     private ActivityContextReloadTask reloadTask;
 
@@ -42,10 +45,27 @@ public class ActivityContextReloader {
         this.serviceController = serviceController;
     }
 
+    /**
+     * Sets the builder used to parse the rules of the new ActivityContext
+     * before the service is restarted. If the rules cannot be parsed, the
+     * service is not restarted and the current ActivityContext is kept.
+     * @param contextBuilder the ActivityContext builder
+     * @since 7.0.5
+     */
+    public void setContextBuilder(ActivityContextBuilder contextBuilder) {
+        this.contextBuilder = contextBuilder;
+    }
+
     public void setResources(Enumeration<URL> resources) {
         this.resources = resources;
     }
 
+    /**
+     * Starts watching the resources.
+     * @param scanIntervalInSeconds the time in seconds during which no
+     *      further changes must be detected before the ActivityContext
+     *      is reloaded
+     */
     public void start(int scanIntervalInSeconds) {
         stop();
 
@@ -53,24 +73,29 @@ public class ActivityContextReloader {
             logger.debug("Starting ActivityContextReloader...");
         }
 
-        reloadTask = new ActivityContextReloadTask(serviceController);
+        reloadTask = new ActivityContextReloadTask(serviceController, contextBuilder);
         reloadTask.setResources(resources);
+        reloadTask.setQuietPeriod(scanIntervalInSeconds * 1000L);
 
-        timer = new Timer("ContextReloadTask@" + reloadTask.hashCode());
-        timer.schedule(reloadTask, 0, scanIntervalInSeconds * 1000L);
+        thread = new Thread(reloadTask, "ContextReloadTask@" + reloadTask.hashCode());
+        thread.setDaemon(true);
+        thread.start();
     }
 
     public void stop() {
-        if (timer != null) {
+        if (thread != null) {
             if (logger.isDebugEnabled()) {
                 logger.debug("Stopping ActivityContextReloader...");
             }
 
-            timer.cancel();
-            timer = null;
-
             reloadTask.cancel();
             reloadTask = null;
+
+            // The reload task stops the reloader itself when it restarts the service
+            if (thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+            thread = null;
         }
     }
 
@@ -22,19 +22,25 @@ import com.aspectran.core.util.apon.ValueType;
 public class SessionFileStoreConfig extends AbstractParameters {
 
     private static final ParameterKey storeDir;
+    private static final ParameterKey sharded;
     private static final ParameterKey deleteUnrestorableFiles;
+    private static final ParameterKey saveChangedAttributesOnly;
     private static final ParameterKey nonPersistentAttributes;
 
     private static final ParameterKey[] parameterKeys;
 
     static {
         storeDir = new ParameterKey("storeDir", ValueType.STRING);
+        sharded = new ParameterKey("sharded", ValueType.BOOLEAN);
         deleteUnrestorableFiles = new ParameterKey("deleteUnrestorableFiles", ValueType.BOOLEAN);
+        saveChangedAttributesOnly = new ParameterKey("saveChangedAttributesOnly", ValueType.BOOLEAN);
         nonPersistentAttributes = new ParameterKey("nonPersistentAttributes", ValueType.STRING, true);
 
         parameterKeys = new ParameterKey[] {
                 storeDir,
+                sharded,
                 deleteUnrestorableFiles,
+                saveChangedAttributesOnly,
                 nonPersistentAttributes
         };
     }
@@ -52,6 +58,15 @@ public class SessionFileStoreConfig extends AbstractParameters {
         return this;
     }
 
+    public boolean isSharded() {
+        return getBoolean(sharded, false);
+    }
+
+    public SessionFileStoreConfig setSharded(boolean sharded) {
+        putValue(SessionFileStoreConfig.sharded, sharded);
+        return this;
+    }
+
     public boolean isDeleteUnrestorableFiles() {
         return getBoolean(deleteUnrestorableFiles, false);
     }
@@ -61,6 +76,15 @@ public class SessionFileStoreConfig extends AbstractParameters {
         return this;
     }
 
+    public boolean isSaveChangedAttributesOnly() {
+        return getBoolean(saveChangedAttributesOnly, false);
+    }
+
+    public SessionFileStoreConfig setSaveChangedAttributesOnly(boolean saveChangedAttributesOnly) {
+        putValue(SessionFileStoreConfig.saveChangedAttributesOnly, saveChangedAttributesOnly);
+        return this;
+    }
+
     public String[] getNonPersistentAttributes() {
         return getStringArray(nonPersistentAttributes);
     }
@@ -26,10 +26,13 @@ import java.io.IOException;
 public class SessionManagerConfig extends AbstractParameters {
 
     private static final ParameterKey workerName;
+    private static final ParameterKey idGeneratorStripes;
     private static final ParameterKey maxSessions;
+    private static final ParameterKey maxResidentSessions;
     private static final ParameterKey maxIdleSeconds;
     private static final ParameterKey evictionIdleSeconds;
     private static final ParameterKey scavengingIntervalSeconds;
+    private static final ParameterKey schedulerTickMillis;
     private static final ParameterKey saveOnCreate;
     private static final ParameterKey saveOnInactiveEviction;
     private static final ParameterKey removeUnloadableSessions;
@@ -41,10 +44,13 @@ public class SessionManagerConfig extends AbstractParameters {
 
     static {
         workerName = new ParameterKey("workerName", ValueType.STRING);
+        idGeneratorStripes = new ParameterKey("idGeneratorStripes", ValueType.INT);
         maxSessions = new ParameterKey("maxSessions", ValueType.INT);
+        maxResidentSessions = new ParameterKey("maxResidentSessions", ValueType.INT);
         maxIdleSeconds = new ParameterKey("maxIdleSeconds", ValueType.INT);
         evictionIdleSeconds = new ParameterKey("evictionIdleSeconds", ValueType.INT);
         scavengingIntervalSeconds = new ParameterKey("scavengingIntervalSeconds", ValueType.INT);
+        schedulerTickMillis = new ParameterKey("schedulerTickMillis", ValueType.INT);
         saveOnCreate = new ParameterKey("saveOnCreate", ValueType.BOOLEAN);
         saveOnInactiveEviction = new ParameterKey("saveOnInactiveEviction", ValueType.BOOLEAN);
         removeUnloadableSessions = new ParameterKey("removeUnloadableSessions", ValueType.BOOLEAN);
@@ -54,10 +60,13 @@ public class SessionManagerConfig extends AbstractParameters {
 
         parameterKeys = new ParameterKey[] {
                 workerName,
+                idGeneratorStripes,
                 maxSessions,
+                maxResidentSessions,
                 maxIdleSeconds,
                 evictionIdleSeconds,
                 scavengingIntervalSeconds,
+                schedulerTickMillis,
                 saveOnCreate,
                 saveOnInactiveEviction,
                 removeUnloadableSessions,
@@ -93,6 +102,26 @@ public class SessionManagerConfig extends AbstractParameters {
         return hasValue(workerName);
     }
 
+    public int getIdGeneratorStripes() {
+        return getInt(idGeneratorStripes, 0);
+    }
+
+    /**
+     * Sets the number of independent random sources from which session ids
+     * are drawn, so that threads creating sessions at the same time do not
+     * wait for each other. If not set, all ids are drawn from one source.
+     * @param idGeneratorStripes the number of random sources
+     * @return this SessionManagerConfig
+     */
+    public SessionManagerConfig setIdGeneratorStripes(int idGeneratorStripes) {
+        putValue(SessionManagerConfig.idGeneratorStripes, idGeneratorStripes);
+        return this;
+    }
+
+    public boolean hasIdGeneratorStripes() {
+        return hasValue(idGeneratorStripes);
+    }
+
     public int getMaxSessions() {
         return getInt(maxSessions, 0);
     }
@@ -106,6 +135,26 @@ public class SessionManagerConfig extends AbstractParameters {
         return hasValue(maxSessions);
     }
 
+    public int getMaxResidentSessions() {
+        return getInt(maxResidentSessions, 0);
+    }
+
+    /**
+     * Sets the maximum number of sessions kept in memory. Beyond that, the
+     * least recently used sessions are evicted to the session store and
+     * loaded back on their next access.
+     * @param maxResidentSessions the maximum number of resident sessions
+     * @return this SessionManagerConfig
+     */
+    public SessionManagerConfig setMaxResidentSessions(int maxResidentSessions) {
+        putValue(SessionManagerConfig.maxResidentSessions, maxResidentSessions);
+        return this;
+    }
+
+    public boolean hasMaxResidentSessions() {
+        return hasValue(maxResidentSessions);
+    }
+
     public int getMaxIdleSeconds() {
         return getInt(maxIdleSeconds, -1);
     }
@@ -145,6 +194,27 @@ public class SessionManagerConfig extends AbstractParameters {
         return hasValue(scavengingIntervalSeconds);
     }
 
+    public int getSchedulerTickMillis() {
+        return getInt(schedulerTickMillis, 0);
+    }
+
+    /**
+     * Sets the tick duration of the timing wheel that runs the session
+     * inactivity timers. If set to a positive value, a timing wheel is used
+     * instead of a scheduled thread pool; timers may then fire up to one
+     * tick late.
+     * @param schedulerTickMillis the tick duration in milliseconds
+     * @return this SessionManagerConfig
+     */
+    public SessionManagerConfig setSchedulerTickMillis(int schedulerTickMillis) {
+        putValue(SessionManagerConfig.schedulerTickMillis, schedulerTickMillis);
+        return this;
+    }
+
+    public boolean hasSchedulerTickMillis() {
+        return hasValue(schedulerTickMillis);
+    }
+
     public boolean getSaveOnCreate() {
         return getBoolean(saveOnCreate, false);
     }
@@ -31,6 +31,8 @@ public class ActivityEnvironment implements Environment {
 
     private final ActivityContext activityContext;
 
+    private final ClasspathPropertiesCache classpathPropertiesCache = new ClasspathPropertiesCache();
+
     private ItemRuleMap propertyItemRuleMap;
 
     public ActivityEnvironment(EnvironmentProfiles environmentProfiles, ActivityContext activityContext) {
@@ -69,6 +71,16 @@ public class ActivityEnvironment implements Environment {
         }
     }
 
+    /**
+     * Returns the cache of properties loaded from class path resources
+     * for {@code %{classpath:...}} tokens.
+     * @return the classpath properties cache
+     * @since 7.0.5
+     */
+    public ClasspathPropertiesCache getClasspathPropertiesCache() {
+        return classpathPropertiesCache;
+    }
+
     @Override
     public <T> T getProperty(String name) {
         return getProperty(name, activityContext.getAvailableActivity());
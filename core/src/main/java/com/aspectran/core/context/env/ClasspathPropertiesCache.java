@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.context.env;
+
+import com.aspectran.core.util.PropertiesLoaderUtils;
+import com.aspectran.core.util.ResourceUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the properties loaded from class path resources for
+ * {@code %{classpath:...}} tokens, keyed by resource name.
+ *
+ * <p>Each activity context has its own cache, so the properties are
+ * loaded again after the context is reloaded. If a refresh interval is set,
+ * properties loaded from files are also reloaded once the files change;
+ * the files are checked at most once per interval.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+public class ClasspathPropertiesCache {
+
+    private final Map<String, CachedProperties> cache = new ConcurrentHashMap<>();
+
+    private volatile long refreshIntervalNanos;
+
+    public ClasspathPropertiesCache() {
+    }
+
+    /**
+     * Sets the interval in seconds between checks for changes in the files
+     * from which properties were loaded. A value of 0 or less disables
+     * the checks.
+     * @param refreshInterval the refresh interval in seconds
+     */
+    public void setRefreshInterval(int refreshInterval) {
+        this.refreshIntervalNanos = (refreshInterval > 0 ? TimeUnit.SECONDS.toNanos(refreshInterval) : 0L);
+    }
+
+    /**
+     * Returns the properties loaded from all class path resources
+     * with the given name, loading them on first use.
+     * @param resourceName the name of the class path resource
+     * @param classLoader the class loader used to find the resources
+     * @return the properties
+     * @throws IOException if loading failed
+     */
+    public Properties getProperties(String resourceName, ClassLoader classLoader) throws IOException {
+        CachedProperties cached = cache.get(resourceName);
+        if (cached != null) {
+            long interval = refreshIntervalNanos;
+            if (interval == 0L || !cached.isDue(interval) || !cached.isModified()) {
+                return cached.properties;
+            }
+        }
+        synchronized (cache) {
+            CachedProperties existing = cache.get(resourceName);
+            if (existing != null && existing != cached) {
+                return existing.properties;
+            }
+            cached = load(resourceName, classLoader);
+            cache.put(resourceName, cached);
+            return cached.properties;
+        }
+    }
+
+    /**
+     * Discards all cached properties.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    private CachedProperties load(String resourceName, ClassLoader classLoader) throws IOException {
+        List<File> files = new ArrayList<>();
+        List<Long> lastModifiedTimes = new ArrayList<>();
+        Enumeration<URL> urls = classLoader.getResources(resourceName);
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            if (ResourceUtils.URL_PROTOCOL_FILE.equals(url.getProtocol())) {
+                File file = ResourceUtils.getFile(url);
+                files.add(file);
+                lastModifiedTimes.add(file.lastModified());
+            }
+        }
+        Properties props = new Properties();
+        PropertiesLoaderUtils.fillProperties(props, resourceName, classLoader);
+        long[] times = new long[lastModifiedTimes.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = lastModifiedTimes.get(i);
+        }
+        return new CachedProperties(props, files.toArray(new File[0]), times);
+    }
+
+    private static class CachedProperties {
+
+        private final Properties properties;
+
+        private final File[] files;
+
+        private final long[] lastModifiedTimes;
+
+        private volatile long lastCheckTime = System.nanoTime();
+
+        private CachedProperties(Properties properties, File[] files, long[] lastModifiedTimes) {
+            this.properties = properties;
+            this.files = files;
+            this.lastModifiedTimes = lastModifiedTimes;
+        }
+
+        private boolean isDue(long interval) {
+            long now = System.nanoTime();
+            if (now - lastCheckTime < interval || files.length == 0) {
+                return false;
+            }
+            lastCheckTime = now;
+            return true;
+        }
+
+        private boolean isModified() {
+            for (int i = 0; i < files.length; i++) {
+                if (files[i].lastModified() != lastModifiedTimes[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -20,6 +20,8 @@ import com.aspectran.core.activity.request.FileParameter;
 import com.aspectran.core.component.bean.NoSuchBeanException;
 import com.aspectran.core.component.bean.NoUniqueBeanException;
 import com.aspectran.core.component.template.TemplateRenderer;
+import com.aspectran.core.context.env.ActivityEnvironment;
+import com.aspectran.core.context.env.ClasspathPropertiesCache;
 import com.aspectran.core.context.expr.token.Token;
 import com.aspectran.core.context.rule.type.TokenDirectiveType;
 import com.aspectran.core.context.rule.type.TokenType;
@@ -385,8 +387,15 @@ public class TokenEvaluation implements TokenEvaluator {
      */
     protected Object getProperty(Token token) throws IOException {
         if (token.getDirectiveType() == TokenDirectiveType.CLASSPATH) {
-            Properties props = PropertiesLoaderUtils.loadProperties(token.getValue(),
-                    activity.getApplicationAdapter().getClassLoader());
+            ClassLoader classLoader = activity.getApplicationAdapter().getClassLoader();
+            Properties props;
+            if (activity.getEnvironment() instanceof ActivityEnvironment) {
+                ClasspathPropertiesCache cache = ((ActivityEnvironment)activity.getEnvironment())
+                        .getClasspathPropertiesCache();
+                props = cache.getProperties(token.getValue(), classLoader);
+            } else {
+                props = PropertiesLoaderUtils.loadProperties(token.getValue(), classLoader);
+            }
             Object value = (token.getGetterName() != null ? props.get(token.getGetterName()) : props);
             return (value != null ? value : token.getDefaultValue());
         } else {
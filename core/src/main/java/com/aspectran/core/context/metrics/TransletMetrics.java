@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.context.metrics;
+
+import com.aspectran.core.activity.process.action.Executable;
+import com.aspectran.core.util.statistic.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and counters of the activities performed for
+ * a translet. Latencies are recorded in microseconds.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+public class TransletMetrics {
+
+    private final String name;
+
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    private final LatencyHistogram prepare = new LatencyHistogram();
+
+    private final LatencyHistogram advice = new LatencyHistogram();
+
+    private final LatencyHistogram action = new LatencyHistogram();
+
+    private final LatencyHistogram response = new LatencyHistogram();
+
+    private final LongAdder exceptions = new LongAdder();
+
+    private final LongAdder bytesIn = new LongAdder();
+
+    private final LongAdder bytesOut = new LongAdder();
+
+    private final Map<Executable, ActionMetrics> actionMetricsMap = new ConcurrentHashMap<>();
+
+    public TransletMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the translet rule.
+     * @return the translet name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the latencies of the whole activities, from preparation
+     * until the response has been flushed.
+     * @return the latency histogram
+     */
+    public LatencyHistogram getTotal() {
+        return total;
+    }
+
+    public LatencyHistogram getPrepare() {
+        return prepare;
+    }
+
+    /**
+     * Returns the latencies of the before, after and finally advices
+     * executed for the translet.
+     * @return the latency histogram
+     */
+    public LatencyHistogram getAdvice() {
+        return advice;
+    }
+
+    /**
+     * Returns the latencies of executing all the actions of the translet.
+     * @return the latency histogram
+     */
+    public LatencyHistogram getAction() {
+        return action;
+    }
+
+    public LatencyHistogram getResponse() {
+        return response;
+    }
+
+    /**
+     * Returns the number of activities that raised an exception.
+     * @return the number of exceptions
+     */
+    public long getExceptions() {
+        return exceptions.sum();
+    }
+
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    /**
+     * Returns the metrics of each action executed for the translet.
+     * @return the action metrics
+     */
+    public Collection<ActionMetrics> getActionMetrics() {
+        return new ArrayList<>(actionMetricsMap.values());
+    }
+
+    public void recordTotal(long nanos) {
+        total.record(toMicros(nanos));
+    }
+
+    public void recordPrepare(long nanos) {
+        prepare.record(toMicros(nanos));
+    }
+
+    public void recordAdvice(long nanos) {
+        advice.record(toMicros(nanos));
+    }
+
+    public void recordAction(long nanos) {
+        action.record(toMicros(nanos));
+    }
+
+    /**
+     * Records the latency of a single action.
+     * @param executable the action
+     * @param nanos the elapsed time in nanoseconds
+     */
+    public void recordAction(Executable executable, long nanos) {
+        ActionMetrics actionMetrics = actionMetricsMap.get(executable);
+        if (actionMetrics == null) {
+            actionMetrics = actionMetricsMap.computeIfAbsent(executable, ActionMetrics::new);
+        }
+        actionMetrics.latency.record(toMicros(nanos));
+    }
+
+    public void recordResponse(long nanos) {
+        response.record(toMicros(nanos));
+    }
+
+    public void recordException() {
+        exceptions.increment();
+    }
+
+    public void addBytesIn(long bytes) {
+        bytesIn.add(bytes);
+    }
+
+    public void addBytesOut(long bytes) {
+        bytesOut.add(bytes);
+    }
+
+    /**
+     * Resets all histograms and counters.
+     */
+    public void reset() {
+        total.reset();
+        prepare.reset();
+        advice.reset();
+        action.reset();
+        response.reset();
+        exceptions.reset();
+        bytesIn.reset();
+        bytesOut.reset();
+        actionMetricsMap.clear();
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * The latencies of an action, recorded in microseconds.
+     */
+    public static class ActionMetrics {
+
+        private final String name;
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private ActionMetrics(Executable executable) {
+            String actionId = executable.getActionId();
+            this.name = (actionId != null ? actionId : executable.toString());
+        }
+
+        /**
+         * Returns the action ID, or a description of the action if it has no ID.
+         * @return the action name
+         */
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+    }
+
+}
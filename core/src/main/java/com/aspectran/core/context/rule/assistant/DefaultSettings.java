@@ -41,6 +41,12 @@ public class DefaultSettings {
 
     private String defaultSchedulerBean;
 
+    /** Interval in seconds between checks for changes in file-based templates */
+    private Integer templateReloadInterval;
+
+    /** Whether to record latency metrics of activities */
+    private Boolean metricsEnabled;
+
     public DefaultSettings() {
     }
 
@@ -51,6 +57,8 @@ public class DefaultSettings {
         this.pointcutPatternVerifiable = ds.getPointcutPatternVerifiable();
         this.defaultTemplateEngineBean = ds.getDefaultTemplateEngineBean();
         this.defaultSchedulerBean = ds.getDefaultSchedulerBean();
+        this.templateReloadInterval = ds.getTemplateReloadInterval();
+        this.metricsEnabled = ds.getMetricsEnabled();
     }
 
     public String getTransletNamePrefix() {
@@ -105,6 +113,26 @@ public class DefaultSettings {
         this.defaultSchedulerBean = defaultSchedulerBean;
     }
 
+    public Integer getTemplateReloadInterval() {
+        return templateReloadInterval;
+    }
+
+    public void setTemplateReloadInterval(Integer templateReloadInterval) {
+        this.templateReloadInterval = templateReloadInterval;
+    }
+
+    public boolean isMetricsEnabled() {
+        return BooleanUtils.toBoolean(metricsEnabled, false);
+    }
+
+    public Boolean getMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
     public void apply(Map<DefaultSettingType, String> settings) {
         if (settings.get(DefaultSettingType.TRANSLET_NAME_PREFIX) != null) {
             setTransletNamePrefix(settings.get(DefaultSettingType.TRANSLET_NAME_PREFIX));
@@ -125,6 +153,12 @@ public class DefaultSettings {
         if (settings.get(DefaultSettingType.DEFAULT_SCHEDULER_BEAN) != null) {
             defaultSchedulerBean = settings.get(DefaultSettingType.DEFAULT_SCHEDULER_BEAN);
         }
+        if (settings.get(DefaultSettingType.TEMPLATE_RELOAD_INTERVAL) != null) {
+            templateReloadInterval = Integer.valueOf(settings.get(DefaultSettingType.TEMPLATE_RELOAD_INTERVAL));
+        }
+        if (settings.get(DefaultSettingType.METRICS_ENABLED) != null) {
+            metricsEnabled = Boolean.parseBoolean(settings.get(DefaultSettingType.METRICS_ENABLED));
+        }
     }
 
 }
@@ -225,6 +225,12 @@ public class RulesToParameters {
             if (defaultSettings.getDefaultSchedulerBean() != null) {
                 settingsParameters.putSetting(DefaultSettingType.DEFAULT_SCHEDULER_BEAN.toString(), defaultSettings.getDefaultSchedulerBean());
             }
+            if (defaultSettings.getTemplateReloadInterval() != null) {
+                settingsParameters.putSetting(DefaultSettingType.TEMPLATE_RELOAD_INTERVAL.toString(), defaultSettings.getTemplateReloadInterval());
+            }
+            if (defaultSettings.getMetricsEnabled() != null) {
+                settingsParameters.putSetting(DefaultSettingType.METRICS_ENABLED.toString(), defaultSettings.getMetricsEnabled());
+            }
             return settingsParameters;
         }
         return null;
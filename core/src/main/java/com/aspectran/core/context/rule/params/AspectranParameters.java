@@ -98,6 +98,14 @@ public class AspectranParameters extends AbstractParameters {
         return setSetting(DefaultSettingType.DEFAULT_SCHEDULER_BEAN, beanName);
     }
 
+    public AspectranParameters setTemplateReloadInterval(int seconds) {
+        return setSetting(DefaultSettingType.TEMPLATE_RELOAD_INTERVAL, seconds);
+    }
+
+    public AspectranParameters setMetricsEnabled(boolean enabled) {
+        return setSetting(DefaultSettingType.METRICS_ENABLED, enabled);
+    }
+
     private AspectranParameters setSetting(DefaultSettingType defaultSettingType, Object value) {
         SettingsParameters settingsParameters = touchParameters(settings);
         settingsParameters.putSetting(defaultSettingType.toString(), value);
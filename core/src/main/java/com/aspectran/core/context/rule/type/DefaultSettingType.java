@@ -25,7 +25,9 @@ public enum DefaultSettingType {
     BEAN_PROXIFIER("beanProxifier"),
     POINTCUT_PATTERN_VERIFIABLE("pointcutPatternVerifiable"),
     DEFAULT_TEMPLATE_ENGINE_BEAN("defaultTemplateEngineBean"),
-    DEFAULT_SCHEDULER_BEAN("defaultSchedulerBean");
+    DEFAULT_SCHEDULER_BEAN("defaultSchedulerBean"),
+    TEMPLATE_RELOAD_INTERVAL("templateReloadInterval"),
+    METRICS_ENABLED("metricsEnabled");
 
     private final String alias;
 
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.support.metrics;
+
+import com.aspectran.core.component.bean.annotation.AvoidAdvice;
+import com.aspectran.core.component.bean.aware.ActivityContextAware;
+import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.context.metrics.ActivityMetrics;
+import com.aspectran.core.context.metrics.TransletMetrics;
+import com.aspectran.core.util.Assert;
+import com.aspectran.core.util.json.JsonWriter;
+import com.aspectran.core.util.statistic.LatencyHistogram;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Formatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports the metrics of the activities performed in an ActivityContext.
+ * Translets are listed in descending order of the 99th percentile of their
+ * total latency. All latencies are in microseconds.
+ *
+ * <p>It can be declared as a bean and used in a translet to serve the
+ * metrics as JSON, for example:</p>
+ * <pre>
+ * &lt;bean id="activityMetricsReporter"
+ *       class="com.aspectran.core.support.metrics.ActivityMetricsReporter"/&gt;
+ *
+ * &lt;translet name="/metrics"&gt;
+ *   &lt;transform format="text" contentType="application/json"&gt;
+ *     &lt;action bean="activityMetricsReporter" method="toJson"/&gt;
+ *   &lt;/transform&gt;
+ * &lt;/translet&gt;
+ * </pre>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+@AvoidAdvice
+public class ActivityMetricsReporter implements ActivityContextAware {
+
+    private static final double[] PERCENTILES = { 50.0, 90.0, 99.0 };
+
+    private ActivityMetrics activityMetrics;
+
+    public ActivityMetricsReporter() {
+    }
+
+    public ActivityMetricsReporter(ActivityMetrics activityMetrics) {
+        Assert.notNull(activityMetrics, "activityMetrics must not be null");
+        this.activityMetrics = activityMetrics;
+    }
+
+    @Override
+    public void setActivityContext(ActivityContext context) {
+        Assert.state(activityMetrics == null, "ActivityContext already injected");
+        this.activityMetrics = context.getActivityMetrics();
+    }
+
+    public ActivityMetrics getActivityMetrics() {
+        Assert.state(activityMetrics != null, "No ActivityContext injected");
+        return activityMetrics;
+    }
+
+    public boolean isEnabled() {
+        return getActivityMetrics().isEnabled();
+    }
+
+    public void enable() {
+        getActivityMetrics().setEnabled(true);
+    }
+
+    public void disable() {
+        getActivityMetrics().setEnabled(false);
+    }
+
+    public void reset() {
+        getActivityMetrics().reset();
+    }
+
+    /**
+     * Returns the metrics of all translets performed so far, slowest first.
+     * @return the translet metrics
+     */
+    public List<TransletMetrics> getTransletMetrics() {
+        return getTransletMetrics(0);
+    }
+
+    /**
+     * Returns the metrics of the slowest translets.
+     * @param limit the maximum number of translets; 0 for no limit
+     * @return the translet metrics
+     */
+    public List<TransletMetrics> getTransletMetrics(int limit) {
+        List<TransletMetrics> list = new ArrayList<>(getActivityMetrics().getAllTransletMetrics());
+        list.sort(Comparator.comparingLong((TransletMetrics tm) ->
+                tm.getTotal().getValueAtPercentile(99.0)).reversed());
+        if (limit > 0 && list.size() > limit) {
+            return new ArrayList<>(list.subList(0, limit));
+        }
+        return list;
+    }
+
+    /**
+     * Returns the metrics as a JSON string.
+     * @return the JSON string
+     * @throws IOException if writing the JSON fails
+     */
+    public String toJson() throws IOException {
+        return toJson(0);
+    }
+
+    /**
+     * Returns the metrics of the slowest translets as a JSON string.
+     * @param limit the maximum number of translets; 0 for no limit
+     * @return the JSON string
+     * @throws IOException if writing the JSON fails
+     */
+    public String toJson(int limit) throws IOException {
+        List<Map<String, Object>> translets = new ArrayList<>();
+        for (TransletMetrics tm : getTransletMetrics(limit)) {
+            Map<String, Object> translet = new LinkedHashMap<>();
+            translet.put("name", tm.getName());
+            translet.put("count", tm.getTotal().getCount());
+            translet.put("exceptions", tm.getExceptions());
+            translet.put("bytesIn", tm.getBytesIn());
+            translet.put("bytesOut", tm.getBytesOut());
+            translet.put("total", toMap(tm.getTotal()));
+            translet.put("prepare", toMap(tm.getPrepare()));
+            translet.put("advice", toMap(tm.getAdvice()));
+            translet.put("action", toMap(tm.getAction()));
+            translet.put("response", toMap(tm.getResponse()));
+            List<Map<String, Object>> actions = new ArrayList<>();
+            for (TransletMetrics.ActionMetrics am : tm.getActionMetrics()) {
+                Map<String, Object> action = toMap(am.getLatency());
+                action.put("name", am.getName());
+                actions.add(action);
+            }
+            translet.put("actions", actions);
+            translets.add(translet);
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", isEnabled());
+        map.put("activeActivities", getActivityMetrics().getActiveActivityCount());
+        map.put("translets", translets);
+        return new JsonWriter().prettyPrint(false).write(map).toString();
+    }
+
+    private Map<String, Object> toMap(LatencyHistogram histogram) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", histogram.getCount());
+        map.put("mean", Math.round(histogram.getMean()));
+        for (double percentile : PERCENTILES) {
+            map.put("p" + (int)percentile, histogram.getValueAtPercentile(percentile));
+        }
+        map.put("max", histogram.getMax());
+        return map;
+    }
+
+    /**
+     * Returns the metrics of the slowest translets as a text table.
+     * @param limit the maximum number of translets; 0 for no limit
+     * @return the text table
+     */
+    public String toTable(int limit) {
+        Formatter formatter = new Formatter();
+        formatter.format("Metrics %s, %d active activities%n",
+                (isEnabled() ? "enabled" : "disabled"), getActivityMetrics().getActiveActivityCount());
+        formatter.format("%-40s %8s %6s %8s %8s %8s %8s %8s %8s %8s%n",
+                "Translet", "Count", "Errors", "Mean", "p50", "p90", "p99", "Max", "Action", "Response");
+        for (TransletMetrics tm : getTransletMetrics(limit)) {
+            LatencyHistogram total = tm.getTotal();
+            formatter.format("%-40s %8d %6d %8d %8d %8d %8d %8d %8d %8d%n",
+                    tm.getName(), total.getCount(), tm.getExceptions(), Math.round(total.getMean()),
+                    total.getValueAtPercentile(50.0), total.getValueAtPercentile(90.0),
+                    total.getValueAtPercentile(99.0), total.getMax(),
+                    tm.getAction().getValueAtPercentile(99.0), tm.getResponse().getValueAtPercentile(99.0));
+        }
+        formatter.format("(latencies in microseconds; Action and Response are 99th percentiles)");
+        return formatter.toString();
+    }
+
+}
@@ -21,7 +21,9 @@ import com.aspectran.core.util.wildcard.WildcardMatcher;
 import com.aspectran.core.util.wildcard.WildcardPattern;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.JarURLConnection;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -116,6 +118,9 @@ public class ClassScanner {
                 logger.debug("Scanning components in path: " + resource.getFile());
             }
 
+            if (scanFromIndex(resource, basePackageName, matcher, saveHandler)) {
+                continue;
+            }
             if (isJarResource(resource)) {
                 scanFromJarResource(resource, matcher, saveHandler);
             } else {
@@ -161,7 +166,8 @@ public class ClassScanner {
                 }
 
                 String relativePath = className.substring(basePackageName.length());
-                if (matcher.matches(relativePath)) {
+                if (matcher.matches(relativePath) && isCandidateClass(toClassName(className),
+                        () -> new FileInputStream(file))) {
                     String resourceName = targetPath + fileName;
                     Class<?> targetClass = loadClass(className);
                     saveHandler.save(resourceName, targetClass);
@@ -214,16 +220,18 @@ public class ClassScanner {
                 entryNamePrefix = entryNamePrefix + ResourceUtils.REGULAR_FILE_SEPARATOR;
             }
 
-            for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+            final JarFile jar = jarFile;
+            for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
                 JarEntry entry = entries.nextElement();
                 String entryName = entry.getName();
                 if (entryName.startsWith(entryNamePrefix) && entryName.endsWith(ClassUtils.CLASS_FILE_SUFFIX)) {
                     String entryNameSuffix = entryName.substring(entryNamePrefix.length(), entryName.length() -
                             ClassUtils.CLASS_FILE_SUFFIX.length());
 
-                    if (matcher.matches(entryNameSuffix)) {
+                    String className = entryNamePrefix + entryNameSuffix;
+                    if (matcher.matches(entryNameSuffix) && isCandidateClass(toClassName(className),
+                            () -> jar.getInputStream(entry))) {
                         String resourceName = jarFileUrl + ResourceUtils.JAR_URL_SEPARATOR + entryName;
-                        String className = entryNamePrefix + entryNameSuffix;
                         Class<?> targetClass = loadClass(className);
                         saveHandler.save(resourceName, targetClass);
                     }
@@ -238,6 +246,37 @@ public class ClassScanner {
         }
     }
 
+    /**
+     * Finds the matching classes in the given resource by other means than
+     * listing its class files, e.g. from an index. The default implementation
+     * does nothing and returns {@code false}.
+     * @param resource the URL of the base package directory in a class path entry
+     * @param basePackageName the base package name, in path form with a trailing slash
+     * @param matcher the matcher for the class names relative to the base package
+     * @param saveHandler the save handler
+     * @return true if the resource has been scanned, false to list its class files
+     * @throws IOException if an I/O error has occurred
+     * @since 7.0.5
+     */
+    protected boolean scanFromIndex(URL resource, String basePackageName, WildcardMatcher matcher,
+                                    SaveHandler saveHandler) throws IOException {
+        return false;
+    }
+
+    /**
+     * Returns whether a class whose name matches should be loaded and saved.
+     * It is called before the class is loaded, so an implementation can
+     * inspect the class file instead of defining the class. The default
+     * implementation accepts every class.
+     * @param className the fully qualified class name
+     * @param classFile the source of the class file contents
+     * @return true to load and save the class
+     * @since 7.0.5
+     */
+    protected boolean isCandidateClass(String className, ClassFileSource classFile) {
+        return true;
+    }
+
     private JarFile getJarFile(String jarFileUrl) throws IOException {
         if (jarFileUrl.startsWith(ResourceUtils.FILE_URL_PREFIX)) {
             try {
@@ -276,8 +315,12 @@ public class ClassScanner {
         return sb.toString();
     }
 
+    private static String toClassName(String classPath) {
+        return classPath.replace(REGULAR_FILE_SEPARATOR_CHAR, PACKAGE_SEPARATOR_CHAR);
+    }
+
     private Class<?> loadClass(String className) {
-        className = className.replace(REGULAR_FILE_SEPARATOR_CHAR, PACKAGE_SEPARATOR_CHAR);
+        className = toClassName(className);
 
         try {
             return classLoader.loadClass(className);
@@ -292,4 +335,14 @@ public class ClassScanner {
 
     }
 
+    /**
+     * Opens the contents of a class file.
+     * @since 7.0.5
+     */
+    public interface ClassFileSource {
+
+        InputStream open() throws IOException;
+
+    }
+
 }
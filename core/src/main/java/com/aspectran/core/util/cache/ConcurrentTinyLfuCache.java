@@ -0,0 +1,616 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.util.cache;
+
+import com.aspectran.core.util.Assert;
+import com.aspectran.core.util.ToStringBuilder;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A thread-safe {@link Cache} with a fixed capacity that uses the W-TinyLFU
+ * policy to choose which entries to discard.
+ * <p>
+ * Cache hits are served from a {@code ConcurrentHashMap} without locking.
+ * Accesses are recorded in striped, lossy ring buffers and applied to the
+ * eviction policy in batches by whichever thread acquires the eviction lock,
+ * so that hits and misses never wait for each other.</p>
+ * <p>
+ * New entries first enter a small LRU window. Entries leaving the window
+ * compete with the least valuable entry of the main space, and are admitted
+ * only if a frequency sketch estimates that they are used more often.
+ * The main space is a segmented LRU split into probation and protected
+ * segments. This keeps frequently used entries from being flushed out by
+ * scans of entries that are used once.</p>
+ * <p>
+ * The number of entries may briefly exceed the capacity while other threads
+ * are adding entries, until pending writes are applied.</p>
+ *
+ * @param <K> the type of the key used for caching
+ * @param <V> the type of the cached values
+ * @since 7.0.5
+ */
+public class ConcurrentTinyLfuCache<K, V> implements Cache<K, V> {
+
+    private static final int READ_BUFFER_SIZE = 16;
+
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    private static final int MAX_READ_BUFFERS = 64;
+
+    private final ConcurrentHashMap<K, Node<K, V>> cache;
+
+    private final Function<K, V> generator;
+
+    private final int capacity;
+
+    private final int maxWindowSize;
+
+    private final int maxProtectedSize;
+
+    private final ReadBuffer<K, V>[] readBuffers;
+
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+
+    private final AccessOrderDeque<K, V> protectedSegment = new AccessOrderDeque<>();
+
+    private final FrequencySketch sketch;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    public ConcurrentTinyLfuCache(int capacity, Function<K, V> generator) {
+        Assert.isTrue(capacity > 0, "capacity must be positive");
+        Assert.notNull(generator, "Generator function must not be null");
+        this.cache = new ConcurrentHashMap<>(Math.min(capacity, 1 << 16));
+        this.generator = generator;
+        this.capacity = capacity;
+        this.maxWindowSize = Math.max(1, capacity / 100);
+        this.maxProtectedSize = (int)((capacity - maxWindowSize) * 0.8d);
+        this.sketch = new FrequencySketch(capacity);
+
+        int buffers = 1;
+        int processors = Runtime.getRuntime().availableProcessors();
+        while (buffers < processors * 2 && buffers < MAX_READ_BUFFERS) {
+            buffers <<= 1;
+        }
+        @SuppressWarnings("unchecked")
+        ReadBuffer<K, V>[] readBuffers = new ReadBuffer[buffers];
+        for (int i = 0; i < buffers; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+        this.readBuffers = readBuffers;
+    }
+
+    /**
+     * Returns the value associated with the key, generating and caching it
+     * first if it is not yet present. The generator function is called at
+     * most once for concurrent misses on the same key, and must not access
+     * this cache. If it returns {@code null}, nothing is cached.
+     * @param key the key whose associated value is to be returned
+     * @return the cached or generated value
+     */
+    @Override
+    public V get(K key) {
+        Node<K, V> node = cache.get(key);
+        if (node != null) {
+            hitCount.increment();
+            afterRead(node);
+            return node.value;
+        }
+        Node<K, V>[] created = newNodeHolder();
+        node = cache.computeIfAbsent(key, k -> {
+            V value = generator.apply(k);
+            if (value == null) {
+                return null;
+            }
+            created[0] = new Node<>(k, value);
+            return created[0];
+        });
+        if (created[0] != null) {
+            missCount.increment();
+            Node<K, V> added = created[0];
+            afterWrite(() -> onAdd(added));
+            return added.value;
+        } else if (node != null) {
+            // another thread has just generated the value
+            hitCount.increment();
+            afterRead(node);
+            return node.value;
+        } else {
+            missCount.increment();
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<K, V>[] newNodeHolder() {
+        return new Node[1];
+    }
+
+    @Override
+    public void remove(K key) {
+        Node<K, V> node = cache.remove(key);
+        if (node != null) {
+            afterWrite(() -> onRemove(node));
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            cache.clear();
+            writeBuffer.clear();
+            for (ReadBuffer<K, V> readBuffer : readBuffers) {
+                readBuffer.drainTo(null);
+            }
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return cache.keySet();
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return cache.isEmpty();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of times a lookup found a cached value.
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of times a lookup had to generate the value.
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the number of entries discarded to stay within the capacity.
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Returns the ratio of lookups that found a cached value,
+     * or {@code 1.0} if there have been no lookups.
+     * @return the hit ratio
+     */
+    public double getHitRatio() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return (total == 0 ? 1.0d : (double)hits / total);
+    }
+
+    private void afterRead(Node<K, V> node) {
+        ReadBuffer<K, V> readBuffer = readBuffers[bufferIndex()];
+        if (!readBuffer.offer(node)) {
+            // the buffer is full; apply the recorded reads if nobody else is doing so
+            tryToMaintain();
+        }
+    }
+
+    private int bufferIndex() {
+        long id = Thread.currentThread().getId();
+        int h = (int)(id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (readBuffers.length - 1);
+    }
+
+    private void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        tryToMaintain();
+    }
+
+    private void tryToMaintain() {
+        // retry if a task was queued while another thread was releasing the lock
+        while (evictionLock.tryLock()) {
+            try {
+                maintain();
+            } finally {
+                evictionLock.unlock();
+            }
+            if (writeBuffer.isEmpty()) {
+                break;
+            }
+        }
+    }
+
+    private void maintain() {
+        for (ReadBuffer<K, V> readBuffer : readBuffers) {
+            readBuffer.drainTo(this);
+        }
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            task.run();
+        }
+        evictEntries();
+    }
+
+    private void onAccess(Node<K, V> node) {
+        sketch.increment(node.key);
+        switch (node.segment) {
+            case Node.WINDOW:
+                window.moveToBack(node);
+                break;
+            case Node.PROBATION:
+                probation.remove(node);
+                node.segment = Node.PROTECTED;
+                protectedSegment.add(node);
+                while (protectedSegment.size() > maxProtectedSize) {
+                    Node<K, V> demoted = protectedSegment.poll();
+                    demoted.segment = Node.PROBATION;
+                    probation.add(demoted);
+                }
+                break;
+            case Node.PROTECTED:
+                protectedSegment.moveToBack(node);
+                break;
+            default:
+                // not yet added, or already removed
+        }
+    }
+
+    private void onAdd(Node<K, V> node) {
+        // the entry may have been removed before it was added to the policy
+        if (node.segment == Node.NEW && cache.get(node.key) == node) {
+            sketch.increment(node.key);
+            node.segment = Node.WINDOW;
+            window.add(node);
+        }
+    }
+
+    private void onRemove(Node<K, V> node) {
+        unlink(node);
+        node.segment = Node.RETIRED;
+    }
+
+    private void evictEntries() {
+        while (window.size() > maxWindowSize) {
+            Node<K, V> node = window.poll();
+            node.segment = Node.PROBATION;
+            probation.add(node);
+        }
+        while (window.size() + probation.size() + protectedSegment.size() > capacity) {
+            Node<K, V> victim = probation.peek();
+            if (victim == null) {
+                victim = (protectedSegment.peek() != null ? protectedSegment.peek() : window.peek());
+                evict(victim);
+                continue;
+            }
+            // the most recently demoted entry competes with the least recently used one
+            Node<K, V> candidate = probation.peekLast();
+            if (candidate != victim && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                victim = candidate;
+            }
+            evict(victim);
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        unlink(node);
+        node.segment = Node.RETIRED;
+        if (cache.remove(node.key, node)) {
+            evictionCount.increment();
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.segment) {
+            case Node.WINDOW:
+                window.remove(node);
+                break;
+            case Node.PROBATION:
+                probation.remove(node);
+                break;
+            case Node.PROTECTED:
+                protectedSegment.remove(node);
+                break;
+            default:
+                // not linked
+        }
+    }
+
+    @Override
+    public String toString() {
+        ToStringBuilder tsb = new ToStringBuilder();
+        tsb.append("capacity", capacity);
+        tsb.append("size", size());
+        tsb.append("hits", getHitCount());
+        tsb.append("misses", getMissCount());
+        tsb.append("evictions", getEvictionCount());
+        return tsb.toString();
+    }
+
+    /**
+     * A cache entry, linked into one of the segments while it is cached.
+     * Links and the segment are only accessed under the eviction lock.
+     */
+    private static class Node<K, V> {
+
+        static final int NEW = 0;
+        static final int WINDOW = 1;
+        static final int PROBATION = 2;
+        static final int PROTECTED = 3;
+        static final int RETIRED = 4;
+
+        final K key;
+
+        final V value;
+
+        int segment = NEW;
+
+        Node<K, V> prev;
+
+        Node<K, V> next;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * A doubly linked list of nodes in access order, least recent first.
+     */
+    private static class AccessOrderDeque<K, V> {
+
+        private Node<K, V> head;
+
+        private Node<K, V> tail;
+
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        Node<K, V> peek() {
+            return head;
+        }
+
+        Node<K, V> peekLast() {
+            return tail;
+        }
+
+        void add(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        Node<K, V> poll() {
+            Node<K, V> node = head;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                add(node);
+            }
+        }
+
+        void clear() {
+            Node<K, V> node = head;
+            while (node != null) {
+                Node<K, V> next = node.next;
+                node.prev = null;
+                node.next = null;
+                node.segment = Node.RETIRED;
+                node = next;
+            }
+            head = null;
+            tail = null;
+            size = 0;
+        }
+
+    }
+
+    /**
+     * A bounded ring buffer that records reads. Reads are dropped
+     * rather than blocking when the buffer is full.
+     */
+    private static class ReadBuffer<K, V> {
+
+        private final AtomicReferenceArray<Node<K, V>> buffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+
+        private final AtomicLong writeCounter = new AtomicLong();
+
+        /** only modified under the eviction lock */
+        private volatile long readCounter;
+
+        boolean offer(Node<K, V> node) {
+            long tail = writeCounter.get();
+            if (tail - readCounter >= READ_BUFFER_SIZE) {
+                return false;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int)(tail & READ_BUFFER_MASK), node);
+            }
+            return true;
+        }
+
+        void drainTo(ConcurrentTinyLfuCache<K, V> cache) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            while (head < tail) {
+                int index = (int)(head & READ_BUFFER_MASK);
+                Node<K, V> node = buffer.get(index);
+                if (node == null) {
+                    // the slot has been claimed but not yet written
+                    break;
+                }
+                buffer.lazySet(index, null);
+                if (cache != null) {
+                    cache.onAccess(node);
+                }
+                head++;
+            }
+            readCounter = head;
+        }
+
+    }
+
+    /**
+     * A count-min sketch with 4-bit counters that estimates how often
+     * keys have been used recently. All counters are halved periodically
+     * so that old popularity fades. Only accessed under the eviction lock.
+     */
+    private static class FrequencySketch {
+
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+
+        private final int tableMask;
+
+        private final int sampleSize;
+
+        private int size;
+
+        FrequencySketch(int capacity) {
+            int length = 1;
+            while (length < capacity && length < (1 << 24)) {
+                length <<= 1;
+            }
+            this.table = new long[length];
+            this.tableMask = length - 1;
+            this.sampleSize = (capacity > Integer.MAX_VALUE / 10 ? Integer.MAX_VALUE : capacity * 10);
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int count = (int)((table[index] >>> ((start + i) << 2)) & 0xFL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int offset = (start + i) << 2;
+                long mask = 0xFL << offset;
+                if ((table[index] & mask) != mask) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++size == sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            size >>>= 1;
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += (h >>> 32);
+            return (int)h & tableMask;
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+
+    }
+
+}
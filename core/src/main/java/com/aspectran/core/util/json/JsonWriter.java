@@ -16,7 +16,7 @@
 package com.aspectran.core.util.json;
 
 import com.aspectran.core.util.ArrayStack;
-import com.aspectran.core.util.BeanUtils;
+import com.aspectran.core.util.ConcurrentReferenceHashMap;
 import com.aspectran.core.util.apon.Parameter;
 import com.aspectran.core.util.apon.ParameterValue;
 import com.aspectran.core.util.apon.Parameters;
@@ -37,6 +37,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Converts an object to a JSON formatted string.
@@ -51,6 +52,12 @@ public class JsonWriter implements Flushable, Closeable {
 
     private static final String DEFAULT_INDENT_STRING = "  ";
 
+    private static final Map<String, DateTimeFormatter> dateTimeFormatters = new ConcurrentReferenceHashMap<>();
+
+    private static final Function<String, DateTimeFormatter> dateTimeFormatterFactory = DateTimeFormatter::ofPattern;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private final ArrayStack<Boolean> writtenFlags = new ArrayStack<>();
 
     private final Writer out;
@@ -69,6 +76,10 @@ public class JsonWriter implements Flushable, Closeable {
 
     private String pendedName;
 
+    private SimpleDateFormat simpleDateFormat;
+
+    private char[] unicodeEscape;
+
     /**
      * Instantiates a new JsonWriter.
      * Pretty printing is enabled by default, and the indent string is
@@ -197,39 +208,36 @@ public class JsonWriter implements Flushable, Closeable {
             endArray();
         } else if (object instanceof Date) {
             if (dateTimeFormat != null) {
-                SimpleDateFormat dt = new SimpleDateFormat(dateTimeFormat);
-                writeValue(dt.format((Date)object));
+                writeValue(getSimpleDateFormat().format((Date)object));
             } else {
                 writeValue(object.toString());
             }
         } else if (object instanceof LocalDate) {
             if (dateFormat != null) {
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern(dateFormat);
-                writeValue(((LocalDate)object).format(formatter));
+                writeValue(((LocalDate)object).format(getDateTimeFormatter(dateFormat)));
             } else {
                 writeValue(object.toString());
             }
         } else if (object instanceof LocalDateTime) {
             if (dateTimeFormat != null) {
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern(dateTimeFormat);
-                writeValue(((LocalDateTime)object).format(formatter));
+                writeValue(((LocalDateTime)object).format(getDateTimeFormatter(dateTimeFormat)));
             } else {
                 writeValue(object.toString());
             }
         } else {
-            String[] readablePropertyNames = BeanUtils.getReadablePropertyNamesWithoutNonSerializable(object);
-            if (readablePropertyNames != null && readablePropertyNames.length > 0) {
+            SerializableBeanProperties properties = SerializableBeanProperties.getInstance(object.getClass());
+            if (properties.size() > 0) {
                 beginObject();
-                for (String propertyName : readablePropertyNames) {
+                for (int i = 0; i < properties.size(); i++) {
                     Object value;
                     try {
-                        value = BeanUtils.getProperty(object, propertyName);
+                        value = properties.getValue(object, i);
                     } catch (InvocationTargetException e) {
                         throw new IOException(e);
                     }
                     checkCircularReference(object, value);
 
-                    writeName(propertyName);
+                    writeName(properties.getName(i));
                     write(value);
                 }
                 endObject();
@@ -255,7 +263,7 @@ public class JsonWriter implements Flushable, Closeable {
         }
         if (pendedName != null) {
             indent();
-            out.write(escape(pendedName));
+            writeEscaped(pendedName);
             out.write(":");
             if (prettyPrint) {
                 out.write(" ");
@@ -279,7 +287,7 @@ public class JsonWriter implements Flushable, Closeable {
     public void writeValue(String value) throws IOException {
         if (nullWritable || value != null) {
             writePendedName();
-            out.write(escape(value));
+            writeEscaped(value);
             writtenFlags.update(true);
         } else {
             clearPendedName();
@@ -470,6 +478,17 @@ public class JsonWriter implements Flushable, Closeable {
         return out.toString();
     }
 
+    private SimpleDateFormat getSimpleDateFormat() {
+        if (simpleDateFormat == null || !dateTimeFormat.equals(simpleDateFormat.toPattern())) {
+            simpleDateFormat = new SimpleDateFormat(dateTimeFormat);
+        }
+        return simpleDateFormat;
+    }
+
+    private static DateTimeFormatter getDateTimeFormatter(String pattern) {
+        return dateTimeFormatters.computeIfAbsent(pattern, dateTimeFormatterFactory);
+    }
+
     private void checkCircularReference(Object wrapper, Object member) throws IOException {
         if (wrapper.equals(member)) {
             throw new IOException("JSON Serialization Failure: A circular reference was detected " +
@@ -478,67 +497,90 @@ public class JsonWriter implements Flushable, Closeable {
     }
 
     /**
-     * Produce a string in double quotes with backslash sequences in all the
+     * Writes a string in double quotes with backslash sequences in all the
      * right places. A backslash will be inserted within &lt;/, allowing JSON
      * text to be delivered in HTML. In JSON text, a string cannot contain a
      * control character or an unescaped quote or backslash.
+     * The characters that need no escaping are written in runs, without
+     * copying the string.
      * @param string the input String, may be null
-     * @return a String correctly formatted for insertion in a JSON text
+     * @throws IOException if an I/O error has occurred
      */
-    private static String escape(String string) {
+    private void writeEscaped(String string) throws IOException {
         if (string == null || string.length() == 0) {
-            return "\"\"";
+            out.write("\"\"");
+            return;
         }
 
         int len = string.length();
+        int start = 0;
         char b;
         char c = 0;
-        String t;
+        String replacement;
 
-        StringBuilder sb = new StringBuilder(len + 4);
-        sb.append('"');
+        out.write('"');
         for (int i = 0; i < len; i++) {
             b = c;
             c = string.charAt(i);
 
             switch (c) {
                 case '\\':
+                    replacement = "\\\\";
+                    break;
                 case '"':
-                    sb.append('\\');
-                    sb.append(c);
+                    replacement = "\\\"";
                     break;
                 case '/':
-                    if (b == '<') {
-                        sb.append('\\');
-                    }
-                    sb.append(c);
+                    replacement = (b == '<' ? "\\/" : null);
                     break;
                 case '\b':
-                    sb.append("\\b");
+                    replacement = "\\b";
                     break;
                 case '\t':
-                    sb.append("\\t");
+                    replacement = "\\t";
                     break;
                 case '\n':
-                    sb.append("\\n");
+                    replacement = "\\n";
                     break;
                 case '\f':
-                    sb.append("\\f");
+                    replacement = "\\f";
                     break;
                 case '\r':
-                    sb.append("\\r");
+                    replacement = "\\r";
                     break;
                 default:
                     if (c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
-                        t = "000" + Integer.toHexString(c);
-                        sb.append("\\u").append(t.substring(t.length() - 4));
-                    } else {
-                        sb.append(c);
+                        if (i > start) {
+                            out.write(string, start, i - start);
+                        }
+                        writeUnicodeEscape(c);
+                        start = i + 1;
                     }
+                    replacement = null;
+            }
+            if (replacement != null) {
+                if (i > start) {
+                    out.write(string, start, i - start);
+                }
+                out.write(replacement);
+                start = i + 1;
             }
         }
-        sb.append('"');
-        return sb.toString();
+        if (start < len) {
+            out.write(string, start, len - start);
+        }
+        out.write('"');
+    }
+
+    private void writeUnicodeEscape(char c) throws IOException {
+        if (unicodeEscape == null) {
+            unicodeEscape = new char[] {'\\', 'u', '0', '0', '0', '0'};
+        }
+        unicodeEscape[2] = HEX_DIGITS[(c >> 12) & 0xf];
+        unicodeEscape[3] = HEX_DIGITS[(c >> 8) & 0xf];
+        unicodeEscape[4] = HEX_DIGITS[(c >> 4) & 0xf];
+        unicodeEscape[5] = HEX_DIGITS[c & 0xf];
+        out.write(unicodeEscape);
     }
 
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.util.json;
+
+import com.aspectran.core.util.BeanDescriptor;
+import com.aspectran.core.util.ConcurrentReferenceHashMap;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+/**
+ * The readable properties of a bean class that are written when a bean
+ * is converted to JSON, along with method handles of their getters.
+ * They are resolved once per class so that writing a bean does not look
+ * up each property by name and invoke its getter through reflection.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+final class SerializableBeanProperties {
+
+    private static final Map<Class<?>, SerializableBeanProperties> cache = new ConcurrentReferenceHashMap<>(256);
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final String[] names;
+
+    private final Method[] getters;
+
+    private final MethodHandle[] handles;
+
+    private SerializableBeanProperties(Class<?> beanClass) {
+        BeanDescriptor bd = BeanDescriptor.getInstance(beanClass);
+        String[] names = bd.getReadablePropertyNamesWithoutNonSerializable();
+        if (names == null) {
+            names = new String[0];
+        }
+        this.names = names;
+        this.getters = new Method[names.length];
+        this.handles = new MethodHandle[names.length];
+        for (int i = 0; i < names.length; i++) {
+            try {
+                getters[i] = bd.getGetter(names[i]);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+            handles[i] = createHandle(getters[i]);
+        }
+    }
+
+    /**
+     * Returns the number of serializable properties.
+     */
+    int size() {
+        return names.length;
+    }
+
+    String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the value of the property at the given index.
+     * @param bean the bean whose property is to be read
+     * @param index the index of the property
+     * @return the property value
+     * @throws InvocationTargetException if the getter throws an exception
+     */
+    Object getValue(Object bean, int index) throws InvocationTargetException {
+        try {
+            MethodHandle handle = handles[index];
+            if (handle != null) {
+                return (Object)handle.invokeExact(bean);
+            } else {
+                return getters[index].invoke(bean);
+            }
+        } catch (InvocationTargetException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t, "Could not get property '" + names[index] +
+                    "' from " + bean.getClass().getName() + ". Cause: " + t.toString());
+        }
+    }
+
+    /**
+     * Creates a method handle of type {@code (Object)Object} that invokes
+     * the given getter. Returns {@code null} if the getter is not accessible,
+     * in which case it is invoked through reflection.
+     */
+    private static MethodHandle createHandle(Method getter) {
+        try {
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.publicLookup().unreflect(getter);
+            } catch (IllegalAccessException e) {
+                getter.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(getter);
+            }
+            if (Modifier.isStatic(getter.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle.asType(GETTER_TYPE);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the serializable properties of the given bean class.
+     * @param beanClass the bean class
+     * @return the serializable properties
+     */
+    static SerializableBeanProperties getInstance(Class<?> beanClass) {
+        SerializableBeanProperties properties = cache.get(beanClass);
+        if (properties == null) {
+            properties = new SerializableBeanProperties(beanClass);
+            SerializableBeanProperties existing = cache.putIfAbsent(beanClass, properties);
+            if (existing != null) {
+                properties = existing;
+            }
+        }
+        return properties;
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.util.statistic;
+
+import com.aspectran.core.util.ToStringBuilder;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A lock-free histogram of latency values, for reporting percentiles.</p>
+ *
+ * <p>Values are counted in log-linear buckets in the manner of HdrHistogram:
+ * values below 64 have a bucket each, and every following power of two is
+ * split into 32 buckets of equal width, so a reported value is within about
+ * 3% of the recorded value. Recording a value is a few atomic increments and
+ * never blocks. Values greater than the highest trackable value are counted
+ * as the highest trackable value.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << (SUB_BUCKET_BITS - 1);
+
+    private static final int SUB_BUCKET_HALF_MASK = SUB_BUCKET_HALF_COUNT - 1;
+
+    /** The default highest trackable value; a little over an hour in microseconds */
+    public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = (1L << 32) - 1;
+
+    private final long highestTrackableValue;
+
+    private final AtomicLongArray counts;
+
+    private final LongAdder total = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    public LatencyHistogram() {
+        this(DEFAULT_HIGHEST_TRACKABLE_VALUE);
+    }
+
+    public LatencyHistogram(long highestTrackableValue) {
+        if (highestTrackableValue < 1L) {
+            throw new IllegalArgumentException("highestTrackableValue must be positive");
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(indexOf(highestTrackableValue) + 1);
+    }
+
+    /**
+     * Records a value.
+     * @param value the value to record; negative values are counted as zero
+     */
+    public void record(long value) {
+        if (value < 0L) {
+            value = 0L;
+        } else if (value > highestTrackableValue) {
+            value = highestTrackableValue;
+        }
+        counts.incrementAndGet(indexOf(value));
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Resets the histogram.
+     * Values recorded concurrently with the reset may be partially kept.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0L);
+        }
+        total.reset();
+        max.reset();
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long getCount() {
+        long count = 0L;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return the sum of the values recorded
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * @return the largest value recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of the values recorded, or zero if there are none
+     */
+    public double getMean() {
+        long count = getCount();
+        return (count > 0L ? (double)getTotal() / count : 0.0D);
+    }
+
+    /**
+     * Returns the value below which the given percentage of the recorded
+     * values fall, reported as the upper bound of its bucket.
+     * @param percentile the percentile, from 0 to 100
+     * @return the value at the percentile, or zero if no value is recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        int length = counts.length();
+        long[] snapshot = new long[length];
+        long count = 0L;
+        for (int i = 0; i < length; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0L) {
+            return 0L;
+        }
+        double p = Math.min(Math.max(percentile, 0.0D), 100.0D);
+        long target = Math.max(1L, (long)Math.ceil(p / 100.0D * count));
+        long cumulative = 0L;
+        for (int i = 0; i < length; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= target) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int indexOf(long value) {
+        if (value < (SUB_BUCKET_HALF_COUNT << 1)) {
+            return (int)value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS + 1;
+        int subBucket = (int)(value >>> shift) & SUB_BUCKET_HALF_MASK;
+        return ((shift + 1) << (SUB_BUCKET_BITS - 1)) + subBucket;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < (SUB_BUCKET_HALF_COUNT << 1)) {
+            return index;
+        }
+        int shift = (index >>> (SUB_BUCKET_BITS - 1)) - 1;
+        long lowest = (long)(SUB_BUCKET_HALF_COUNT + (index & SUB_BUCKET_HALF_MASK)) << shift;
+        return lowest + (1L << shift) - 1L;
+    }
+
+    @Override
+    public String toString() {
+        ToStringBuilder tsb = new ToStringBuilder(String.format("%s@%x", getClass().getSimpleName(), hashCode()));
+        tsb.append("count", getCount());
+        tsb.append("mean", getMean());
+        tsb.append("max", getMax());
+        tsb.append("p50", getValueAtPercentile(50.0D));
+        tsb.append("p99", getValueAtPercentile(99.0D));
+        return tsb.toString();
+    }
+
+}
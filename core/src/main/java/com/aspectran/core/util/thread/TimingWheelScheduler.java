@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.util.thread;
+
+import com.aspectran.core.util.logging.Logger;
+import com.aspectran.core.util.logging.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Implementation of {@link Scheduler} based on a hashed timing wheel.
+ *
+ * <p>Tasks are kept in a ring of buckets, one per tick, instead of a
+ * priority queue. Scheduling a task only appends it to a lock-free queue,
+ * and cancelling it only flips its state, so both are O(1) and never
+ * contend on a lock however many tasks are pending; a single worker thread
+ * moves new tasks into their buckets, unlinks cancelled ones and runs the
+ * tasks that are due, once per tick.</p>
+ *
+ * <p>The price is resolution: a task runs on the first tick at or after its
+ * delay, so it can be late by up to one tick, and never early. This suits
+ * timeouts that are usually cancelled before they expire, such as session
+ * inactivity timers, and tasks with delays much longer than a tick.
+ * Tasks run on the worker thread and should not block for long.</p>
+ *
+ * <p>Scheduling a task before the scheduler has been started is an error.
+ * Tasks scheduled after it has been stopped, as can happen while shutting
+ * down, are not run, and the returned task cannot be cancelled.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+public class TimingWheelScheduler implements Scheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheelScheduler.class);
+
+    public static final long DEFAULT_TICK_DURATION_MILLIS = 100L;
+
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final String name;
+
+    private final boolean daemon;
+
+    private final ClassLoader classLoader;
+
+    private final long tickNanos;
+
+    private final int mask;
+
+    private final Bucket[] wheel;
+
+    private final Queue<WheelTask> pendingTasks = new ConcurrentLinkedQueue<>();
+
+    private final Queue<WheelTask> cancelledTasks = new ConcurrentLinkedQueue<>();
+
+    private volatile Worker worker;
+
+    private volatile boolean stopped;
+
+    public TimingWheelScheduler() {
+        this(null, false);
+    }
+
+    public TimingWheelScheduler(String name, boolean daemon) {
+        this(name, daemon, DEFAULT_TICK_DURATION_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public TimingWheelScheduler(String name, boolean daemon, long tickDuration, TimeUnit unit) {
+        this(name, daemon, tickDuration, unit, DEFAULT_WHEEL_SIZE, null);
+    }
+
+    /**
+     * Instantiates a new TimingWheelScheduler.
+     * @param name the name of the worker thread
+     * @param daemon whether the worker thread is a daemon thread
+     * @param tickDuration the interval at which due tasks are run
+     * @param unit the time unit of the tick duration
+     * @param wheelSize the number of buckets in the wheel, rounded up to
+     *      a power of two; tasks further away than one rotation wait in
+     *      their bucket for the remaining rotations
+     * @param classLoader the context class loader of the worker thread
+     */
+    public TimingWheelScheduler(String name, boolean daemon, long tickDuration, TimeUnit unit,
+                                int wheelSize, ClassLoader classLoader) {
+        if (tickDuration <= 0L) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0");
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize must be between 1 and 2^30");
+        }
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.name = (name == null ? "Scheduler-" + hashCode() : name);
+        this.daemon = daemon;
+        this.classLoader = classLoader;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = size - 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            this.wheel[i] = new Bucket();
+        }
+    }
+
+    @Override
+    public Task schedule(Runnable task, long delay, TimeUnit units) {
+        Worker worker = this.worker;
+        if (worker == null) {
+            if (!stopped) {
+                throw new IllegalStateException("Scheduler " + name + " is not started");
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Scheduler " + name + " is stopped; task will not run: " + task);
+            }
+            return () -> false;
+        }
+        long deadline = System.nanoTime() - worker.startTime + Math.max(units.toNanos(delay), 0L);
+        if (deadline < 0L) {
+            // guard against overflow
+            deadline = Long.MAX_VALUE;
+        }
+        WheelTask wheelTask = new WheelTask(task, deadline);
+        pendingTasks.add(wheelTask);
+        return wheelTask;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (worker != null) {
+            throw new IllegalStateException("Scheduler " + name + " is already running");
+        }
+        pendingTasks.clear();
+        stopped = false;
+        Worker worker = new Worker();
+        Thread thread = new Thread(worker, name);
+        thread.setDaemon(daemon);
+        if (classLoader != null) {
+            thread.setContextClassLoader(classLoader);
+        }
+        worker.thread = thread;
+        this.worker = worker;
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        Worker worker = this.worker;
+        if (worker != null) {
+            stopped = true;
+            this.worker = null;
+            worker.running = false;
+            worker.thread.interrupt();
+            if (Thread.currentThread() != worker.thread) {
+                try {
+                    worker.thread.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1000L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return (worker != null);
+    }
+
+    private class Worker implements Runnable {
+
+        private final long startTime = System.nanoTime();
+
+        private Thread thread;
+
+        private volatile boolean running = true;
+
+        private long tick;
+
+        @Override
+        public void run() {
+            while (running) {
+                if (waitForNextTick() < 0L) {
+                    break;
+                }
+                removeCancelledTasks();
+                transferPendingTasks();
+                wheel[(int)(tick & mask)].expireTasks();
+                tick++;
+            }
+            pendingTasks.clear();
+            cancelledTasks.clear();
+            for (Bucket bucket : wheel) {
+                bucket.clear();
+            }
+        }
+
+        /**
+         * Waits until the end of the current tick.
+         * @return the time elapsed since start, or -1 if stopped
+         */
+        private long waitForNextTick() {
+            long deadline = tickNanos * (tick + 1);
+            while (true) {
+                long now = System.nanoTime() - startTime;
+                long sleepNanos = deadline - now;
+                if (sleepNanos <= 0L) {
+                    return now;
+                }
+                LockSupport.parkNanos(this, sleepNanos);
+                if (!running) {
+                    return -1L;
+                }
+            }
+        }
+
+        private void removeCancelledTasks() {
+            WheelTask task;
+            while ((task = cancelledTasks.poll()) != null) {
+                if (task.bucket != null) {
+                    task.bucket.remove(task);
+                }
+            }
+        }
+
+        private void transferPendingTasks() {
+            WheelTask task;
+            while ((task = pendingTasks.poll()) != null) {
+                if (task.state != WheelTask.ST_INIT) {
+                    continue;
+                }
+                long calculated = task.deadline / tickNanos;
+                task.remainingRounds = (calculated - tick) / wheel.length;
+                // a task whose tick has already passed runs on this tick
+                long ticks = Math.max(calculated, tick);
+                wheel[(int)(ticks & mask)].add(task);
+            }
+        }
+
+    }
+
+    /**
+     * A doubly linked list of the tasks in a slot of the wheel.
+     * It is only accessed by the worker thread.
+     */
+    private static class Bucket {
+
+        private WheelTask head;
+
+        private WheelTask tail;
+
+        void add(WheelTask task) {
+            task.bucket = this;
+            if (head == null) {
+                head = tail = task;
+            } else {
+                tail.next = task;
+                task.prev = tail;
+                tail = task;
+            }
+        }
+
+        /**
+         * Runs the tasks of this slot whose last round has come; because the
+         * current tick has ended, their deadlines have all passed.
+         */
+        void expireTasks() {
+            WheelTask task = head;
+            while (task != null) {
+                WheelTask next = task.next;
+                if (task.remainingRounds <= 0L) {
+                    remove(task);
+                    task.expire();
+                } else if (task.state == WheelTask.ST_CANCELLED) {
+                    remove(task);
+                } else {
+                    task.remainingRounds--;
+                }
+                task = next;
+            }
+        }
+
+        void remove(WheelTask task) {
+            if (task.bucket != this) {
+                return;
+            }
+            WheelTask next = task.next;
+            if (task.prev != null) {
+                task.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = task.prev;
+            }
+            if (task == head) {
+                head = next;
+            }
+            if (task == tail) {
+                tail = task.prev;
+            }
+            task.prev = null;
+            task.next = null;
+            task.bucket = null;
+        }
+
+        void clear() {
+            WheelTask task = head;
+            while (task != null) {
+                WheelTask next = task.next;
+                task.prev = null;
+                task.next = null;
+                task.bucket = null;
+                task = next;
+            }
+            head = null;
+            tail = null;
+        }
+
+    }
+
+    private class WheelTask implements Task {
+
+        private static final int ST_INIT = 0;
+
+        private static final int ST_CANCELLED = 1;
+
+        private static final int ST_EXPIRED = 2;
+
+        private final Runnable task;
+
+        private final long deadline;
+
+        private volatile int state = ST_INIT;
+
+        // the following fields are only accessed by the worker thread
+
+        private long remainingRounds;
+
+        private Bucket bucket;
+
+        private WheelTask prev;
+
+        private WheelTask next;
+
+        WheelTask(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            cancelledTasks.add(this);
+            return true;
+        }
+
+        void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.warn("An exception was thrown by " + task, e);
+            }
+        }
+
+    }
+
+    private static final AtomicIntegerFieldUpdater<WheelTask> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(WheelTask.class, "state");
+
+}
@@ -236,8 +236,8 @@ public class WildcardPattern {
     }
 
     public static boolean hasWildcards(String str) {
-        char[] ca = str.toCharArray();
-        for (char c : ca) {
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
             if (c == STAR_CHAR
                     || c == QUESTION_CHAR
                     || c == PLUS_CHAR) {
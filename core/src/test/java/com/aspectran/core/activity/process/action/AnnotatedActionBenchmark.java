@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.activity.process.action;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.aspectran.core.activity.InstantActivity;
+import com.aspectran.core.activity.request.ParameterMap;
+import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.context.builder.ActivityContextBuilder;
+import com.aspectran.core.context.builder.HybridActivityContextBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures binding the request parameters to the arguments of an annotated
+ * action and invoking it, for primitive, array, {@code Parameters} and model
+ * object arguments. Calls inside an activity are made in batches of
+ * {@value #CALLS} so that the cost of creating the activity is amortized.
+ *
+ * <p>Run with {@code main()} from the test classpath.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotatedActionBenchmark {
+
+    private static final int CALLS = 100;
+
+    @Param({"primitive", "array", "parameters", "model"})
+    private String arguments;
+
+    private ActivityContextBuilder activityContextBuilder;
+
+    private ActivityContext context;
+
+    private ParameterMap parameterMap;
+
+    private Executable action;
+
+    @Setup
+    public void setup() throws Exception {
+        ((Logger)LoggerFactory.getLogger("com.aspectran")).setLevel(Level.INFO);
+        activityContextBuilder = new HybridActivityContextBuilder();
+        context = AnnotatedActionTest.build(activityContextBuilder);
+        action = context.getTransletRuleRegistry().getTransletRule(getTransletName())
+                .getContentList().get(0).get(0);
+
+        parameterMap = new ParameterMap();
+        parameterMap.setParameter("num", "7");
+        parameterMap.setParameter("total", "12345678901");
+        parameterMap.setParameter("flag", "true");
+        parameterMap.setParameter("initial", "a");
+        parameterMap.setParameter("boxed", "3");
+        parameterMap.setParameterValues("nums", new String[] {"1", "2", "3", "4"});
+        parameterMap.setParameterValues("name", new String[] {"a", "b"});
+        parameterMap.setParameterValues("ids", new String[] {"10", "20"});
+        parameterMap.setParameter("age", "20");
+        parameterMap.setParameterValues("tags", new String[] {"t1", "t2"});
+        parameterMap.setParameter("email", "tom@example.com");
+    }
+
+    @TearDown
+    public void tearDown() {
+        activityContextBuilder.destroy();
+    }
+
+    private String getTransletName() {
+        return "/binding/" + arguments;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public void execute(Blackhole bh) throws Exception {
+        InstantActivity activity = new InstantActivity(context);
+        activity.setParameterMap(parameterMap);
+        activity.prepare(getTransletName());
+        activity.perform(() -> {
+            for (int i = 0; i < CALLS; i++) {
+                bh.consume(action.execute(activity));
+            }
+            return null;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AnnotatedActionBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
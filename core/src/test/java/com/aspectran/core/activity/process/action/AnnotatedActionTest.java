@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.activity.process.action;
+
+import com.aspectran.core.activity.ActivityPerformException;
+import com.aspectran.core.activity.InstantActivity;
+import com.aspectran.core.activity.request.ParameterMap;
+import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.context.builder.ActivityContextBuilder;
+import com.aspectran.core.context.builder.HybridActivityContextBuilder;
+import com.aspectran.core.context.rule.AppendRule;
+import com.aspectran.core.context.rule.params.AspectranParameters;
+import com.aspectran.core.sample.binding.BindingModel;
+import com.aspectran.core.util.apon.Parameters;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link AnnotatedAction}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AnnotatedActionTest {
+
+    private ActivityContextBuilder builder;
+
+    private ActivityContext context;
+
+    static ActivityContext build(ActivityContextBuilder activityContextBuilder) throws Exception {
+        activityContextBuilder.setBasePath(new File("./target/test-classes").getCanonicalPath());
+        AspectranParameters aspectranParameters = new AspectranParameters();
+        aspectranParameters.addRule(AppendRule.newInstance(
+                "/config/binding/binding-test-config.xml", null, null, null, null));
+        return activityContextBuilder.build(aspectranParameters);
+    }
+
+    @BeforeAll
+    void ready() throws Exception {
+        builder = new HybridActivityContextBuilder();
+        context = build(builder);
+    }
+
+    @AfterAll
+    void finish() {
+        if (builder != null) {
+            builder.destroy();
+        }
+    }
+
+    @Test
+    void testPrimitiveArguments() throws Exception {
+        ParameterMap params = new ParameterMap();
+        params.setParameter("num", "7");
+        params.setParameter("total", "12345678901");
+        params.setParameter("flag", "true");
+        params.setParameter("initial", "abc");
+        params.setParameter("boxed", "3");
+        assertEquals("7,12345678901,true,a,3", perform("/binding/primitive", params));
+
+        // missing values fall back to defaults, unparsable numbers to zero
+        params = new ParameterMap();
+        params.setParameter("total", "x");
+        assertEquals("0,0,false,\u0000,null", perform("/binding/primitive", params));
+    }
+
+    @Test
+    void testArrayArguments() throws Exception {
+        ParameterMap params = new ParameterMap();
+        params.setParameterValues("nums", new String[] {"1", "2"});
+        params.setParameterValues("name", new String[] {"a", "b"});
+        params.setParameterValues("ids", new String[] {"10"});
+        assertEquals("[1, 2],[a, b],[10]", perform("/binding/array", params));
+        assertEquals("[],null,null", perform("/binding/array", new ParameterMap()));
+    }
+
+    @Test
+    void testFormattedArgument() throws Exception {
+        ParameterMap params = new ParameterMap();
+        params.setParameter("date", "2021-10-18");
+        assertEquals(LocalDate.of(2021, 10, 18), perform("/binding/date", params));
+    }
+
+    @Test
+    void testRequiredArgument() throws Exception {
+        ParameterMap params = new ParameterMap();
+        params.setParameter("name", "aspectran");
+        assertEquals("aspectran", perform("/binding/required", params));
+        ActivityPerformException e = assertThrows(ActivityPerformException.class, () ->
+                perform("/binding/required", new ParameterMap()));
+        assertTrue(hasCause(e, ParameterBindingException.class));
+    }
+
+    @Test
+    void testParametersArgument() throws Exception {
+        ParameterMap params = new ParameterMap();
+        params.setParameter("item1", "value1");
+        Parameters parameters = perform("/binding/parameters", params);
+        assertEquals("value1", parameters.getString("item1"));
+    }
+
+    @Test
+    void testModelArgument() throws Exception {
+        ParameterMap params = new ParameterMap();
+        params.setParameter("name", "Tom");
+        params.setParameter("age", "20");
+        params.setParameterValues("tags", new String[] {"t1", "t2"});
+        params.setParameter("email", "tom@example.com");
+        BindingModel model = perform("/binding/model", params);
+        assertEquals("Tom", model.getName());
+        assertEquals(20, model.getAge());
+        assertArrayEquals(new String[] {"t1", "t2"}, model.getTags());
+        assertEquals("tom@example.com", model.getEmail());
+
+        params.remove("email");
+        params.setParameter("age", "x");
+        ActivityPerformException e = assertThrows(ActivityPerformException.class, () ->
+                perform("/binding/model", params));
+        assertTrue(hasCause(e, ParameterBindingException.class));
+
+        params.setParameter("email", "tom@example.com");
+        model = perform("/binding/model", params);
+        assertEquals(0, model.getAge());
+        assertArrayEquals(new String[] {"t1", "t2"}, model.getTags());
+    }
+
+    @Test
+    void testInvokeMethodExceptions() throws Exception {
+        Thrower thrower = new Thrower();
+        Method value = Thrower.class.getMethod("value");
+        assertEquals("value", AnnotatedAction.invokeMethod(null, thrower, value, null));
+        assertEquals("value", AnnotatedAction.invokeMethod(null, thrower, value, null));
+
+        // an exception thrown by the method is not wrapped, as with reflection
+        Method throwException = Thrower.class.getMethod("throwException");
+        assertThrows(IOException.class, () -> AnnotatedAction.invokeMethod(null, thrower, throwException, null));
+
+        // an error thrown by the method is wrapped, as with reflection
+        Method throwError = Thrower.class.getMethod("throwError");
+        InvocationTargetException e = assertThrows(InvocationTargetException.class, () ->
+                AnnotatedAction.invokeMethod(null, thrower, throwError, null));
+        assertTrue(e.getCause() instanceof AssertionError);
+    }
+
+    private <T> T perform(String transletName, ParameterMap params) throws Exception {
+        InstantActivity activity = new InstantActivity(context);
+        activity.setParameterMap(params);
+        activity.prepare(transletName);
+        activity.perform();
+        @SuppressWarnings("unchecked")
+        T result = (T)activity.getProcessResult().getResultValue("result");
+        return result;
+    }
+
+    public static class Thrower {
+
+        public String value() {
+            return "value";
+        }
+
+        public void throwException() throws IOException {
+            throw new IOException("exception");
+        }
+
+        public void throwError() {
+            throw new AssertionError("error");
+        }
+
+    }
+
+    private static boolean hasCause(Throwable e, Class<? extends Throwable> type) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (type.isInstance(t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.activity.response.transform;
+
+import com.aspectran.core.activity.FormattingContext;
+import com.aspectran.core.activity.process.result.ActionResult;
+import com.aspectran.core.activity.process.result.ContentResult;
+import com.aspectran.core.activity.process.result.ProcessResult;
+import com.aspectran.core.activity.response.transform.json.ContentsJsonWriter;
+import com.aspectran.core.activity.response.transform.json.ContentsJsonWriterBenchmark.Order;
+import com.aspectran.core.activity.response.transform.xml.ContentsInputSource;
+import com.aspectran.core.activity.response.transform.xml.ContentsXMLReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing a typical process result as XML to a UTF-8 encoded
+ * response stream with {@link XmlTransformResponse}, against the identity
+ * transform through a new {@code TransformerFactory} that it used before,
+ * and against writing the same result as JSON.
+ *
+ * <p>Run with {@code main()} from the test classpath.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XmlTransformResponseBenchmark {
+
+    @Param({"false", "true"})
+    private boolean pretty;
+
+    @Param({"50"})
+    private int rows;
+
+    private ProcessResult processResult;
+
+    private FormattingContext formattingContext;
+
+    @Setup
+    public void setup() {
+        List<Order> orders = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            orders.add(new Order(i));
+        }
+        Map<String, Object> paging = new LinkedHashMap<>();
+        paging.put("page", 1);
+        paging.put("pageSize", rows);
+        paging.put("totalRecords", 1234L);
+        paging.put("hasNext", true);
+
+        processResult = new ProcessResult();
+        ContentResult contentResult = new ContentResult(processResult, 2);
+        contentResult.setName("result");
+        contentResult.setExplicit(true);
+        ActionResult actionResult1 = new ActionResult();
+        actionResult1.setResultValue("orders", orders);
+        contentResult.addActionResult(actionResult1);
+        ActionResult actionResult2 = new ActionResult();
+        actionResult2.setResultValue("paging", paging);
+        contentResult.addActionResult(actionResult2);
+
+        formattingContext = new FormattingContext();
+        formattingContext.setPretty(pretty);
+        formattingContext.setDateFormat("yyyy-MM-dd");
+        formattingContext.setDateTimeFormat("yyyy-MM-dd HH:mm:ss");
+    }
+
+    @Benchmark
+    public Writer xml() throws IOException {
+        Writer writer = new OutputStreamWriter(NullOutputStream.INSTANCE, StandardCharsets.UTF_8);
+        XmlTransformResponse.transform(processResult, writer, "UTF-8", formattingContext);
+        return writer;
+    }
+
+    @Benchmark
+    public Writer identityTransform() throws TransformerException, IOException {
+        Writer writer = new OutputStreamWriter(NullOutputStream.INSTANCE, StandardCharsets.UTF_8);
+        TransformerFactory transformerFactory = TransformerFactory.newInstance();
+        if (pretty) {
+            transformerFactory.setAttribute("indent-number", 2);
+        }
+        Transformer transformer = transformerFactory.newTransformer();
+        transformer.setOutputProperty(OutputKeys.METHOD, "xml");
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        if (pretty) {
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC, "yes");
+        }
+        ContentsXMLReader xmlReader = new ContentsXMLReader();
+        xmlReader.setDateFormat(formattingContext.getDateFormat());
+        xmlReader.setDateTimeFormat(formattingContext.getDateTimeFormat());
+        SAXSource source = new SAXSource(xmlReader, new ContentsInputSource(processResult));
+        transformer.transform(source, new StreamResult(writer));
+        writer.flush();
+        return writer;
+    }
+
+    @Benchmark
+    public Writer json() throws IOException {
+        Writer writer = new OutputStreamWriter(NullOutputStream.INSTANCE, StandardCharsets.UTF_8);
+        ContentsJsonWriter jsonWriter = new ContentsJsonWriter(writer);
+        jsonWriter.dateFormat(formattingContext.getDateFormat());
+        jsonWriter.dateTimeFormat(formattingContext.getDateTimeFormat());
+        jsonWriter.prettyPrint(pretty);
+        jsonWriter.write(processResult);
+        writer.flush();
+        return writer;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(XmlTransformResponseBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    private static class NullOutputStream extends OutputStream {
+
+        static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+
+    }
+
+}
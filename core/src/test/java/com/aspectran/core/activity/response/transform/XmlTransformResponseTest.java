@@ -19,12 +19,19 @@ import com.aspectran.core.activity.FormattingContext;
 import com.aspectran.core.activity.process.result.ActionResult;
 import com.aspectran.core.activity.process.result.ContentResult;
 import com.aspectran.core.activity.process.result.ProcessResult;
+import com.aspectran.core.util.apon.AponFormat;
 import org.junit.jupiter.api.Test;
 
-import javax.xml.transform.TransformerException;
+import java.io.IOException;
 import java.io.StringWriter;
+import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
  * <p>Created: 2019-01-12</p>
@@ -32,7 +39,7 @@ import java.util.Date;
 class XmlTransformResponseTest {
 
     @Test
-    void toXml() throws TransformerException {
+    void toXml() throws IOException {
         ProcessResult processResult = new ProcessResult();
         processResult.setName("wrap1");
         processResult.setExplicit(true);
@@ -58,20 +65,75 @@ class XmlTransformResponseTest {
 //        r3.setResultValue(null, "value4");
         contentResult.addActionResult(r3);
 
+        Date date = new Date(1634515200000L);
         ActionResult r4 = new ActionResult();
-        r4.setResultValue("action4", new Object[] {new Date(), LocalDateTime.now()});
+        r4.setResultValue("action4", new Object[] {date, LocalDateTime.of(2021, 10, 18, 9, 5, 7)});
         contentResult.addActionResult(r4);
 
         StringWriter writer = new StringWriter();
         XmlTransformResponse.transform(processResult, writer, null, null);
 
+        String expected = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<wrap1>\n" +
+                "  <subwrap>\n" +
+                "    <action0>value0</action0>\n" +
+                "    <action1>\n" +
+                "      <result1>value1</result1>\n" +
+                "      <result2>value2</result2>\n" +
+                "    </action1>\n" +
+                "    <action1>value3</action1>\n" +
+                "    <action4>\n" +
+                "      <rows>\n" +
+                "        <row>" + date + "</row>\n" +
+                "        <row>2021-10-18T09:05:07</row>\n" +
+                "      </rows>\n" +
+                "    </action4>\n" +
+                "  </subwrap>\n" +
+                "</wrap1>\n").replace("\n", AponFormat.SYSTEM_NEW_LINE);
+
+        assertEquals(expected, writer.toString());
+
         FormattingContext formattingContext = new FormattingContext();
         formattingContext.setDateFormat("yyyy-MM-dd");
         formattingContext.setDateTimeFormat("yyyy-MM-dd HH:mm:ss");
 
+        writer = new StringWriter();
         XmlTransformResponse.transform(processResult, writer, null, formattingContext);
 
-        System.out.println(writer.toString());
+        expected = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<wrap1><subwrap><action0>value0</action0>" +
+                "<action1><result1>value1</result1><result2>value2</result2></action1>" +
+                "<action1>value3</action1>" +
+                "<action4><rows><row>" + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(date) + "</row>" +
+                "<row>2021-10-18 09:05:07</row></rows></action4>" +
+                "</subwrap></wrap1>";
+
+        assertEquals(expected, writer.toString());
+    }
+
+    @Test
+    void escapeAndCompact() throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("text", "a < b && c > d");
+        map.put("control", "tab\tbell\u0007");
+        map.put("unicode", "\u0085\u00e9\uac00\ud83d\ude00");
+        map.put("list", Arrays.asList(1, null, "two"));
+        map.put("empty", "");
+
+        FormattingContext formattingContext = new FormattingContext();
+        formattingContext.setPretty(false);
+
+        StringWriter writer = new StringWriter();
+        XmlTransformResponse.transform(map, writer, "US-ASCII", formattingContext);
+
+        String expected = "<?xml version=\"1.0\" encoding=\"US-ASCII\"?>" +
+                "<text>a &lt; b &amp;&amp; c &gt; d</text>" +
+                "<control>tab\tbell&#7;</control>" +
+                "<unicode>&#133;&#233;&#44032;&#128512;</unicode>" +
+                "<list><rows><row>1</row><row/><row>two</row></rows></list>" +
+                "<empty/>";
+
+        assertEquals(expected, writer.toString());
     }
 
 }
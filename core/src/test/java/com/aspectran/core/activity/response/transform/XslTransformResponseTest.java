@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.activity.response.transform;
+
+import com.aspectran.core.activity.InstantActivity;
+import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.context.builder.ActivityContextBuilder;
+import com.aspectran.core.context.builder.HybridActivityContextBuilder;
+import com.aspectran.core.context.rule.AppendRule;
+import com.aspectran.core.context.rule.params.AspectranParameters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test cases for {@link XslTransformResponse}.
+ */
+class XslTransformResponseTest {
+
+    private static final String STYLESHEET = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">\n" +
+            "  <xsl:output method=\"text\"/>\n" +
+            "  <xsl:template match=\"/\">%s:<xsl:value-of select=\"//msg\"/></xsl:template>\n" +
+            "</xsl:stylesheet>\n";
+
+    @TempDir
+    Path basePath;
+
+    private File stylesheetFile;
+
+    private ActivityContextBuilder builder;
+
+    private ActivityContext context;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stylesheetFile = basePath.resolve("hello.xsl").toFile();
+        writeStylesheet("v1", 1000000L);
+
+        builder = new HybridActivityContextBuilder();
+        builder.setBasePath(basePath.toString());
+        AspectranParameters aspectranParameters = new AspectranParameters();
+        aspectranParameters.addRule(AppendRule.newInstance(
+                null, "config/xsl/xsl-reload-test-config.xml", null, null, null));
+        context = builder.build(aspectranParameters);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (builder != null) {
+            builder.destroy();
+        }
+    }
+
+    @Test
+    void testReloadModifiedStylesheet() throws Exception {
+        assertEquals("v1:hello", perform("hello"));
+        assertEquals("v1:hello", perform("hello"));
+
+        writeStylesheet("v2", 2000000L);
+        // the change is picked up in the background once the reload interval has passed
+        await().atMost(10, TimeUnit.SECONDS).pollInterval(200, TimeUnit.MILLISECONDS)
+                .until(() -> "v2:hello".equals(perform("hello")));
+    }
+
+    private void writeStylesheet(String version, long lastModified) throws Exception {
+        Files.write(stylesheetFile.toPath(), String.format(STYLESHEET, version).getBytes(StandardCharsets.UTF_8));
+        stylesheetFile.setLastModified(lastModified);
+    }
+
+    private String perform(String transletName) throws Exception {
+        InstantActivity activity = new InstantActivity(context);
+        activity.prepare(transletName);
+        activity.perform();
+        return activity.getResponseAdapter().getWriter().toString();
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.activity.response.transform.json;
+
+import com.aspectran.core.activity.process.result.ActionResult;
+import com.aspectran.core.activity.process.result.ContentResult;
+import com.aspectran.core.activity.process.result.ProcessResult;
+import com.aspectran.core.util.BufferedCharWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing a typical process result, a page of beans with
+ * strings, numbers and dates along with a map of paging information,
+ * as JSON to a UTF-8 encoded response stream, both directly and through
+ * the buffer that {@code JsonTransformResponse} puts in front of the
+ * response writer.
+ *
+ * <p>Run with {@code main()} from the test classpath.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentsJsonWriterBenchmark {
+
+    @Param({"false", "true"})
+    private boolean pretty;
+
+    @Param({"50"})
+    private int rows;
+
+    private ProcessResult processResult;
+
+    @Setup
+    public void setup() {
+        List<Order> orders = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            orders.add(new Order(i));
+        }
+        Map<String, Object> paging = new LinkedHashMap<>();
+        paging.put("page", 1);
+        paging.put("pageSize", rows);
+        paging.put("totalRecords", 1234L);
+        paging.put("hasNext", true);
+
+        processResult = new ProcessResult();
+        ContentResult contentResult = new ContentResult(processResult, 2);
+        ActionResult actionResult1 = new ActionResult();
+        actionResult1.setResultValue("orders", orders);
+        contentResult.addActionResult(actionResult1);
+        ActionResult actionResult2 = new ActionResult();
+        actionResult2.setResultValue("paging", paging);
+        contentResult.addActionResult(actionResult2);
+    }
+
+    @Benchmark
+    public Writer write() throws IOException {
+        Writer writer = new OutputStreamWriter(NullOutputStream.INSTANCE, StandardCharsets.UTF_8);
+        write(writer);
+        writer.flush();
+        return writer;
+    }
+
+    @Benchmark
+    public Writer writeBuffered() throws IOException {
+        Writer writer = new OutputStreamWriter(NullOutputStream.INSTANCE, StandardCharsets.UTF_8);
+        BufferedCharWriter bufferedWriter = new BufferedCharWriter(writer);
+        write(bufferedWriter);
+        bufferedWriter.flush();
+        return writer;
+    }
+
+    private void write(Writer writer) throws IOException {
+        ContentsJsonWriter jsonWriter = new ContentsJsonWriter(writer);
+        jsonWriter.dateFormat("yyyy-MM-dd");
+        jsonWriter.dateTimeFormat("yyyy-MM-dd HH:mm:ss");
+        jsonWriter.prettyPrint(pretty);
+        jsonWriter.write(processResult);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ContentsJsonWriterBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    public static class Order {
+
+        private final long id;
+
+        private final String customer;
+
+        private final String memo;
+
+        private final int quantity;
+
+        private final double amount;
+
+        private final boolean paid;
+
+        private final Date created;
+
+        private final LocalDateTime shipped;
+
+        private final List<String> tags;
+
+        public Order(int i) {
+            this.id = 100000L + i;
+            this.customer = "Customer " + i;
+            this.memo = "Deliver to \"Gate 3\"\nbefore 5 PM </b>";
+            this.quantity = i % 7 + 1;
+            this.amount = 19.99 * quantity;
+            this.paid = (i % 2 == 0);
+            this.created = new Date(1634515200000L + i * 60000L);
+            this.shipped = LocalDateTime.of(2021, 10, 18, 9, i % 60);
+            this.tags = Arrays.asList("express", "gift");
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getCustomer() {
+            return customer;
+        }
+
+        public String getMemo() {
+            return memo;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public double getAmount() {
+            return amount;
+        }
+
+        public boolean isPaid() {
+            return paid;
+        }
+
+        public Date getCreated() {
+            return created;
+        }
+
+        public LocalDateTime getShipped() {
+            return shipped;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+    }
+
+    private static class NullOutputStream extends OutputStream {
+
+        static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+
+    }
+
+}
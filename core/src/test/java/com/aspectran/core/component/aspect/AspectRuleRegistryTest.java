@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.aspect;
+
+import com.aspectran.core.component.aspect.pointcut.WildcardPointcut;
+import com.aspectran.core.context.rule.AspectRule;
+import com.aspectran.core.context.rule.PointcutPatternRule;
+import com.aspectran.core.context.rule.type.AspectAdviceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Test cases for {@link AspectRuleRegistry}.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+class AspectRuleRegistryTest {
+
+    private AspectRule createAspectRule(String id, String transletNamePattern) {
+        AspectRule aspectRule = new AspectRule();
+        aspectRule.setId(id);
+        PointcutPatternRule ppr = PointcutPatternRule.newInstance(transletNamePattern, null, null);
+        aspectRule.setPointcut(new WildcardPointcut(Collections.singletonList(ppr)));
+        aspectRule.newAspectAdviceRule(AspectAdviceType.BEFORE);
+        return aspectRule;
+    }
+
+    @Test
+    void testTransletAspectAdviceRuleRegistry() throws Exception {
+        AspectRuleRegistry aspectRuleRegistry = new AspectRuleRegistry();
+        aspectRuleRegistry.addAspectRule(createAspectRule("users", "/users/*"));
+        aspectRuleRegistry.addAspectRule(createAspectRule("orders", "/orders/**"));
+        aspectRuleRegistry.initialize();
+
+        AspectAdviceRuleRegistry aarr1 = aspectRuleRegistry.getTransletAspectAdviceRuleRegistry("/users/1");
+        assertNotNull(aarr1);
+        assertEquals(1, aarr1.getBeforeAdviceRuleList().size());
+        assertEquals("users", aarr1.getBeforeAdviceRuleList().get(0).getAspectId());
+
+        // each call returns a copy, since an activity adds its own advice to it
+        AspectAdviceRuleRegistry aarr2 = aspectRuleRegistry.getTransletAspectAdviceRuleRegistry("/users/1");
+        assertNotSame(aarr1, aarr2);
+        assertNotSame(aarr1.getBeforeAdviceRuleList(), aarr2.getBeforeAdviceRuleList());
+        assertEquals(aarr1.getBeforeAdviceRuleList(), aarr2.getBeforeAdviceRuleList());
+
+        AspectAdviceRuleRegistry aarr3 = aspectRuleRegistry.getTransletAspectAdviceRuleRegistry("/orders/1/items");
+        assertNotNull(aarr3);
+        assertEquals("orders", aarr3.getBeforeAdviceRuleList().get(0).getAspectId());
+
+        assertNull(aspectRuleRegistry.getTransletAspectAdviceRuleRegistry("/products/1"));
+        assertNull(aspectRuleRegistry.getTransletAspectAdviceRuleRegistry("/products/1"));
+
+        assertEquals(0.4d, aspectRuleRegistry.getTransletCacheHitRatio());
+        aspectRuleRegistry.destroy();
+    }
+
+}
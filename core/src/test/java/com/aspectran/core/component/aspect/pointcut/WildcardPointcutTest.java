@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -86,4 +87,35 @@ class WildcardPointcutTest {
         assertTrue(wildcardPointcut.matches("/translet", "id", "name", null));
     }
 
+    @Test
+    void wildcardPointcutTest5() {
+        // "/users/*|/orders/**|/about@class:*.service.*^get*|find*"
+        PointcutPatternRule ppr1 = PointcutPatternRule.newInstance("/users/*|/orders/**||/about",
+                "class:com.example.service.*", "get*|find*");
+        PointcutPatternRule eppr1 = PointcutPatternRule.newInstance("/orders/internal/**", null, null);
+        List<PointcutPatternRule> epprList = new ArrayList<>();
+        epprList.add(eppr1);
+        ppr1.setExcludePointcutPatternRuleList(epprList);
+
+        List<PointcutPatternRule> pprList = new ArrayList<>();
+        pprList.add(ppr1);
+
+        Pointcut wildcardPointcut = new WildcardPointcut(pprList);
+
+        String className = "com.example.service.UserService";
+        assertTrue(wildcardPointcut.matches("/users/1", null, className, "getUser"));
+        assertTrue(wildcardPointcut.matches("/orders/1/items", null, className, "findItems"));
+        assertTrue(wildcardPointcut.matches("/about", null, className, "getAbout"));
+        assertFalse(wildcardPointcut.matches("/users/1/roles", null, className, "getUser"));
+        assertFalse(wildcardPointcut.matches("/users/1", null, className, "saveUser"));
+        assertFalse(wildcardPointcut.matches("/users/1", null, "com.example.dao.UserDao", "getUser"));
+        assertFalse(wildcardPointcut.matches("/orders/internal/1", null, className, "findItems"));
+        assertTrue(wildcardPointcut.exists("/orders/internal/1", null, className, "findItems"));
+
+        // ad-hoc patterns are still matched
+        assertTrue(wildcardPointcut.patternMatches("get*|find*", "findAll"));
+        assertTrue(wildcardPointcut.patternMatches("/a/*|/b", "/b", '/'));
+        assertFalse(wildcardPointcut.patternMatches("/a/*|/b", "/a/b/c", '/'));
+    }
+
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.bean;
+
+import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.context.builder.ActivityContextBuilder;
+import com.aspectran.core.context.builder.ActivityContextBuilderException;
+import com.aspectran.core.context.builder.HybridActivityContextBuilder;
+import com.aspectran.core.sample.singleton.CrossBean;
+import com.aspectran.core.sample.singleton.GateFactoryBean;
+import com.aspectran.core.sample.singleton.SlowBean;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for the creation of singleton beans.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SingletonBeanCreationTest {
+
+    private ActivityContextBuilder activityContextBuilder;
+
+    private BeanRegistry beanRegistry;
+
+    @BeforeAll
+    void ready() throws IOException, ActivityContextBuilderException {
+        activityContextBuilder = new HybridActivityContextBuilder();
+        activityContextBuilder.setBasePath(new File("./target/test-classes").getCanonicalPath());
+        ActivityContext context = activityContextBuilder.build("/config/bean/singleton/singleton-bean-test-config.xml");
+        beanRegistry = context.getBeanRegistry();
+    }
+
+    @AfterAll
+    void finish() {
+        if (activityContextBuilder != null) {
+            activityContextBuilder.destroy();
+        }
+    }
+
+    @Test
+    void testSlowBeanDoesNotBlockOtherBeans() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> beanRegistry.getBean("slowBean")));
+            }
+            assertTrue(SlowBean.initializing.await(10, TimeUnit.SECONDS));
+
+            // the bean is not visible to other threads until it is initialized
+            assertFalse(beanRegistry.hasSingleton(SlowBean.class));
+
+            // another bean can be created while the slow bean is being initialized
+            Future<Object> fastBean = Executors.newSingleThreadExecutor().submit(() -> beanRegistry.getBean("fastBean"));
+            assertNotNull(fastBean.get(5, TimeUnit.SECONDS));
+            SlowBean.release.countDown();
+
+            Object slowBean = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Object> future : futures) {
+                assertSame(slowBean, future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, SlowBean.initCount.get());
+            assertTrue(beanRegistry.hasSingleton(SlowBean.class));
+        } finally {
+            SlowBean.release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFactoryBeanCalledConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // each call waits until the other one is also inside the factory bean
+            Future<Object> product1 = executor.submit(() -> beanRegistry.getBean("gateFactoryBean"));
+            Future<Object> product2 = executor.submit(() -> beanRegistry.getBean("gateFactoryBean"));
+            assertEquals(Boolean.TRUE, product1.get(15, TimeUnit.SECONDS));
+            assertEquals(Boolean.TRUE, product2.get(15, TimeUnit.SECONDS));
+            assertEquals(0, GateFactoryBean.callers.getCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCircularCreation() {
+        BeanCreationException e = assertThrows(BeanCreationException.class,
+                () -> beanRegistry.getBean("circularBean1"));
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertTrue(cause.getMessage().startsWith("Circular creation of bean detected"), cause.getMessage());
+    }
+
+    @Test
+    void testCircularCreationBetweenThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // each thread creates one of two beans that refer to each other
+            List<Future<Object>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> beanRegistry.getBean("crossBean1")));
+            futures.add(executor.submit(() -> beanRegistry.getBean("crossBean2")));
+            int failures = 0;
+            for (Future<Object> future : futures) {
+                try {
+                    CrossBean bean = (CrossBean)future.get(10, TimeUnit.SECONDS);
+                    assertNotNull(bean.getOther());
+                    assertSame(bean, ((CrossBean)bean.getOther()).getOther());
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof BeanCreationException, String.valueOf(e.getCause()));
+                    failures++;
+                }
+            }
+            // one thread gives up instead of waiting forever for the other
+            assertEquals(1, failures);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
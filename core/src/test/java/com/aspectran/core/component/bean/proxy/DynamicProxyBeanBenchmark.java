@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.bean.proxy;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.aspectran.core.activity.InstantActivity;
+import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.context.builder.ActivityContextBuilder;
+import com.aspectran.core.context.builder.HybridActivityContextBuilder;
+import com.aspectran.core.sample.proxy.Calculator;
+import com.aspectran.core.sample.proxy.CalculatorBean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures method calls on dynamic proxy beans created by each bean
+ * proxifier, for a method that is advised and one that is not.
+ * Calls inside an activity are made in batches of {@value #CALLS}
+ * so that the cost of creating the activity is amortized.
+ *
+ * <p>Run with {@code main()} from the test classpath.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED") // for CGLIB
+public class DynamicProxyBeanBenchmark {
+
+    private static final int CALLS = 100;
+
+    @Param({"jdk", "javassist", "cglib"})
+    private String proxifier;
+
+    private ActivityContextBuilder activityContextBuilder;
+
+    private ActivityContext context;
+
+    private Calculator calculator;
+
+    private final Calculator target = new CalculatorBean();
+
+    @Setup
+    public void setup() throws Exception {
+        // advice execution is logged at debug level
+        ((Logger)LoggerFactory.getLogger("com.aspectran")).setLevel(Level.INFO);
+        activityContextBuilder = new HybridActivityContextBuilder();
+        context = DynamicProxyBeanTest.build(activityContextBuilder, proxifier);
+        calculator = context.getBeanRegistry().getBean("calculator");
+    }
+
+    @TearDown
+    public void tearDown() {
+        activityContextBuilder.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public void direct(Blackhole bh) {
+        for (int i = 0; i < CALLS; i++) {
+            bh.consume(target.add(i, 1));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public void advised(Blackhole bh) throws Exception {
+        new InstantActivity(context).perform(() -> {
+            for (int i = 0; i < CALLS; i++) {
+                bh.consume(calculator.add(i, 1));
+            }
+            return null;
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public void unadvised(Blackhole bh) throws Exception {
+        new InstantActivity(context).perform(() -> {
+            for (int i = 0; i < CALLS; i++) {
+                bh.consume(calculator.multiply(i, 1));
+            }
+            return null;
+        });
+    }
+
+    @Benchmark
+    public void unadvisedOutsideActivity(Blackhole bh) {
+        bh.consume(calculator.multiply(2, 1));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DynamicProxyBeanBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.bean.proxy;
+
+import com.aspectran.core.activity.InstantActivity;
+import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.context.builder.ActivityContextBuilder;
+import com.aspectran.core.context.builder.HybridActivityContextBuilder;
+import com.aspectran.core.context.rule.AppendRule;
+import com.aspectran.core.context.rule.params.AspectranParameters;
+import com.aspectran.core.sample.proxy.Calculator;
+import com.aspectran.core.sample.proxy.CalculatorAdvice;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test cases for dynamic proxy beans created by each bean proxifier.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+class DynamicProxyBeanTest {
+
+    private static final String[] PROXIFIERS = {"jdk", "javassist", "cglib"};
+
+    static ActivityContext build(ActivityContextBuilder activityContextBuilder, String proxifier)
+            throws Exception {
+        activityContextBuilder.setBasePath(new File("./target/test-classes").getCanonicalPath());
+        AspectranParameters aspectranParameters = new AspectranParameters();
+        aspectranParameters.setBeanProxifier(proxifier);
+        aspectranParameters.addRule(AppendRule.newInstance(
+                "/config/bean/proxy/proxy-bean-test-config.xml", null, null, null, null));
+        return activityContextBuilder.build(aspectranParameters);
+    }
+
+    @Test
+    void testAdvisedAndUnadvisedMethods() throws Exception {
+        for (String proxifier : PROXIFIERS) {
+            testAdvisedAndUnadvisedMethods(proxifier);
+        }
+    }
+
+    private void testAdvisedAndUnadvisedMethods(String proxifier) throws Exception {
+        ActivityContextBuilder activityContextBuilder = new HybridActivityContextBuilder();
+        try {
+            ActivityContext context = build(activityContextBuilder, proxifier);
+            Calculator calculator = context.getBeanRegistry().getBean("calculator");
+            CalculatorAdvice advice = context.getBeanRegistry().getBean("calculatorAdvice");
+            new InstantActivity(context).perform(() -> {
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(i + 2, calculator.add(i, 2));
+                    assertEquals(i * 2, calculator.multiply(i, 2));
+                }
+                return null;
+            });
+            assertEquals(3, advice.getCount(), proxifier);
+            // outside of an activity, an unadvised method is called directly
+            assertEquals(6, calculator.multiply(2, 3));
+            assertEquals(3, advice.getCount(), proxifier);
+        } finally {
+            activityContextBuilder.destroy();
+        }
+    }
+
+    @Test
+    void testExceptionIsNotWrapped() throws Exception {
+        for (String proxifier : PROXIFIERS) {
+            testExceptionIsNotWrapped(proxifier);
+        }
+    }
+
+    private void testExceptionIsNotWrapped(String proxifier) throws Exception {
+        ActivityContextBuilder activityContextBuilder = new HybridActivityContextBuilder();
+        try {
+            ActivityContext context = build(activityContextBuilder, proxifier);
+            Calculator calculator = context.getBeanRegistry().getBean("calculator");
+            assertThrows(ArithmeticException.class, () -> calculator.divide(1, 0), proxifier);
+        } finally {
+            activityContextBuilder.destroy();
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.bean.scan;
+
+import com.aspectran.core.component.bean.annotation.Bean;
+import com.aspectran.core.component.bean.annotation.Component;
+import com.aspectran.core.sample.index.AbstractComponent;
+import com.aspectran.core.sample.index.ComponentInterface;
+import com.aspectran.core.sample.index.IndexedComponent;
+import com.aspectran.core.sample.index.PlainClass;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link ClassFileMetadata}.
+ */
+class ClassFileMetadataTest {
+
+    private static ClassFileMetadata read(Class<?> clazz) throws IOException {
+        String resourceName = clazz.getName().replace('.', '/') + ".class";
+        try (InputStream in = clazz.getClassLoader().getResourceAsStream(resourceName)) {
+            return ClassFileMetadata.read(in);
+        }
+    }
+
+    @Test
+    void testAnnotatedClass() throws IOException {
+        ClassFileMetadata metadata = read(IndexedComponent.class);
+        assertTrue(metadata.isPublic());
+        assertFalse(metadata.isInterface());
+        assertFalse(metadata.isAbstract());
+        assertTrue(metadata.hasAnnotation(Component.class.getName()));
+        assertTrue(metadata.hasAnnotation(Bean.class.getName()));
+    }
+
+    @Test
+    void testAbstractClass() throws IOException {
+        ClassFileMetadata metadata = read(AbstractComponent.class);
+        assertTrue(metadata.isAbstract());
+        assertFalse(metadata.isInterface());
+        assertTrue(metadata.hasAnnotation(Component.class.getName()));
+    }
+
+    @Test
+    void testInterface() throws IOException {
+        ClassFileMetadata metadata = read(ComponentInterface.class);
+        assertTrue(metadata.isInterface());
+        assertTrue(metadata.isAbstract());
+        assertTrue(metadata.hasAnnotation(Component.class.getName()));
+    }
+
+    @Test
+    void testPlainClass() throws IOException {
+        ClassFileMetadata metadata = read(PlainClass.class);
+        assertTrue(metadata.isPublic());
+        assertFalse(metadata.hasAnnotation(Component.class.getName()));
+    }
+
+    @Test
+    void testNonPublicClass() throws IOException {
+        ClassFileMetadata metadata = read(ClassFileMetadataTest.class);
+        assertFalse(metadata.isPublic());
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.bean.scan;
+
+import com.aspectran.core.sample.index.ComponentInterface;
+import com.aspectran.core.sample.index.IndexedComponent;
+import com.aspectran.core.sample.index.PlainClass;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link ComponentClassScanner}.
+ */
+class ComponentClassScannerTest {
+
+    private static final String SAMPLE_PATTERN = "com.aspectran.core.sample.index.**";
+
+    @Test
+    void testScanWithoutIndex() throws IOException {
+        ComponentClassScanner scanner = new ComponentClassScanner(getClass().getClassLoader());
+        Collection<Class<?>> classes = scanner.scan(SAMPLE_PATTERN).values();
+        // abstract classes and classes without the annotation are not loaded
+        assertEquals(2, classes.size());
+        assertTrue(classes.contains(IndexedComponent.class));
+        assertTrue(classes.contains(ComponentInterface.class));
+    }
+
+    @Test
+    void testScanWithIndex(@TempDir Path root) throws IOException {
+        Files.createDirectories(root.resolve("com/aspectran/core/sample/index"));
+        Path index = root.resolve(ComponentClassScanner.COMPONENT_INDEX_LOCATION);
+        Files.createDirectories(index.getParent());
+        // the index is trusted, so a class that is not a component is still loaded
+        Files.write(index, Arrays.asList(
+                "# generated",
+                PlainClass.class.getName(),
+                "com.aspectran.core.sample.index.Missing",
+                "com.aspectran.core.component.bean.scan.Outside"
+        ), StandardCharsets.UTF_8);
+
+        try (URLClassLoader classLoader = new IsolatedClassLoader(root, getClass().getClassLoader())) {
+            ComponentClassScanner scanner = new ComponentClassScanner(classLoader);
+            Collection<Class<?>> classes = scanner.scan(SAMPLE_PATTERN).values();
+            assertEquals(1, classes.size());
+            assertTrue(classes.contains(PlainClass.class));
+        }
+    }
+
+    @Test
+    void testReadComponentIndex(@TempDir Path root) throws IOException {
+        Path index = root.resolve("aspectran.components");
+        assertNull(ComponentClassScanner.readComponentIndex(index.toUri().toURL()));
+
+        Files.write(index, Arrays.asList("# comment", "", "  a.B  ", "a.C$D"), StandardCharsets.UTF_8);
+        List<String> classNames = ComponentClassScanner.readComponentIndex(index.toUri().toURL());
+        assertEquals(Arrays.asList("a.B", "a.C$D"), classNames);
+    }
+
+    /**
+     * Finds resources only in the given root, while loading classes through the parent.
+     */
+    private static class IsolatedClassLoader extends URLClassLoader {
+
+        IsolatedClassLoader(Path root, ClassLoader parent) throws IOException {
+            super(new URL[] {root.toUri().toURL()}, parent);
+        }
+
+        @Override
+        public Enumeration<URL> getResources(String name) throws IOException {
+            return findResources(name);
+        }
+
+    }
+
+}
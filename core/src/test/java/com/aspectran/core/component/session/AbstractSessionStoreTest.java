@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link AbstractSessionStore}.
+ */
+class AbstractSessionStoreTest {
+
+    @Test
+    void testAttributeChangedWhileSaving() throws Exception {
+        List<Set<String>> savedChanges = new ArrayList<>();
+        AbstractSessionStore sessionStore = new AbstractSessionStore() {
+            @Override
+            public void doSave(String id, SessionData data) {
+            }
+
+            @Override
+            public void doSaveChanges(String id, SessionData data, Set<String> attrNames) {
+                savedChanges.add(new HashSet<>(attrNames));
+                if (savedChanges.size() == 1) {
+                    // another thread changes an attribute while this one is writing
+                    data.setAttribute("b", "changed while saving");
+                }
+            }
+
+            @Override
+            public Set<String> doGetExpired(Set<String> candidates) {
+                return candidates;
+            }
+
+            @Override
+            public SessionData load(String id) {
+                return null;
+            }
+
+            @Override
+            public boolean delete(String id) {
+                return false;
+            }
+
+            @Override
+            public boolean exists(String id) {
+                return false;
+            }
+
+            @Override
+            protected void doInitialize() {
+            }
+
+            @Override
+            protected void doDestroy() {
+            }
+        };
+        sessionStore.setSaveChangedAttributesOnly(true);
+
+        long now = System.currentTimeMillis();
+        SessionData data = new SessionData("test", now, now, now, 1800000L);
+        sessionStore.save("test", data);
+        assertTrue(data.getDirtyAttributes().isEmpty());
+
+        data.setAttribute("a", "1");
+        sessionStore.save("test", data);
+        assertEquals(Set.of("a"), savedChanges.get(0));
+        assertEquals(Set.of("b"), data.getDirtyAttributes());
+        assertTrue(data.isDirty());
+
+        sessionStore.save("test", data);
+        assertEquals(Set.of("b"), savedChanges.get(1));
+        assertTrue(data.getDirtyAttributes().isEmpty());
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link BinarySessionDataSerializer}.
+ */
+class BinarySessionDataSerializerTest {
+
+    private SessionData createSessionData() {
+        long now = System.currentTimeMillis();
+        SessionData data = new SessionData("node0abc123.w1", now - 1000L, now, now - 500L, 1800000L);
+        data.calcAndSetExpiry(now);
+        data.setAttribute("string", "héllo, 세션");
+        data.setAttribute("int", -42);
+        data.setAttribute("long", Long.MAX_VALUE);
+        data.setAttribute("true", true);
+        data.setAttribute("double", 3.14d);
+        data.setAttribute("float", 1.5f);
+        data.setAttribute("short", (short)7);
+        data.setAttribute("byte", (byte)-1);
+        data.setAttribute("char", 'Z');
+        data.setAttribute("bytes", new byte[] {1, 2, 3});
+        List<Object> list = new ArrayList<>();
+        list.add("a");
+        list.add(1);
+        list.add(null);
+        data.setAttribute("list", list);
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("x", 1L);
+        map.put("y", Collections.singletonMap("nested", "value"));
+        data.setAttribute("map", map);
+        data.setAttribute("decimal", new BigDecimal("12.50"));
+        return data;
+    }
+
+    private void assertSameSessionData(SessionData expected, SessionData actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getCreated(), actual.getCreated());
+        assertEquals(expected.getAccessed(), actual.getAccessed());
+        assertEquals(expected.getLastAccessed(), actual.getLastAccessed());
+        assertEquals(expected.getExpiry(), actual.getExpiry());
+        assertEquals(expected.getInactiveInterval(), actual.getInactiveInterval());
+        assertEquals(expected.getKeys(), actual.getKeys());
+        for (String name : expected.getKeys()) {
+            Object value = expected.getAttribute(name);
+            if (value instanceof byte[]) {
+                assertArrayEquals((byte[])value, actual.getAttribute(name));
+            } else {
+                assertEquals(value, actual.getAttribute(name), name);
+            }
+        }
+    }
+
+    @Test
+    void testRoundTrip() throws Exception {
+        BinarySessionDataSerializer serializer = new BinarySessionDataSerializer();
+        SessionData data = createSessionData();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        serializer.serialize(data, baos, Collections.singleton("decimal"));
+        SessionData loaded = serializer.deserialize(new ByteArrayInputStream(baos.toByteArray()));
+        data.setAttribute("decimal", null);
+        assertSameSessionData(data, loaded);
+        assertTrue(loaded.getDirtyAttributes().isEmpty());
+        assertEquals(LinkedHashMap.class, loaded.getAttribute("map").getClass());
+    }
+
+    @Test
+    void testCompression() throws Exception {
+        SessionData data = createSessionData();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append("repeated text ");
+        }
+        data.setAttribute("large", sb.toString());
+
+        BinarySessionDataSerializer plain = new BinarySessionDataSerializer();
+        ByteArrayOutputStream baos1 = new ByteArrayOutputStream();
+        plain.serialize(data, baos1, null);
+
+        BinarySessionDataSerializer compressing = new BinarySessionDataSerializer();
+        compressing.setCompressionThreshold(512);
+        ByteArrayOutputStream baos2 = new ByteArrayOutputStream();
+        compressing.serialize(data, baos2, null);
+
+        assertTrue(baos2.size() < baos1.size());
+        assertSameSessionData(data, plain.deserialize(new ByteArrayInputStream(baos2.toByteArray())));
+    }
+
+    @Test
+    void testCyclicAndSharedReferences() throws Exception {
+        long now = System.currentTimeMillis();
+        SessionData data = new SessionData("cyclic", now, now, now, 1800000L);
+        List<Object> cyclic = new ArrayList<>();
+        cyclic.add("a");
+        cyclic.add(cyclic);
+        data.setAttribute("cyclic", cyclic);
+        Map<String, Object> shared = new HashMap<>();
+        shared.put("k", "v");
+        List<Object> holder = new ArrayList<>();
+        holder.add(shared);
+        holder.add(shared);
+        data.setAttribute("shared", holder);
+
+        BinarySessionDataSerializer serializer = new BinarySessionDataSerializer();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        serializer.serialize(data, baos, null);
+        SessionData loaded = serializer.deserialize(new ByteArrayInputStream(baos.toByteArray()));
+
+        List<?> loadedCyclic = loaded.getAttribute("cyclic");
+        assertEquals(2, loadedCyclic.size());
+        assertEquals("a", loadedCyclic.get(0));
+        assertSame(loadedCyclic, loadedCyclic.get(1));
+        List<?> loadedHolder = loaded.getAttribute("shared");
+        assertEquals(shared, loadedHolder.get(0));
+        assertSame(loadedHolder.get(0), loadedHolder.get(1));
+    }
+
+    @Test
+    void testReadJavaSerializedData() throws Exception {
+        SessionData data = createSessionData();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        JavaSessionDataSerializer.INSTANCE.serialize(data, baos, null);
+        SessionData loaded = new BinarySessionDataSerializer().deserialize(new ByteArrayInputStream(baos.toByteArray()));
+        assertSameSessionData(data, loaded);
+    }
+
+    @Test
+    void testChanges() throws Exception {
+        BinarySessionDataSerializer serializer = new BinarySessionDataSerializer();
+        SessionData data = createSessionData();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        serializer.serialize(data, baos, null);
+        data.clearDirtyAttributes(data.getDirtyAttributes());
+
+        data.setAttribute("string", "changed");
+        data.setAttribute("int", null);
+        data.setAccessed(data.getAccessed() + 1000L);
+        serializer.serializeChanges(data, data.getDirtyAttributes(), baos, null);
+
+        ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
+        SessionData loaded = serializer.deserialize(bais);
+        serializer.deserializeChanges(loaded, bais);
+        assertEquals(-1, bais.read());
+        assertEquals("changed", loaded.getAttribute("string"));
+        assertNull(loaded.getAttribute("int"));
+        assertFalse(loaded.getKeys().contains("int"));
+        assertSameSessionData(data, loaded);
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link DefaultSessionCache}.
+ */
+class DefaultSessionCacheTest {
+
+    @TempDir
+    File storeDir;
+
+    @Test
+    void testEvictLeastRecentlyUsedSessions() throws Exception {
+        DefaultSessionManager sessionManager = new DefaultSessionManager();
+        FileSessionStoreFactory sessionStoreFactory = new FileSessionStoreFactory();
+        sessionStoreFactory.setStoreDir(storeDir.getCanonicalPath());
+        sessionManager.setSessionStoreFactory(sessionStoreFactory);
+        sessionManager.initialize();
+
+        SessionCache sessionCache = sessionManager.getSessionCache();
+        sessionCache.setMaxResidentSessions(20);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            SessionAgent agent = new SessionAgent(sessionManager);
+            agent.getSession(true);
+            agent.setAttribute("index", i);
+            agent.complete();
+            ids.add(agent.getId());
+        }
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> sessionCache.getResidentSessionCount() <= 20);
+        assertTrue(sessionCache.getEvictedSessionCount() >= 20);
+        // evicted sessions are still active
+        assertEquals(40, sessionCache.getActiveSessionCount());
+
+        // the sessions created first were used least recently
+        String evictedId = ids.get(0);
+        assertFalse(sessionCache.contains(evictedId));
+        assertTrue(sessionCache.contains(ids.get(ids.size() - 1)));
+
+        long misses = sessionCache.getCacheMissCount();
+        DefaultSession session = sessionCache.get(evictedId);
+        assertNotNull(session);
+        assertEquals(0, (int)session.getAttribute("index"));
+        assertTrue(sessionCache.contains(evictedId));
+        assertEquals(misses + 1, sessionCache.getCacheMissCount());
+        assertEquals(40, sessionCache.getActiveSessionCount());
+
+        long hits = sessionCache.getCacheHitCount();
+        sessionCache.get(evictedId);
+        assertEquals(hits + 1, sessionCache.getCacheHitCount());
+        assertTrue(sessionCache.contains(evictedId));
+        assertEquals(hits + 2, sessionCache.getCacheHitCount());
+
+        sessionManager.destroy();
+    }
+
+    @Test
+    void testForgetEvictedSessionDeletedFromStore() throws Exception {
+        DefaultSessionManager sessionManager = new DefaultSessionManager();
+        FileSessionStoreFactory sessionStoreFactory = new FileSessionStoreFactory();
+        sessionStoreFactory.setStoreDir(storeDir.getCanonicalPath());
+        sessionManager.setSessionStoreFactory(sessionStoreFactory);
+        sessionManager.initialize();
+
+        SessionCache sessionCache = sessionManager.getSessionCache();
+        sessionCache.setMaxResidentSessions(5);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SessionAgent agent = new SessionAgent(sessionManager);
+            agent.getSession(true);
+            agent.setAttribute("index", i);
+            agent.complete();
+            ids.add(agent.getId());
+        }
+        await().atMost(10, TimeUnit.SECONDS).until(() -> sessionCache.getResidentSessionCount() <= 5);
+        assertEquals(10, sessionCache.getActiveSessionCount());
+
+        // another node invalidates an evicted session
+        String evictedId = ids.get(0);
+        assertFalse(sessionCache.contains(evictedId));
+        assertTrue(((AbstractSessionCache)sessionCache).getSessionStore().delete(evictedId));
+
+        sessionManager.scavenge();
+        assertEquals(9, sessionCache.getActiveSessionCount());
+        assertFalse(sessionCache.contains(evictedId));
+
+        // the other evicted sessions are still active and can be loaded back
+        DefaultSession session = sessionCache.get(ids.get(1));
+        assertNotNull(session);
+        assertEquals(1, (int)session.getAttribute("index"));
+        assertEquals(9, sessionCache.getActiveSessionCount());
+
+        sessionManager.destroy();
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link FileSessionStore}.
+ */
+class FileSessionStoreTest {
+
+    private FileSessionStore createSessionStore(File storeDir) throws Exception {
+        return createSessionStore(storeDir, JavaSessionDataSerializer.INSTANCE);
+    }
+
+    private FileSessionStore createSessionStore(File storeDir, SessionDataSerializer serializer) throws Exception {
+        FileSessionStore sessionStore = new FileSessionStore();
+        sessionStore.setStoreDir(storeDir);
+        sessionStore.setSessionDataSerializer(serializer);
+        sessionStore.setSaveChangedAttributesOnly(true);
+        sessionStore.initialize();
+        return sessionStore;
+    }
+
+    @Test
+    void testSaveChangedAttributesOnly(@TempDir File storeDir) throws Exception {
+        FileSessionStore sessionStore = createSessionStore(storeDir);
+
+        long now = System.currentTimeMillis();
+        SessionData data = new SessionData("s1", now, now, now, 60000L);
+        List<String> cart = new ArrayList<>();
+        cart.add("item-1");
+        data.setAttribute("cart", cart);
+        data.setAttribute("a", "1");
+        data.setAttribute("b", "2");
+        sessionStore.save("s1", data);
+        assertTrue(data.getDirtyAttributes().isEmpty());
+
+        for (int i = 0; i < 20; i++) {
+            data.setAttribute("a", "a-" + i);
+            data.setAttribute("b", null);
+            data.setAttribute("c", i);
+            data.setAccessed(now + i);
+            data.calcAndSetExpiry(now + i);
+            sessionStore.save("s1", data);
+        }
+
+        String[] files = storeDir.list();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        assertEquals(data.getExpiry() + "_s1", files[0]);
+        sessionStore.destroy();
+
+        sessionStore = createSessionStore(storeDir);
+        SessionData loaded = sessionStore.load("s1");
+        assertNotNull(loaded);
+        assertEquals("a-19", loaded.getAttribute("a"));
+        assertNull(loaded.getAttribute("b"));
+        assertEquals(19, (int)loaded.getAttribute("c"));
+        assertEquals(cart, loaded.getAttribute("cart"));
+        assertEquals(data.getAccessed(), loaded.getAccessed());
+        assertEquals(data.getExpiry(), loaded.getExpiry());
+        sessionStore.destroy();
+    }
+
+    @Test
+    void testBinarySerializer(@TempDir File storeDir) throws Exception {
+        FileSessionStore sessionStore = createSessionStore(storeDir);
+        long now = System.currentTimeMillis();
+        SessionData data = new SessionData("s2", now, now, now, 60000L);
+        data.setAttribute("a", "1");
+        sessionStore.save("s2", data);
+        sessionStore.destroy();
+
+        // data written in the Java format can still be read and extended
+        sessionStore = createSessionStore(storeDir, new BinarySessionDataSerializer());
+        assertNotNull(sessionStore.load("s2"));
+        data.setAttribute("b", 2L);
+        data.setAccessed(now + 1);
+        sessionStore.save("s2", data);
+        sessionStore.destroy();
+
+        sessionStore = createSessionStore(storeDir, new BinarySessionDataSerializer());
+        SessionData loaded = sessionStore.load("s2");
+        assertNotNull(loaded);
+        assertEquals("1", loaded.getAttribute("a"));
+        assertEquals(2L, (long)loaded.getAttribute("b"));
+        assertEquals(now + 1, loaded.getAccessed());
+        sessionStore.destroy();
+    }
+
+    @Test
+    void testTornChangeRecord(@TempDir File storeDir) throws Exception {
+        FileSessionStore sessionStore = createSessionStore(storeDir);
+        long now = System.currentTimeMillis();
+        SessionData data = new SessionData("s3", now, now, now, 0L);
+        data.setAttribute("a", "1");
+        sessionStore.save("s3", data);
+        data.setAttribute("b", "2");
+        sessionStore.save("s3", data);
+        data.setAttribute("c", "3");
+        sessionStore.save("s3", data);
+        sessionStore.destroy();
+
+        // cut the last change record in half as a crash while appending would
+        File file = new File(storeDir, "s3");
+        long completeLength = file.length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(completeLength - 3);
+        }
+
+        sessionStore = createSessionStore(storeDir);
+        SessionData loaded = sessionStore.load("s3");
+        assertNotNull(loaded);
+        assertEquals("1", loaded.getAttribute("a"));
+        assertEquals("2", loaded.getAttribute("b"));
+        assertNull(loaded.getAttribute("c"));
+
+        loaded.clearDirtyAttributes(loaded.getDirtyAttributes());
+        loaded.setAttribute("d", "4");
+        sessionStore.save("s3", loaded);
+        loaded.setAttribute("e", "5");
+        sessionStore.save("s3", loaded);
+        sessionStore.destroy();
+
+        sessionStore = createSessionStore(storeDir);
+        SessionData reloaded = sessionStore.load("s3");
+        assertNotNull(reloaded);
+        assertEquals("1", reloaded.getAttribute("a"));
+        assertEquals("2", reloaded.getAttribute("b"));
+        assertNull(reloaded.getAttribute("c"));
+        assertEquals("4", reloaded.getAttribute("d"));
+        assertEquals("5", reloaded.getAttribute("e"));
+        sessionStore.destroy();
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the session data serializers on typical session payloads.
+ *
+ * <p>Run with {@code main()} from the test classpath.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionDataSerializerBenchmark {
+
+    @Param({"java", "binary", "binary-deflate"})
+    private String format;
+
+    /** small: login info only; large: login info plus a cart and recent views */
+    @Param({"small", "large"})
+    private String payload;
+
+    private SessionDataSerializer serializer;
+
+    private SessionData data;
+
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws Exception {
+        switch (format) {
+            case "java":
+                serializer = JavaSessionDataSerializer.INSTANCE;
+                break;
+            case "binary":
+                serializer = new BinarySessionDataSerializer();
+                break;
+            default:
+                BinarySessionDataSerializer binary = new BinarySessionDataSerializer();
+                binary.setCompressionThreshold(1024);
+                serializer = binary;
+        }
+
+        long now = System.currentTimeMillis();
+        data = new SessionData("node0r4y2zkwd1mg81r2pjc1f2ph6x0.node0", now, now, now, 1800000L);
+        data.calcAndSetExpiry(now);
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("userId", 1024L);
+        user.put("username", "jdoe");
+        user.put("displayName", "Jane Doe");
+        user.put("email", "jane.doe@example.com");
+        List<String> roles = new ArrayList<>();
+        roles.add("ROLE_USER");
+        roles.add("ROLE_MEMBER");
+        user.put("roles", roles);
+        data.setAttribute("user", user);
+        data.setAttribute("locale", "en_US");
+        data.setAttribute("csrfToken", "0f5b6f1e-6a2c-4c1e-9d8b-2f2d1a7e6c44");
+        data.setAttribute("loginTime", now);
+        if ("large".equals(payload)) {
+            List<Object> cart = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("sku", "SKU-" + (100000 + i));
+                item.put("name", "Product name number " + i);
+                item.put("quantity", i % 3 + 1);
+                item.put("price", 19.99d + i);
+                cart.add(item);
+            }
+            data.setAttribute("cart", cart);
+            List<String> recent = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                recent.add("/products/category/" + (i % 5) + "/item/" + (i * 37));
+            }
+            data.setAttribute("recentlyViewed", recent);
+            data.setAttribute("avatar", new byte[2048]);
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        serializer.serialize(data, baos, null);
+        serialized = baos.toByteArray();
+        System.out.println();
+        System.out.println("Serialized size (" + format + ", " + payload + "): " + serialized.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
+        serializer.serialize(data, baos, null);
+        return baos.toByteArray();
+    }
+
+    @Benchmark
+    public SessionData deserialize() throws Exception {
+        return serializer.deserialize(new ByteArrayInputStream(serialized));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SessionDataSerializerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
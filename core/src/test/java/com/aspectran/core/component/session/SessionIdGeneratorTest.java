@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link SessionIdGenerator}.
+ */
+class SessionIdGeneratorTest {
+
+    @Test
+    void testIdFormat() {
+        for (int stripes : new int[] {0, 4}) {
+            SessionIdGenerator generator = new SessionIdGenerator("node1", stripes);
+            for (int i = 0; i < 1000; i++) {
+                String id = generator.createSessionId(i);
+                assertTrue(id.matches("[0-9a-z]+\\.node1"), id);
+            }
+            String id = new SessionIdGenerator(null, stripes).createSessionId(0);
+            assertTrue(id.matches("[0-9a-z]+"), id);
+        }
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SessionIdGenerator("node.1"));
+        assertThrows(IllegalArgumentException.class, () -> new SessionIdGenerator("node1", -1));
+    }
+
+    @Test
+    void testUniqueAcrossThreads() throws InterruptedException {
+        SessionIdGenerator generator = new SessionIdGenerator("node1", 2);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        int threads = 4;
+        int idsPerThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < idsPerThread; i++) {
+                    ids.add(generator.createSessionId(i));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(threads * idsPerThread, ids.size());
+    }
+
+}
@@ -15,14 +15,17 @@
  */
 package com.aspectran.core.component.session;
 
+import com.aspectran.core.context.config.SessionManagerConfig;
 import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
+import com.aspectran.core.util.thread.TimingWheelScheduler;
 import org.junit.jupiter.api.Test;
 
 import java.util.Enumeration;
 import java.util.concurrent.TimeUnit;
 
 import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test cases for Session Handler.
@@ -77,4 +80,29 @@ class SessionManagerTest {
         sessionManager.destroy();
     }
 
+    @Test
+    void testInactivityTimerOnTimingWheel() throws Exception {
+        SessionManagerConfig sessionManagerConfig = new SessionManagerConfig();
+        sessionManagerConfig.setSchedulerTickMillis(100);
+        sessionManagerConfig.setScavengingIntervalSeconds(0);
+
+        DefaultSessionManager sessionManager = new DefaultSessionManager();
+        sessionManager.setSessionManagerConfig(sessionManagerConfig);
+        sessionManager.initialize();
+
+        SessionHandler sessionHandler = sessionManager.getSessionHandler();
+        assertTrue(sessionHandler.getScheduler() instanceof TimingWheelScheduler);
+        sessionHandler.setDefaultMaxIdleSecs(1);
+
+        SessionAgent agent = new SessionAgent(sessionManager);
+
+        logger.info("Created Session " + agent.getSession(true));
+
+        agent.complete();
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> sessionHandler.getSessionCache().getActiveSessionCount() == 0);
+
+        sessionManager.destroy();
+    }
+
 }
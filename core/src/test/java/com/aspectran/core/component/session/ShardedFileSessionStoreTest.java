@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link ShardedFileSessionStore}.
+ */
+class ShardedFileSessionStoreTest {
+
+    private ShardedFileSessionStore createSessionStore(File storeDir) throws Exception {
+        ShardedFileSessionStore sessionStore = new ShardedFileSessionStore();
+        sessionStore.setStoreDir(storeDir);
+        sessionStore.setExpiryBucketSecs(1);
+        sessionStore.initialize();
+        return sessionStore;
+    }
+
+    @Test
+    void testSaveAndRestore(@TempDir File storeDir) throws Exception {
+        ShardedFileSessionStore sessionStore = createSessionStore(storeDir);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            SessionData data = new SessionData("s" + i, now, now, now, 60000L);
+            data.setAttribute("n", i);
+            sessionStore.save(data.getId(), data);
+        }
+        // sessions are not stored directly in the store directory
+        File[] files = storeDir.listFiles(File::isFile);
+        assertNotNull(files);
+        assertEquals(0, files.length);
+        sessionStore.destroy();
+
+        sessionStore = createSessionStore(storeDir);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(sessionStore.exists("s" + i));
+            SessionData loaded = sessionStore.load("s" + i);
+            assertNotNull(loaded);
+            assertEquals(i, (int)loaded.getAttribute("n"));
+        }
+        assertTrue(sessionStore.delete("s0"));
+        assertFalse(sessionStore.exists("s0"));
+        assertNull(sessionStore.load("s0"));
+        sessionStore.destroy();
+
+        sessionStore = createSessionStore(storeDir);
+        assertFalse(sessionStore.exists("s0"));
+        assertTrue(sessionStore.exists("s1"));
+        sessionStore.destroy();
+    }
+
+    @Test
+    void testExpiryIndex(@TempDir File storeDir) throws Exception {
+        ShardedFileSessionStore sessionStore = createSessionStore(storeDir);
+        long now = System.currentTimeMillis();
+        SessionData expired = new SessionData("expired", now - 20000L, now - 20000L, now - 20000L, 10000L);
+        SessionData renewed = new SessionData("renewed", now - 20000L, now - 20000L, now - 20000L, 10000L);
+        SessionData alive = new SessionData("alive", now, now, now, 60000L);
+        SessionData immortal = new SessionData("immortal", now, now, now, -1L);
+        sessionStore.save(expired.getId(), expired);
+        sessionStore.save(renewed.getId(), renewed);
+        sessionStore.save(alive.getId(), alive);
+        sessionStore.save(immortal.getId(), immortal);
+
+        // the stale index record of the renewed session must be ignored
+        renewed.setAccessed(now);
+        renewed.calcAndSetExpiry(now);
+        renewed.setAttribute("renewed", true);
+        sessionStore.save(renewed.getId(), renewed);
+
+        Set<String> ids = sessionStore.getExpired(Collections.singleton("unknown"));
+        assertEquals(2, ids.size());
+        assertTrue(ids.contains("expired"));
+        assertTrue(ids.contains("unknown"));
+
+        // returned again until it is deleted
+        assertEquals(Collections.singleton("expired"), sessionStore.getExpired(Collections.emptySet()));
+        sessionStore.destroy();
+
+        // the overdue session is found again after a restart
+        sessionStore = createSessionStore(storeDir);
+        assertEquals(Collections.singleton("expired"), sessionStore.getExpired(Collections.emptySet()));
+        sessionStore.delete("expired");
+        assertTrue(sessionStore.getExpired(Collections.emptySet()).isEmpty());
+        assertTrue(sessionStore.exists("renewed"));
+        assertTrue(sessionStore.exists("immortal"));
+        sessionStore.destroy();
+    }
+
+    @Test
+    void testInvalidSessionId(@TempDir File storeDir) throws Exception {
+        File outside = new File(storeDir, "outside");
+        assertTrue(outside.createNewFile());
+        ShardedFileSessionStore sessionStore = createSessionStore(new File(storeDir, "store"));
+        // a session id must not lead out of the shard directory
+        assertFalse(sessionStore.delete("../../../outside"));
+        assertFalse(sessionStore.exists("../../../outside"));
+        assertNull(sessionStore.load("../../../outside"));
+        assertTrue(outside.exists());
+        long now = System.currentTimeMillis();
+        SessionData data = new SessionData("../../../outside", now, now, now, 60000L);
+        assertThrows(IllegalArgumentException.class, () -> sessionStore.save(data.getId(), data));
+        assertTrue(outside.exists());
+        sessionStore.destroy();
+    }
+
+    @Test
+    void testSweepLeftoverFiles(@TempDir File storeDir) throws Exception {
+        ShardedFileSessionStore sessionStore = createSessionStore(storeDir);
+        long now = System.currentTimeMillis();
+        SessionData data = new SessionData("s1", now, now, now, 60000L);
+        sessionStore.save(data.getId(), data);
+        sessionStore.destroy();
+
+        Path sessionFile = findFile(storeDir.toPath(), "s1");
+        Path tempFile = sessionFile.resolveSibling(".s1.1.tmp");
+        Path orphanFile = sessionFile.resolveSibling("orphan");
+        Files.write(tempFile, new byte[] {1, 2, 3});
+        Files.write(orphanFile, new byte[] {1, 2, 3});
+        FileTime old = FileTime.fromMillis(now - TimeUnit.DAYS.toMillis(1));
+        Files.setLastModifiedTime(sessionFile, old);
+        Files.setLastModifiedTime(tempFile, old);
+        Files.setLastModifiedTime(orphanFile, old);
+
+        sessionStore = new ShardedFileSessionStore();
+        sessionStore.setStoreDir(storeDir);
+        sessionStore.setDeleteUnrestorableFiles(true);
+        sessionStore.initialize();
+        assertTrue(sessionStore.getExpired(Collections.emptySet()).isEmpty());
+        assertFalse(Files.exists(tempFile));
+        assertFalse(Files.exists(orphanFile));
+        assertTrue(Files.exists(sessionFile));
+        assertNotNull(sessionStore.load("s1"));
+        sessionStore.destroy();
+    }
+
+    @Test
+    void testExpiryIndexWithoutGracePeriod(@TempDir File storeDir) throws Exception {
+        ShardedFileSessionStore sessionStore = new ShardedFileSessionStore();
+        sessionStore.setStoreDir(storeDir);
+        sessionStore.setExpiryBucketSecs(1);
+        sessionStore.setGracePeriodSecs(0);
+        sessionStore.initialize();
+        long now = System.currentTimeMillis();
+        SessionData expired = new SessionData("expired", now - 20000L, now - 20000L, now - 20000L, 10000L);
+        sessionStore.save(expired.getId(), expired);
+        assertEquals(Collections.singleton("expired"), sessionStore.getExpired(Collections.emptySet()));
+        sessionStore.destroy();
+
+        // the index still records the expired session, whose file has not been deleted
+        sessionStore = createSessionStore(storeDir);
+        assertEquals(Collections.singleton("expired"), sessionStore.getExpired(Collections.emptySet()));
+        sessionStore.delete("expired");
+        assertTrue(sessionStore.getExpired(Collections.emptySet()).isEmpty());
+        sessionStore.destroy();
+    }
+
+    private static Path findFile(Path dir, String filename) throws IOException {
+        try (Stream<Path> stream = Files.walk(dir)) {
+            return stream.filter(p -> p.getFileName().toString().equals(filename))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("No such file: " + filename));
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.template;
+
+import com.aspectran.core.adapter.DefaultApplicationAdapter;
+import com.aspectran.core.component.template.TemplateSourceCache.CachedTemplateSource;
+import com.aspectran.core.context.rule.TemplateRule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link TemplateSourceCache}.
+ */
+class TemplateSourceCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TemplateSourceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        DefaultApplicationAdapter applicationAdapter =
+                new DefaultApplicationAdapter(tempDir.toString(), getClass().getClassLoader());
+        cache = new TemplateSourceCache(applicationAdapter);
+        cache.setReloadInterval(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.clear();
+    }
+
+    private TemplateRule newFileTemplateRule(File file, Boolean noCache) throws Exception {
+        return TemplateRule.newInstance("test", null, null, file.getName(), null, null,
+                null, null, "utf-8", noCache);
+    }
+
+    @Test
+    void testCacheHits() throws Exception {
+        File file = tempDir.resolve("hello.txt").toFile();
+        Files.write(file.toPath(), "Hello, ${name}!".getBytes(StandardCharsets.UTF_8));
+        TemplateRule templateRule = newFileTemplateRule(file, null);
+        assertTrue(TemplateSourceCache.isCacheable(templateRule));
+
+        CachedTemplateSource source1 = cache.get(templateRule);
+        CachedTemplateSource source2 = cache.get(templateRule);
+        assertSame(source1, source2);
+        assertEquals("Hello, ${name}!", source1.getSource());
+        assertEquals(3, source1.getTokens().length);
+        assertNull(source1.getText());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testTextOnly() throws Exception {
+        File file = tempDir.resolve("text.txt").toFile();
+        Files.write(file.toPath(), "plain text".getBytes(StandardCharsets.UTF_8));
+        TemplateRule templateRule = newFileTemplateRule(file, null);
+
+        CachedTemplateSource source = cache.get(templateRule);
+        assertNotNull(source.getTokens());
+        assertEquals("plain text", source.getText());
+    }
+
+    @Test
+    void testReloadModified() throws Exception {
+        File file = tempDir.resolve("reload.txt").toFile();
+        Files.write(file.toPath(), "before".getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(1000000L);
+        TemplateRule templateRule = newFileTemplateRule(file, null);
+        assertEquals("before", cache.get(templateRule).getSource());
+
+        cache.reloadModified();
+        assertEquals(0, cache.getReloadCount());
+
+        Files.write(file.toPath(), "after".getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(2000000L);
+        assertEquals("before", cache.get(templateRule).getSource());
+
+        cache.reloadModified();
+        assertEquals(1, cache.getReloadCount());
+        assertEquals("after", cache.get(templateRule).getSource());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testNoCache() throws Exception {
+        File file = tempDir.resolve("nocache.txt").toFile();
+        TemplateRule templateRule = newFileTemplateRule(file, Boolean.TRUE);
+        assertFalse(TemplateSourceCache.isCacheable(templateRule));
+
+        TemplateRule inlineRule = TemplateRule.newInstance("inline", null, null, null, null, null,
+                "content", null, null, null);
+        assertFalse(TemplateSourceCache.isCacheable(inlineRule));
+    }
+
+}
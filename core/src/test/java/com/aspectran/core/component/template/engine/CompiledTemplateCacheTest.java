@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.template.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test cases for {@link CompiledTemplateCache}.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+class CompiledTemplateCacheTest {
+
+    @Test
+    void compiledOncePerNameAndSource() throws Exception {
+        AtomicInteger compiles = new AtomicInteger();
+        CompiledTemplateCache<String> cache = new CompiledTemplateCache<>((templateName, templateSource) -> {
+            compiles.incrementAndGet();
+            return templateName + ":" + templateSource;
+        });
+
+        String compiled = cache.get("t1", "Hello ${name}");
+        assertEquals("t1:Hello ${name}", compiled);
+        assertSame(compiled, cache.get("t1", new String("Hello ${name}")));
+        assertEquals(1, compiles.get());
+
+        // a changed source or another rule with the same source compiles again
+        assertEquals("t1:Bye ${name}", cache.get("t1", "Bye ${name}"));
+        assertEquals("t2:Hello ${name}", cache.get("t2", "Hello ${name}"));
+        assertEquals("null:Hello ${name}", cache.get(null, "Hello ${name}"));
+        assertEquals(4, compiles.get());
+        assertEquals(4, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(4, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        cache.get("t1", "Hello ${name}");
+        assertEquals(5, compiles.get());
+    }
+
+    @Test
+    void boundedCapacity() throws Exception {
+        CompiledTemplateCache<String> cache = new CompiledTemplateCache<>(10, (templateName, templateSource) ->
+                templateSource);
+        for (int i = 0; i < 100; i++) {
+            cache.get("t" + i, "source" + i);
+        }
+        cache.get("t100", "source100");
+        assertEquals(10, cache.size());
+        assertEquals(91, cache.getEvictionCount());
+    }
+
+    @Test
+    void compileFailureIsNotCached() throws Exception {
+        AtomicInteger compiles = new AtomicInteger();
+        CompiledTemplateCache<String> cache = new CompiledTemplateCache<>((templateName, templateSource) -> {
+            if (compiles.incrementAndGet() == 1) {
+                throw new IOException("broken");
+            }
+            return templateSource;
+        });
+        IOException e = assertThrows(IOException.class, () -> cache.get("t1", "source"));
+        assertEquals("broken", e.getMessage());
+        assertEquals("source", cache.get("t1", "source"));
+        assertEquals(2, compiles.get());
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.translet;
+
+import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.context.rule.TransletRule;
+import com.aspectran.core.util.wildcard.WildcardPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the weight-ordered linear scan that {@link TransletRuleRegistry}
+ * used for translets with path variables against {@link TransletRouter}.
+ *
+ * <p>Run with {@code main()} from the test classpath.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransletRouterBenchmark {
+
+    private static final int REQUEST_NAME_COUNT = 1024;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int routes;
+
+    private Set<TransletRule> transletRuleSet;
+
+    private TransletRouter router;
+
+    private String[] requestNames;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        transletRuleSet = new TreeSet<>(new TransletRuleRegistry.WeightComparator());
+        int resources = Math.max(1, routes / 3);
+        for (int i = 0; transletRuleSet.size() < routes; i++) {
+            int r = i % resources;
+            String pattern;
+            switch (i / resources) {
+                case 0:
+                    pattern = "/api/res" + r + "/*";
+                    break;
+                case 1:
+                    pattern = "/api/res" + r + "/*/items";
+                    break;
+                case 2:
+                    pattern = "/api/res" + r + "/*/items/*";
+                    break;
+                default:
+                    pattern = "/api/res" + r + "/*/items/*/v" + i;
+            }
+            TransletRule transletRule = new TransletRule();
+            transletRule.setName(pattern);
+            transletRule.setNamePattern(WildcardPattern.compile(pattern, ActivityContext.NAME_SEPARATOR_CHAR));
+            transletRuleSet.add(transletRule);
+        }
+        router = new TransletRouter(transletRuleSet);
+
+        Random random = new Random(1);
+        requestNames = new String[REQUEST_NAME_COUNT];
+        for (int i = 0; i < requestNames.length; i++) {
+            int r = random.nextInt(resources);
+            switch (random.nextInt(3)) {
+                case 0:
+                    requestNames[i] = "/api/res" + r + "/" + random.nextInt(100000);
+                    break;
+                case 1:
+                    requestNames[i] = "/api/res" + r + "/" + random.nextInt(100000) + "/items";
+                    break;
+                default:
+                    requestNames[i] = "/api/res" + r + "/" + random.nextInt(100000) + "/items/" + i;
+            }
+        }
+    }
+
+    private String nextRequestName() {
+        return requestNames[(index++) & (REQUEST_NAME_COUNT - 1)];
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole bh) {
+        String transletName = nextRequestName();
+        for (TransletRule transletRule : transletRuleSet) {
+            if (transletRule.getNamePattern().matches(transletName)) {
+                bh.consume(transletRule);
+                return;
+            }
+        }
+    }
+
+    @Benchmark
+    public void router(Blackhole bh) {
+        bh.consume(router.route(nextRequestName()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TransletRouterBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.translet;
+
+import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.context.rule.TransletRule;
+import com.aspectran.core.util.wildcard.WildcardPattern;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Test cases for {@link TransletRouter}.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+class TransletRouterTest {
+
+    private static final String[] PATTERNS = {
+            "/api/*",
+            "/api/*/orders",
+            "/api/*/orders/*",
+            "/api/users/*",
+            "/api/users/*/orders",
+            "/api/users/me/*",
+            "/api/*/*",
+            "/api/*.json",
+            "/api/**/items",
+            "/files/**",
+            "/a-*/b",
+            "*",
+            "*/x"
+    };
+
+    private static final String[] REQUEST_NAMES = {
+            "/api/1",
+            "/api/",
+            "/api",
+            "/api/1/orders",
+            "/api/1/orders/2",
+            "/api/1/orders/2/3",
+            "/api/users/1",
+            "/api/users/me/1",
+            "/api/users/1/orders",
+            "/api/users/orders",
+            "/api/1/2",
+            "/api/a.json",
+            "/api/a/b/items",
+            "/files/a/b/c.txt",
+            "/a-1/b",
+            "/a-/b",
+            "/x/y",
+            "hello",
+            "hello/x",
+            "",
+            "/",
+            "//"
+    };
+
+    private static TransletRule createTransletRule(String pattern) {
+        TransletRule transletRule = new TransletRule();
+        transletRule.setName(pattern);
+        transletRule.setNamePattern(WildcardPattern.compile(pattern, ActivityContext.NAME_SEPARATOR_CHAR));
+        return transletRule;
+    }
+
+    private static TransletRule lookup(Set<TransletRule> transletRuleSet, String transletName) {
+        for (TransletRule transletRule : transletRuleSet) {
+            if (transletRule.getNamePattern().matches(transletName)) {
+                return transletRule;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testSamePrecedenceAsWeightOrderedSet() {
+        Set<TransletRule> transletRuleSet = new TreeSet<>(new TransletRuleRegistry.WeightComparator());
+        for (String pattern : PATTERNS) {
+            transletRuleSet.add(createTransletRule(pattern));
+        }
+        TransletRouter router = new TransletRouter(transletRuleSet);
+        assertEquals(transletRuleSet.size(), router.size());
+        for (String requestName : REQUEST_NAMES) {
+            TransletRule expected = lookup(transletRuleSet, requestName);
+            TransletRule actual = router.route(requestName);
+            assertSame(expected, actual, "Routing mismatch for '" + requestName + "'");
+        }
+    }
+
+    @Test
+    void testStaticSegmentsOnly() {
+        Set<TransletRule> transletRuleSet = new TreeSet<>(new TransletRuleRegistry.WeightComparator());
+        TransletRule transletRule = new TransletRule();
+        transletRule.setName("/static/path");
+        transletRuleSet.add(transletRule);
+        TransletRouter router = new TransletRouter(transletRuleSet);
+        assertSame(transletRule, router.route("/static/path"));
+        assertNull(router.route("/static"));
+        assertNull(router.route("/static/path/more"));
+    }
+
+}
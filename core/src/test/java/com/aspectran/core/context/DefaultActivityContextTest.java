@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.context;
+
+import com.aspectran.core.adapter.DefaultApplicationAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link DefaultActivityContext}.
+ */
+class DefaultActivityContextTest {
+
+    @Test
+    void testAwaitActivitiesCompletion() throws Exception {
+        DefaultActivityContext context = new DefaultActivityContext(new DefaultApplicationAdapter(null, null));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            context.setCurrentActivity(context.getDefaultActivity());
+            // a nested activity does not count twice
+            context.setCurrentActivity(context.getDefaultActivity());
+            started.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                context.removeCurrentActivity();
+            }
+        });
+        thread.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(1, context.getActiveActivityCount());
+        assertFalse(context.awaitActivitiesCompletion(100L));
+
+        // the activity of the waiting thread itself is not waited for
+        context.setCurrentActivity(context.getDefaultActivity());
+        finish.countDown();
+        assertTrue(context.awaitActivitiesCompletion(5000L));
+        context.removeCurrentActivity();
+        assertEquals(0, context.getActiveActivityCount());
+        thread.join();
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.context.builder.reload;
+
+import com.aspectran.core.context.builder.HybridActivityContextBuilder;
+import com.aspectran.core.context.resource.AspectranClassLoader;
+import com.aspectran.core.service.ServiceController;
+import com.aspectran.core.service.ServiceStateListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link ActivityContextReloader}.
+ */
+class ActivityContextReloaderTest {
+
+    private static final String DOCTYPE = "<!DOCTYPE aspectran PUBLIC " +
+            "\"-//ASPECTRAN//DTD Aspectran Configuration 7.0//EN\" " +
+            "\"http://aspectran.github.io/dtd/aspectran-7.dtd\">";
+
+    private static final String VALID_RULES = DOCTYPE + "<aspectran><description>v2</description></aspectran>";
+
+    private static final String INVALID_RULES = DOCTYPE + "<aspectran><description>v2";
+
+    @Test
+    void testReloadAfterChangesSettle(@TempDir Path dir) throws Exception {
+        Path rules = write(dir.resolve("app.xml"), VALID_RULES);
+        Path other = write(dir.resolve("other.txt"), "unrelated");
+
+        HybridActivityContextBuilder builder = new HybridActivityContextBuilder();
+        builder.setBasePath(dir.toString());
+        builder.setRootFile("app.xml");
+
+        RecordingServiceController serviceController = new RecordingServiceController();
+        ActivityContextReloader reloader = new ActivityContextReloader(serviceController);
+        reloader.setContextBuilder(builder);
+        reloader.setResources(Collections.enumeration(Collections.singletonList(rules.toUri().toURL())));
+        reloader.start(1);
+        try {
+            // give the reloader time to register the directory
+            Thread.sleep(500L);
+
+            // changes to files that are not resources are ignored,
+            // and rules that cannot be parsed do not restart the service
+            write(other, "changed");
+            write(rules, INVALID_RULES);
+            Thread.sleep(2500L);
+            assertEquals(0, serviceController.restarts.get());
+
+            write(rules, VALID_RULES);
+            assertTrue(serviceController.restarted.await(10, TimeUnit.SECONDS));
+            assertEquals(1, serviceController.restarts.get());
+        } finally {
+            reloader.stop();
+        }
+    }
+
+    @Test
+    void testPrepareRebuildWithHardReload(@TempDir Path dir) throws Exception {
+        write(dir.resolve("app.xml"), VALID_RULES);
+
+        HybridActivityContextBuilder builder = new HybridActivityContextBuilder();
+        builder.setBasePath(dir.toString());
+        builder.setRootFile("app.xml");
+        builder.setHardReload(true);
+        builder.build();
+        try {
+            AspectranClassLoader classLoader = builder.getAspectranClassLoader();
+            assertNotNull(classLoader);
+
+            // the class loader for the rules parsed in advance is not used
+            // until they are built, and not at all if they are discarded
+            builder.prepareRebuild();
+            assertSame(classLoader, builder.getAspectranClassLoader());
+            builder.discardPreparedRebuild();
+            assertSame(classLoader, builder.getAspectranClassLoader());
+
+            builder.prepareRebuild();
+            builder.destroy();
+            builder.build();
+            assertNotSame(classLoader, builder.getAspectranClassLoader());
+        } finally {
+            builder.destroy();
+        }
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class RecordingServiceController implements ServiceController {
+
+        private final AtomicInteger restarts = new AtomicInteger();
+
+        private final CountDownLatch restarted = new CountDownLatch(1);
+
+        @Override
+        public String getServiceName() {
+            return getClass().getSimpleName();
+        }
+
+        @Override
+        public void setServiceStateListener(ServiceStateListener serviceStateListener) {
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void restart() {
+            restarts.incrementAndGet();
+            restarted.countDown();
+        }
+
+        @Override
+        public void restart(String message) {
+            restart();
+        }
+
+        @Override
+        public void pause() {
+        }
+
+        @Override
+        public void pause(long timeout) {
+        }
+
+        @Override
+        public void resume() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+
+        @Override
+        public boolean isBusy() {
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.context.env;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link ClasspathPropertiesCache}.
+ */
+class ClasspathPropertiesCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File writeProperties(String content) throws Exception {
+        File file = tempDir.resolve("test.properties").toFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+        return file;
+    }
+
+    @Test
+    void testCached() throws Exception {
+        writeProperties("name=first");
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {tempDir.toUri().toURL()}, null)) {
+            ClasspathPropertiesCache cache = new ClasspathPropertiesCache();
+            Properties props1 = cache.getProperties("test.properties", classLoader);
+            Properties props2 = cache.getProperties("test.properties", classLoader);
+            assertSame(props1, props2);
+            assertEquals("first", props1.getProperty("name"));
+
+            Properties missing = cache.getProperties("missing.properties", classLoader);
+            assertTrue(missing.isEmpty());
+
+            cache.clear();
+            assertNotSame(props1, cache.getProperties("test.properties", classLoader));
+        }
+    }
+
+    @Test
+    void testRefresh() throws Exception {
+        File file = writeProperties("name=first");
+        file.setLastModified(1000000L);
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {tempDir.toUri().toURL()}, null)) {
+            ClasspathPropertiesCache cache = new ClasspathPropertiesCache();
+            cache.setRefreshInterval(1);
+            assertEquals("first", cache.getProperties("test.properties", classLoader).getProperty("name"));
+
+            writeProperties("name=second");
+            file.setLastModified(2000000L);
+            // not checked again until the interval has elapsed
+            assertEquals("first", cache.getProperties("test.properties", classLoader).getProperty("name"));
+
+            Thread.sleep(1100L);
+            assertEquals("second", cache.getProperties("test.properties", classLoader).getProperty("name"));
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.context.metrics;
+
+import com.aspectran.core.activity.InstantActivity;
+import com.aspectran.core.context.ActivityContext;
+import com.aspectran.core.context.builder.ActivityContextBuilder;
+import com.aspectran.core.context.builder.HybridActivityContextBuilder;
+import com.aspectran.core.context.rule.AppendRule;
+import com.aspectran.core.context.rule.params.AspectranParameters;
+import com.aspectran.core.support.metrics.ActivityMetricsReporter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link ActivityMetrics}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ActivityMetricsTest {
+
+    private ActivityContextBuilder builder;
+
+    private ActivityContext context;
+
+    @BeforeAll
+    void ready() throws Exception {
+        builder = new HybridActivityContextBuilder();
+        builder.setBasePath(new File("./target/test-classes").getCanonicalPath());
+        AspectranParameters aspectranParameters = new AspectranParameters();
+        aspectranParameters.setMetricsEnabled(true);
+        aspectranParameters.addRule(AppendRule.newInstance(
+                "/config/metrics/metrics-test-config.xml", null, null, null, null));
+        context = builder.build(aspectranParameters);
+    }
+
+    @AfterAll
+    void finish() {
+        if (builder != null) {
+            builder.destroy();
+        }
+    }
+
+    @BeforeEach
+    void reset() {
+        context.getActivityMetrics().setEnabled(true);
+        context.getActivityMetrics().reset();
+    }
+
+    @Test
+    void testRecordTranslet() throws Exception {
+        assertTrue(context.getActivityMetrics().isEnabled());
+        perform("slow");
+        perform("slow");
+
+        TransletMetrics metrics = context.getActivityMetrics().getTransletMetrics("slow");
+        assertEquals(2L, metrics.getTotal().getCount());
+        assertEquals(2L, metrics.getPrepare().getCount());
+        assertEquals(2L, metrics.getAction().getCount());
+        assertEquals(2L, metrics.getResponse().getCount());
+        assertEquals(0L, metrics.getExceptions());
+        assertTrue(metrics.getTotal().getValueAtPercentile(50.0D) >= 20_000L);
+        assertTrue(metrics.getAction().getValueAtPercentile(50.0D) >= 20_000L);
+
+        List<TransletMetrics.ActionMetrics> actionMetrics = List.copyOf(metrics.getActionMetrics());
+        assertEquals(1, actionMetrics.size());
+        assertEquals("sleep", actionMetrics.get(0).getName());
+        assertEquals(2L, actionMetrics.get(0).getLatency().getCount());
+    }
+
+    @Test
+    void testRecordException() {
+        assertThrows(Exception.class, () -> perform("fail"));
+        TransletMetrics metrics = context.getActivityMetrics().getTransletMetrics("fail");
+        assertEquals(1L, metrics.getExceptions());
+        assertEquals(1L, metrics.getTotal().getCount());
+    }
+
+    @Test
+    void testDisabled() throws Exception {
+        context.getActivityMetrics().setEnabled(false);
+        perform("slow");
+        assertTrue(context.getActivityMetrics().getAllTransletMetrics().isEmpty());
+    }
+
+    @Test
+    void testReporter() throws Exception {
+        perform("slow");
+        ActivityMetricsReporter reporter = new ActivityMetricsReporter(context.getActivityMetrics());
+        String json = reporter.toJson();
+        assertTrue(json.startsWith("{\"enabled\":true,\"activeActivities\":0,\"translets\":[{\"name\":\"slow\""), json);
+        assertTrue(reporter.toTable(10).contains("slow"));
+        reporter.disable();
+        assertFalse(context.getActivityMetrics().isEnabled());
+    }
+
+    private void perform(String transletName) throws Exception {
+        InstantActivity activity = new InstantActivity(context);
+        activity.prepare(transletName);
+        activity.perform();
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.sample.binding;
+
+import com.aspectran.core.component.bean.annotation.Action;
+import com.aspectran.core.component.bean.annotation.Component;
+import com.aspectran.core.component.bean.annotation.Format;
+import com.aspectran.core.component.bean.annotation.Qualifier;
+import com.aspectran.core.component.bean.annotation.Request;
+import com.aspectran.core.component.bean.annotation.Required;
+import com.aspectran.core.util.apon.Parameters;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Actions whose arguments are bound from request parameters.
+ */
+@Component
+public class BindingSampleActivity {
+
+    @Request("/binding/primitive")
+    @Action("result")
+    public String primitive(int num, long total, boolean flag, char initial, Integer boxed) {
+        return num + "," + total + "," + flag + "," + initial + "," + boxed;
+    }
+
+    @Request("/binding/array")
+    @Action("result")
+    public String array(int[] nums, @Qualifier("name") String[] names, Long[] ids) {
+        return Arrays.toString(nums) + "," + Arrays.toString(names) + "," + Arrays.toString(ids);
+    }
+
+    @Request("/binding/date")
+    @Action("result")
+    public LocalDate date(@Format("yyyy-MM-dd") LocalDate date) {
+        return date;
+    }
+
+    @Request("/binding/required")
+    @Action("result")
+    public String required(@Required String name) {
+        return name;
+    }
+
+    @Request("/binding/parameters")
+    @Action("result")
+    public Parameters parameters(Parameters parameters) {
+        return parameters;
+    }
+
+    @Request("/binding/model")
+    @Action("result")
+    public BindingModel model(BindingModel model) {
+        return model;
+    }
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.sample.metrics;
+
+/**
+ * A bean whose actions take a given time or fail, for metrics tests.
+ */
+public class MetricsSampleBean {
+
+    public String sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return "slept";
+    }
+
+    public void fail() {
+        throw new IllegalStateException("Expected failure");
+    }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.sample.singleton;
+
+/**
+ * A bean that takes another bean as a constructor argument.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+public class CircularBean {
+
+    private final Object other;
+
+    public CircularBean(Object other) {
+        this.other = other;
+    }
+
+    public Object getOther() {
+        return other;
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.sample.singleton;
+
+import com.aspectran.core.component.bean.ablility.FactoryBean;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A factory bean whose products are only made once two callers are
+ * inside it at the same time.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+public class GateFactoryBean implements FactoryBean<Boolean> {
+
+    public static final CountDownLatch callers = new CountDownLatch(2);
+
+    @Override
+    public Boolean getObject() throws Exception {
+        callers.countDown();
+        return callers.await(10, TimeUnit.SECONDS);
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.sample.singleton;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bean whose initialization waits until it is released.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+public class SlowBean {
+
+    public static final CountDownLatch initializing = new CountDownLatch(1);
+
+    public static final CountDownLatch release = new CountDownLatch(1);
+
+    public static final AtomicInteger initCount = new AtomicInteger();
+
+    public void init() throws InterruptedException {
+        initCount.incrementAndGet();
+        initializing.countDown();
+        release.await(10, TimeUnit.SECONDS);
+    }
+
+}
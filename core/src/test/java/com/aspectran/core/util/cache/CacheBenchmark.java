@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.util.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of {@link ConcurrentLruCache} and
+ * {@link ConcurrentTinyLfuCache} on a full cache with skewed keys.
+ *
+ * <p>Run with {@code main()} from the test classpath; it runs with
+ * 1, 8 and 32 threads.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+    private static final int CAPACITY = 1000;
+
+    private static final int KEY_COUNT = 1 << 16;
+
+    @Param({"lru", "tinylfu"})
+    private String type;
+
+    private Cache<Integer, Integer> cache;
+
+    private Integer[] keys;
+
+    @Setup
+    public void setup() {
+        if ("lru".equals(type)) {
+            cache = new ConcurrentLruCache<>(CAPACITY, key -> key);
+        } else {
+            cache = new ConcurrentTinyLfuCache<>(CAPACITY, key -> key);
+        }
+        // most requests hit a small set of popular keys, like request names or media types
+        Random random = new Random(7);
+        keys = new Integer[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            double u = random.nextDouble();
+            keys[i] = (int)(Math.pow(u, 4) * CAPACITY * 2);
+        }
+        for (Integer key : keys) {
+            cache.get(key);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        int index = (int)(Math.random() * KEY_COUNT);
+
+    }
+
+    @Benchmark
+    public Integer get(ThreadState state) {
+        return cache.get(keys[(state.index++) & (KEY_COUNT - 1)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] {1, 8, 32}) {
+            Options options = new OptionsBuilder()
+                    .include(CacheBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.util.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link ConcurrentTinyLfuCache}.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+class ConcurrentTinyLfuCacheTest {
+
+    @Test
+    void testGenerateOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        ConcurrentTinyLfuCache<String, String> cache = new ConcurrentTinyLfuCache<>(10, key -> {
+            calls.incrementAndGet();
+            return key.toUpperCase();
+        });
+        assertEquals("ABC", cache.get("abc"));
+        assertEquals("ABC", cache.get("abc"));
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testNullValueIsNotCached() {
+        ConcurrentTinyLfuCache<String, String> cache = new ConcurrentTinyLfuCache<>(10, key -> null);
+        assertNull(cache.get("abc"));
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    void testBoundedSize() {
+        ConcurrentTinyLfuCache<Integer, Integer> cache = new ConcurrentTinyLfuCache<>(100, key -> key);
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, cache.get(i));
+            assertTrue(cache.size() <= 100);
+        }
+        assertEquals(10000 - 100, cache.getEvictionCount());
+    }
+
+    @Test
+    void testFrequentEntriesSurviveScan() {
+        ConcurrentTinyLfuCache<Integer, Integer> cache = new ConcurrentTinyLfuCache<>(100, key -> key);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get(i);
+            }
+        }
+        // a scan of keys used only once
+        for (int i = 1000; i < 11000; i++) {
+            cache.get(i);
+        }
+        int retained = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.keySet().contains(i)) {
+                retained++;
+            }
+        }
+        assertTrue(retained >= 45, "retained " + retained);
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        ConcurrentTinyLfuCache<Integer, Integer> cache = new ConcurrentTinyLfuCache<>(10, key -> key);
+        for (int i = 0; i < 10; i++) {
+            cache.get(i);
+        }
+        cache.remove(3);
+        assertEquals(9, cache.size());
+        cache.get(3);
+        assertEquals(10, cache.size());
+        cache.clear();
+        assertTrue(cache.isEmpty());
+        for (int i = 0; i < 20; i++) {
+            cache.get(i);
+        }
+        assertEquals(10, cache.size());
+    }
+
+    @Test
+    void testConcurrentAccess() throws InterruptedException {
+        ConcurrentTinyLfuCache<Integer, Integer> cache = new ConcurrentTinyLfuCache<>(64, key -> key * 2);
+        List<Thread> threads = new ArrayList<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (int t = 0; t < 8; t++) {
+            int seed = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    int key = (i * 31 + seed) % 200;
+                    Integer value = cache.get(key);
+                    if (value == null || value != key * 2) {
+                        failures.incrementAndGet();
+                    }
+                    if (i % 1000 == 0) {
+                        cache.remove(key);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures.get());
+        cache.get(-1);
+        assertTrue(cache.size() <= 64);
+        assertEquals(8 * 20000 + 1, cache.getHitCount() + cache.getMissCount());
+    }
+
+}
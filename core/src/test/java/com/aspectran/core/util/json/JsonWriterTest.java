@@ -22,9 +22,12 @@ import com.aspectran.core.util.apon.test.Customer;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.text.SimpleDateFormat;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -162,4 +165,52 @@ class JsonWriterTest {
         assertEquals(expected, writer.toString().trim());
     }
 
+    @Test
+    void test5() throws IOException {
+        Date date = new Date(1634515200000L);
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("quote\"name", "a \"quoted\" \\ value");
+        map.put("html", "</script> a/b <br/>");
+        map.put("control", "tab\tnew line\ncr\rff\fbs\b\u0001\u001f");
+        map.put("unicode", "\u0085\u00a0\u2028\u2100\uac00");
+        map.put("empty", "");
+        map.put("date", date);
+        map.put("localDateTime", LocalDateTime.of(2021, 10, 18, 9, 5, 7));
+        map.put("bean", new SampleBean());
+
+        String result = new JsonWriter()
+                .prettyPrint(false)
+                .dateFormat("yyyy-MM-dd")
+                .dateTimeFormat("yyyy-MM-dd HH:mm:ss")
+                .write(map)
+                .toString();
+
+        String expected = "{\"quote\\\"name\":\"a \\\"quoted\\\" \\\\ value\"," +
+                "\"html\":\"<\\/script> a/b <br/>\"," +
+                "\"control\":\"tab\\tnew line\\ncr\\rff\\fbs\\b\\u0001\\u001f\"," +
+                "\"unicode\":\"\\u0085\u00a0\\u2028\u2100\uac00\"," +
+                "\"empty\":\"\"," +
+                "\"date\":\"" + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(date) + "\"," +
+                "\"localDateTime\":\"2021-10-18 09:05:07\"," +
+                "\"bean\":{\"staticValue\":\"static\",\"name\":\"bean\",\"count\":3}}";
+
+        assertEquals(expected, result);
+    }
+
+    public static class SampleBean {
+
+        public String getName() {
+            return "bean";
+        }
+
+        public int getCount() {
+            return 3;
+        }
+
+        public static String getStaticValue() {
+            return "static";
+        }
+
+    }
+
 }
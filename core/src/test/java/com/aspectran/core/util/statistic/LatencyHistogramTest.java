@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.util.statistic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link LatencyHistogram}.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketBounds() {
+        for (long value = 0L; value < 1_000_000L; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            long highest = LatencyHistogram.highestValueOf(index);
+            assertTrue(highest >= value, "bucket of " + value + " ends at " + highest);
+            assertTrue(highest - value <= Math.max(value / 32L, 0L), "bucket of " + value + " is too wide");
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestValueOf(index - 1) < value);
+            }
+        }
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1L; value <= 10_000L; value++) {
+            histogram.record(value);
+        }
+        assertEquals(10_000L, histogram.getCount());
+        assertEquals(10_000L, histogram.getMax());
+        assertEquals(5000.5D, histogram.getMean(), 0.001D);
+        assertWithin(5000L, histogram.getValueAtPercentile(50.0D));
+        assertWithin(9900L, histogram.getValueAtPercentile(99.0D));
+        assertEquals(10_000L, histogram.getValueAtPercentile(100.0D));
+        assertWithin(1L, histogram.getValueAtPercentile(0.0D));
+    }
+
+    @Test
+    void testOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram(1000L);
+        histogram.record(-5L);
+        histogram.record(5000L);
+        assertEquals(2L, histogram.getCount());
+        assertEquals(0L, histogram.getValueAtPercentile(50.0D));
+        assertEquals(1000L, histogram.getMax());
+        histogram.reset();
+        assertEquals(0L, histogram.getCount());
+        assertEquals(0L, histogram.getValueAtPercentile(99.0D));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 32L,
+                "expected about " + expected + " but was " + actual);
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.util.thread;
+
+import com.aspectran.core.util.timer.CyclicTimeout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Simulates the inactivity timers of {@value #SESSIONS} live sessions on
+ * a {@link ScheduledExecutorScheduler} and on a {@link TimingWheelScheduler}.
+ * Like {@code DefaultSession}, each session owns a {@link CyclicTimeout} that
+ * is cancelled when a request accesses the session and rescheduled when the
+ * request completes. Requests are skewed: 80% of them go to the hottest 20%
+ * of sessions. {@code churn} replaces a session with a new one, which is what
+ * actually reaches the scheduler, since rescheduling a later timeout reuses
+ * the pending wakeup.
+ *
+ * <p>Run with {@code main()} from the test classpath.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+
+    private static final int SESSIONS = 500_000;
+
+    private static final int HOT_SESSIONS = SESSIONS / 5;
+
+    private static final long MAX_IDLE_SECS = 30 * 60;
+
+    @Param({"executor", "wheel"})
+    private String scheduler;
+
+    private Scheduler sessionScheduler;
+
+    private AtomicReferenceArray<CyclicTimeout> sessions;
+
+    @Setup
+    public void setup() {
+        if ("wheel".equals(scheduler)) {
+            sessionScheduler = new TimingWheelScheduler("wheel", true, 1, TimeUnit.SECONDS);
+        } else {
+            sessionScheduler = new ScheduledExecutorScheduler("executor", true);
+        }
+        sessionScheduler.start();
+        sessions = new AtomicReferenceArray<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions.set(i, newSession());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions.get(i).destroy();
+        }
+        sessionScheduler.stop();
+    }
+
+    private CyclicTimeout newSession() {
+        CyclicTimeout timer = new CyclicTimeout(sessionScheduler) {
+            @Override
+            public void onTimeoutExpired() {
+            }
+        };
+        timer.schedule(MAX_IDLE_SECS, TimeUnit.SECONDS);
+        return timer;
+    }
+
+    private static int nextSessionIndex() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(10) < 8) {
+            return random.nextInt(HOT_SESSIONS);
+        } else {
+            return HOT_SESSIONS + random.nextInt(SESSIONS - HOT_SESSIONS);
+        }
+    }
+
+    @Benchmark
+    public boolean request() {
+        CyclicTimeout timer = sessions.get(nextSessionIndex());
+        timer.cancel();
+        return timer.schedule(MAX_IDLE_SECS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public CyclicTimeout churn() {
+        CyclicTimeout timer = sessions.getAndSet(nextSessionIndex(), newSession());
+        timer.destroy();
+        return timer;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SchedulerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+}
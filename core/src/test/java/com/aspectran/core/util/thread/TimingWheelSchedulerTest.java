@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.util.thread;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link TimingWheelScheduler}.
+ */
+class TimingWheelSchedulerTest {
+
+    private TimingWheelScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        // a small wheel so that longer delays take more than one rotation
+        scheduler = new TimingWheelScheduler("test", true, 10, TimeUnit.MILLISECONDS, 8, null);
+        scheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void testRunsNotBeforeDelay() throws InterruptedException {
+        long[] delays = {0, 5, 35, 100, 250};
+        CountDownLatch latch = new CountDownLatch(delays.length);
+        AtomicInteger early = new AtomicInteger();
+        for (long delay : delays) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+            scheduler.schedule(() -> {
+                if (System.nanoTime() < deadline) {
+                    early.incrementAndGet();
+                }
+                latch.countDown();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, early.get());
+    }
+
+    @Test
+    void testCancel() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+        Scheduler.Task task = scheduler.schedule(runs::incrementAndGet, 30, TimeUnit.MILLISECONDS);
+        scheduler.schedule(latch::countDown, 100, TimeUnit.MILLISECONDS);
+        assertTrue(task.cancel());
+        assertFalse(task.cancel());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void testCancelAfterRun() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        Scheduler.Task task = scheduler.schedule(latch::countDown, 10, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertFalse(task.cancel());
+    }
+
+    @Test
+    void testFailingTaskDoesNotStopWorker() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        scheduler.schedule(() -> {
+            throw new IllegalStateException("expected");
+        }, 10, TimeUnit.MILLISECONDS);
+        scheduler.schedule(latch::countDown, 50, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testStop() {
+        assertTrue(scheduler.isRunning());
+        assertThrows(IllegalStateException.class, () -> scheduler.start());
+        scheduler.stop();
+        assertFalse(scheduler.isRunning());
+        AtomicInteger runs = new AtomicInteger();
+        Scheduler.Task task = scheduler.schedule(runs::incrementAndGet, 0, TimeUnit.MILLISECONDS);
+        assertFalse(task.cancel());
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void testScheduleBeforeStart() {
+        TimingWheelScheduler notStarted = new TimingWheelScheduler("not-started", true);
+        assertThrows(IllegalStateException.class,
+                () -> notStarted.schedule(() -> {}, 0, TimeUnit.MILLISECONDS));
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.daemon.command.builtins;
+
+import com.aspectran.core.activity.request.ParameterMap;
+import com.aspectran.core.context.expr.ItemEvaluation;
+import com.aspectran.core.context.expr.ItemEvaluator;
+import com.aspectran.core.context.rule.ItemRuleMap;
+import com.aspectran.core.support.metrics.ActivityMetricsReporter;
+import com.aspectran.daemon.command.AbstractCommand;
+import com.aspectran.daemon.command.CommandParameters;
+import com.aspectran.daemon.command.CommandRegistry;
+import com.aspectran.daemon.command.CommandResult;
+import com.aspectran.daemon.service.DaemonService;
+
+/**
+ * A daemon command that shows the latencies of the translets performed,
+ * slowest first, and turns the recording of metrics on and off.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+public class MetricsCommand extends AbstractCommand {
+
+    private static final String NAMESPACE = "builtins";
+
+    private static final String COMMAND_NAME = "metrics";
+
+    private final CommandDescriptor descriptor = new CommandDescriptor();
+
+    public MetricsCommand(CommandRegistry registry) {
+        super(registry);
+    }
+
+    @Override
+    public CommandResult execute(CommandParameters parameters) {
+        DaemonService service = getService();
+
+        try {
+            ItemEvaluator evaluator = new ItemEvaluation(service.getDefaultActivity());
+
+            ParameterMap parameterMap = null;
+            ItemRuleMap parameterItemRuleMap = parameters.getParameterItemRuleMap();
+            if (parameterItemRuleMap != null && !parameterItemRuleMap.isEmpty()) {
+                parameterMap = evaluator.evaluateAsParameterMap(parameterItemRuleMap);
+            }
+
+            String mode = (parameterMap != null ? parameterMap.getParameter("mode") : null);
+            String format = (parameterMap != null ? parameterMap.getParameter("format") : null);
+            String limit = (parameterMap != null ? parameterMap.getParameter("limit") : null);
+
+            ActivityMetricsReporter reporter = new ActivityMetricsReporter(
+                    service.getActivityContext().getActivityMetrics());
+            if (mode == null || "list".equals(mode)) {
+                int max = (limit != null ? Integer.parseInt(limit) : 0);
+                if ("json".equals(format)) {
+                    return success(reporter.toJson(max));
+                } else {
+                    return success(reporter.toTable(max));
+                }
+            }
+            switch (mode) {
+                case "enable":
+                    reporter.enable();
+                    return success(info("Metrics are now being recorded"));
+                case "disable":
+                    reporter.disable();
+                    return success(info("Metrics are no longer being recorded"));
+                case "reset":
+                    reporter.reset();
+                    return success(info("Metrics have been reset"));
+                default:
+                    return failed(error("Unknown mode: " + mode));
+            }
+        } catch (Exception e) {
+            return failed(e);
+        }
+    }
+
+    @Override
+    public Descriptor getDescriptor() {
+        return descriptor;
+    }
+
+    private static class CommandDescriptor implements Descriptor {
+
+        @Override
+        public String getNamespace() {
+            return NAMESPACE;
+        }
+
+        @Override
+        public String getName() {
+            return COMMAND_NAME;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Shows the latencies of translets, or enables or disables recording them";
+        }
+
+    }
+
+}
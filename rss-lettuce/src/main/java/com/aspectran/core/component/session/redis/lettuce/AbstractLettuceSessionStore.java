@@ -19,14 +19,37 @@ import com.aspectran.core.component.session.AbstractSessionStore;
 import com.aspectran.core.component.session.SessionData;
 import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.sync.BaseRedisCommands;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.output.IntegerOutput;
+import io.lettuce.core.output.KeyListOutput;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.function.Consumer;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A Redis-based session store using Lettuce as the client.
  *
+ * <p>The expiry time of every saved session is also recorded in a sorted set
+ * whose key is given by {@link #setExpiryIndexKey(String)}, with the session id
+ * as the member and the expiry time as the score. Expired sessions are then
+ * found with a single range query instead of scanning and decoding every
+ * session in the keyspace.</p>
+ *
+ * <p>The session data and the index entry are written with separate commands,
+ * because in a cluster they belong to different hash slots and cannot be
+ * written in one transaction. So that session data is not left behind if
+ * the index entry is never written, the session data is also given a
+ * time to live that ends once the grace period has passed after the
+ * session has expired.</p>
+ *
  * <p>Created: 2019/12/06</p>
  *
  * @since 6.6.0
@@ -35,19 +58,55 @@ public abstract class AbstractLettuceSessionStore extends AbstractSessionStore {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractLettuceSessionStore.class);
 
-    abstract protected void scan(Consumer<SessionData> func);
+    public static final String DEFAULT_EXPIRY_INDEX_KEY = "aspectran:session:expiry";
+
+    private String expiryIndexKey = DEFAULT_EXPIRY_INDEX_KEY;
+
+    private SessionDataCodec codec;
+
+    public String getExpiryIndexKey() {
+        return expiryIndexKey;
+    }
+
+    /**
+     * Sets the key of the sorted set used to index session expiry times.
+     * Applications sharing the same Redis database should use different keys.
+     * @param expiryIndexKey the key of the expiry index
+     */
+    public void setExpiryIndexKey(String expiryIndexKey) {
+        checkAlreadyInitialized();
+        if (expiryIndexKey == null || expiryIndexKey.isEmpty()) {
+            throw new IllegalArgumentException("expiryIndexKey must not be null or empty");
+        }
+        this.expiryIndexKey = expiryIndexKey;
+    }
+
+    protected SessionDataCodec createSessionDataCodec() {
+        codec = new SessionDataCodec(getSessionDataSerializer(), getNonPersistentAttributes());
+        return codec;
+    }
+
+    protected SessionDataCodec getSessionDataCodec() {
+        return codec;
+    }
+
+    /**
+     * Returns the ids of sessions whose expiry time recorded in the expiry
+     * index is earlier than the given time.
+     * @param time the time in milliseconds
+     * @return the ids of expired sessions
+     */
+    abstract protected Set<String> getExpiredFromIndex(long time);
 
     @Override
     public Set<String> doGetExpired(Set<String> candidates) {
         long now = System.currentTimeMillis();
         Set<String> expired = new HashSet<>();
-        // iterate over the saved sessions and work out which have expired
-        scan(sessionData -> {
-            long expiry = sessionData.getExpiry();
-            if (expiry > 0 && expiry < now) {
-                expired.add(sessionData.getId());
-            }
-        });
+        try {
+            expired.addAll(getExpiredFromIndex(now));
+        } catch (Exception e) {
+            logger.warn("Error querying the session expiry index", e);
+        }
         for (String id : candidates) {
             if (!expired.contains(id)) {
                 try {
@@ -68,6 +127,32 @@ public abstract class AbstractLettuceSessionStore extends AbstractSessionStore {
         return expired;
     }
 
+    /**
+     * Returns the time for which Redis keeps the given session data,
+     * until the grace period has passed after the session has expired.
+     * @param data the session data
+     * @return the time to live in milliseconds, or 0 if the session never expires
+     */
+    protected long getTimeToLive(SessionData data) {
+        long expiry = data.getExpiry();
+        if (expiry <= 0L) {
+            return 0L;
+        }
+        long ttl = expiry - System.currentTimeMillis() +
+                TimeUnit.SECONDS.toMillis(Math.max(getGracePeriodSecs(), 0));
+        return Math.max(ttl, 1L);
+    }
+
+    /**
+     * Returns the arguments of the SET command that stores the given session data.
+     * @param data the session data
+     * @return the SET arguments with the time to live of the session data
+     */
+    protected SetArgs getSetArgs(SessionData data) {
+        long ttl = getTimeToLive(data);
+        return (ttl > 0L ? SetArgs.Builder.px(ttl) : new SetArgs());
+    }
+
     protected boolean checkExpiry(SessionData data) {
         if (data != null) {
             return (data.getExpiry() <= 0L || data.getExpiry() > System.currentTimeMillis());
@@ -76,4 +161,108 @@ public abstract class AbstractLettuceSessionStore extends AbstractSessionStore {
         }
     }
 
+    /**
+     * Records the expiry time of the given session in the expiry index,
+     * or removes the session from the index if it never expires.
+     * @param c the Redis commands
+     * @param id the session id
+     * @param expiry the expiry time of the session
+     */
+    protected void updateExpiryIndex(BaseRedisCommands<String, SessionData> c, String id, long expiry) {
+        if (expiry > 0L) {
+            CommandArgs<String, SessionData> args = new CommandArgs<>(codec)
+                    .addKey(expiryIndexKey).add(expiry).add(id);
+            c.dispatch(CommandType.ZADD, new IntegerOutput<>(codec), args);
+        } else {
+            removeFromExpiryIndex(c, id);
+        }
+    }
+
+    /**
+     * Removes the given session from the expiry index.
+     * @param c the Redis commands
+     * @param id the session id
+     */
+    protected void removeFromExpiryIndex(BaseRedisCommands<String, SessionData> c, String id) {
+        CommandArgs<String, SessionData> args = new CommandArgs<>(codec)
+                .addKey(expiryIndexKey).add(id);
+        c.dispatch(CommandType.ZREM, new IntegerOutput<>(codec), args);
+    }
+
+    /**
+     * Returns the ids of sessions in the expiry index whose expiry time
+     * is earlier than the given time.
+     * @param c the Redis commands
+     * @param time the time in milliseconds
+     * @return the ids of the sessions found in the index
+     */
+    protected List<String> rangeExpiryIndex(BaseRedisCommands<String, SessionData> c, long time) {
+        CommandArgs<String, SessionData> args = new CommandArgs<>(codec)
+                .addKey(expiryIndexKey).add(0L).add("(" + time);
+        return c.dispatch(CommandType.ZRANGEBYSCORE, new KeyListOutput<>(codec), args);
+    }
+
+    /**
+     * Stores the session data, already encoded by the session data codec,
+     * without waiting for the reply.
+     * @param c the asynchronous Redis commands
+     * @param id the session id
+     * @param value the encoded session data
+     * @param setArgs the arguments of the SET command
+     * @return the future of the reply
+     */
+    protected RedisFuture<String> set(RedisClusterAsyncCommands<String, SessionData> c,
+                                      String id, byte[] value, SetArgs setArgs) {
+        CommandArgs<String, SessionData> args = new CommandArgs<>(codec)
+                .addKey(id).add(value);
+        setArgs.build(args);
+        return c.dispatch(CommandType.SET, new StatusOutput<>(codec), args);
+    }
+
+    /**
+     * Records the expiry time of the given session in the expiry index
+     * without waiting for the reply.
+     * @param c the asynchronous Redis commands
+     * @param id the session id
+     * @param expiry the expiry time of the session
+     * @return the future of the reply
+     */
+    protected RedisFuture<Long> updateExpiryIndex(RedisClusterAsyncCommands<String, SessionData> c,
+                                                  String id, long expiry) {
+        if (expiry > 0L) {
+            CommandArgs<String, SessionData> args = new CommandArgs<>(codec)
+                    .addKey(expiryIndexKey).add(expiry).add(id);
+            return c.dispatch(CommandType.ZADD, new IntegerOutput<>(codec), args);
+        } else {
+            return removeFromExpiryIndex(c, id);
+        }
+    }
+
+    /**
+     * Removes the given session from the expiry index without waiting for the reply.
+     * @param c the asynchronous Redis commands
+     * @param id the session id
+     * @return the future of the reply
+     */
+    protected RedisFuture<Long> removeFromExpiryIndex(RedisClusterAsyncCommands<String, SessionData> c,
+                                                      String id) {
+        CommandArgs<String, SessionData> args = new CommandArgs<>(codec)
+                .addKey(expiryIndexKey).add(id);
+        return c.dispatch(CommandType.ZREM, new IntegerOutput<>(codec), args);
+    }
+
+    /**
+     * Queries the expiry index for sessions whose expiry time
+     * is earlier than the given time.
+     * @param c the asynchronous Redis commands
+     * @param time the time in milliseconds
+     * @return the future of the ids of the sessions found in the index
+     */
+    protected RedisFuture<List<String>> rangeExpiryIndex(RedisClusterAsyncCommands<String, SessionData> c,
+                                                         long time) {
+        CommandArgs<String, SessionData> args = new CommandArgs<>(codec)
+                .addKey(expiryIndexKey).add(0L).add("(" + time);
+        return c.dispatch(CommandType.ZRANGEBYSCORE, new KeyListOutput<>(codec), args);
+    }
+
 }
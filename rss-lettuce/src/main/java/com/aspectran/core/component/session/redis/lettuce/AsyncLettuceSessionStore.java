@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session.redis.lettuce;
+
+import com.aspectran.core.component.session.SessionData;
+import com.aspectran.core.util.logging.Logger;
+import com.aspectran.core.util.logging.LoggerFactory;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisConnectionException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A Redis-based session store that sends all commands asynchronously over
+ * a single shared connection, using Lettuce as the client.
+ *
+ * <p>Lettuce connections are thread-safe and multiplexed, so commands issued
+ * by concurrent request threads are pipelined on the same connection instead
+ * of each thread borrowing a pooled connection and waiting for its reply.
+ * Saves are fire-and-forget: the session data is encoded on the calling
+ * thread, so that it reflects the session at the time of the save, and the
+ * calling thread only waits if the number of saves still awaiting a reply has
+ * reached {@link #setMaxInFlightWrites(int)}. A save that fails is logged,
+ * counted in {@link #getFailedSaveCount()} and not retried.
+ * Because Redis executes the commands of one connection in order, a load
+ * that follows a save always sees the saved data.</p>
+ *
+ * <p>Only one connection is taken from the given pool, for the lifetime of
+ * the store.</p>
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @param <C> the type of the connection
+ * @since 7.0.5
+ */
+public class AsyncLettuceSessionStore<C extends StatefulConnection<String, SessionData>>
+        extends AbstractLettuceSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncLettuceSessionStore.class);
+
+    public static final int DEFAULT_MAX_IN_FLIGHT_WRITES = 1024;
+
+    private final ConnectionPool<C> pool;
+
+    private final Function<C, RedisClusterAsyncCommands<String, SessionData>> commandsResolver;
+
+    private int maxInFlightWrites = DEFAULT_MAX_IN_FLIGHT_WRITES;
+
+    private Semaphore inFlightWrites;
+
+    private C connection;
+
+    private RedisClusterAsyncCommands<String, SessionData> commands;
+
+    private long timeoutMillis;
+
+    private final AtomicLong failedSaveCount = new AtomicLong();
+
+    /**
+     * Instantiates a new AsyncLettuceSessionStore.
+     * @param pool the connection pool from which the shared connection is taken
+     * @param commandsResolver the function that returns the asynchronous
+     *      commands of a connection, e.g. {@code StatefulRedisConnection::async}
+     */
+    public AsyncLettuceSessionStore(ConnectionPool<C> pool,
+                                    Function<C, RedisClusterAsyncCommands<String, SessionData>> commandsResolver) {
+        this.pool = pool;
+        this.commandsResolver = commandsResolver;
+    }
+
+    public int getMaxInFlightWrites() {
+        return maxInFlightWrites;
+    }
+
+    /**
+     * Sets the maximum number of saves that can be awaiting a reply from
+     * Redis at the same time. Further saves wait until earlier ones complete.
+     * @param maxInFlightWrites the maximum number of in-flight saves
+     */
+    public void setMaxInFlightWrites(int maxInFlightWrites) {
+        checkAlreadyInitialized();
+        if (maxInFlightWrites <= 0) {
+            throw new IllegalArgumentException("maxInFlightWrites must be positive");
+        }
+        this.maxInFlightWrites = maxInFlightWrites;
+    }
+
+    /**
+     * Returns the number of saves that failed after they were sent,
+     * since the store was created.
+     * @return the number of failed saves
+     */
+    public long getFailedSaveCount() {
+        return failedSaveCount.get();
+    }
+
+    @Override
+    protected void doInitialize() throws Exception {
+        SessionDataCodec codec = createSessionDataCodec();
+        pool.initialize(codec);
+        try {
+            connection = pool.getConnection();
+        } catch (Exception e) {
+            pool.destroy();
+            throw RedisConnectionException.create(e);
+        }
+        commands = commandsResolver.apply(connection);
+        Duration timeout = connection.getTimeout();
+        timeoutMillis = (timeout != null ? timeout.toMillis() : TimeUnit.SECONDS.toMillis(60));
+        inFlightWrites = new Semaphore(maxInFlightWrites);
+    }
+
+    @Override
+    protected void doDestroy() throws Exception {
+        try {
+            // let pending saves complete before closing the connection
+            if (inFlightWrites.tryAcquire(maxInFlightWrites, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                inFlightWrites.release(maxInFlightWrites);
+            } else {
+                logger.warn("Timed out waiting for " + (maxInFlightWrites - inFlightWrites.availablePermits()) +
+                        " pending session saves to complete");
+            }
+        } finally {
+            commands = null;
+            if (connection != null) {
+                connection.close();
+                connection = null;
+            }
+            pool.destroy();
+        }
+    }
+
+    private <T> T await(RedisFuture<T> future) {
+        return LettuceFutures.awaitOrCancel(future, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Loads the session data without blocking the calling thread.
+     * @param id the session id
+     * @return the stage that completes with the session data,
+     *      or {@code null} if it does not exist
+     */
+    public CompletionStage<SessionData> loadAsync(String id) {
+        return commands.get(id);
+    }
+
+    /**
+     * Checks whether an unexpired session exists without blocking the calling thread.
+     * @param id the session id
+     * @return the stage that completes with whether the session exists
+     */
+    public CompletionStage<Boolean> existsAsync(String id) {
+        return commands.get(id).thenApply(this::checkExpiry);
+    }
+
+    /**
+     * Deletes the session data without blocking the calling thread.
+     * @param id the session id
+     * @return the stage that completes with whether the session data was deleted
+     */
+    public CompletionStage<Boolean> deleteAsync(String id) {
+        RedisFuture<Long> deleted = commands.del(id);
+        removeFromExpiryIndex(commands, id);
+        return deleted.thenApply(count -> (count != null && count > 0L));
+    }
+
+    @Override
+    public SessionData load(String id) {
+        return await(commands.get(id));
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return checkExpiry(await(commands.get(id)));
+    }
+
+    @Override
+    public boolean delete(String id) {
+        RedisFuture<Long> deleted = commands.del(id);
+        removeFromExpiryIndex(commands, id);
+        Long count = await(deleted);
+        return (count != null && count > 0L);
+    }
+
+    @Override
+    public void doSave(String id, SessionData data) throws Exception {
+        // encode now, while the session lock is held, rather than on the I/O thread
+        // after the dirty flags have been cleared and the attributes may have changed
+        byte[] value = getSessionDataCodec().encodeValueToBytes(data);
+        long expiry = data.getExpiry();
+        SetArgs setArgs = getSetArgs(data);
+        inFlightWrites.acquire();
+        try {
+            RedisFuture<String> set = set(commands, id, value, setArgs);
+            RedisFuture<Long> index = updateExpiryIndex(commands, id, expiry);
+            CompletableFuture.allOf(set.toCompletableFuture(), index.toCompletableFuture())
+                    .whenComplete((result, ex) -> {
+                        inFlightWrites.release();
+                        if (ex != null) {
+                            failedSaveCount.incrementAndGet();
+                            logger.warn("Failed to save session " + id, ex);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            inFlightWrites.release();
+            throw e;
+        }
+    }
+
+    @Override
+    protected Set<String> getExpiredFromIndex(long time) {
+        List<String> ids = await(rangeExpiryIndex(commands, time));
+        List<RedisFuture<Long>> existences = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            existences.add(commands.exists(id));
+        }
+        Set<String> expired = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            Long exists = await(existences.get(i));
+            if (exists != null && exists > 0L) {
+                expired.add(id);
+            } else {
+                // the session data has been removed without updating the index
+                removeFromExpiryIndex(commands, id);
+            }
+        }
+        return expired;
+    }
+
+}
@@ -17,11 +17,11 @@ package com.aspectran.core.component.session.redis.lettuce;
 
 import com.aspectran.core.component.session.SessionData;
 import io.lettuce.core.RedisConnectionException;
-import io.lettuce.core.ScanIterator;
 import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.api.sync.RedisCommands;
 
-import java.util.function.Consumer;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
@@ -41,7 +41,7 @@ public class DefaultLettuceSessionStore extends AbstractLettuceSessionStore {
 
     @Override
     protected void doInitialize() throws Exception {
-        SessionDataCodec codec = new SessionDataCodec(getNonPersistentAttributes());
+        SessionDataCodec codec = createSessionDataCodec();
         pool.initialize(codec);
     }
 
@@ -65,15 +65,19 @@ public class DefaultLettuceSessionStore extends AbstractLettuceSessionStore {
     }
 
     @Override
-    public void scan(Consumer<SessionData> func) {
-        sync(c -> {
-            ScanIterator<String> scanIterator = ScanIterator.scan(c);
-            while (scanIterator.hasNext()) {
-                String key = scanIterator.next();
-                SessionData data = c.get(key);
-                func.accept(data);
+    protected Set<String> getExpiredFromIndex(long time) {
+        return sync(c -> {
+            Set<String> expired = new HashSet<>();
+            for (String id : rangeExpiryIndex(c, time)) {
+                Long exists = c.exists(id);
+                if (exists != null && exists > 0L) {
+                    expired.add(id);
+                } else {
+                    // the session data has been removed without updating the index
+                    removeFromExpiryIndex(c, id);
+                }
             }
-            return null;
+            return expired;
         });
     }
 
@@ -86,6 +90,7 @@ public class DefaultLettuceSessionStore extends AbstractLettuceSessionStore {
     public boolean delete(String id) {
         return sync(c -> {
             Long deleted = c.del(id);
+            removeFromExpiryIndex(c, id);
             return (deleted != null && deleted > 0L);
         });
     }
@@ -97,7 +102,11 @@ public class DefaultLettuceSessionStore extends AbstractLettuceSessionStore {
 
     @Override
     public void doSave(String id, SessionData data) {
-        sync(c -> c.set(id, data));
+        sync(c -> {
+            c.set(id, data, getSetArgs(data));
+            updateExpiryIndex(c, id, data.getExpiry());
+            return null;
+        });
     }
 
 }
@@ -20,11 +20,11 @@ import com.aspectran.core.component.session.redis.lettuce.AbstractLettuceSession
 import com.aspectran.core.component.session.redis.lettuce.ConnectionPool;
 import com.aspectran.core.component.session.redis.lettuce.SessionDataCodec;
 import io.lettuce.core.RedisConnectionException;
-import io.lettuce.core.ScanIterator;
 import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
 import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
 
-import java.util.function.Consumer;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
@@ -44,7 +44,7 @@ public class ClusterLettuceSessionStore extends AbstractLettuceSessionStore {
 
     @Override
     protected void doInitialize() throws Exception {
-        SessionDataCodec codec = new SessionDataCodec(getNonPersistentAttributes());
+        SessionDataCodec codec = createSessionDataCodec();
         pool.initialize(codec);
     }
 
@@ -68,15 +68,19 @@ public class ClusterLettuceSessionStore extends AbstractLettuceSessionStore {
     }
 
     @Override
-    public void scan(Consumer<SessionData> func) {
-        sync(c -> {
-            ScanIterator<String> scanIterator = ScanIterator.scan(c);
-            while (scanIterator.hasNext()) {
-                String key = scanIterator.next();
-                SessionData data = c.get(key);
-                func.accept(data);
+    protected Set<String> getExpiredFromIndex(long time) {
+        return sync(c -> {
+            Set<String> expired = new HashSet<>();
+            for (String id : rangeExpiryIndex(c, time)) {
+                Long exists = c.exists(id);
+                if (exists != null && exists > 0L) {
+                    expired.add(id);
+                } else {
+                    // the session data has been removed without updating the index
+                    removeFromExpiryIndex(c, id);
+                }
             }
-            return null;
+            return expired;
         });
     }
 
@@ -89,6 +93,7 @@ public class ClusterLettuceSessionStore extends AbstractLettuceSessionStore {
     public boolean delete(String id) {
         return sync(c -> {
             Long deleted = c.del(id);
+            removeFromExpiryIndex(c, id);
             return (deleted != null && deleted > 0L);
         });
     }
@@ -103,7 +108,11 @@ public class ClusterLettuceSessionStore extends AbstractLettuceSessionStore {
 
     @Override
     public void doSave(String id, SessionData data) {
-        sync(c -> c.set(id, data));
+        sync(c -> {
+            c.set(id, data, getSetArgs(data));
+            updateExpiryIndex(c, id, data.getExpiry());
+            return null;
+        });
     }
 
 }
@@ -17,8 +17,11 @@ package com.aspectran.core.component.session.redis.lettuce.cluster;
 
 import com.aspectran.core.component.session.AbstractSessionStoreFactory;
 import com.aspectran.core.component.session.SessionStore;
+import com.aspectran.core.component.session.redis.lettuce.AbstractLettuceSessionStore;
+import com.aspectran.core.component.session.redis.lettuce.AsyncLettuceSessionStore;
 import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
 
 /**
  * Factory that creates a Redis-based session store using Lettuce as a client.
@@ -33,20 +36,68 @@ public class ClusterLettuceSessionStoreFactory extends AbstractSessionStoreFacto
 
     private RedisClusterConnectionPoolConfig poolConfig;
 
+    private String expiryIndexKey;
+
+    private boolean async;
+
+    private int maxInFlightWrites;
+
     public void setPoolConfig(RedisClusterConnectionPoolConfig poolConfig) {
         this.poolConfig = poolConfig;
     }
 
+    /**
+     * Sets the key of the sorted set used to index session expiry times.
+     * @param expiryIndexKey the key of the expiry index
+     */
+    public void setExpiryIndexKey(String expiryIndexKey) {
+        this.expiryIndexKey = expiryIndexKey;
+    }
+
+    /**
+     * Sets whether to create a session store that sends commands
+     * asynchronously over a single shared connection.
+     * @param async true to use the asynchronous session store
+     * @see AsyncLettuceSessionStore
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * Sets the maximum number of saves awaiting a reply at the same time
+     * when the asynchronous session store is used.
+     * @param maxInFlightWrites the maximum number of in-flight saves
+     */
+    public void setMaxInFlightWrites(int maxInFlightWrites) {
+        this.maxInFlightWrites = maxInFlightWrites;
+    }
+
     @Override
     public SessionStore getSessionStore() {
         if (logger.isDebugEnabled()) {
             logger.debug("RedisClusterConnectionPoolConfig " + poolConfig);
         }
         RedisClusterConnectionPool pool = new RedisClusterConnectionPool(poolConfig);
-        ClusterLettuceSessionStore sessionStore = new ClusterLettuceSessionStore(pool);
+        AbstractLettuceSessionStore sessionStore;
+        if (async) {
+            AsyncLettuceSessionStore<?> asyncSessionStore = new AsyncLettuceSessionStore<>(pool, StatefulRedisClusterConnection::async);
+            if (maxInFlightWrites > 0) {
+                asyncSessionStore.setMaxInFlightWrites(maxInFlightWrites);
+            }
+            sessionStore = asyncSessionStore;
+        } else {
+            sessionStore = new ClusterLettuceSessionStore(pool);
+        }
         if (getNonPersistentAttributes() != null) {
             sessionStore.setNonPersistentAttributes(getNonPersistentAttributes());
         }
+        if (expiryIndexKey != null) {
+            sessionStore.setExpiryIndexKey(expiryIndexKey);
+        }
+        if (getSessionDataSerializer() != null) {
+            sessionStore.setSessionDataSerializer(getSessionDataSerializer());
+        }
         return sessionStore;
     }
 
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session.redis.lettuce;
+
+import com.aspectran.core.component.session.SessionData;
+import com.aspectran.core.component.session.SessionStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saves and loads sessions from concurrent threads with the blocking and the
+ * asynchronous session store, against a Redis server on localhost:6379.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+class AsyncLettuceSessionStoreTest {
+
+    private static final int THREADS = 16;
+
+    private static final int SESSIONS_PER_THREAD = 500;
+
+    public static void main(String[] args) throws Exception {
+        RedisConnectionPoolConfig poolConfig = new RedisConnectionPoolConfig();
+        poolConfig.setUri("redis://localhost:6379/0");
+        poolConfig.setMaxTotal(8);
+
+        DefaultLettuceSessionStoreFactory sessionStoreFactory = new DefaultLettuceSessionStoreFactory();
+        sessionStoreFactory.setPoolConfig(poolConfig);
+        sessionStoreFactory.setExpiryIndexKey("aspectran:test:expiry");
+        run("blocking", (AbstractLettuceSessionStore)sessionStoreFactory.getSessionStore());
+
+        sessionStoreFactory.setAsync(true);
+        run("async", (AbstractLettuceSessionStore)sessionStoreFactory.getSessionStore());
+    }
+
+    private static void run(String mode, AbstractLettuceSessionStore sessionStore) throws Exception {
+        sessionStore.initialize();
+        try {
+            long started = System.nanoTime();
+            List<Thread> threads = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                threads.add(new Thread(() -> {
+                    try {
+                        saveAndLoad(sessionStore, thread);
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            System.out.printf("%s: %d saves and loads from %d threads in %d ms%n",
+                    mode, THREADS * SESSIONS_PER_THREAD, THREADS, elapsed);
+            if (!failures.isEmpty()) {
+                throw new AssertionError(failures.get(0));
+            }
+
+            if (sessionStore instanceof AsyncLettuceSessionStore) {
+                AsyncLettuceSessionStore<?> asyncSessionStore = (AsyncLettuceSessionStore<?>)sessionStore;
+                SessionData data = asyncSessionStore.loadAsync("test-0-0").toCompletableFuture().get();
+                assertNotNull(data);
+                assertTrue(asyncSessionStore.deleteAsync("test-0-0").toCompletableFuture().get());
+                assertFalse(asyncSessionStore.existsAsync("test-0-0").toCompletableFuture().get());
+
+                // the data is encoded when saved, not when the command is written out
+                long now = System.currentTimeMillis();
+                SessionData data2 = new SessionData("test-0-0", now, now, now, 60000L);
+                data2.setAttribute("user", "saved");
+                asyncSessionStore.save("test-0-0", data2);
+                data2.setAttribute("user", "changed after save");
+                assertEquals("saved", asyncSessionStore.load("test-0-0").getAttribute("user"));
+                assertEquals(0L, asyncSessionStore.getFailedSaveCount());
+            }
+        } finally {
+            for (int t = 0; t < THREADS; t++) {
+                for (int i = 0; i < SESSIONS_PER_THREAD; i++) {
+                    sessionStore.delete("test-" + t + "-" + i);
+                }
+            }
+            sessionStore.destroy();
+        }
+    }
+
+    private static void saveAndLoad(SessionStore sessionStore, int thread) throws Exception {
+        for (int i = 0; i < SESSIONS_PER_THREAD; i++) {
+            String id = "test-" + thread + "-" + i;
+            long now = System.currentTimeMillis();
+            SessionData data = new SessionData(id, now, now, now, 60000L);
+            data.calcAndSetExpiry(now);
+            data.setAttribute("user", "user-" + i);
+            sessionStore.save(id, data);
+            // a load on the same connection must see the save issued before it
+            SessionData loaded = sessionStore.load(id);
+            assertNotNull(loaded, id);
+            assertEquals("user-" + i, loaded.getAttribute("user"));
+        }
+        assertNull(sessionStore.load("test-missing"));
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.core.component.session.redis.lettuce;
+
+import com.aspectran.core.component.session.SessionData;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.CommandArgs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for the expiry index of {@link DefaultLettuceSessionStore},
+ * against an in-memory stand-in for the Redis commands it uses.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+class DefaultLettuceSessionStoreTest {
+
+    private final Map<String, SessionData> values = new ConcurrentHashMap<>();
+
+    private final Map<String, String> setArgs = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> expiryIndex = new ConcurrentHashMap<>();
+
+    private DefaultLettuceSessionStore sessionStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sessionStore = new DefaultLettuceSessionStore(new InMemoryConnectionPool());
+        sessionStore.setGracePeriodSecs(60);
+        sessionStore.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionStore.destroy();
+    }
+
+    private SessionData newSessionData(String id, long expiry) {
+        long now = System.currentTimeMillis();
+        SessionData data = new SessionData(id, now, now, now, 1800000L);
+        data.setExpiry(expiry);
+        return data;
+    }
+
+    @Test
+    void testSaveUpdatesExpiryIndex() {
+        long now = System.currentTimeMillis();
+        sessionStore.doSave("expired", newSessionData("expired", now - 1000L));
+        sessionStore.doSave("active", newSessionData("active", now + 60000L));
+        sessionStore.doSave("immortal", newSessionData("immortal", 0L));
+
+        assertEquals(now - 1000L, expiryIndex.get("expired"));
+        assertEquals(now + 60000L, expiryIndex.get("active"));
+        assertFalse(expiryIndex.containsKey("immortal"));
+
+        // the session data is kept until the grace period has passed after expiry
+        assertTrue(setArgs.get("active").startsWith("PX "), setArgs.get("active"));
+        long ttl = Long.parseLong(setArgs.get("active").substring(3));
+        assertTrue(ttl > 60000L && ttl <= 120000L, String.valueOf(ttl));
+        assertTrue(setArgs.get("expired").startsWith("PX "), setArgs.get("expired"));
+        assertEquals("", setArgs.get("immortal"));
+    }
+
+    @Test
+    void testGetExpiredFromIndex() {
+        long now = System.currentTimeMillis();
+        sessionStore.doSave("expired1", newSessionData("expired1", now - 2000L));
+        sessionStore.doSave("expired2", newSessionData("expired2", now - 1000L));
+        sessionStore.doSave("active", newSessionData("active", now + 60000L));
+
+        // the session data has disappeared without the index being updated
+        values.remove("expired2");
+
+        assertEquals(Set.of("expired1"), sessionStore.getExpiredFromIndex(now));
+        assertFalse(expiryIndex.containsKey("expired2"));
+        assertTrue(expiryIndex.containsKey("active"));
+    }
+
+    @Test
+    void testDoGetExpired() {
+        long now = System.currentTimeMillis();
+        sessionStore.doSave("expired", newSessionData("expired", now - 1000L));
+        sessionStore.doSave("active", newSessionData("active", now + 60000L));
+
+        Set<String> expired = sessionStore.doGetExpired(Set.of("active", "missing"));
+        assertEquals(Set.of("expired", "missing"), expired);
+    }
+
+    @Test
+    void testDeleteRemovesFromExpiryIndex() {
+        long now = System.currentTimeMillis();
+        sessionStore.doSave("session", newSessionData("session", now + 60000L));
+        assertTrue(sessionStore.delete("session"));
+        assertNull(sessionStore.load("session"));
+        assertFalse(expiryIndex.containsKey("session"));
+        assertFalse(sessionStore.delete("session"));
+    }
+
+    /**
+     * Handles the commands used by the session store against in-memory maps.
+     */
+    private Object execute(String method, Object[] args) {
+        switch (method) {
+            case "get":
+                return values.get((String)args[0]);
+            case "set": {
+                String id = (String)args[0];
+                values.put(id, (SessionData)args[1]);
+                CommandArgs<String, String> commandArgs = new CommandArgs<>(StringCodec.UTF8);
+                ((SetArgs)args[2]).build(commandArgs);
+                setArgs.put(id, commandArgs.toCommandString());
+                return "OK";
+            }
+            case "del":
+                return count(args, true);
+            case "exists":
+                return count(args, false);
+            case "dispatch":
+                return dispatch(args[0].toString(), ((CommandArgs<?, ?>)args[2]).toCommandString().split(" "));
+            default:
+                throw new UnsupportedOperationException(method);
+        }
+    }
+
+    private long count(Object[] args, boolean remove) {
+        long count = 0L;
+        for (String id : (String[])args[0]) {
+            if ((remove ? values.remove(id) : values.get(id)) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Object dispatch(String type, String[] args) {
+        switch (type) {
+            case "ZADD":
+                return (expiryIndex.put(args[2], Long.parseLong(args[1])) == null ? 1L : 0L);
+            case "ZREM":
+                return (expiryIndex.remove(args[1]) != null ? 1L : 0L);
+            case "ZRANGEBYSCORE": {
+                long max = Long.parseLong(args[2].substring(1));
+                List<String> ids = new ArrayList<>();
+                for (Map.Entry<String, Long> entry : expiryIndex.entrySet()) {
+                    if (entry.getValue() < max) {
+                        ids.add(entry.getKey());
+                    }
+                }
+                return ids;
+            }
+            default:
+                throw new UnsupportedOperationException(type);
+        }
+    }
+
+    private class InMemoryConnectionPool implements ConnectionPool<StatefulRedisConnection<String, SessionData>> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public StatefulRedisConnection<String, SessionData> getConnection() {
+            RedisCommands<String, SessionData> commands = (RedisCommands<String, SessionData>)Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[] {RedisCommands.class},
+                    (proxy, method, args) -> execute(method.getName(), args));
+            return (StatefulRedisConnection<String, SessionData>)Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[] {StatefulRedisConnection.class},
+                    (proxy, method, args) -> ("sync".equals(method.getName()) ? commands : null));
+        }
+
+        @Override
+        public void initialize(SessionDataCodec codec) {
+        }
+
+        @Override
+        public void destroy() {
+        }
+
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.shell.command.builtins;
+
+import com.aspectran.core.support.metrics.ActivityMetricsReporter;
+import com.aspectran.shell.command.AbstractCommand;
+import com.aspectran.shell.command.CommandRegistry;
+import com.aspectran.shell.command.option.Option;
+import com.aspectran.shell.command.option.ParsedOptions;
+import com.aspectran.shell.console.Console;
+
+/**
+ * A shell command that shows the latencies of the translets performed,
+ * slowest first, and turns the recording of metrics on and off.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+public class MetricsCommand extends AbstractCommand {
+
+    private static final String NAMESPACE = "builtins";
+
+    private static final String COMMAND_NAME = "metrics";
+
+    private final CommandDescriptor descriptor = new CommandDescriptor();
+
+    public MetricsCommand(CommandRegistry registry) {
+        super(registry);
+
+        addOption(Option.builder("l")
+                .longName("list")
+                .hasValue()
+                .optionalValue()
+                .valueName("limit")
+                .desc("Print the metrics of all translets or the given number of slowest translets")
+                .build());
+        addOption(Option.builder("enable")
+                .desc("Start recording metrics")
+                .build());
+        addOption(Option.builder("disable")
+                .desc("Stop recording metrics")
+                .build());
+        addOption(Option.builder("reset")
+                .desc("Discard the metrics recorded so far")
+                .build());
+        addOption(Option.builder("h")
+                .longName("help")
+                .desc("Display help for this command")
+                .build());
+    }
+
+    @Override
+    public void execute(ParsedOptions options, Console console) throws Exception {
+        ActivityMetricsReporter reporter = new ActivityMetricsReporter(
+                getService().getActivityContext().getActivityMetrics());
+        if (options.hasOption("help")) {
+            printHelp(console);
+        } else if (options.hasOption("list")) {
+            String limit = options.getValue("list");
+            console.writeLine(reporter.toTable(limit != null ? Integer.parseInt(limit) : 0));
+        } else if (options.hasOption("enable")) {
+            reporter.enable();
+            console.writeLine("Metrics are now being recorded.");
+        } else if (options.hasOption("disable")) {
+            reporter.disable();
+            console.writeLine("Metrics are no longer being recorded.");
+        } else if (options.hasOption("reset")) {
+            reporter.reset();
+            console.writeLine("Metrics have been reset.");
+        } else {
+            printQuickHelp(console);
+        }
+    }
+
+    @Override
+    public Descriptor getDescriptor() {
+        return descriptor;
+    }
+
+    private static class CommandDescriptor implements Descriptor {
+
+        @Override
+        public String getNamespace() {
+            return NAMESPACE;
+        }
+
+        @Override
+        public String getName() {
+            return COMMAND_NAME;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Show the latencies of translets, or enable or disable recording them";
+        }
+
+        @Override
+        public String getUsage() {
+            return null;
+        }
+
+    }
+
+}
@@ -190,4 +190,9 @@ public class WebActivity extends CoreActivity {
         return localeResolver;
     }
 
+    @Override
+    protected long getBytesReceived() {
+        return (getParentActivity() == null ? request.getContentLengthLong() : -1L);
+    }
+
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.web.activity.request;
+
+import com.aspectran.core.activity.request.SizeLimitExceededException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that fails as soon as more bytes than permitted have
+ * been read from it, rather than after the whole body has been read.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ */
+class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long maxSize;
+
+    private long count;
+
+    private SizeLimitExceededException sizeLimitExceeded;
+
+    /**
+     * Instantiates a new SizeLimitedInputStream.
+     * @param in the underlying input stream
+     * @param maxSize the maximum number of bytes that can be read;
+     *      zero or a negative value means no limit
+     */
+    SizeLimitedInputStream(InputStream in, long maxSize) {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the exception recorded when the limit was exceeded,
+     * so that it can be rethrown if a parser has wrapped the I/O error.
+     * @return the exception, or {@code null} if the limit was not exceeded
+     */
+    SizeLimitExceededException getSizeLimitExceeded() {
+        return sizeLimitExceeded;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long n) throws IOException {
+        count += n;
+        if (maxSize > 0L && count > maxSize) {
+            sizeLimitExceeded = new SizeLimitExceededException("Maximum request size exceeded; actual: " +
+                    count + "; permitted: " + maxSize, count, maxSize);
+            throw new IOException(sizeLimitExceeded.getMessage(), sizeLimitExceeded);
+        }
+    }
+
+}
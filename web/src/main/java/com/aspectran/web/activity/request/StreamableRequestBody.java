@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.web.activity.request;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Implemented by request adapters whose body can be bound to parameters
+ * straight from the request stream, without first reading it as text.
+ * The body can be read only once, either way.
+ *
+ * <p>Created: 2021. 10. 18.</p>
+ *
+ * @since 7.0.5
+ */
+public interface StreamableRequestBody {
+
+    /**
+     * Returns the stream of the request body if it has not been read yet,
+     * and marks the body as read. Once the body has been obtained as a
+     * stream, {@code getBody()} no longer returns the raw text.
+     * @return the stream of the request body, or {@code null} if the body
+     *      has already been read as text
+     * @throws IOException if an I/O error has occurred
+     */
+    InputStream obtainBodyStream() throws IOException;
+
+}
@@ -33,14 +33,25 @@ import com.aspectran.web.support.http.MediaType;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Provides convenient methods to parse the request body.
  *
+ * <p>If the request adapter implements {@link StreamableRequestBody} and the
+ * body has not been read as text yet, the body is bound to parameters
+ * straight from the request stream: form data is decoded byte by byte, and
+ * JSON, APON and XML are read by their parsers as the bytes arrive. The
+ * maximum request size is enforced while reading.</p>
+ *
  * @since 6.2.0
  */
 public class WebRequestBodyParser {
@@ -59,26 +70,18 @@ public class WebRequestBodyParser {
 
     public static String parseBody(InputStream inputStream, String encoding, long maxSize)
             throws IOException, SizeLimitExceededException {
-        StringBuilder sb = new StringBuilder();
         if (encoding == null) {
             encoding = DEFAULT_ENCODING;
         }
-        InputStreamReader reader = new InputStreamReader(inputStream, encoding);
-        char[] buffer = new char[BUFFER_SIZE];
-        int bytesRead;
-        long bytesTotal = 0L;
-        while ((bytesRead = reader.read(buffer)) != -1) {
-            if (maxSize > 0L) {
-                bytesTotal += bytesRead;
-                if (bytesTotal > maxSize) {
-                    throw new SizeLimitExceededException("Maximum request size exceeded; actual: " +
-                            bytesTotal + "; permitted: " + maxSize,
-                            bytesTotal, maxSize);
-                }
+        SizeLimitedInputStream limited = new SizeLimitedInputStream(inputStream, maxSize);
+        try {
+            return new String(limited.readAllBytes(), encoding);
+        } catch (IOException e) {
+            if (limited.getSizeLimitExceeded() != null) {
+                throw limited.getSizeLimitExceeded();
             }
-            sb.append(buffer, 0, bytesRead);
+            throw e;
         }
-        return sb.toString();
     }
 
     public static MultiValueMap<String, String> parseURLEncoded(String body, String encoding)
@@ -102,15 +105,42 @@ public class WebRequestBodyParser {
         return multiValueMap;
     }
 
+    /**
+     * Decodes URL-encoded form data as it is read from the given stream,
+     * with the same result as {@link #parseURLEncoded(String, String)}
+     * for the body read as text.
+     * @param inputStream the stream of the request body
+     * @param encoding the character encoding of the decoded names and values
+     * @param maxSize the maximum number of bytes that can be read;
+     *      zero or a negative value means no limit
+     * @return the names and values, or {@code null} if the body is empty
+     * @throws IOException if an I/O error has occurred
+     * @throws SizeLimitExceededException if the body is larger than permitted
+     * @since 7.0.5
+     */
+    public static MultiValueMap<String, String> parseURLEncoded(InputStream inputStream, String encoding, long maxSize)
+            throws IOException, SizeLimitExceededException {
+        Charset charset = Charset.forName(encoding != null ? encoding : DEFAULT_ENCODING);
+        SizeLimitedInputStream limited = new SizeLimitedInputStream(inputStream, maxSize);
+        try {
+            return new URLEncodedDecoder(charset).decode(limited);
+        } catch (IOException e) {
+            if (limited.getSizeLimitExceeded() != null) {
+                throw limited.getSizeLimitExceeded();
+            }
+            throw e;
+        }
+    }
+
     public static void parseURLEncodedFormData(RequestAdapter requestAdapter) throws RequestParseException {
         try {
-            String body = requestAdapter.getBody();
-            String encoding = requestAdapter.getEncoding();
-            MultiValueMap<String, String> multiValueMap = parseURLEncoded(body, encoding);
+            MultiValueMap<String, String> multiValueMap = parseURLEncoded(requestAdapter);
             if (multiValueMap != null) {
                 requestAdapter.putAllParameters(multiValueMap);
                 requestAdapter.setBody(null);
             }
+        } catch (SizeLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             throw new RequestParseException("Could not parse HTTP " + requestAdapter.getRequestMethod() +
                     " request body", e);
@@ -120,11 +150,7 @@ public class WebRequestBodyParser {
     public static <T extends Parameters> T parseURLEncodedAsParameters(
             RequestAdapter requestAdapter, Class<T> requiredType) throws RequestParseException {
         try {
-            String encoding = requestAdapter.getEncoding();
-            if (encoding == null) {
-                encoding = DEFAULT_ENCODING;
-            }
-            MultiValueMap<String, String> multiValueMap = parseURLEncoded(requestAdapter.getBody(), encoding);
+            MultiValueMap<String, String> multiValueMap = parseURLEncoded(requestAdapter);
             if (multiValueMap != null && !multiValueMap.isEmpty()) {
                 T parameters = ClassUtils.createInstance(requiredType);
                 for (Map.Entry<String, List<String>> entry : multiValueMap.entrySet()) {
@@ -135,6 +161,8 @@ public class WebRequestBodyParser {
                 }
                 return parameters;
             }
+        } catch (SizeLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             throw new RequestParseException("Failed to parse URL-encoded form request body to required type [" +
                     requiredType.getName() + "]", e);
@@ -142,6 +170,17 @@ public class WebRequestBodyParser {
         return null;
     }
 
+    private static MultiValueMap<String, String> parseURLEncoded(RequestAdapter requestAdapter)
+            throws IOException, SizeLimitExceededException {
+        String encoding = getEncoding(requestAdapter);
+        InputStream inputStream = obtainBodyStream(requestAdapter);
+        if (inputStream != null) {
+            return parseURLEncoded(inputStream, encoding, requestAdapter.getMaxRequestSize());
+        } else {
+            return parseURLEncoded(requestAdapter.getBody(), encoding);
+        }
+    }
+
     public static <T extends Parameters> T parseBodyAsParameters(
             RequestAdapter requestAdapter, @Nullable MediaType mediaType, Class<T> requiredType)
             throws RequestParseException {
@@ -150,27 +189,58 @@ public class WebRequestBodyParser {
         }
         if (isURLEncodedForm(mediaType)) {
             return parseURLEncodedAsParameters(requestAdapter, requiredType);
-        } else if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(mediaType)) {
-            try {
-                return JsonToApon.from(requestAdapter.getBody(), requiredType);
-            } catch (IOException e) {
-                throw new RequestParseException("Failed to parse request body of JSON format to required type [" +
-                    requiredType.getName() + "]", e);
-            }
+        }
+        String format;
+        if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(mediaType)) {
+            format = "JSON";
         } else if (MediaType.APPLICATION_APON.equalsTypeAndSubtype(mediaType)) {
-            return RequestBodyParser.parseBodyAsParameters(requestAdapter.getBody(), requiredType);
+            format = "APON";
         } else if (MediaType.APPLICATION_XML.equalsTypeAndSubtype(mediaType)) {
-            try {
-                return XmlToApon.from(requestAdapter.getBody(), requiredType);
-            } catch (IOException e) {
-                throw new RequestParseException("Failed to parse request body of XML format to required type [" +
-                        requiredType.getName() + "]", e);
-            }
+            format = "XML";
         } else {
             return null;
         }
+        SizeLimitedInputStream limited = null;
+        try {
+            Reader reader;
+            InputStream inputStream = obtainBodyStream(requestAdapter);
+            if (inputStream != null) {
+                limited = new SizeLimitedInputStream(inputStream, requestAdapter.getMaxRequestSize());
+                PushbackReader pushbackReader = new PushbackReader(
+                        new InputStreamReader(limited, getEncoding(requestAdapter)));
+                int c = pushbackReader.read();
+                if (c == -1) {
+                    return null;
+                }
+                pushbackReader.unread(c);
+                reader = pushbackReader;
+            } else {
+                String body = requestAdapter.getBody();
+                if (StringUtils.isEmpty(body)) {
+                    return null;
+                }
+                reader = new StringReader(body);
+            }
+            switch (format) {
+                case "JSON":
+                    return JsonToApon.from(reader, requiredType);
+                case "APON":
+                    return RequestBodyParser.parseBodyAsParameters(reader, requiredType);
+                default:
+                    return XmlToApon.from(reader, requiredType);
+            }
+        } catch (IOException | RequestParseException e) {
+            if (limited != null && limited.getSizeLimitExceeded() != null) {
+                throw limited.getSizeLimitExceeded();
+            }
+            if (e instanceof RequestParseException) {
+                throw (RequestParseException)e;
+            }
+            throw new RequestParseException("Failed to parse request body of " + format +
+                    " format to required type [" + requiredType.getName() + "]", e);
+        }
     }
-    
+
     public static boolean isMultipartForm(MethodType requestMethod, MediaType mediaType) {
         return MethodType.POST.equals(requestMethod) &&
             MediaType.MULTIPART_FORM_DATA.equalsTypeAndSubtype(mediaType);
@@ -180,4 +250,125 @@ public class WebRequestBodyParser {
         return MediaType.APPLICATION_FORM_URLENCODED.equalsTypeAndSubtype(mediaType);
     }
 
+    private static String getEncoding(RequestAdapter requestAdapter) {
+        String encoding = requestAdapter.getEncoding();
+        return (encoding != null ? encoding : DEFAULT_ENCODING);
+    }
+
+    private static InputStream obtainBodyStream(RequestAdapter requestAdapter) throws IOException {
+        if (requestAdapter instanceof StreamableRequestBody) {
+            return ((StreamableRequestBody)requestAdapter).obtainBodyStream();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes URL-encoded form data at the byte level, so that the body does
+     * not have to be read into a string and split before each name and value
+     * is decoded.
+     */
+    private static class URLEncodedDecoder {
+
+        private final Charset charset;
+
+        private byte[] bytes = new byte[64];
+
+        private int length;
+
+        private String name;
+
+        private boolean pending;
+
+        private MultiValueMap<String, String> multiValueMap;
+
+        URLEncodedDecoder(Charset charset) {
+            this.charset = charset;
+        }
+
+        MultiValueMap<String, String> decode(InputStream inputStream) throws IOException {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int escape = 0;
+            int digit = 0;
+            int n;
+            while ((n = inputStream.read(buffer)) != -1) {
+                if (n > 0 && multiValueMap == null) {
+                    multiValueMap = new LinkedMultiValueMap<>();
+                }
+                for (int i = 0; i < n; i++) {
+                    byte b = buffer[i];
+                    if (escape > 0) {
+                        int d = Character.digit(b, 16);
+                        if (d == -1) {
+                            throw new IllegalArgumentException(
+                                    "URLDecoder: Illegal hex characters in escape (%) pattern");
+                        }
+                        if (escape == 1) {
+                            digit = d;
+                            escape = 2;
+                        } else {
+                            append((byte)((digit << 4) + d));
+                            escape = 0;
+                        }
+                        continue;
+                    }
+                    switch (b) {
+                        case '&':
+                            endPair();
+                            break;
+                        case '=':
+                            if (name == null) {
+                                name = toText();
+                                pending = true;
+                            } else {
+                                append(b);
+                            }
+                            break;
+                        case '+':
+                            append((byte)' ');
+                            break;
+                        case '%':
+                            pending = true;
+                            escape = 1;
+                            break;
+                        default:
+                            append(b);
+                    }
+                }
+            }
+            if (escape > 0) {
+                throw new IllegalArgumentException("URLDecoder: Incomplete trailing escape (%) pattern");
+            }
+            endPair();
+            return multiValueMap;
+        }
+
+        private void append(byte b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, length << 1);
+            }
+            bytes[length++] = b;
+            pending = true;
+        }
+
+        private String toText() {
+            String text = new String(bytes, 0, length, charset);
+            length = 0;
+            return text;
+        }
+
+        private void endPair() {
+            if (pending) {
+                if (name != null) {
+                    multiValueMap.add(name, toText());
+                } else {
+                    multiValueMap.add(toText(), null);
+                }
+            }
+            name = null;
+            pending = false;
+        }
+
+    }
+
 }
@@ -30,7 +30,6 @@ import com.aspectran.web.support.http.HttpMediaTypeNotAcceptableException;
 import com.aspectran.web.support.http.HttpStatus;
 import com.aspectran.web.support.http.MediaType;
 
-import javax.xml.transform.TransformerException;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
@@ -225,7 +224,7 @@ public class DefaultRestResponse extends AbstractRestResponse {
         }
     }
 
-    private void toXML(Activity activity, String encoding, int indent) throws IOException, TransformerException {
+    private void toXML(Activity activity, String encoding, int indent) throws IOException {
         if (getName() != null || getData() != null) {
             ResponseAdapter responseAdapter = activity.getResponseAdapter();
             Writer writer = responseAdapter.getWriter();
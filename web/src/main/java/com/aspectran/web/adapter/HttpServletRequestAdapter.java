@@ -24,6 +24,7 @@ import com.aspectran.core.util.apon.Parameters;
 import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
 import com.aspectran.web.activity.request.RequestAttributeMap;
+import com.aspectran.web.activity.request.StreamableRequestBody;
 import com.aspectran.web.activity.request.WebRequestBodyParser;
 import com.aspectran.web.support.http.MediaType;
 import jakarta.servlet.http.HttpServletRequest;
@@ -39,7 +40,7 @@ import java.util.Map;
  * 
  * @since 2011. 3. 13.
  */
-public class HttpServletRequestAdapter extends AbstractRequestAdapter {
+public class HttpServletRequestAdapter extends AbstractRequestAdapter implements StreamableRequestBody {
 
     private static final Logger logger = LoggerFactory.getLogger(HttpServletRequestAdapter.class);
 
@@ -111,6 +112,16 @@ public class HttpServletRequestAdapter extends AbstractRequestAdapter {
         return super.getBody();
     }
 
+    @Override
+    public InputStream obtainBodyStream() throws IOException {
+        if (!bodyObtained) {
+            bodyObtained = true;
+            return getInputStream();
+        } else {
+            return null;
+        }
+    }
+
     @Override
     public <T extends Parameters> T getBodyAsParameters(Class<T> requiredType) throws RequestParseException {
         if (getMediaType() != null) {
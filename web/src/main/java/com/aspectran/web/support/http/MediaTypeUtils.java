@@ -17,7 +17,7 @@ package com.aspectran.web.support.http;
 
 import com.aspectran.core.util.StringUtils;
 import com.aspectran.core.util.cache.Cache;
-import com.aspectran.core.util.cache.ConcurrentLruCache;
+import com.aspectran.core.util.cache.ConcurrentTinyLfuCache;
 
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.ArrayList;
@@ -41,7 +41,7 @@ import java.util.Map;
 public abstract class MediaTypeUtils {
 
     private static final Cache<String, MediaType> cachedMimeTypes =
-        new ConcurrentLruCache<>(64, MediaTypeUtils::parseMediaTypeInternal);
+        new ConcurrentTinyLfuCache<>(64, MediaTypeUtils::parseMediaTypeInternal);
 
     /**
      * Parse the given String into a single {@code MediaType}.
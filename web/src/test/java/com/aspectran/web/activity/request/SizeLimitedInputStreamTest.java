@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.web.activity.request;
+
+import com.aspectran.core.activity.request.SizeLimitExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test cases for {@link SizeLimitedInputStream}.
+ */
+class SizeLimitedInputStreamTest {
+
+    @Test
+    void testReadExactlyAtLimit() throws IOException {
+        SizeLimitedInputStream in = new SizeLimitedInputStream(stream(10), 10);
+        assertEquals(10, in.readAllBytes().length);
+        assertEquals(-1, in.read());
+        assertNull(in.getSizeLimitExceeded());
+    }
+
+    @Test
+    void testReadPastLimit() {
+        SizeLimitedInputStream in = new SizeLimitedInputStream(stream(11), 10);
+        IOException e = assertThrows(IOException.class, in::readAllBytes);
+        SizeLimitExceededException cause = in.getSizeLimitExceeded();
+        assertNotNull(cause);
+        assertEquals(cause, e.getCause());
+        assertEquals(10, cause.getPermitted());
+        assertEquals(11, cause.getActual());
+    }
+
+    @Test
+    void testSingleByteReadPastLimit() throws IOException {
+        SizeLimitedInputStream in = new SizeLimitedInputStream(stream(3), 2);
+        assertEquals(0, in.read());
+        assertEquals(1, in.read());
+        assertThrows(IOException.class, in::read);
+        assertNotNull(in.getSizeLimitExceeded());
+    }
+
+    @Test
+    void testSkipCountsTowardsLimit() throws IOException {
+        SizeLimitedInputStream in = new SizeLimitedInputStream(stream(10), 5);
+        assertEquals(5, in.skip(5));
+        assertThrows(IOException.class, in::read);
+    }
+
+    @Test
+    void testNoLimit() throws IOException {
+        assertEquals(4096, new SizeLimitedInputStream(stream(4096), 0).readAllBytes().length);
+        assertEquals(4096, new SizeLimitedInputStream(stream(4096), -1).readAllBytes().length);
+    }
+
+    @Test
+    void testEmptyStream() throws IOException {
+        SizeLimitedInputStream in = new SizeLimitedInputStream(stream(0), 1);
+        assertEquals(0, in.readAllBytes().length);
+        assertNull(in.getSizeLimitExceeded());
+    }
+
+    private static InputStream stream(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte)i;
+        }
+        return new ByteArrayInputStream(bytes);
+    }
+
+}
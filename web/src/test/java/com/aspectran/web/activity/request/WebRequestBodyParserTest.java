@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.web.activity.request;
+
+import com.aspectran.core.activity.request.SizeLimitExceededException;
+import com.aspectran.core.util.MultiValueMap;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test cases for {@link WebRequestBodyParser}.
+ */
+class WebRequestBodyParserTest {
+
+    @Test
+    void testParseURLEncoded() throws Exception {
+        String body = "a=1&b=hello+world&c=%3D%26&d&e=&a=2";
+        MultiValueMap<String, String> map = parse(body, "UTF-8");
+        assertEquals(Arrays.asList("1", "2"), map.get("a"));
+        assertEquals("hello world", map.getFirst("b"));
+        assertEquals("=&", map.getFirst("c"));
+        assertEquals(Collections.singletonList(null), map.get("d"));
+        assertEquals("", map.getFirst("e"));
+        assertEquals(WebRequestBodyParser.parseURLEncoded(body, "UTF-8"), map);
+    }
+
+    @Test
+    void testParseURLEncodedReadInSmallChunks() throws Exception {
+        String body = "name=%ED%95%9C%EA%B8%80+text&x%2By=1+%2B+1";
+        for (int chunkSize = 1; chunkSize <= 4; chunkSize++) {
+            InputStream in = new ChunkedInputStream(body.getBytes(StandardCharsets.US_ASCII), chunkSize);
+            MultiValueMap<String, String> map = WebRequestBodyParser.parseURLEncoded(in, "UTF-8", 0L);
+            assertEquals("한글 text", map.getFirst("name"));
+            assertEquals("1 + 1", map.getFirst("x+y"));
+        }
+    }
+
+    @Test
+    void testParseURLEncodedAcrossBufferBoundary() throws Exception {
+        // places an escape and a plus sign right at the end of the 1024-byte read buffer
+        for (int pad = 1018; pad <= 1024; pad++) {
+            StringBuilder sb = new StringBuilder("a=");
+            for (int i = 2; i < pad; i++) {
+                sb.append('x');
+            }
+            String prefix = sb.substring(2);
+            sb.append("%41+%42&b=c");
+            MultiValueMap<String, String> map = parse(sb.toString(), "UTF-8");
+            assertEquals(prefix + "A B", map.getFirst("a"));
+            assertEquals("c", map.getFirst("b"));
+        }
+    }
+
+    @Test
+    void testParseURLEncodedWithMalformedEscape() {
+        assertThrows(IllegalArgumentException.class, () -> parse("a=%zz", "UTF-8"));
+        assertThrows(IllegalArgumentException.class, () -> parse("a=%4g&b=1", "UTF-8"));
+        assertThrows(IllegalArgumentException.class, () -> parse("a=%4", "UTF-8"));
+        assertThrows(IllegalArgumentException.class, () -> parse("a=%", "UTF-8"));
+    }
+
+    @Test
+    void testParseURLEncodedWithCharset() throws Exception {
+        assertEquals("café", parse("v=caf%E9", "ISO-8859-1").getFirst("v"));
+        assertEquals("café", parse("v=caf%C3%A9", "UTF-8").getFirst("v"));
+        // the default encoding is ISO-8859-1
+        assertEquals("café", parse("v=caf%E9", null).getFirst("v"));
+    }
+
+    @Test
+    void testParseURLEncodedEmptyBody() throws Exception {
+        assertNull(parse("", "UTF-8"));
+        assertNull(WebRequestBodyParser.parseURLEncoded("", "UTF-8"));
+    }
+
+    @Test
+    void testParseURLEncodedSizeLimit() throws Exception {
+        String body = "a=1&b=2";
+        int size = body.length();
+        assertEquals("2", WebRequestBodyParser.parseURLEncoded(stream(body), "UTF-8", size).getFirst("b"));
+        SizeLimitExceededException e = assertThrows(SizeLimitExceededException.class,
+                () -> WebRequestBodyParser.parseURLEncoded(stream(body), "UTF-8", size - 1));
+        assertEquals(size - 1, e.getPermitted());
+    }
+
+    @Test
+    void testParseBodySizeLimit() throws Exception {
+        String body = "0123456789";
+        assertEquals(body, WebRequestBodyParser.parseBody(stream(body), "UTF-8", 10L));
+        assertEquals(body, WebRequestBodyParser.parseBody(stream(body), "UTF-8", 0L));
+        assertThrows(SizeLimitExceededException.class,
+                () -> WebRequestBodyParser.parseBody(stream(body), "UTF-8", 9L));
+        assertEquals("", WebRequestBodyParser.parseBody(stream(""), "UTF-8", 1L));
+    }
+
+    private static MultiValueMap<String, String> parse(String body, String encoding) throws Exception {
+        return WebRequestBodyParser.parseURLEncoded(stream(body), encoding, 0L);
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns no more than the given number of bytes per read.
+     */
+    private static class ChunkedInputStream extends ByteArrayInputStream {
+
+        private final int chunkSize;
+
+        ChunkedInputStream(byte[] buf, int chunkSize) {
+            super(buf);
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, chunkSize));
+        }
+
+    }
+
+}
@@ -15,12 +15,13 @@
  */
 package com.aspectran.freemarker;
 
+import com.aspectran.core.component.bean.ablility.DisposableBean;
+import com.aspectran.core.component.template.engine.CompiledTemplateCache;
 import com.aspectran.core.component.template.engine.TemplateEngine;
 import com.aspectran.core.component.template.engine.TemplateEngineProcessException;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 
-import java.io.Reader;
 import java.io.StringReader;
 import java.io.Writer;
 import java.util.Locale;
@@ -29,22 +30,37 @@ import java.util.Map;
 /**
  * The Class FreeMarkerTemplateEngine.
  *
+ * <p>Templates given as source are parsed once and kept in a bounded
+ * {@link CompiledTemplateCache}, which is cleared when this engine
+ * is destroyed.</p>
+ *
  * <p>Created: 2016. 1. 9.</p>
  */
-public class FreeMarkerTemplateEngine implements TemplateEngine {
+public class FreeMarkerTemplateEngine implements TemplateEngine, DisposableBean {
 
     private final Configuration configuration;
 
+    private final CompiledTemplateCache<Template> compiledTemplateCache;
+
     public FreeMarkerTemplateEngine(Configuration configuration) {
+        this(configuration, CompiledTemplateCache.DEFAULT_CAPACITY);
+    }
+
+    public FreeMarkerTemplateEngine(Configuration configuration, int templateCacheCapacity) {
         this.configuration = configuration;
+        this.compiledTemplateCache = new CompiledTemplateCache<>(templateCacheCapacity, (templateName, templateSource) ->
+                new Template(templateName, new StringReader(templateSource), configuration));
+    }
+
+    public CompiledTemplateCache<Template> getCompiledTemplateCache() {
+        return compiledTemplateCache;
     }
 
     @Override
     public void process(String templateName, Map<String, Object> model, String templateSource, Writer writer)
             throws TemplateEngineProcessException {
         try {
-            Reader reader = new StringReader(templateSource);
-            Template template = new Template(templateName, reader, configuration);
+            Template template = compiledTemplateCache.get(templateName, templateSource);
             template.process(model, writer);
             writer.flush();
         } catch (Exception e) {
@@ -70,4 +86,9 @@ public class FreeMarkerTemplateEngine implements TemplateEngine {
         }
     }
 
+    @Override
+    public void destroy() {
+        compiledTemplateCache.clear();
+    }
+
 }
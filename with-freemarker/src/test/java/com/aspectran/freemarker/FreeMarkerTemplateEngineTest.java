@@ -80,4 +80,20 @@ class FreeMarkerTemplateEngineTest {
         assertEquals(result1, translet.toString());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testInlineTemplateCompiledOnce() {
+        FreeMarkerTemplateEngine engine = aspectran.getBean("freemarker");
+        aspectran.translate("echo-1");
+        long misses = engine.getCompiledTemplateCache().getMissCount();
+        long hits = engine.getCompiledTemplateCache().getHitCount();
+
+        ParameterMap params = new ParameterMap();
+        params.setParameter("input_1", "abc");
+        Translet translet = aspectran.translate("echo-1", params);
+
+        assertEquals("abc67890", translet.toString());
+        assertEquals(misses, engine.getCompiledTemplateCache().getMissCount());
+        assertEquals(hits + 1, engine.getCompiledTemplateCache().getHitCount());
+    }
+
+}
@@ -15,6 +15,8 @@
  */
 package com.aspectran.pebble;
 
+import com.aspectran.core.component.bean.ablility.DisposableBean;
+import com.aspectran.core.component.template.engine.CompiledTemplateCache;
 import com.aspectran.core.component.template.engine.TemplateEngine;
 import com.aspectran.core.component.template.engine.TemplateEngineProcessException;
 import com.mitchellbosecke.pebble.PebbleEngine;
@@ -27,21 +29,37 @@ import java.util.Map;
 /**
  * The Class PebbleTemplateEngine.
  *
+ * <p>Templates given as source are compiled once and kept in a bounded
+ * {@link CompiledTemplateCache}, which is cleared when this engine
+ * is destroyed.</p>
+ *
  * <p>Created: 2016. 1. 9.</p>
  */
-public class PebbleTemplateEngine implements TemplateEngine {
+public class PebbleTemplateEngine implements TemplateEngine, DisposableBean {
 
     private final PebbleEngine pebbleEngine;
 
+    private final CompiledTemplateCache<PebbleTemplate> compiledTemplateCache;
+
     public PebbleTemplateEngine(PebbleEngine pebbleEngine) {
+        this(pebbleEngine, CompiledTemplateCache.DEFAULT_CAPACITY);
+    }
+
+    public PebbleTemplateEngine(PebbleEngine pebbleEngine, int templateCacheCapacity) {
         this.pebbleEngine = pebbleEngine;
+        this.compiledTemplateCache = new CompiledTemplateCache<>(templateCacheCapacity, (templateName, templateSource) ->
+                pebbleEngine.getLiteralTemplate(templateSource));
+    }
+
+    public CompiledTemplateCache<PebbleTemplate> getCompiledTemplateCache() {
+        return compiledTemplateCache;
     }
 
     @Override
     public void process(String templateName, Map<String, Object> model, String templateSource, Writer writer)
             throws TemplateEngineProcessException {
         try {
-            PebbleTemplate compiledTemplate = pebbleEngine.getTemplate(templateSource);
+            PebbleTemplate compiledTemplate = compiledTemplateCache.get(templateName, templateSource);
             compiledTemplate.evaluate(writer, model);
             writer.flush();
         } catch (Exception e) {
@@ -66,5 +84,10 @@ public class PebbleTemplateEngine implements TemplateEngine {
             throw new TemplateEngineProcessException(e);
         }
     }
-    
+
+    @Override
+    public void destroy() {
+        compiledTemplateCache.clear();
+    }
+
 }
@@ -69,4 +69,20 @@ class PebbleTemplateEngineTest {
         assertEquals(result1, translet.toString());
     }
 
+    @Test
+    void testInlineTemplateCompiledOnce() {
+        PebbleTemplateEngine engine = aspectran.getBean("pebble");
+        aspectran.translate("echo-1");
+        long misses = engine.getCompiledTemplateCache().getMissCount();
+        long hits = engine.getCompiledTemplateCache().getHitCount();
+
+        ParameterMap params = new ParameterMap();
+        params.setParameter("input_1", "abc");
+        Translet translet = aspectran.translate("echo-1", params);
+
+        assertEquals("abc67890", translet.toString());
+        assertEquals(misses, engine.getCompiledTemplateCache().getMissCount());
+        assertEquals(hits + 1, engine.getCompiledTemplateCache().getHitCount());
+    }
+
 }
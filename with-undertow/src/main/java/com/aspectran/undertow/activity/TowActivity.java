@@ -82,6 +82,24 @@ public class TowActivity extends CoreActivity {
         super.prepare(transletName, requestMethod);
     }
 
+    /**
+     * Returns the maximum size in bytes of the request body allowed by the
+     * {@code maxRequestSize} setting. Available once the activity has been
+     * prepared, before the request body is read.
+     * @return the maximum request size, or -1 if it is not limited by the setting
+     * @since 7.0.5
+     */
+    public long getMaxRequestSize() {
+        String maxRequestSizeSetting = getSetting(MAX_REQUEST_SIZE_SETTING_NAME);
+        if (!StringUtils.isEmpty(maxRequestSizeSetting)) {
+            long maxRequestSize = Long.parseLong(maxRequestSizeSetting);
+            if (maxRequestSize >= 0L) {
+                return maxRequestSize;
+            }
+        }
+        return -1L;
+    }
+
     @Override
     protected void adapt() throws AdapterException {
         try {
@@ -101,11 +119,11 @@ public class TowActivity extends CoreActivity {
 
             TowRequestAdapter requestAdapter = new TowRequestAdapter(getTranslet().getRequestMethod(), exchange);
             if (getParentActivity() == null) {
-                String maxRequestSizeSetting = getSetting(MAX_REQUEST_SIZE_SETTING_NAME);
-                if (!StringUtils.isEmpty(maxRequestSizeSetting)) {
-                    long maxRequestSize = Long.parseLong(maxRequestSizeSetting);
-                    if (maxRequestSize >= 0L) {
-                        requestAdapter.setMaxRequestSize(maxRequestSize);
+                long maxRequestSize = getMaxRequestSize();
+                if (maxRequestSize >= 0L) {
+                    requestAdapter.setMaxRequestSize(maxRequestSize);
+                    // a body received on the IO thread was already limited to this size
+                    if (exchange.isRequestChannelAvailable()) {
                         exchange.setMaxEntitySize(maxRequestSize);
                     }
                 }
@@ -195,4 +213,14 @@ public class TowActivity extends CoreActivity {
         return localeResolver;
     }
 
+    @Override
+    protected long getBytesReceived() {
+        return (getParentActivity() == null ? exchange.getRequestContentLength() : -1L);
+    }
+
+    @Override
+    protected long getBytesSent() {
+        return (getParentActivity() == null ? exchange.getResponseBytesSent() : -1L);
+    }
+
 }
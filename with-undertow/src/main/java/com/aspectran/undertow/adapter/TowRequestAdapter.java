@@ -22,13 +22,16 @@ import com.aspectran.core.util.MultiValueMap;
 import com.aspectran.core.util.apon.Parameters;
 import com.aspectran.core.util.logging.Logger;
 import com.aspectran.core.util.logging.LoggerFactory;
+import com.aspectran.web.activity.request.StreamableRequestBody;
 import com.aspectran.web.activity.request.WebRequestBodyParser;
 import com.aspectran.web.support.http.MediaType;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.util.AttachmentKey;
 import io.undertow.util.HeaderValues;
 import io.undertow.util.Headers;
 import io.undertow.util.LocaleUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Deque;
@@ -41,10 +44,17 @@ import java.util.Map;
  *
  * <p>Created: 2019-07-27</p>
  */
-public class TowRequestAdapter extends AbstractRequestAdapter {
+public class TowRequestAdapter extends AbstractRequestAdapter implements StreamableRequestBody {
 
     private static final Logger logger = LoggerFactory.getLogger(TowRequestAdapter.class);
 
+    /**
+     * The key of the exchange attachment that holds the request body
+     * already received on the IO thread.
+     * @since 7.0.5
+     */
+    public static final AttachmentKey<byte[]> RECEIVED_BODY_KEY = AttachmentKey.create(byte[].class);
+
     private boolean headersObtained;
 
     private boolean encodingObtained;
@@ -94,6 +104,10 @@ public class TowRequestAdapter extends AbstractRequestAdapter {
 
     @Override
     public InputStream getInputStream() throws IOException {
+        byte[] receivedBody = getHttpServerExchange().getAttachment(RECEIVED_BODY_KEY);
+        if (receivedBody != null) {
+            return new ByteArrayInputStream(receivedBody);
+        }
         return getHttpServerExchange().getInputStream();
     }
 
@@ -114,6 +128,16 @@ public class TowRequestAdapter extends AbstractRequestAdapter {
         return super.getBody();
     }
 
+    @Override
+    public InputStream obtainBodyStream() throws IOException {
+        if (!bodyObtained) {
+            bodyObtained = true;
+            return getInputStream();
+        } else {
+            return null;
+        }
+    }
+
     @Override
     public <T extends Parameters> T getBodyAsParameters(Class<T> requiredType) throws RequestParseException {
         if (getMediaType() != null) {
@@ -15,23 +15,52 @@
  */
 package com.aspectran.undertow.server.http;
 
+import com.aspectran.core.util.logging.Logger;
+import com.aspectran.core.util.logging.LoggerFactory;
+import com.aspectran.undertow.activity.TowActivity;
+import com.aspectran.undertow.adapter.TowRequestAdapter;
 import com.aspectran.undertow.server.resource.StaticResourceHandler;
 import com.aspectran.undertow.service.TowService;
+import com.aspectran.web.support.http.HttpStatus;
+import com.aspectran.web.support.http.MediaType;
 import io.undertow.server.ExchangeCompletionListener;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.io.Receiver;
+import io.undertow.server.RequestTooBigException;
 import io.undertow.server.handlers.resource.ResourceHandler;
 import io.undertow.server.handlers.resource.ResourceManager;
 import io.undertow.server.handlers.resource.ResourceSupplier;
 import io.undertow.server.session.Session;
 import io.undertow.server.session.SessionConfig;
 import io.undertow.server.session.SessionManager;
+import io.undertow.util.Headers;
+
+import java.util.concurrent.Executor;
 
 /**
+ * <p>By default, a request is dispatched from the IO thread to the XNIO worker
+ * pool, where its body is read with blocking I/O. Two options change that:</p>
+ * <ul>
+ * <li>{@code asyncRequestBody}: the request body is read on the IO thread
+ *     with Undertow's receiver API, and the request is dispatched only once
+ *     the whole body has arrived, so a slow upload does not hold a thread.
+ *     The activity is prepared first, and the body is limited while it is
+ *     received to the {@code maxRequestSize} setting of the translet, or else
+ *     to the maximum entity size of the server, or else to
+ *     {@code maxBufferedRequestSize}. Multipart bodies, which may be large
+ *     files, and requests not handled by a translet are still read by the
+ *     activity.</li>
+ * <li>{@code dispatchExecutor}: the executor that runs activities instead
+ *     of the worker pool, e.g. a virtual-thread-per-task executor.</li>
+ * </ul>
+ *
  * <p>Created: 2019-07-31</p>
  */
 public class HttpHybridHandler extends ResourceHandler {
 
+    private static final Logger logger = LoggerFactory.getLogger(HttpHybridHandler.class);
+
     private volatile StaticResourceHandler staticResourceHandler;
 
     private volatile SessionManager sessionManager;
@@ -40,6 +69,15 @@ public class HttpHybridHandler extends ResourceHandler {
 
     private volatile TowService towService;
 
+    /** The default limit of request bodies read on the IO thread, 10 MB */
+    public static final long DEFAULT_MAX_BUFFERED_REQUEST_SIZE = 10L * 1024 * 1024;
+
+    private volatile boolean asyncRequestBody;
+
+    private volatile long maxBufferedRequestSize = DEFAULT_MAX_BUFFERED_REQUEST_SIZE;
+
+    private volatile Executor dispatchExecutor;
+
     public HttpHybridHandler(ResourceManager resourceManager) {
         super(resourceManager);
     }
@@ -80,10 +118,97 @@ public class HttpHybridHandler extends ResourceHandler {
         this.towService = towService;
     }
 
+    public boolean isAsyncRequestBody() {
+        return asyncRequestBody;
+    }
+
+    /**
+     * Sets whether to read the request body on the IO thread before
+     * dispatching the request. The body is limited by the
+     * {@code maxRequestSize} setting of the translet, or else by the maximum
+     * entity size of the server, or else by {@code maxBufferedRequestSize}.
+     * @param asyncRequestBody true to read the request body asynchronously
+     * @since 7.0.5
+     */
+    public void setAsyncRequestBody(boolean asyncRequestBody) {
+        this.asyncRequestBody = asyncRequestBody;
+    }
+
+    public long getMaxBufferedRequestSize() {
+        return maxBufferedRequestSize;
+    }
+
+    /**
+     * Sets the maximum size in bytes of a request body read on the IO thread
+     * when neither the translet nor the server limits it. Defaults to
+     * {@value #DEFAULT_MAX_BUFFERED_REQUEST_SIZE} bytes.
+     * @param maxBufferedRequestSize the maximum size of a buffered request body
+     * @since 7.0.5
+     */
+    public void setMaxBufferedRequestSize(long maxBufferedRequestSize) {
+        if (maxBufferedRequestSize <= 0L) {
+            throw new IllegalArgumentException("maxBufferedRequestSize must be greater than 0");
+        }
+        this.maxBufferedRequestSize = maxBufferedRequestSize;
+    }
+
+    public Executor getDispatchExecutor() {
+        return dispatchExecutor;
+    }
+
+    /**
+     * Sets the executor that runs activities instead of the XNIO worker pool.
+     * @param dispatchExecutor the executor, or {@code null} to use the worker pool
+     * @since 7.0.5
+     */
+    public void setDispatchExecutor(Executor dispatchExecutor) {
+        this.dispatchExecutor = dispatchExecutor;
+    }
+
     @Override
     public void handleRequest(HttpServerExchange exchange) throws Exception {
         if (exchange.isInIoThread()) {
-            exchange.dispatch(this);
+            TowActivity activity = null;
+            if (asyncRequestBody && hasBufferableBody(exchange)) {
+                activity = towService.prepare(exchange);
+            }
+            if (activity != null) {
+                long maxSize = getMaxBufferedRequestSize(exchange, activity);
+                if (exchange.getRequestContentLength() > maxSize) {
+                    // the unread body cannot be skipped, so close the connection
+                    exchange.setPersistent(false);
+                    exchange.setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE.value());
+                    exchange.endExchange();
+                    return;
+                }
+                // aborts the receiver as soon as more bytes arrive than allowed;
+                // a chunked body that crosses the limit terminates the connection
+                exchange.setMaxEntitySize(maxSize);
+                Receiver receiver = exchange.getRequestReceiver();
+                receiver.setMaxBufferSize((int)Math.min(maxSize, Integer.MAX_VALUE));
+                receiver.receiveFullBytes(
+                    (ex, body) -> {
+                        if (body.length > 0) {
+                            ex.putAttachment(TowRequestAdapter.RECEIVED_BODY_KEY, body);
+                        }
+                        dispatch(ex);
+                    },
+                    (ex, e) -> {
+                        if (e instanceof RequestTooBigException) {
+                            ex.setPersistent(false);
+                            ex.setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE.value());
+                        } else {
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Failed to receive request body", e);
+                            }
+                            ex.setStatusCode(HttpStatus.BAD_REQUEST.value());
+                        }
+                        ex.endExchange();
+                    }
+                );
+            } else {
+                dispatch(exchange);
+            }
         } else {
             if (staticResourceHandler != null) {
                 staticResourceHandler.handleRequest(exchange);
@@ -106,6 +231,48 @@ public class HttpHybridHandler extends ResourceHandler {
         }
     }
 
+    private void dispatch(HttpServerExchange exchange) {
+        Executor executor = dispatchExecutor;
+        if (executor != null) {
+            exchange.dispatch(executor, this);
+        } else {
+            exchange.dispatch(this);
+        }
+    }
+
+    private long getMaxBufferedRequestSize(HttpServerExchange exchange, TowActivity activity) {
+        long maxSize;
+        try {
+            maxSize = activity.getMaxRequestSize();
+        } catch (Exception e) {
+            // the setting is reported when the activity binds it
+            maxSize = -1L;
+        }
+        if (maxSize < 0L) {
+            maxSize = exchange.getMaxEntitySize();
+        }
+        if (maxSize <= 0L) {
+            maxSize = maxBufferedRequestSize;
+        }
+        return maxSize;
+    }
+
+    private static boolean hasBufferableBody(HttpServerExchange exchange) {
+        if (exchange.isRequestComplete()) {
+            return false;
+        }
+        long contentLength = exchange.getRequestContentLength();
+        if (contentLength == 0L) {
+            return false;
+        }
+        if (contentLength == -1L && !exchange.getRequestHeaders().contains(Headers.TRANSFER_ENCODING)) {
+            return false;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst(Headers.CONTENT_TYPE);
+        return (contentType == null || !contentType.regionMatches(true, 0,
+                MediaType.MULTIPART_FORM_DATA_VALUE, 0, MediaType.MULTIPART_FORM_DATA_VALUE.length()));
+    }
+
     private static class UpdateLastAccessTimeListener implements ExchangeCompletionListener {
 
         private final SessionManager sessionManager;
@@ -23,6 +23,8 @@ import com.aspectran.core.context.config.AspectranConfig;
 import com.aspectran.core.context.config.ContextConfig;
 import com.aspectran.core.util.Assert;
 import com.aspectran.core.util.lifecycle.LifeCycle;
+import com.aspectran.core.util.logging.Logger;
+import com.aspectran.core.util.logging.LoggerFactory;
 import com.aspectran.undertow.server.TowServer;
 import com.aspectran.undertow.server.resource.StaticResourceHandler;
 import com.aspectran.undertow.service.DefaultTowService;
@@ -36,12 +38,15 @@ import io.undertow.server.session.SessionManager;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * <p>Created: 06/10/2019</p>
  */
 public class HttpHybridHandlerFactory implements ActivityContextAware, DisposableBean {
 
+    private static final Logger logger = LoggerFactory.getLogger(HttpHybridHandlerFactory.class);
+
     private ActivityContext context;
 
     private TowServer towServer;
@@ -60,6 +65,12 @@ public class HttpHybridHandlerFactory implements ActivityContextAware, Disposabl
 
     private TowService towService;
 
+    private boolean asyncRequestBody;
+
+    private boolean virtualThreads;
+
+    private ExecutorService dispatchExecutor;
+
     @Override
     @AvoidAdvice
     public void setActivityContext(ActivityContext context) {
@@ -98,6 +109,28 @@ public class HttpHybridHandlerFactory implements ActivityContextAware, Disposabl
         this.aspectranConfig = aspectranConfig;
     }
 
+    /**
+     * Sets whether to read request bodies on the IO thread before
+     * dispatching requests.
+     * @param asyncRequestBody true to read request bodies asynchronously
+     * @see HttpHybridHandler#setAsyncRequestBody(boolean)
+     * @since 7.0.5
+     */
+    public void setAsyncRequestBody(boolean asyncRequestBody) {
+        this.asyncRequestBody = asyncRequestBody;
+    }
+
+    /**
+     * Sets whether to run each request on its own virtual thread instead of
+     * the XNIO worker pool. If the JVM does not support virtual threads,
+     * the worker pool is used.
+     * @param virtualThreads true to run requests on virtual threads
+     * @since 7.0.5
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
     public HttpHandler createHandler() {
         TowService towService = createTowService();
 
@@ -113,6 +146,17 @@ public class HttpHybridHandlerFactory implements ActivityContextAware, Disposabl
         httpHybridHandler.setSessionManager(sessionManager);
         httpHybridHandler.setSessionConfig(sessionConfig);
         httpHybridHandler.setTowService(towService);
+        httpHybridHandler.setAsyncRequestBody(asyncRequestBody);
+        if (virtualThreads) {
+            Assert.state(dispatchExecutor == null, "Dispatch executor is already created");
+            dispatchExecutor = VirtualThreadExecutors.newVirtualThreadPerTaskExecutor();
+            if (dispatchExecutor != null) {
+                httpHybridHandler.setDispatchExecutor(dispatchExecutor);
+            } else {
+                logger.warn("Virtual threads are not supported by this JVM; " +
+                        "requests will be dispatched to the worker pool");
+            }
+        }
 
         if (outerHandlerChainWrappers != null) {
             return wrapHandlers(httpHybridHandler, outerHandlerChainWrappers);
@@ -161,6 +205,10 @@ public class HttpHybridHandlerFactory implements ActivityContextAware, Disposabl
     @Override
     public void destroy() throws Exception {
         destroyTowService();
+        if (dispatchExecutor != null) {
+            dispatchExecutor.shutdown();
+            dispatchExecutor = null;
+        }
         if (sessionManager != null) {
             sessionManager.stop();
         }
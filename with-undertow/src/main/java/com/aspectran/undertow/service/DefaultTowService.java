@@ -35,6 +35,7 @@ import com.aspectran.undertow.activity.TowActivity;
 import com.aspectran.web.support.http.HttpHeaders;
 import com.aspectran.web.support.http.HttpStatus;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.util.AttachmentKey;
 import io.undertow.util.Headers;
 
 import java.io.IOException;
@@ -47,6 +48,8 @@ public class DefaultTowService extends AbstractTowService {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultTowService.class);
 
+    private static final AttachmentKey<TowActivity> PREPARED_ACTIVITY_KEY = AttachmentKey.create(TowActivity.class);
+
     private volatile long pauseTimeout = -2L;
 
     public DefaultTowService() {
@@ -58,11 +61,36 @@ public class DefaultTowService extends AbstractTowService {
     }
 
     @Override
-    public boolean execute(HttpServerExchange exchange) throws IOException {
+    public TowActivity prepare(HttpServerExchange exchange) {
+        if (pauseTimeout != 0L) {
+            return null;
+        }
+        try {
+            String requestPath = getRequestPath(exchange);
+            if (!isExposable(requestPath)) {
+                return null;
+            }
+            TowActivity activity = new TowActivity(this, exchange);
+            activity.prepare(requestPath, exchange.getRequestMethod().toString());
+            exchange.putAttachment(PREPARED_ACTIVITY_KEY, activity);
+            return activity;
+        } catch (Exception e) {
+            // leave it to execute() to prepare the activity again and report the failure
+            return null;
+        }
+    }
+
+    private String getRequestPath(HttpServerExchange exchange) throws IOException {
         String requestPath = exchange.getRequestPath();
         if (getUriDecoding() != null) {
             requestPath = URLDecoder.decode(requestPath, getUriDecoding());
         }
+        return requestPath;
+    }
+
+    @Override
+    public boolean execute(HttpServerExchange exchange) throws IOException {
+        String requestPath = getRequestPath(exchange);
         if (!isExposable(requestPath)) {
             return false;
         }
@@ -89,8 +117,11 @@ public class DefaultTowService extends AbstractTowService {
         }
 
         try {
-            TowActivity activity = new TowActivity(this, exchange);
-            activity.prepare(requestPath, exchange.getRequestMethod().toString());
+            TowActivity activity = exchange.removeAttachment(PREPARED_ACTIVITY_KEY);
+            if (activity == null) {
+                activity = new TowActivity(this, exchange);
+                activity.prepare(requestPath, exchange.getRequestMethod().toString());
+            }
             activity.perform();
         } catch (TransletNotFoundException e) {
             // Provides for "trailing slash" redirects and  serving directory index files
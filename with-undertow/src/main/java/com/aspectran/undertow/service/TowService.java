@@ -16,6 +16,7 @@
 package com.aspectran.undertow.service;
 
 import com.aspectran.core.service.CoreService;
+import com.aspectran.undertow.activity.TowActivity;
 import io.undertow.server.HttpServerExchange;
 
 import java.io.IOException;
@@ -33,4 +34,16 @@ public interface TowService extends CoreService {
      */
     boolean execute(HttpServerExchange exchange) throws IOException;
 
+    /**
+     * Prepares the activity for a request before its body is read, so that
+     * the settings of the translet, such as the maximum request size, can be
+     * applied while reading it. The prepared activity is attached to the
+     * exchange and performed by {@link #execute(HttpServerExchange)}.
+     * @param exchange the HTTP request/response exchange
+     * @return the prepared activity, or {@code null} if the request is not
+     *      handled by a translet or the activity could not be prepared here
+     * @since 7.0.5
+     */
+    TowActivity prepare(HttpServerExchange exchange);
+
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.undertow.server.http;
+
+import com.aspectran.core.activity.Translet;
+
+/**
+ * Actions used by the HTTP handler tests.
+ */
+public class EchoAction {
+
+    public String echo(Translet translet) {
+        String body = translet.getRequestAdapter().getBody();
+        return (body != null ? body : "");
+    }
+
+    public String form(Translet translet) {
+        return translet.getParameter("name") + "=" + translet.getParameter("value");
+    }
+
+    public String slow(Translet translet) throws InterruptedException {
+        String millis = translet.getParameter("millis");
+        if (millis != null) {
+            Thread.sleep(Long.parseLong(millis));
+        }
+        return "done";
+    }
+
+}
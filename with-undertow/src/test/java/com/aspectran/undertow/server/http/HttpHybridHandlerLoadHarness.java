@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.undertow.server.http;
+
+import ch.qos.logback.classic.Level;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the ways {@link HttpHybridHandler} can run requests while slow
+ * clients are uploading request bodies: on the worker pool with blocking
+ * reads, with the body read on the IO thread, and with the body read on
+ * the IO thread and the activity run on a virtual thread.
+ *
+ * <p>Each run starts {@code slowUploads} clients that trickle their bodies
+ * in small pieces, and {@code fastClients} clients that post small bodies
+ * back to back. It reports how many uploads were in progress at the same
+ * time and the throughput and latency of the fast requests.</p>
+ *
+ * <pre>
+ * java ... HttpHybridHandlerLoadHarness [workerThreads] [slowUploads] [fastClients] [seconds]
+ * </pre>
+ */
+public class HttpHybridHandlerLoadHarness {
+
+    private static final int SLOW_BODY_CHUNKS = 10;
+
+    private static final int SLOW_BODY_CHUNK_SIZE = 100;
+
+    private static final long SLOW_BODY_CHUNK_INTERVAL = 200L;
+
+    public static void main(String[] args) throws Exception {
+        int workerThreads = (args.length > 0 ? Integer.parseInt(args[0]) : 16);
+        int slowUploads = (args.length > 1 ? Integer.parseInt(args[1]) : 200);
+        int fastClients = (args.length > 2 ? Integer.parseInt(args[2]) : 8);
+        int seconds = (args.length > 3 ? Integer.parseInt(args[3]) : 5);
+
+        ((ch.qos.logback.classic.Logger)LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(Level.WARN);
+
+        System.out.printf("workerThreads=%d, slowUploads=%d, fastClients=%d, seconds=%d%n",
+                workerThreads, slowUploads, fastClients, seconds);
+        run("worker pool", false, null, workerThreads, slowUploads, fastClients, seconds);
+        run("async body", true, null, workerThreads, slowUploads, fastClients, seconds);
+        ExecutorService virtualThreads = VirtualThreadExecutors.newVirtualThreadPerTaskExecutor();
+        if (virtualThreads != null) {
+            try {
+                run("async body + virtual threads", true, virtualThreads,
+                        workerThreads, slowUploads, fastClients, seconds);
+            } finally {
+                virtualThreads.shutdown();
+            }
+        } else {
+            System.out.println("async body + virtual threads: not supported by this JVM");
+        }
+    }
+
+    private static void run(String mode, boolean asyncRequestBody, ExecutorService dispatchExecutor,
+                            int workerThreads, int slowUploads, int fastClients, int seconds)
+            throws Exception {
+        try (TestHttpServer server = new TestHttpServer(asyncRequestBody, dispatchExecutor,
+                workerThreads, Long.MAX_VALUE)) {
+            int port = server.getPort();
+            // warm up
+            for (int i = 0; i < 200; i++) {
+                post(port, "/echo", "warm-up".getBytes(StandardCharsets.UTF_8), 0, 0L);
+            }
+
+            ExecutorService clients = Executors.newCachedThreadPool();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            AtomicInteger uploading = new AtomicInteger();
+            AtomicInteger maxUploading = new AtomicInteger();
+            AtomicInteger completedUploads = new AtomicInteger();
+            AtomicInteger failures = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(slowUploads + fastClients);
+
+            byte[] slowBody = new byte[SLOW_BODY_CHUNKS * SLOW_BODY_CHUNK_SIZE];
+            for (int i = 0; i < slowUploads; i++) {
+                clients.execute(() -> {
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            int current = uploading.incrementAndGet();
+                            maxUploading.accumulateAndGet(current, Math::max);
+                            try {
+                                post(port, "/echo", slowBody, SLOW_BODY_CHUNKS, SLOW_BODY_CHUNK_INTERVAL);
+                                completedUploads.incrementAndGet();
+                            } finally {
+                                uploading.decrementAndGet();
+                            }
+                        }
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            List<List<Long>> latencies = new ArrayList<>();
+            byte[] fastBody = "name=fast&value=1".getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < fastClients; i++) {
+                List<Long> samples = new ArrayList<>();
+                latencies.add(samples);
+                clients.execute(() -> {
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            long start = System.nanoTime();
+                            post(port, "/echo", fastBody, 0, 0L);
+                            samples.add(System.nanoTime() - start);
+                        }
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            done.await();
+            clients.shutdown();
+
+            List<Long> all = new ArrayList<>();
+            for (List<Long> samples : latencies) {
+                all.addAll(samples);
+            }
+            Collections.sort(all);
+            System.out.printf("%-30s uploads: max concurrent %4d, completed %5d | " +
+                            "fast: %7.1f req/s, p50 %7.2f ms, p99 %7.2f ms | failures %d%n",
+                    mode + ":", maxUploading.get(), completedUploads.get(),
+                    all.size() / (double)seconds, percentile(all, 0.50), percentile(all, 0.99),
+                    failures.get());
+        }
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return Double.NaN;
+        }
+        int index = (int)Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1_000_000.0;
+    }
+
+    /**
+     * Sends a POST request over a new connection and reads the response,
+     * writing the body in the given number of pieces if it is greater than 1.
+     */
+    private static void post(int port, String path, byte[] body, int chunks, long interval)
+            throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            socket.setSoTimeout(60000);
+            OutputStream out = socket.getOutputStream();
+            String head = "POST " + path + " HTTP/1.1\r\n" +
+                    "Host: 127.0.0.1:" + port + "\r\n" +
+                    "Content-Type: text/plain\r\n" +
+                    "Content-Length: " + body.length + "\r\n" +
+                    "Connection: close\r\n\r\n";
+            out.write(head.getBytes(StandardCharsets.ISO_8859_1));
+            if (chunks > 1) {
+                int size = body.length / chunks;
+                for (int i = 0; i < chunks; i++) {
+                    out.write(body, i * size, (i == chunks - 1 ? body.length - i * size : size));
+                    out.flush();
+                    try {
+                        Thread.sleep(interval);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                }
+            } else {
+                out.write(body);
+                out.flush();
+            }
+            InputStream in = socket.getInputStream();
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            byte[] buf = new byte[1024];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                response.write(buf, 0, n);
+            }
+            String status = new String(response.toByteArray(), 0, Math.min(12, response.size()),
+                    StandardCharsets.ISO_8859_1);
+            if (!status.endsWith("200")) {
+                throw new IOException("Unexpected response: " + status);
+            }
+        }
+    }
+
+}
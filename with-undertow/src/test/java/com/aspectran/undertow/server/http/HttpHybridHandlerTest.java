@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.undertow.server.http;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test cases for reading request bodies on the IO thread
+ * and dispatching requests to a custom executor.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HttpHybridHandlerTest {
+
+    private static final int MAX_ENTITY_SIZE = 64 * 1024;
+
+    /** The maxRequestSize setting of the /small translet */
+    private static final int SMALL_REQUEST_SIZE = 1024;
+
+    private ExecutorService executor;
+
+    private TestHttpServer server;
+
+    private CloseableHttpClient client;
+
+    @BeforeAll
+    void ready() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        server = new TestHttpServer(true, executor, 4, MAX_ENTITY_SIZE);
+        client = HttpClientBuilder.create().build();
+    }
+
+    @AfterAll
+    void finish() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testEchoBody() throws Exception {
+        HttpPost request = new HttpPost(server.getBaseUrl() + "/echo");
+        request.setEntity(new StringEntity("{\"name\": \"été\"}", ContentType.APPLICATION_JSON));
+        try (CloseableHttpResponse response = client.execute(request)) {
+            assertEquals(200, response.getStatusLine().getStatusCode());
+            assertEquals("{\"name\": \"été\"}", EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testEchoChunkedBody() throws Exception {
+        char[] chars = new char[20000];
+        Arrays.fill(chars, 'x');
+        String body = new String(chars);
+        HttpPost request = new HttpPost(server.getBaseUrl() + "/echo");
+        InputStreamEntity entity = new InputStreamEntity(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), -1, ContentType.TEXT_PLAIN);
+        entity.setChunked(true);
+        request.setEntity(entity);
+        try (CloseableHttpResponse response = client.execute(request)) {
+            assertEquals(200, response.getStatusLine().getStatusCode());
+            assertEquals(body, EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testURLEncodedForm() throws Exception {
+        List<NameValuePair> params = Arrays.asList(
+                new BasicNameValuePair("name", "greeting"),
+                new BasicNameValuePair("value", "hello world & more"));
+        HttpPost request = new HttpPost(server.getBaseUrl() + "/form");
+        request.setEntity(new UrlEncodedFormEntity(params, StandardCharsets.UTF_8));
+        try (CloseableHttpResponse response = client.execute(request)) {
+            assertEquals(200, response.getStatusLine().getStatusCode());
+            assertEquals("greeting=hello world & more", EntityUtils.toString(response.getEntity()));
+        }
+    }
+
+    @Test
+    void testBodyTooLarge() throws Exception {
+        HttpPost request = new HttpPost(server.getBaseUrl() + "/echo");
+        request.setEntity(new ByteArrayEntity(new byte[MAX_ENTITY_SIZE + 1], ContentType.APPLICATION_OCTET_STREAM));
+        try (CloseableHttpResponse response = client.execute(request)) {
+            assertEquals(413, response.getStatusLine().getStatusCode());
+            EntityUtils.consume(response.getEntity());
+        }
+    }
+
+    @Test
+    void testBodyWithinTransletLimit() throws Exception {
+        char[] chars = new char[SMALL_REQUEST_SIZE];
+        Arrays.fill(chars, 'x');
+        String body = new String(chars);
+        HttpPost request = new HttpPost(server.getBaseUrl() + "/small");
+        request.setEntity(new StringEntity(body, ContentType.TEXT_PLAIN));
+        try (CloseableHttpResponse response = client.execute(request)) {
+            assertEquals(200, response.getStatusLine().getStatusCode());
+            assertEquals(body, EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testBodyOverTransletLimit() throws Exception {
+        HttpPost request = new HttpPost(server.getBaseUrl() + "/small");
+        request.setEntity(new ByteArrayEntity(new byte[SMALL_REQUEST_SIZE + 1], ContentType.APPLICATION_OCTET_STREAM));
+        try (CloseableHttpResponse response = client.execute(request)) {
+            assertEquals(413, response.getStatusLine().getStatusCode());
+            EntityUtils.consume(response.getEntity());
+        }
+    }
+
+    @Test
+    void testChunkedBodyOverTransletLimit() throws Exception {
+        // the whole request is written at once, so that the server reads it
+        // before it aborts; Undertow terminates the connection when a chunked
+        // body crosses the limit, so the request is either refused or dropped
+        StringBuilder sb = new StringBuilder();
+        sb.append("POST /small HTTP/1.1\r\n");
+        sb.append("Host: 127.0.0.1\r\n");
+        sb.append("Content-Type: application/octet-stream\r\n");
+        sb.append("Transfer-Encoding: chunked\r\n\r\n");
+        char[] chunk = new char[SMALL_REQUEST_SIZE / 2];
+        Arrays.fill(chunk, 'x');
+        for (int i = 0; i < 4; i++) {
+            sb.append(Integer.toHexString(chunk.length)).append("\r\n");
+            sb.append(chunk).append("\r\n");
+        }
+        sb.append("0\r\n\r\n");
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            socket.setSoTimeout(5000);
+            OutputStream out = socket.getOutputStream();
+            out.write(sb.toString().getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String statusLine = reader.readLine();
+            if (statusLine != null) {
+                assertEquals("HTTP/1.1 413 Request Entity Too Large", statusLine);
+            }
+        }
+    }
+
+}
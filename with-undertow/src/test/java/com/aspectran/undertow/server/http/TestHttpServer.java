@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2021 The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.undertow.server.http;
+
+import com.aspectran.core.context.config.AspectranConfig;
+import com.aspectran.undertow.service.DefaultTowService;
+import io.undertow.Undertow;
+import io.undertow.UndertowOptions;
+import io.undertow.server.handlers.resource.ResourceManager;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+
+/**
+ * An Undertow server on an ephemeral port that serves the translets
+ * in {@code config/undertow-test-config.xml} through {@link HttpHybridHandler}.
+ */
+class TestHttpServer implements AutoCloseable {
+
+    private final DefaultTowService towService;
+
+    private final Undertow server;
+
+    TestHttpServer(boolean asyncRequestBody, Executor dispatchExecutor, int workerThreads, long maxEntitySize)
+            throws Exception {
+        AspectranConfig aspectranConfig = new AspectranConfig();
+        aspectranConfig.touchContextConfig()
+                .setRootFile("classpath:config/undertow-test-config.xml");
+        towService = DefaultTowService.create(aspectranConfig);
+        towService.getServiceController().start();
+
+        HttpHybridHandler handler = new HttpHybridHandler(ResourceManager.EMPTY_RESOURCE_MANAGER);
+        handler.setTowService(towService);
+        handler.setAsyncRequestBody(asyncRequestBody);
+        handler.setDispatchExecutor(dispatchExecutor);
+
+        server = Undertow.builder()
+                .addHttpListener(0, "127.0.0.1")
+                .setIoThreads(2)
+                .setWorkerThreads(workerThreads)
+                .setServerOption(UndertowOptions.MAX_ENTITY_SIZE, maxEntitySize)
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + getPort();
+    }
+
+    int getPort() {
+        return ((InetSocketAddress)server.getListenerInfo().get(0).getAddress()).getPort();
+    }
+
+    @Override
+    public void close() throws Exception {
+        server.stop();
+        towService.getServiceController().stop();
+    }
+
+}